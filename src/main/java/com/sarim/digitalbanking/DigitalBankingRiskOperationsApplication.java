@@ -2,8 +2,10 @@ package com.sarim.digitalbanking;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class DigitalBankingRiskOperationsApplication {
     public static void main(String[] args) {
         SpringApplication.run(DigitalBankingRiskOperationsApplication.class, args);
@@ -14,15 +14,17 @@ public class AccountEntity {
     private Long id;
 
     // accounts.user_id -> users.id
+    // owner and type are fixed, and keeping these unique-key columns out of the UPDATE's SET list
+    // lets Postgres take a no-key row lock that does not conflict with FK checks from ledger inserts
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
-    @JoinColumn(name = "user_id", nullable = false)
+    @JoinColumn(name = "user_id", nullable = false, updatable = false)
     private UserEntity user;
 
     @Column(name = "currency", nullable = false, length = 3)
     private String currency = "CAD";
 
     @Enumerated(EnumType.STRING)
-    @Column(name = "account_type", nullable = false)
+    @Column(name = "account_type", nullable = false, updatable = false)
     private AccountType accountType = AccountType.CHEQUING;
 
     @Column(name = "balance_cents", nullable = false)
@@ -31,6 +33,14 @@ public class AccountEntity {
     @Column(name = "status", nullable = false)
     private String status = "ACTIVE";
 
+    // settled with row locks even in optimistic mode (see V7)
+    @Column(name = "hot", nullable = false)
+    private boolean hot = false;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     // Let Postgres defaults fill these
     @Column(name = "created_at", nullable = false, updatable = false, insertable = false)
     private Instant createdAt;
@@ -57,6 +67,11 @@ public class AccountEntity {
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
 
+    public boolean isHot() { return hot; }
+    public void setHot(boolean hot) { this.hot = hot; }
+
+    public long getVersion() { return version; }
+
     public Instant getCreatedAt() { return createdAt; }
     public Instant getUpdatedAt() { return updatedAt; }
 }
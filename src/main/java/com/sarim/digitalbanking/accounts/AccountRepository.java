@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +19,75 @@ public interface AccountRepository extends JpaRepository<AccountEntity, Long> {
     @Query("select a from AccountEntity a where a.id in :ids")
     List<AccountEntity> findByIdInForUpdate(@Param("ids") List<Long> ids);
 
+    // own-account transfers: ownership check and both row locks in one statement, taken in id order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        select a
+        from AccountEntity a
+        where a.id in :ids
+          and a.user.id = :userId
+        order by a.id
+    """)
+    List<AccountEntity> findOwnedByIdInForUpdate(@Param("ids") List<Long> ids, @Param("userId") Long userId);
+
+    @Query("""
+        select new com.sarim.digitalbanking.accounts.AccountSnapshot(
+            a.id, a.user.id, a.accountType, a.currency, a.balanceCents, a.status, a.hot
+        )
+        from AccountEntity a
+        where a.id in :ids
+    """)
+    List<AccountSnapshot> findSnapshotsByIdIn(@Param("ids") List<Long> ids);
+
+    @Query("""
+        select new com.sarim.digitalbanking.accounts.AccountSnapshot(
+            a.id, a.user.id, a.accountType, a.currency, a.balanceCents, a.status, a.hot
+        )
+        from AccountEntity a
+        where a.user.id in :userIds
+          and a.accountType = :accountType
+          and upper(a.status) = 'ACTIVE'
+    """)
+    List<AccountSnapshot> findActiveSnapshotsByUserIdIn(
+            @Param("userIds") Collection<Long> userIds,
+            @Param("accountType") AccountType accountType
+    );
+
+    @Query("""
+        select a.id
+        from AccountEntity a
+        where a.user.id = :userId
+          and a.accountType = :accountType
+          and upper(a.currency) = upper(:currency)
+          and upper(a.status) = 'ACTIVE'
+    """)
+    Optional<Long> findActiveAccountId(
+            @Param("userId") Long userId,
+            @Param("accountType") AccountType accountType,
+            @Param("currency") String currency
+    );
+
+    // destination account of a payee, resolved in one query; used to route transfers before settling
+    @Query("""
+        select a.id
+        from PayeeEntity p, AccountEntity a
+        where p.id = :payeeId
+          and p.ownerUser.id = :ownerUserId
+          and a.user = p.payeeUser
+          and a.accountType = :accountType
+          and upper(a.currency) = upper(:currency)
+          and upper(a.status) = 'ACTIVE'
+    """)
+    Optional<Long> findPayeeAccountId(
+            @Param("payeeId") Long payeeId,
+            @Param("ownerUserId") Long ownerUserId,
+            @Param("accountType") AccountType accountType,
+            @Param("currency") String currency
+    );
+
+    @Query("select a.balanceCents from AccountEntity a where a.id = :id")
+    Optional<Long> findBalanceCents(@Param("id") Long id);
+
     // Rule A helper (for later transfer-by-payee-email): payee's ACTIVE CHEQUING account in a currency
     Optional<AccountEntity> findByUserIdAndAccountTypeAndCurrencyIgnoreCaseAndStatusIgnoreCase(
             Long userId,
@@ -0,0 +1,34 @@
+package com.sarim.digitalbanking.accounts;
+
+/**
+ * Read-only view of an account row.
+ *
+ * Loaded with a constructor query so it never becomes a managed entity: a later
+ * findByIdInForUpdate() then returns freshly read rows instead of the stale instances
+ * already sitting in the persistence context.
+ */
+public record AccountSnapshot(
+        Long id,
+        Long userId,
+        AccountType accountType,
+        String currency,
+        long balanceCents,
+        String status,
+        boolean hot
+) {
+    public static AccountSnapshot of(AccountEntity a) {
+        return new AccountSnapshot(
+                a.getId(),
+                a.getUser().getId(),
+                a.getAccountType(),
+                a.getCurrency(),
+                a.getBalanceCents(),
+                a.getStatus(),
+                a.isHot()
+        );
+    }
+
+    public AccountSnapshot withBalanceCents(long newBalanceCents) {
+        return new AccountSnapshot(id, userId, accountType, currency, newBalanceCents, status, hot);
+    }
+}
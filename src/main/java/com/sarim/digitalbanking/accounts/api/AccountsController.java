@@ -2,8 +2,11 @@ package com.sarim.digitalbanking.accounts.api;
 
 import com.sarim.digitalbanking.accounts.AccountEntity;
 import com.sarim.digitalbanking.accounts.AccountRepository;
+import com.sarim.digitalbanking.auth.UserRepository;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -14,9 +17,11 @@ import java.util.List;
 public class AccountsController {
 
     private final AccountRepository accountRepository;
+    private final UserRepository userRepository;
 
-    public AccountsController(AccountRepository accountRepository) {
+    public AccountsController(AccountRepository accountRepository, UserRepository userRepository) {
         this.accountRepository = accountRepository;
+        this.userRepository = userRepository;
     }
 
     @GetMapping
@@ -38,6 +43,29 @@ public class AccountsController {
         return toResponse(acc);
     }
 
+    // one account per type (uq_accounts_user_id_account_type), e.g. a SAVINGS account next to CHEQUING
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    @Transactional
+    public AccountResponse openAccount(@Valid @RequestBody OpenAccountRequest body, HttpServletRequest request) {
+        Long uid = requireUid(request);
+
+        boolean exists = accountRepository.findByUserIdOrderByIdAsc(uid).stream()
+                .anyMatch(a -> a.getAccountType() == body.accountType());
+        if (exists) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "account of this type already exists");
+        }
+
+        AccountEntity account = new AccountEntity();
+        account.setUser(userRepository.getReferenceById(uid));
+        account.setCurrency("CAD");
+        account.setAccountType(body.accountType());
+        account.setBalanceCents(0L);
+        account.setStatus("ACTIVE");
+
+        return toResponse(accountRepository.save(account));
+    }
+
     private AccountResponse toResponse(AccountEntity a) {
         return new AccountResponse(
                 a.getId(),
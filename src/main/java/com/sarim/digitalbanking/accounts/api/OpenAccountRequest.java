@@ -0,0 +1,8 @@
+package com.sarim.digitalbanking.accounts.api;
+
+import com.sarim.digitalbanking.accounts.AccountType;
+import jakarta.validation.constraints.NotNull;
+
+public record OpenAccountRequest(
+        @NotNull AccountType accountType
+) {}
@@ -1,7 +0,0 @@
-package com.sarim.digitalbanking.admin;
-
-public class admin {
-    // delete this filee
-    // in future add automated transfer approval and rejection
-}
-
@@ -0,0 +1,9 @@
+package com.sarim.digitalbanking.admin.api;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record AddWatchlistEntryRequest(
+        @NotBlank String kind,
+        @NotBlank String value,
+        String reason
+) {}
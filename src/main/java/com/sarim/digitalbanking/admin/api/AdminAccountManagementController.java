@@ -189,6 +189,45 @@ public class AdminAccountManagementController {
         );
     }
 
+    // hot accounts are always settled with row locks, even when app.transfers.settlement-strategy=optimistic
+    @PostMapping("/accounts/{accountId}/hot")
+    @Transactional
+    public AccountDetailsResponse setAccountHot(
+            @PathVariable Long accountId,
+            @RequestParam boolean hot,
+            HttpServletRequest request
+    ) {
+        Long actorUid = requireUid(request);
+
+        AccountEntity account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "account not found"));
+
+        boolean previous = account.isHot();
+        account.setHot(hot);
+        accountRepository.save(account);
+
+        // Audit log
+        UserEntity actor = userRepository.findById(actorUid).orElse(null);
+        UserEntity affectedUser = account.getUser();
+
+        AuditLogEntity audit = new AuditLogEntity();
+        audit.setActorUser(actor);
+        audit.setAffectedUser(affectedUser);
+        audit.setAction("ACCOUNT_HOT_FLAG");
+        audit.setEntityType("account");
+        audit.setEntityId(String.valueOf(accountId));
+        audit.setDetails(String.format("accountId=%d,previousHot=%s,newHot=%s", accountId, previous, hot));
+        auditLogRepository.save(audit);
+
+        return new AccountDetailsResponse(
+                account.getId(),
+                account.getAccountType().name(),
+                account.getCurrency(),
+                account.getStatus(),
+                account.getBalanceCents()
+        );
+    }
+
     private Long requireUid(HttpServletRequest request) {
         Object uid = request.getAttribute("uid");
         if (uid instanceof Number n) return n.longValue();
@@ -0,0 +1,104 @@
+package com.sarim.digitalbanking.admin.api;
+
+import com.sarim.digitalbanking.audit.AuditLogEntity;
+import com.sarim.digitalbanking.audit.AuditLogRepository;
+import com.sarim.digitalbanking.auth.UserRepository;
+import com.sarim.digitalbanking.risk.RiskRuleAction;
+import com.sarim.digitalbanking.risk.RiskRuleEngine;
+import com.sarim.digitalbanking.risk.RiskRuleEntity;
+import com.sarim.digitalbanking.risk.RiskRuleSet;
+import com.sarim.digitalbanking.transfers.TransferRiskBacktestService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// runs synchronously, one at a time, and is cut off after app.risk.backtest.timeout-ms
+@RestController
+@RequestMapping("/api/admin/risk-backtests")
+public class AdminRiskBacktestController {
+
+    private static final int DEFAULT_ASSUMED_REVIEW_MINUTES = 60;
+
+    private final TransferRiskBacktestService transferRiskBacktestService;
+    private final UserRepository userRepository;
+    private final AuditLogRepository auditLogRepository;
+
+    public AdminRiskBacktestController(
+            TransferRiskBacktestService transferRiskBacktestService,
+            UserRepository userRepository,
+            AuditLogRepository auditLogRepository
+    ) {
+        this.transferRiskBacktestService = transferRiskBacktestService;
+        this.userRepository = userRepository;
+        this.auditLogRepository = auditLogRepository;
+    }
+
+    @PostMapping
+    public TransferRiskBacktestService.Report run(
+            @Valid @RequestBody RiskBacktestRequest body,
+            HttpServletRequest request
+    ) {
+        Long actorUid = requireUid(request);
+
+        Instant to = body.to() == null ? Instant.now() : body.to();
+        int assumedReviewMinutes = body.assumedReviewMinutes() == null
+                ? DEFAULT_ASSUMED_REVIEW_MINUTES
+                : body.assumedReviewMinutes();
+
+        TransferRiskBacktestService.Report report;
+        try {
+            RiskRuleSet candidate = body.rules() == null ? null : RiskRuleEngine.compileCandidate(toEntities(body.rules()));
+            report = transferRiskBacktestService.run(candidate, body.from(), to, Duration.ofMinutes(assumedReviewMinutes));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        } catch (QueryTimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "backtest timed out; try a shorter range");
+        }
+
+        // Audit log
+        AuditLogEntity audit = new AuditLogEntity();
+        audit.setActorUser(userRepository.findById(actorUid).orElse(null));
+        audit.setAction("RISK_BACKTEST");
+        audit.setEntityType("risk_rule");
+        audit.setEntityId(body.rules() == null ? "active" : "candidate");
+        audit.setDetails(String.format("from=%s,to=%s,rules=%d,transfers=%d,held=%d,historically_held=%d",
+                body.from(), to, report.rules().size(), report.transfers(), report.held(), report.historicallyHeld()));
+        auditLogRepository.save(audit);
+
+        return report;
+    }
+
+    private static List<RiskRuleEntity> toEntities(List<RiskBacktestRequest.CandidateRule> rules) {
+        List<RiskRuleEntity> entities = new ArrayList<>(rules.size());
+        for (RiskBacktestRequest.CandidateRule candidate : rules) {
+            RiskRuleEntity rule = new RiskRuleEntity();
+            rule.setName(candidate.name());
+            rule.setPriority(candidate.priority());
+            rule.setEnabled(candidate.enabled() == null || candidate.enabled());
+            rule.setExpression(candidate.expression());
+            rule.setAction(RiskRuleAction.valueOf(candidate.action().trim().toUpperCase()));
+            rule.setStopOnMatch(Boolean.TRUE.equals(candidate.stopOnMatch()));
+            rule.setScore(candidate.score());
+            rule.setReason(candidate.reason());
+            entities.add(rule);
+        }
+        return entities;
+    }
+
+    private Long requireUid(HttpServletRequest request) {
+        Object uid = request.getAttribute("uid");
+        if (uid instanceof Number n) return n.longValue();
+        throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing user id");
+    }
+}
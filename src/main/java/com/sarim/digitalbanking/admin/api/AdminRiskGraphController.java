@@ -0,0 +1,70 @@
+package com.sarim.digitalbanking.admin.api;
+
+import com.sarim.digitalbanking.risk.PayeeGraphIndex;
+import com.sarim.digitalbanking.risk.RiskFeatures;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+// answers from the in-memory graph (PayeeGraphIndex); it trails the database by app.risk.graph.refresh-interval-ms
+@RestController
+@RequestMapping("/api/admin/risk-graph")
+public class AdminRiskGraphController {
+
+    private final PayeeGraphIndex payeeGraphIndex;
+
+    public AdminRiskGraphController(PayeeGraphIndex payeeGraphIndex) {
+        this.payeeGraphIndex = payeeGraphIndex;
+    }
+
+    @GetMapping
+    public PayeeGraphIndex.Stats stats(HttpServletRequest request) {
+        requireUid(request);
+        return payeeGraphIndex.stats();
+    }
+
+    @GetMapping("/users/{userId}")
+    public RiskGraphResponse user(
+            @PathVariable Long userId,
+            @RequestParam(required = false) Integer windowMinutes,
+            HttpServletRequest request
+    ) {
+        requireUid(request);
+        if (!payeeGraphIndex.ready()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "risk graph is still loading");
+        }
+        if (windowMinutes != null && windowMinutes < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "windowMinutes must be >= 1");
+        }
+
+        Duration window = windowMinutes == null ? payeeGraphIndex.fanWindow() : Duration.ofMinutes(windowMinutes);
+        long since = Instant.now().minus(window).toEpochMilli();
+        long[] pathToBad = payeeGraphIndex.pathToKnownBad(userId);
+
+        return new RiskGraphResponse(
+                userId,
+                (int) window.toMinutes(),
+                payeeGraphIndex.fanIn(userId, since),
+                payeeGraphIndex.fanOut(userId, since),
+                pathToBad == null ? RiskFeatures.NO_PATH : pathToBad.length - 1,
+                toList(pathToBad),
+                toList(payeeGraphIndex.cycleThrough(userId))
+        );
+    }
+
+    private static List<Long> toList(long[] path) {
+        return path == null ? List.of() : Arrays.stream(path).boxed().toList();
+    }
+
+    private Long requireUid(HttpServletRequest request) {
+        Object uid = request.getAttribute("uid");
+        if (uid instanceof Number n) return n.longValue();
+        throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing user id");
+    }
+}
@@ -0,0 +1,107 @@
+package com.sarim.digitalbanking.admin.api;
+
+import com.sarim.digitalbanking.audit.AuditLogEntity;
+import com.sarim.digitalbanking.audit.AuditLogRepository;
+import com.sarim.digitalbanking.auth.UserRepository;
+import com.sarim.digitalbanking.risk.RiskRuleAction;
+import com.sarim.digitalbanking.risk.RiskRuleEngine;
+import com.sarim.digitalbanking.risk.RiskRuleEntity;
+import com.sarim.digitalbanking.risk.RiskRuleRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+// rule changes take effect on every instance within app.risk.rules.reload-interval-ms
+@RestController
+@RequestMapping("/api/admin/risk-rules")
+public class AdminRiskRuleController {
+
+    private final RiskRuleRepository riskRuleRepository;
+    private final UserRepository userRepository;
+    private final AuditLogRepository auditLogRepository;
+
+    public AdminRiskRuleController(
+            RiskRuleRepository riskRuleRepository,
+            UserRepository userRepository,
+            AuditLogRepository auditLogRepository
+    ) {
+        this.riskRuleRepository = riskRuleRepository;
+        this.userRepository = userRepository;
+        this.auditLogRepository = auditLogRepository;
+    }
+
+    @GetMapping
+    public List<RiskRuleResponse> list(HttpServletRequest request) {
+        requireUid(request);
+        return riskRuleRepository.findAllByOrderByPriorityAscIdAsc().stream()
+                .map(AdminRiskRuleController::toResponse)
+                .toList();
+    }
+
+    @PutMapping("/{name}")
+    @Transactional
+    public RiskRuleResponse upsert(
+            @PathVariable String name,
+            @Valid @RequestBody UpsertRiskRuleRequest body,
+            HttpServletRequest request
+    ) {
+        Long actorUid = requireUid(request);
+
+        RiskRuleEntity rule = riskRuleRepository.findByName(name).orElseGet(RiskRuleEntity::new);
+        boolean created = rule.getId() == null;
+
+        rule.setName(name);
+        rule.setPriority(body.priority());
+        rule.setEnabled(body.enabled() == null || body.enabled());
+        rule.setExpression(body.expression());
+        rule.setStopOnMatch(Boolean.TRUE.equals(body.stopOnMatch()));
+        rule.setScore(body.score());
+        rule.setReason(body.reason());
+        try {
+            rule.setAction(RiskRuleAction.valueOf(body.action().trim().toUpperCase()));
+            RiskRuleEngine.validate(rule);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        riskRuleRepository.saveAndFlush(rule);
+
+        // Audit log
+        AuditLogEntity audit = new AuditLogEntity();
+        audit.setActorUser(userRepository.findById(actorUid).orElse(null));
+        audit.setAction("RISK_RULE_UPDATE");
+        audit.setEntityType("risk_rule");
+        audit.setEntityId(name);
+        audit.setDetails(String.format("name=%s,created=%s,priority=%d,enabled=%s,action=%s,expression=%s",
+                name, created, rule.getPriority(), rule.isEnabled(), rule.getAction(), rule.getExpression()));
+        auditLogRepository.save(audit);
+
+        return toResponse(rule);
+    }
+
+    private static RiskRuleResponse toResponse(RiskRuleEntity rule) {
+        return new RiskRuleResponse(
+                rule.getName(),
+                rule.getPriority(),
+                rule.isEnabled(),
+                rule.getExpression(),
+                rule.getAction().name(),
+                rule.isStopOnMatch(),
+                rule.getScore(),
+                rule.getReason(),
+                rule.getRevision(),
+                rule.getUpdatedAt()
+        );
+    }
+
+    private Long requireUid(HttpServletRequest request) {
+        Object uid = request.getAttribute("uid");
+        if (uid instanceof Number n) return n.longValue();
+        throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing user id");
+    }
+}
@@ -0,0 +1,30 @@
+package com.sarim.digitalbanking.admin.api;
+
+import com.sarim.digitalbanking.treasury.TreasuryService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/admin/treasury")
+public class AdminTreasuryController {
+
+    private final TreasuryService treasuryService;
+
+    public AdminTreasuryController(TreasuryService treasuryService) {
+        this.treasuryService = treasuryService;
+    }
+
+    @GetMapping
+    public TreasuryBalanceResponse balance(HttpServletRequest request) {
+        requireUid(request);
+        return treasuryService.consolidatedBalance();
+    }
+
+    private Long requireUid(HttpServletRequest request) {
+        Object uid = request.getAttribute("uid");
+        if (uid instanceof Number n) return n.longValue();
+        throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing user id");
+    }
+}
@@ -0,0 +1,106 @@
+package com.sarim.digitalbanking.admin.api;
+
+import com.sarim.digitalbanking.audit.AuditLogEntity;
+import com.sarim.digitalbanking.audit.AuditLogRepository;
+import com.sarim.digitalbanking.auth.UserRepository;
+import com.sarim.digitalbanking.risk.WatchlistEntryEntity;
+import com.sarim.digitalbanking.risk.WatchlistEntryRepository;
+import com.sarim.digitalbanking.risk.WatchlistKind;
+import com.sarim.digitalbanking.risk.WatchlistScreening;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+// changes reach screening on every instance within app.risk.watchlist.reload-interval-ms
+@RestController
+@RequestMapping("/api/admin/watchlist")
+public class AdminWatchlistController {
+
+    private final WatchlistEntryRepository watchlistEntryRepository;
+    private final WatchlistScreening watchlistScreening;
+    private final UserRepository userRepository;
+    private final AuditLogRepository auditLogRepository;
+
+    public AdminWatchlistController(
+            WatchlistEntryRepository watchlistEntryRepository,
+            WatchlistScreening watchlistScreening,
+            UserRepository userRepository,
+            AuditLogRepository auditLogRepository
+    ) {
+        this.watchlistEntryRepository = watchlistEntryRepository;
+        this.watchlistScreening = watchlistScreening;
+        this.userRepository = userRepository;
+        this.auditLogRepository = auditLogRepository;
+    }
+
+    @GetMapping
+    public WatchlistScreening.Stats stats(HttpServletRequest request) {
+        requireUid(request);
+        return watchlistScreening.stats();
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    @Transactional
+    public WatchlistEntryResponse add(@Valid @RequestBody AddWatchlistEntryRequest body, HttpServletRequest request) {
+        Long actorUid = requireUid(request);
+
+        WatchlistEntryEntity entry = new WatchlistEntryEntity();
+        try {
+            WatchlistKind kind = WatchlistKind.valueOf(body.kind().trim().toUpperCase());
+            entry.setKind(kind);
+            entry.setValue(WatchlistScreening.normalize(kind, body.value()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        entry.setReason(body.reason());
+
+        // a duplicate (kind, value) is a 409 via the unique constraint
+        watchlistEntryRepository.saveAndFlush(entry);
+
+        audit(actorUid, "WATCHLIST_ADD", entry);
+        return toResponse(entry);
+    }
+
+    @DeleteMapping("/{id}")
+    @Transactional
+    public WatchlistEntryResponse remove(@PathVariable Long id, HttpServletRequest request) {
+        Long actorUid = requireUid(request);
+
+        WatchlistEntryEntity entry = watchlistEntryRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "watchlist entry not found"));
+        watchlistEntryRepository.delete(entry);
+
+        audit(actorUid, "WATCHLIST_REMOVE", entry);
+        return toResponse(entry);
+    }
+
+    private void audit(Long actorUid, String action, WatchlistEntryEntity entry) {
+        AuditLogEntity audit = new AuditLogEntity();
+        audit.setActorUser(userRepository.findById(actorUid).orElse(null));
+        audit.setAction(action);
+        audit.setEntityType("watchlist_entry");
+        audit.setEntityId(String.valueOf(entry.getId()));
+        audit.setDetails(String.format("kind=%s,value=%s,reason=%s", entry.getKind(), entry.getValue(), entry.getReason()));
+        auditLogRepository.save(audit);
+    }
+
+    private static WatchlistEntryResponse toResponse(WatchlistEntryEntity entry) {
+        return new WatchlistEntryResponse(
+                entry.getId(),
+                entry.getKind().name(),
+                entry.getValue(),
+                entry.getReason(),
+                entry.getCreatedAt()
+        );
+    }
+
+    private Long requireUid(HttpServletRequest request) {
+        Object uid = request.getAttribute("uid");
+        if (uid instanceof Number n) return n.longValue();
+        throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing user id");
+    }
+}
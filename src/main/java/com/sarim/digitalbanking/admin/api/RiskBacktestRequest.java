@@ -0,0 +1,28 @@
+package com.sarim.digitalbanking.admin.api;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Instant;
+import java.util.List;
+
+/** {@code rules} null replays the active rule set; {@code to} defaults to now. */
+public record RiskBacktestRequest(
+        @NotNull Instant from,
+        Instant to,
+        Integer assumedReviewMinutes,
+        List<@Valid CandidateRule> rules
+) {
+
+    public record CandidateRule(
+            @NotBlank String name,
+            @NotNull Integer priority,
+            Boolean enabled,
+            @NotBlank String expression,
+            @NotBlank String action,
+            Boolean stopOnMatch,
+            Integer score,
+            String reason
+    ) {}
+}
@@ -0,0 +1,14 @@
+package com.sarim.digitalbanking.admin.api;
+
+import java.util.List;
+
+/** Paths are user ids, from the user itself; empty when nothing is within the search depth. */
+public record RiskGraphResponse(
+        Long userId,
+        int windowMinutes,
+        long fanIn,
+        long fanOut,
+        long badDistance,
+        List<Long> pathToBad,
+        List<Long> cycle
+) {}
@@ -0,0 +1,16 @@
+package com.sarim.digitalbanking.admin.api;
+
+import java.time.Instant;
+
+public record RiskRuleResponse(
+        String name,
+        int priority,
+        boolean enabled,
+        String expression,
+        String action,
+        boolean stopOnMatch,
+        Integer score,
+        String reason,
+        long revision,
+        Instant updatedAt
+) {}
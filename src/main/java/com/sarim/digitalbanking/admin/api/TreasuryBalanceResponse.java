@@ -0,0 +1,19 @@
+package com.sarim.digitalbanking.admin.api;
+
+import java.util.List;
+
+public record TreasuryBalanceResponse(
+        String currency,
+        long rootBalanceCents,
+        long shardBalanceCents,
+        long totalBalanceCents,
+        List<TreasuryAccountItem> accounts
+) {
+    public record TreasuryAccountItem(
+            int shardNo,          // 0 = root treasury
+            Long accountId,
+            long balanceCents,
+            String status,
+            boolean inUse
+    ) {}
+}
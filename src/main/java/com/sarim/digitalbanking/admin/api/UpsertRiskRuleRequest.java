@@ -0,0 +1,14 @@
+package com.sarim.digitalbanking.admin.api;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public record UpsertRiskRuleRequest(
+        @NotNull Integer priority,
+        Boolean enabled,
+        @NotBlank String expression,
+        @NotBlank String action,
+        Boolean stopOnMatch,
+        Integer score,
+        String reason
+) {}
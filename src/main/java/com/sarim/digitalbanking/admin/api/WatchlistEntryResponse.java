@@ -0,0 +1,11 @@
+package com.sarim.digitalbanking.admin.api;
+
+import java.time.Instant;
+
+public record WatchlistEntryResponse(
+        Long id,
+        String kind,
+        String value,
+        String reason,
+        Instant createdAt
+) {}
@@ -78,7 +78,7 @@ public class AuthService {
         UserEntity user = userRepository.findByEmailIgnoreCase(normalizedEmail)
                 .orElseThrow(InvalidCredentialsException::new);
 
-        if (rawPassword == null || rawPassword.isBlank()) {
+        if (rawPassword == null || rawPassword.isBlank() || user.getRole() == UserRole.SYSTEM) {
             throw new InvalidCredentialsException();
         }
 
@@ -2,5 +2,7 @@ package com.sarim.digitalbanking.auth;
 
 public enum UserRole {
     USER,
-    ADMIN
+    ADMIN,
+    // bank-owned bookkeeping identities (treasury shards); never logged in
+    SYSTEM
 }
@@ -1,7 +1,9 @@
 package com.sarim.digitalbanking.common;
 
 import com.sarim.digitalbanking.auth.InvalidCredentialsException;
+import com.sarim.digitalbanking.risk.WatchlistHitException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -32,9 +34,21 @@ public class ApiExceptionHandler {
                 .body(Map.of("error", "missing Idempotency-Key"));
     }
 
+    @ExceptionHandler(WatchlistHitException.class)
+    public ResponseEntity<Map<String, String>> watchlistHit(WatchlistHitException e) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(Map.of("error", e.getMessage()));
+    }
+
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<Map<String, String>> conflict(DataIntegrityViolationException e) {
         return ResponseEntity.status(HttpStatus.CONFLICT)
                 .body(Map.of("error", "conflict"));
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> concurrentUpdate(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "concurrent update, please retry"));
+    }
 }
@@ -0,0 +1,335 @@
+package com.sarim.digitalbanking.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sarim.digitalbanking.transfers.api.TransferResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Redis front for Idempotency-Key handling, in front of the {@code idempotency_keys} table.
+ *
+ * A request first claims its key with {@code SET NX PX}: the value is {@code P:<request hash>}
+ * (in progress) for {@code claim-ttl-ms}. When the request succeeds the claim is replaced by
+ * {@code C:<request hash>:<response json>} for {@code completed-ttl-ms}; when it fails the claim
+ * is dropped. A retry that finds either record is answered from Redis alone: the stored
+ * response, or 409 for a different request under the same key. A claim left behind by a crashed
+ * instance simply expires.
+ *
+ * Duplicates that arrive while the first request is still running are coalesced instead of
+ * racing it for the account locks: on the same instance they wait on the first one's future and
+ * get its response (or its error); on another instance they wait for the completion message the
+ * finishing request publishes on {@code idem:done:<key>}, then read the completed record. Either
+ * wait is bounded by {@code coalesce-wait-ms}, after which the duplicate gets 409 as before.
+ *
+ * Postgres stays the source of truth: the transfer and its stored response are still written in
+ * the transfer's own transaction, and the unique keys there still settle any race this layer
+ * lets through (a claim that expired under a slow request, Redis restarted without its data).
+ * When Redis fails, requests go straight to the Postgres path (still coalesced locally) and
+ * Redis is skipped for {@code retry-ms}.
+ */
+@Service
+public class IdempotencyClaimService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyClaimService.class);
+
+    private static final String KEY_PREFIX = "idem:";
+    private static final String CHANNEL_PREFIX = "idem:done:";
+    private static final String IN_PROGRESS = "P:";
+    private static final String COMPLETED = "C:";
+
+    // a claim that expires sends no message, so a waiter also looks again this often
+    private static final long RECHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private static final RedisScript<Long> FINISH_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/idempotency-finish.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration claimTtl;
+    private final Duration completedTtl;
+    private final long retryNanos;
+    private final long coalesceWaitMs;
+
+    // requests running on this instance, by key; duplicates join the future
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    // completion signals for keys claimed on another instance
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> remoteWaits = new ConcurrentHashMap<>();
+
+    private final Counter claimed;
+    private final Counter replayed;
+    private final Counter conflicts;
+    private final Counter inProgress;
+    private final Counter coalescedLocal;
+    private final Counter coalescedRemote;
+    private final Counter unavailable;
+
+    private volatile long redisDownUntilNanos;
+
+    private record InFlight(RequestHash requestHash, CompletableFuture<TransferResponse> result) {}
+
+    public IdempotencyClaimService(
+            StringRedisTemplate redisTemplate,
+            RedisMessageListenerContainer redisMessageListenerContainer,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.idempotency.redis.enabled:true}") boolean enabled,
+            @Value("${app.idempotency.redis.claim-ttl-ms:30000}") long claimTtlMs,
+            @Value("${app.idempotency.redis.completed-ttl-ms:86400000}") long completedTtlMs,
+            @Value("${app.idempotency.redis.retry-ms:1000}") long retryMs,
+            @Value("${app.idempotency.coalesce-wait-ms:5000}") long coalesceWaitMs
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.claimTtl = Duration.ofMillis(claimTtlMs);
+        this.completedTtl = Duration.ofMillis(completedTtlMs);
+        this.retryNanos = TimeUnit.MILLISECONDS.toNanos(retryMs);
+        this.coalesceWaitMs = Math.max(0L, coalesceWaitMs);
+
+        this.claimed = claimCounter(meterRegistry, "claimed");
+        this.replayed = claimCounter(meterRegistry, "replayed");
+        this.conflicts = claimCounter(meterRegistry, "conflict");
+        this.inProgress = claimCounter(meterRegistry, "in_progress");
+        this.coalescedLocal = claimCounter(meterRegistry, "coalesced_local");
+        this.coalescedRemote = claimCounter(meterRegistry, "coalesced_remote");
+        this.unavailable = claimCounter(meterRegistry, "unavailable");
+
+        if (enabled) {
+            redisMessageListenerContainer.addMessageListener(this::onDone, new PatternTopic(CHANNEL_PREFIX + "*"));
+        }
+    }
+
+    /**
+     * Runs {@code action} under a claim on {@code key}, joins a run of the same request already in
+     * flight, or answers from Redis without running it. {@code action} is expected to commit
+     * before it returns.
+     */
+    public TransferResponse execute(String key, RequestHash requestHash, Supplier<TransferResponse> action) {
+        InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return join(running, requestHash);
+        }
+
+        try {
+            TransferResponse response = claimAndRun(key, requestHash, action);
+            mine.result().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private TransferResponse claimAndRun(String key, RequestHash requestHash, Supplier<TransferResponse> action) {
+        String claim = IN_PROGRESS + requestHash.toHex();
+        String existing = enabled ? claim(key, claim) : null;
+        if (existing != null && existing.startsWith(IN_PROGRESS) && requestHash.matchesHex(existing.substring(2))) {
+            existing = awaitRemote(key, claim);
+        }
+        if (existing != null && !existing.isEmpty()) {
+            return answer(existing, requestHash);
+        }
+        boolean owned = existing != null;
+
+        TransferResponse response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            if (owned) {
+                finish(key, claim, "");
+            }
+            throw e;
+        }
+
+        // an async acceptance replays the transfer's current status from Postgres, so it is not kept
+        if (owned) {
+            finish(key, claim, "INITIATED".equals(response.status()) ? "" : COMPLETED + requestHash.toHex() + ":" + serialize(response));
+        }
+        return response;
+    }
+
+    private TransferResponse join(InFlight running, RequestHash requestHash) {
+        if (!running.requestHash().matches(requestHash)) {
+            conflicts.increment();
+            throw differentRequest();
+        }
+        try {
+            TransferResponse response = running.result().get(coalesceWaitMs, TimeUnit.MILLISECONDS);
+            coalescedLocal.increment();
+            return response;
+        } catch (ExecutionException e) {
+            coalescedLocal.increment();
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            inProgress.increment();
+            throw alreadyInUse();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw alreadyInUse();
+        }
+    }
+
+    /**
+     * The same request is in progress on another instance: waits for its completion message (or
+     * its claim to expire) and claims again, which yields the completed record, or the claim
+     * itself when the other run failed or died. Still in progress after the wait, the
+     * in-progress record is returned (409).
+     */
+    private String awaitRemote(String key, String claim) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(coalesceWaitMs);
+        String existing = claim;
+        while (claim.equals(existing)) {
+            CompletableFuture<Void> done = remoteWaits.computeIfAbsent(key, k -> new CompletableFuture<>());
+            try {
+                // registered first, so a completion between the claim and here is not missed
+                existing = claim(key, claim);
+                if (!claim.equals(existing)) {
+                    break;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                done.get(Math.min(remaining, RECHECK_NANOS), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // look again
+            } catch (ExecutionException e) {
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                remoteWaits.remove(key, done);
+            }
+        }
+        if (existing != null && existing.startsWith(COMPLETED)) {
+            coalescedRemote.increment();
+        }
+        return existing;
+    }
+
+    private void onDone(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        CompletableFuture<Void> done = remoteWaits.get(channel.substring(CHANNEL_PREFIX.length()));
+        if (done != null) {
+            done.complete(null);
+        }
+    }
+
+    /** Empty when this request now holds the claim, null when Redis is down, the existing record otherwise. */
+    private String claim(String key, String claim) {
+        if (redisDown()) {
+            unavailable.increment();
+            return null;
+        }
+        try {
+            for (int attempt = 0; attempt < 2; attempt++) {
+                if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + key, claim, claimTtl))) {
+                    claimed.increment();
+                    return "";
+                }
+                String existing = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+                if (existing != null) {
+                    return existing;
+                }
+                // expired between the two calls; claim it again
+            }
+            return null;
+        } catch (RuntimeException e) {
+            markDown(e);
+            return null;
+        }
+    }
+
+    private TransferResponse answer(String existing, RequestHash requestHash) {
+        boolean completed = existing.startsWith(COMPLETED);
+        String rest = existing.substring(2);
+        int hashEnd = completed ? rest.indexOf(':') : rest.length();
+
+        if (hashEnd < 0 || !requestHash.matchesHex(rest.substring(0, hashEnd))) {
+            conflicts.increment();
+            throw differentRequest();
+        }
+        if (!completed) {
+            inProgress.increment();
+            throw alreadyInUse();
+        }
+
+        replayed.increment();
+        try {
+            return objectMapper.readValue(rest.substring(hashEnd + 1), TransferResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to deserialize idempotent response", e);
+        }
+    }
+
+    private void finish(String key, String claim, String completed) {
+        try {
+            redisTemplate.execute(FINISH_SCRIPT, List.of(KEY_PREFIX + key),
+                    claim, completed, Long.toString(completedTtl.toMillis()), CHANNEL_PREFIX + key);
+        } catch (RuntimeException e) {
+            // the claim expires on its own; Postgres answers the retries until then
+            markDown(e);
+        }
+    }
+
+    private String serialize(TransferResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize idempotent response", e);
+        }
+    }
+
+    private boolean redisDown() {
+        return System.nanoTime() < redisDownUntilNanos;
+    }
+
+    private void markDown(RuntimeException e) {
+        unavailable.increment();
+        redisDownUntilNanos = System.nanoTime() + retryNanos;
+        log.warn("idempotency claims in Redis unavailable, using Postgres only: {}", e.toString());
+    }
+
+    private static ResponseStatusException differentRequest() {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Idempotency-Key was already used with a different request");
+    }
+
+    private static ResponseStatusException alreadyInUse() {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Idempotency-Key is already in use");
+    }
+
+    private static Counter claimCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("idempotency.claims").tag("result", result).register(meterRegistry);
+    }
+}
@@ -2,21 +2,28 @@ package com.sarim.digitalbanking.idempotency;
 
 import jakarta.persistence.*;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
 
 @Entity
 @Table(name = "idempotency_keys")
 public class IdempotencyKeyEntity {
 
+    /** How long a stored response is replayed; the table's daily partitions are dropped after it. */
+    public static final Duration TTL = Duration.ofHours(24);
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_keys_id_seq")
+    @SequenceGenerator(name = "idempotency_keys_id_seq", sequenceName = "idempotency_keys_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "key", nullable = false, unique = true)
     private String key;
 
+    // 32-byte SHA-256 (V17); compare with RequestHash#matches, not Arrays.equals
     @Column(name = "request_hash", nullable = false)
-    private String requestHash;
+    private byte[] requestHash;
 
     @Column(name = "response_code")
     private Integer responseCode;
@@ -30,6 +37,10 @@ public class IdempotencyKeyEntity {
     @Column(name = "expires_at", nullable = false)
     private Instant expiresAt;
 
+    // partition key (V16): UTC date of created_at, set by the column default
+    @Column(name = "created_day", nullable = false, updatable = false, insertable = false)
+    private LocalDate createdDay;
+
     public IdempotencyKeyEntity() {}
 
     public Long getId() {
@@ -44,11 +55,11 @@ public class IdempotencyKeyEntity {
         this.key = key;
     }
 
-    public String getRequestHash() {
+    public byte[] getRequestHash() {
         return requestHash;
     }
 
-    public void setRequestHash(String requestHash) {
+    public void setRequestHash(byte[] requestHash) {
         this.requestHash = requestHash;
     }
 
@@ -72,6 +83,10 @@ public class IdempotencyKeyEntity {
         return createdAt;
     }
 
+    public LocalDate getCreatedDay() {
+        return createdDay;
+    }
+
     public Instant getExpiresAt() {
         return expiresAt;
     }
@@ -1,12 +1,38 @@
 package com.sarim.digitalbanking.idempotency;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * The table is partitioned by day (V16). Lookups are bounded to the days a key can still be
+ * live in, so they probe two partitions however many are kept.
+ */
 public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, Long> {
 
-    Optional<IdempotencyKeyEntity> findByKey(String key);
+    @Query("select k from IdempotencyKeyEntity k where k.key = :key and k.createdDay >= :since")
+    Optional<IdempotencyKeyEntity> findByKeySince(@Param("key") String key, @Param("since") LocalDate since);
 
-    boolean existsByKey(String key);
-}
\ No newline at end of file
+    @Query("select k from IdempotencyKeyEntity k where k.key in :keys and k.createdDay >= :since")
+    List<IdempotencyKeyEntity> findByKeyInSince(@Param("keys") Collection<String> keys, @Param("since") LocalDate since);
+
+    default Optional<IdempotencyKeyEntity> findByKey(String key) {
+        return findByKeySince(key, oldestLiveDay(Instant.now()));
+    }
+
+    default List<IdempotencyKeyEntity> findByKeyIn(Collection<String> keys) {
+        return findByKeyInSince(keys, oldestLiveDay(Instant.now()));
+    }
+
+    /** The earliest created_day that can hold a key that has not expired at {@code now}. */
+    static LocalDate oldestLiveDay(Instant now) {
+        return LocalDate.ofInstant(now.minus(IdempotencyKeyEntity.TTL), ZoneOffset.UTC);
+    }
+}
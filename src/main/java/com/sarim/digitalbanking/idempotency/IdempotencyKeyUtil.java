@@ -11,7 +11,13 @@ public final class IdempotencyKeyUtil {
     // keep it permissive: supports UUIDs and other client-generated keys
     // tighten later if you want.
     public static String requireAndStore(HttpServletRequest request) {
-        String raw = request.getHeader(HEADER);
+        String key = normalize(request.getHeader(HEADER));
+        request.setAttribute(ATTR, key);
+        return key;
+    }
+
+    // same rules for keys that arrive in a request body (e.g. one per batch item)
+    public static String normalize(String raw) {
         if (raw == null) throw new MissingIdempotencyKeyException();
 
         String key = raw.trim();
@@ -26,7 +32,6 @@ public final class IdempotencyKeyUtil {
             throw new IllegalArgumentException("Idempotency-Key contains invalid characters");
         }
 
-        request.setAttribute(ATTR, key);
         return key;
     }
 }
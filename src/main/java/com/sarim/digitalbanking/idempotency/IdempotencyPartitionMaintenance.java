@@ -0,0 +1,145 @@
+package com.sarim.digitalbanking.idempotency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Keeps the daily partitions of {@code idempotency_keys} (V16) ahead of and behind the clock.
+ *
+ * Every {@code maintenance-interval-ms} (and at startup) the partitions for today through
+ * {@code premake-days} ahead are created if missing, and every partition whose whole day is
+ * older than {@link IdempotencyKeyEntity#TTL} is dropped: expiry is a catalog change, not a
+ * DELETE over millions of rows. The run takes a transaction-scoped advisory lock first, so with
+ * several instances only one does the DDL and the others skip that round.
+ */
+@Service
+public class IdempotencyPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyPartitionMaintenance.class);
+
+    private static final String PARTITION_PREFIX = "idempotency_keys_p";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final String LOCK_SQL = "select pg_try_advisory_xact_lock(hashtext('idempotency_keys partition maintenance'))";
+
+    private static final String PARTITIONS_SQL = """
+            select c.relname
+              from pg_inherits i
+              join pg_class c on c.oid = i.inhrelid
+              join pg_class p on p.oid = i.inhparent
+             where p.relname = 'idempotency_keys'
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int premakeDays;
+
+    private final Counter created;
+    private final Counter dropped;
+
+    public IdempotencyPartitionMaintenance(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.idempotency.partitions.premake-days:7}") int premakeDays
+    ) {
+        if (premakeDays < 1) {
+            throw new IllegalArgumentException("app.idempotency.partitions.premake-days must be >= 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.premakeDays = premakeDays;
+
+        this.created = Counter.builder("idempotency.partitions").tag("action", "created").register(meterRegistry);
+        this.dropped = Counter.builder("idempotency.partitions").tag("action", "dropped").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void atStartup() {
+        maintain();
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.idempotency.partitions.maintenance-interval-ms:3600000}",
+            fixedDelayString = "${app.idempotency.partitions.maintenance-interval-ms:3600000}"
+    )
+    public void maintain() {
+        try {
+            Result result = maintain(Instant.now());
+            if (result != null && (result.created() > 0 || result.dropped() > 0)) {
+                log.info("idempotency_keys partitions: {} created, {} dropped", result.created(), result.dropped());
+            }
+        } catch (RuntimeException e) {
+            log.error("idempotency_keys partition maintenance failed, retrying on next run: {}", e.toString());
+        }
+    }
+
+    /** Partitions created and dropped, or null when another instance holds the lock. */
+    public record Result(int created, int dropped) {}
+
+    public Result maintain(Instant now) {
+        return transactionTemplate.execute(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(LOCK_SQL, Boolean.class))) {
+                return null;
+            }
+
+            LocalDate today = LocalDate.ofInstant(now, ZoneOffset.UTC);
+            LocalDate oldestLive = IdempotencyKeyRepository.oldestLiveDay(now);
+            List<String> existing = jdbcTemplate.queryForList(PARTITIONS_SQL, String.class);
+
+            int made = 0;
+            for (LocalDate day = today; !day.isAfter(today.plusDays(premakeDays)); day = day.plusDays(1)) {
+                if (!existing.contains(partitionName(day))) {
+                    jdbcTemplate.execute(String.format(
+                            "create table if not exists %s partition of idempotency_keys for values from ('%s') to ('%s')",
+                            partitionName(day), day, day.plusDays(1)));
+                    made++;
+                }
+            }
+
+            int gone = 0;
+            for (String partition : existing) {
+                LocalDate day = partitionDay(partition);
+                if (day != null && day.isBefore(oldestLive)) {
+                    jdbcTemplate.execute("drop table if exists " + partition);
+                    gone++;
+                }
+            }
+
+            created.increment(made);
+            dropped.increment(gone);
+            return new Result(made, gone);
+        });
+    }
+
+    private static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + day.format(SUFFIX);
+    }
+
+    // null for anything not named by this job (or V16)
+    private static LocalDate partitionDay(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
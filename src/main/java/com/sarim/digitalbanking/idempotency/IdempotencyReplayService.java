@@ -9,17 +9,19 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class IdempotencyReplayService {
-    // TODO:
-    // Current implementation stores completed responses in idempotency_keys and
-    // relies on TransferPersistenceService for duplicate-save race safety.
-    // Upgrade this to a stronger claim-state model (for example IN_PROGRESS +
-    // COMPLETED) so retries are fully protected even if a request crashes after
-    // the transfer row is saved but before the response is stored.
-    private static final Duration DEFAULT_TTL = Duration.ofHours(24);
+    // Durable side of idempotency: responses are stored in the transfer's own transaction, and
+    // TransferPersistenceService covers duplicate-save races. POST /api/transfers is fronted by
+    // IdempotencyClaimService (IN_PROGRESS/COMPLETED claims in Redis), which answers most
+    // retries before they get here.
+    private static final Duration DEFAULT_TTL = IdempotencyKeyEntity.TTL;
 
     private final IdempotencyKeyRepository idempotencyKeyRepository;
     private final ObjectMapper objectMapper;
@@ -32,9 +34,9 @@ public class IdempotencyReplayService {
         this.objectMapper = objectMapper;
     }
 
-    public Optional<TransferResponse> findStoredTransferReplay(String key, String requestHash) {
+    public Optional<TransferResponse> findStoredTransferReplay(String key, RequestHash requestHash) {
         return idempotencyKeyRepository.findByKey(key).map(record -> {
-            if (!record.getRequestHash().equals(requestHash)) {
+            if (!requestHash.matches(record.getRequestHash())) {
                 throw new ResponseStatusException(
                         HttpStatus.CONFLICT,
                         "Idempotency-Key was already used with a different request"
@@ -52,17 +54,17 @@ public class IdempotencyReplayService {
         });
     }
 
-    public void storeTransferResponse(String key, String requestHash, int responseCode, TransferResponse response) {
+    public void storeTransferResponse(String key, RequestHash requestHash, int responseCode, TransferResponse response) {
         IdempotencyKeyEntity record = idempotencyKeyRepository.findByKey(key)
                 .orElseGet(() -> {
                     IdempotencyKeyEntity created = new IdempotencyKeyEntity();
                     created.setKey(key);
-                    created.setRequestHash(requestHash);
+                    created.setRequestHash(requestHash.toBytes());
                     created.setExpiresAt(Instant.now().plus(DEFAULT_TTL));
                     return created;
                 });
 
-        if (!record.getRequestHash().equals(requestHash)) {
+        if (!requestHash.matches(record.getRequestHash())) {
             throw new ResponseStatusException(
                     HttpStatus.CONFLICT,
                     "Idempotency-Key was already used with a different request"
@@ -79,6 +81,63 @@ public class IdempotencyReplayService {
         idempotencyKeyRepository.save(record);
     }
 
+    /**
+     * Set-based variant of {@link #findStoredTransferReplay} for batch submissions: one query for
+     * all keys, and conflicts come back per key instead of failing the whole batch.
+     */
+    public Map<String, StoredTransferReplay> findStoredTransferReplays(Map<String, RequestHash> requestHashesByKey) {
+        Map<String, StoredTransferReplay> replays = new HashMap<>();
+        if (requestHashesByKey.isEmpty()) {
+            return replays;
+        }
+
+        for (IdempotencyKeyEntity record : idempotencyKeyRepository.findByKeyIn(requestHashesByKey.keySet())) {
+            RequestHash requestHash = requestHashesByKey.get(record.getKey());
+
+            if (!requestHash.matches(record.getRequestHash())) {
+                replays.put(record.getKey(), StoredTransferReplay.conflict(
+                        "Idempotency-Key was already used with a different request"));
+            } else if (record.getResponseCode() == null || record.getResponseBody() == null) {
+                replays.put(record.getKey(), StoredTransferReplay.conflict("Idempotency-Key is already in use"));
+            } else {
+                replays.put(record.getKey(), new StoredTransferReplay(
+                        deserializeTransferResponse(record.getResponseBody()), null));
+            }
+        }
+
+        return replays;
+    }
+
+    /**
+     * Stores responses for keys that are known to have no record yet (checked with
+     * {@link #findStoredTransferReplays} in the same transaction).
+     */
+    public void storeNewTransferResponses(List<NewTransferResponse> responses) {
+        Instant expiresAt = Instant.now().plus(DEFAULT_TTL);
+
+        List<IdempotencyKeyEntity> records = new ArrayList<>(responses.size());
+        for (NewTransferResponse response : responses) {
+            IdempotencyKeyEntity record = new IdempotencyKeyEntity();
+            record.setKey(response.key());
+            record.setRequestHash(response.requestHash().toBytes());
+            record.setResponseCode(response.responseCode());
+            record.setResponseBody(serializeTransferResponse(response.response()));
+            record.setExpiresAt(expiresAt);
+            records.add(record);
+        }
+
+        idempotencyKeyRepository.saveAll(records);
+    }
+
+    public record StoredTransferReplay(TransferResponse response, String conflict) {
+
+        static StoredTransferReplay conflict(String message) {
+            return new StoredTransferReplay(null, message);
+        }
+    }
+
+    public record NewTransferResponse(String key, RequestHash requestHash, int responseCode, TransferResponse response) {}
+
     private String serializeTransferResponse(TransferResponse response) {
         try {
             return objectMapper.writeValueAsString(response);
@@ -1,63 +1,167 @@
 package com.sarim.digitalbanking.idempotency;
 
 import com.sarim.digitalbanking.admin.api.CreateAdminDepositRequest;
+import com.sarim.digitalbanking.transfers.api.CreateInternalTransferRequest;
 import com.sarim.digitalbanking.transfers.api.CreateTransferRequest;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 
+/**
+ * Fingerprints idempotent requests as SHA-256 over a canonical form,
+ * {@code <kind>-v1|field|field|...}, with longs in decimal and the currency trimmed and upper-cased
+ * (CAD when absent).
+ *
+ * The canonical bytes are written straight into a per-thread buffer and hashed with a per-thread
+ * digest, so a fingerprint costs one 32-byte array; the bytes are the same as the
+ * {@code String.join} form used before, so hashes stored earlier still match.
+ */
 @Component
 public class IdempotencyRequestHasher {
 
     private static final String CAD = "CAD";
 
-    public String hashUserTransfer(Long actorUserId, CreateTransferRequest req) {
-        String currency = normalizeCurrency(req.currency());
+    private static final byte[] USER_TRANSFER = ascii("user-transfer-v1");
+    private static final byte[] INTERNAL_TRANSFER = ascii("internal-transfer-v1");
+    private static final byte[] ADMIN_DEPOSIT = ascii("admin-deposit-v1");
+    private static final byte[] NULL = ascii("null");
+    private static final byte SEPARATOR = '|';
 
-        String raw = String.join("|",
-                "user-transfer-v1",
-                String.valueOf(actorUserId),
-                String.valueOf(req.fromAccountId()),
-                String.valueOf(req.payeeId()),
-                String.valueOf(req.amountCents()),
-                currency
-        );
+    private static final ThreadLocal<Canonical> CANONICAL = ThreadLocal.withInitial(Canonical::new);
 
-        return sha256Hex(raw);
+    public RequestHash hashUserTransfer(Long actorUserId, CreateTransferRequest req) {
+        return CANONICAL.get()
+                .start(USER_TRANSFER)
+                .add(actorUserId)
+                .add(req.fromAccountId())
+                .add(req.payeeId())
+                .add(req.amountCents())
+                .addCurrency(req.currency())
+                .digest();
     }
 
-    public String hashAdminDeposit(CreateAdminDepositRequest req) {
-        String raw = String.join("|",
-                "admin-deposit-v1",
-                String.valueOf(req.toAccountId()),
-                String.valueOf(req.amountCents()),
-                CAD
-        );
+    public RequestHash hashInternalTransfer(Long actorUserId, CreateInternalTransferRequest req) {
+        return CANONICAL.get()
+                .start(INTERNAL_TRANSFER)
+                .add(actorUserId)
+                .add(req.fromAccountId())
+                .add(req.toAccountId())
+                .add(req.amountCents())
+                .addCurrency(req.currency())
+                .digest();
+    }
 
-        return sha256Hex(raw);
+    public RequestHash hashAdminDeposit(CreateAdminDepositRequest req) {
+        return CANONICAL.get()
+                .start(ADMIN_DEPOSIT)
+                .add(req.toAccountId())
+                .add(req.amountCents())
+                .addCurrency(null)
+                .digest();
     }
 
-    private String normalizeCurrency(String currency) {
-        if (currency == null || currency.isBlank()) {
-            return CAD;
-        }
-        return currency.trim().toUpperCase();
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
     }
 
-    private String sha256Hex(String value) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] bytes = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+    /** One thread's buffer and digest; every method returns {@code this} until {@link #digest}. */
+    private static final class Canonical {
+
+        private final MessageDigest digest;
+        private byte[] buf = new byte[128];
+        private int len;
+
+        Canonical() {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+
+        Canonical start(byte[] kind) {
+            len = 0;
+            put(kind);
+            return this;
+        }
+
+        Canonical add(Long value) {
+            return value == null ? separate().put(NULL) : add(value.longValue());
+        }
+
+        Canonical add(long value) {
+            separate();
+            ensure(20);
+            if (value == Long.MIN_VALUE) {
+                return put(ascii(Long.toString(value)));
+            }
+            if (value < 0) {
+                buf[len++] = '-';
+                value = -value;
+            }
+            int end = len + digits(value);
+            for (int i = end - 1; i >= len; i--) {
+                buf[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            len = end;
+            return this;
+        }
+
+        // what normalizeCurrency(..).getBytes(UTF_8) gave: ASCII upper-case letters and digits
+        // are copied as they are, anything else takes the String route
+        Canonical addCurrency(String currency) {
+            separate();
+            if (currency == null || currency.isBlank()) {
+                return put(ascii(CAD));
+            }
+            int n = currency.length();
+            ensure(n);
+            for (int i = 0; i < n; i++) {
+                char c = currency.charAt(i);
+                if (!(c >= 'A' && c <= 'Z' || c >= '0' && c <= '9')) {
+                    len -= i;
+                    return put(currency.trim().toUpperCase().getBytes(StandardCharsets.UTF_8));
+                }
+                buf[len++] = (byte) c;
+            }
+            return this;
+        }
+
+        RequestHash digest() {
+            digest.update(buf, 0, len);
+            return RequestHash.wrap(digest.digest());
+        }
+
+        private Canonical separate() {
+            ensure(1);
+            buf[len++] = SEPARATOR;
+            return this;
+        }
+
+        private Canonical put(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, len, bytes.length);
+            len += bytes.length;
+            return this;
+        }
+
+        private void ensure(int more) {
+            if (len + more > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + more));
+            }
+        }
 
-            StringBuilder hex = new StringBuilder(bytes.length * 2);
-            for (byte b : bytes) {
-                hex.append(String.format("%02x", b));
+        private static int digits(long value) {
+            int n = 1;
+            while (value >= 10) {
+                value /= 10;
+                n++;
             }
-            return hex.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("SHA-256 is not available", e);
+            return n;
         }
     }
-}
\ No newline at end of file
+}
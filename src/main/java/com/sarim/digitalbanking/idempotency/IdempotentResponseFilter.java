@@ -0,0 +1,354 @@
+package com.sarim.digitalbanking.idempotency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response-level idempotency for POSTs that carry an Idempotency-Key: the paths of
+ * {@link WebMvcIdempotencyConfig}, and {@code /api/payees} when the client sends a key.
+ *
+ * The first successful (2xx, except 202) response under a key is captured as it was committed
+ * (status, headers, body bytes), encoded with {@link StoredResponse} and kept in Redis under
+ * {@code idem-resp:<key>} for {@link IdempotencyKeyEntity#TTL}. A retry of the same request (same
+ * caller, method, path and body bytes) is answered by copying those bytes to the output stream,
+ * before the controller, the services or Jackson are involved. 202 is left out on purpose: an
+ * accepted transfer is not final, and its retries should see the settled status.
+ *
+ * This is only a fast path. Anything it cannot answer goes down the chain as before: no record,
+ * a record for different request bytes (the services decide whether that is a replay or a 409, as
+ * they compare normalized requests), oversized bodies, or Redis being unavailable, in which case
+ * the cache is skipped for {@code app.idempotency.redis.retry-ms}. In-flight duplicates are still
+ * coalesced by {@link IdempotencyClaimService}.
+ */
+@Component
+public class IdempotentResponseFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotentResponseFilter.class);
+
+    private static final String KEY_PREFIX = "idem-resp:";
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final String[] OPTIONAL_KEY_PATHS = {"/api/payees"};
+
+    // never replayed: connection-level, recomputed by the container, or per-response
+    private static final Set<String> SKIPPED_HEADERS = caseInsensitive(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.CONNECTION, HttpHeaders.DATE, HttpHeaders.SET_COOKIE, REPLAYED_HEADER);
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final int maxBodyBytes;
+    private final int compressMinBytes;
+    private final Expiration ttl;
+    private final long retryNanos;
+
+    private final Counter replayed;
+    private final Counter stored;
+    private final Counter missed;
+    private final Counter mismatched;
+    private final Counter unavailable;
+
+    private volatile long redisDownUntilNanos;
+
+    public IdempotentResponseFilter(
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.idempotency.response-cache.enabled:true}") boolean enabled,
+            @Value("${app.idempotency.response-cache.max-body-bytes:65536}") int maxBodyBytes,
+            @Value("${app.idempotency.response-cache.compress-min-bytes:512}") int compressMinBytes,
+            @Value("${app.idempotency.redis.retry-ms:1000}") long retryMs
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.maxBodyBytes = maxBodyBytes;
+        this.compressMinBytes = compressMinBytes;
+        this.ttl = Expiration.from(IdempotencyKeyEntity.TTL);
+        this.retryNanos = TimeUnit.MILLISECONDS.toNanos(retryMs);
+
+        this.replayed = resultCounter(meterRegistry, "replayed");
+        this.stored = resultCounter(meterRegistry, "stored");
+        this.missed = resultCounter(meterRegistry, "miss");
+        this.mismatched = resultCounter(meterRegistry, "mismatch");
+        this.unavailable = resultCounter(meterRegistry, "unavailable");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        return !matchesAny(WebMvcIdempotencyConfig.KEYED_PATHS, path) && !matchesAny(OPTIONAL_KEY_PATHS, path)
+                || matchesAny(WebMvcIdempotencyConfig.UNKEYED_PATHS, path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = validKey(request.getHeader(IdempotencyKeyUtil.HEADER));
+        if (key == null || redisDown()) {
+            // a missing or bad key is reported by IdempotencyKeyInterceptor where one is required
+            chain.doFilter(request, response);
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        BufferedBodyRequest buffered = new BufferedBodyRequest(request, body);
+        if (body.length > maxBodyBytes) {
+            chain.doFilter(buffered.withRest(), response);
+            return;
+        }
+
+        byte[] redisKey = (KEY_PREFIX + key).getBytes(StandardCharsets.UTF_8);
+        byte[] requestHash = requestHash(request, body);
+
+        byte[] record = get(redisKey);
+        if (record != null) {
+            if (StoredResponse.matches(record, requestHash)) {
+                replay(record, response);
+                replayed.increment();
+                return;
+            }
+            mismatched.increment();
+            chain.doFilter(buffered, response);
+            return;
+        }
+        missed.increment();
+
+        ContentCachingResponseWrapper capturing = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(buffered, capturing);
+            if (storable(capturing.getStatus())) {
+                store(redisKey, requestHash, capturing);
+            }
+        } finally {
+            capturing.copyBodyToResponse();
+        }
+    }
+
+    private void replay(byte[] record, HttpServletResponse response) throws IOException {
+        StoredResponse.Replay replay = StoredResponse.decode(record);
+        response.setStatus(replay.status());
+        for (StoredResponse.Header h : replay.headers()) {
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(h.name())) {
+                response.setContentType(h.value());
+            } else {
+                response.setHeader(h.name(), h.value());
+            }
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        replay.body().transferTo(response.getOutputStream());
+    }
+
+    private void store(byte[] redisKey, byte[] requestHash, ContentCachingResponseWrapper response) {
+        List<StoredResponse.Header> headers = new ArrayList<>();
+        if (response.getContentType() != null) {
+            headers.add(new StoredResponse.Header(HttpHeaders.CONTENT_TYPE, response.getContentType()));
+        }
+        for (String name : new TreeSet<>(response.getHeaderNames())) {
+            if (SKIPPED_HEADERS.contains(name)) {
+                continue;
+            }
+            for (String value : response.getHeaders(name)) {
+                headers.add(new StoredResponse.Header(name, value));
+            }
+        }
+
+        byte[] record;
+        try {
+            record = StoredResponse.encode(
+                    requestHash, response.getStatus(), headers, response.getContentAsByteArray(), compressMinBytes);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+
+        try {
+            // first response wins; a concurrent duplicate that got here second was answered the same
+            Boolean set = redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands()
+                    .set(redisKey, record, ttl, RedisStringCommands.SetOption.ifAbsent()));
+            if (Boolean.TRUE.equals(set)) {
+                stored.increment();
+            }
+        } catch (DataAccessException e) {
+            markDown(e);
+        }
+    }
+
+    private byte[] get(byte[] redisKey) {
+        try {
+            return redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(redisKey));
+        } catch (DataAccessException e) {
+            markDown(e);
+            return null;
+        }
+    }
+
+    private boolean redisDown() {
+        return System.nanoTime() - redisDownUntilNanos < 0;
+    }
+
+    private void markDown(DataAccessException e) {
+        unavailable.increment();
+        redisDownUntilNanos = System.nanoTime() + retryNanos;
+        log.warn("Redis unavailable for idempotent responses, bypassing for a while: {}", e.toString());
+    }
+
+    private static boolean storable(int status) {
+        return status >= 200 && status < 300 && status != HttpStatus.ACCEPTED.value();
+    }
+
+    // caller, method, path and the exact body bytes; the key itself is the Redis key
+    private static byte[] requestHash(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String head = String.join("|", String.valueOf(request.getAttribute("uid")),
+                    request.getMethod(), request.getRequestURI(), String.valueOf(request.getQueryString()));
+            digest.update(head.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(body);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String validKey(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        try {
+            return IdempotencyKeyUtil.normalize(raw);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private boolean matchesAny(String[] patterns, String path) {
+        for (String pattern : patterns) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Counter resultCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("idempotency.responses").tag("result", result).register(meterRegistry);
+    }
+
+    private static Set<String> caseInsensitive(String... names) {
+        Set<String> set = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        set.addAll(List.of(names));
+        return set;
+    }
+
+    /** Serves a body that was already read (or its first part, followed by the unread rest). */
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+        private final boolean withRest;
+
+        BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            this(request, body, false);
+        }
+
+        private BufferedBodyRequest(HttpServletRequest request, byte[] body, boolean withRest) {
+            super(request);
+            this.body = body;
+            this.withRest = withRest;
+        }
+
+        BufferedBodyRequest withRest() {
+            return new BufferedBodyRequest((HttpServletRequest) getRequest(), body, true);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            ServletInputStream rest = withRest ? super.getInputStream() : null;
+            ByteArrayInputStream head = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() throws IOException {
+                    int b = head.read();
+                    return b >= 0 || rest == null ? b : rest.read();
+                }
+
+                @Override
+                public int read(byte[] buf, int off, int len) throws IOException {
+                    int n = head.read(buf, off, len);
+                    return n > 0 || rest == null ? n : rest.read(buf, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return head.available() == 0 && (rest == null || rest.isFinished());
+                }
+
+                @Override
+                public boolean isReady() {
+                    return head.available() > 0 || rest == null || rest.isReady();
+                }
+
+                // the head is in memory: with nothing behind it, it is handed over in one go; otherwise the
+                // container drives the listener, which reads the head first and then waits on the rest
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    if (rest != null) {
+                        rest.setReadListener(listener);
+                        return;
+                    }
+                    try {
+                        listener.onDataAvailable();
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding == null ? StandardCharsets.UTF_8.name() : encoding));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.sarim.digitalbanking.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * The SHA-256 fingerprint of an idempotent request (see {@link IdempotencyRequestHasher}), kept as
+ * its 32 raw bytes: that is what {@code idempotency_keys.request_hash} stores (V17), and the hex
+ * form only exists for the Redis claim values.
+ *
+ * Comparisons are constant time, so how long a 409 takes says nothing about how much of another
+ * request's fingerprint a guess got right.
+ */
+public final class RequestHash {
+
+    public static final int BYTES = 32;
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final byte[] bytes;
+
+    private RequestHash(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /** Takes ownership of {@code bytes}. */
+    static RequestHash wrap(byte[] bytes) {
+        if (bytes == null || bytes.length != BYTES) {
+            throw new IllegalArgumentException("request hash must be " + BYTES + " bytes");
+        }
+        return new RequestHash(bytes);
+    }
+
+    public static RequestHash of(byte[] bytes) {
+        return wrap(bytes == null ? null : bytes.clone());
+    }
+
+    public static RequestHash fromHex(String hex) {
+        return wrap(HEX.parseHex(hex));
+    }
+
+    public boolean matches(RequestHash other) {
+        return other != null && MessageDigest.isEqual(bytes, other.bytes);
+    }
+
+    public boolean matches(byte[] other) {
+        return other != null && MessageDigest.isEqual(bytes, other);
+    }
+
+    /** Compares with a hex fingerprint as stored in Redis; anything malformed does not match. */
+    public boolean matchesHex(CharSequence hex) {
+        return hex != null && MessageDigest.isEqual(
+                toHex().getBytes(StandardCharsets.US_ASCII),
+                hex.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public byte[] toBytes() {
+        return bytes.clone();
+    }
+
+    public String toHex() {
+        return HEX.formatHex(bytes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof RequestHash other && matches(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return (bytes[0] & 0xFF) << 24 | (bytes[1] & 0xFF) << 16 | (bytes[2] & 0xFF) << 8 | (bytes[3] & 0xFF);
+    }
+
+    @Override
+    public String toString() {
+        return toHex();
+    }
+}
@@ -0,0 +1,123 @@
+package com.sarim.digitalbanking.idempotency;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A captured HTTP response as {@link IdempotentResponseFilter} keeps it:
+ *
+ * <pre>
+ *   u8  version (1)
+ *   32  SHA-256 of the request it answered
+ *   u8  flags (bit 0: the rest is deflated)
+ *   --- rest, deflated when large enough
+ *   u16 status
+ *   u8  header count, then per header: u16 length + name (ASCII), u16 length + value (UTF-8)
+ *   ..  body, to the end
+ * </pre>
+ *
+ * The request hash sits in front, uncompressed, so a mismatch is found without touching the rest,
+ * and the body is the raw bytes the handler wrote, so a replay is a copy to the output stream.
+ */
+final class StoredResponse {
+
+    static final int HASH_BYTES = 32;
+
+    private static final byte VERSION = 1;
+    private static final int PREFIX_BYTES = 1 + HASH_BYTES + 1;
+    private static final byte DEFLATED = 1;
+
+    record Header(String name, String value) {}
+
+    /** A decoded record; {@code body} is still compressed when the record was. */
+    record Replay(int status, List<Header> headers, InputStream body) {}
+
+    private StoredResponse() {}
+
+    static byte[] encode(byte[] requestHash, int status, List<Header> headers, byte[] body, int compressMinBytes) {
+        if (requestHash.length != HASH_BYTES || headers.size() > 255) {
+            throw new IllegalArgumentException("response cannot be stored");
+        }
+        try {
+            ByteArrayOutputStream rest = new ByteArrayOutputStream(body.length + 64);
+            DataOutputStream out = new DataOutputStream(rest);
+            out.writeShort(status);
+            out.writeByte(headers.size());
+            for (Header h : headers) {
+                writeString(out, h.name());
+                writeString(out, h.value());
+            }
+            out.write(body);
+            out.flush();
+
+            boolean deflate = rest.size() >= compressMinBytes;
+            ByteArrayOutputStream record = new ByteArrayOutputStream(PREFIX_BYTES + rest.size());
+            record.write(VERSION);
+            record.write(requestHash);
+            record.write(deflate ? DEFLATED : 0);
+            if (deflate) {
+                Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+                try (DeflaterOutputStream z = new DeflaterOutputStream(record, deflater)) {
+                    rest.writeTo(z);
+                } finally {
+                    deflater.end();
+                }
+            } else {
+                rest.writeTo(record);
+            }
+            return record.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Whether {@code record} answered the request with this hash (constant time on the hash). */
+    static boolean matches(byte[] record, byte[] requestHash) {
+        return record.length >= PREFIX_BYTES
+                && record[0] == VERSION
+                && MessageDigest.isEqual(Arrays.copyOfRange(record, 1, 1 + HASH_BYTES), requestHash);
+    }
+
+    /** Reads status and headers; the body stream is left positioned at the body. */
+    static Replay decode(byte[] record) throws IOException {
+        InputStream rest = new ByteArrayInputStream(record, PREFIX_BYTES, record.length - PREFIX_BYTES);
+        if ((record[PREFIX_BYTES - 1] & DEFLATED) != 0) {
+            rest = new InflaterInputStream(rest);
+        }
+        DataInputStream in = new DataInputStream(rest);
+        int status = in.readUnsignedShort();
+        int count = in.readUnsignedByte();
+        Header[] headers = new Header[count];
+        for (int i = 0; i < count; i++) {
+            headers[i] = new Header(readString(in), readString(in));
+        }
+        return new Replay(status, List.of(headers), rest);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("header too long to store");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -7,6 +7,17 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebMvcIdempotencyConfig implements WebMvcConfigurer {
 
+    // POSTs here must carry an Idempotency-Key (IdempotentResponseFilter covers the same paths)
+    static final String[] KEYED_PATHS = {
+            "/api/transfers/**",
+            "/api/admin/deposit"
+    };
+
+    // batch items carry their own keys in the body
+    static final String[] UNKEYED_PATHS = {
+            "/api/transfers/batch"
+    };
+
     private final IdempotencyKeyInterceptor interceptor;
 
     public WebMvcIdempotencyConfig(IdempotencyKeyInterceptor interceptor) {
@@ -16,9 +27,7 @@ public class WebMvcIdempotencyConfig implements WebMvcConfigurer {
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(interceptor)
-                .addPathPatterns(
-                        "/api/transfers/**",
-                        "/api/admin/deposit"
-                );
+                .addPathPatterns(KEYED_PATHS)
+                .excludePathPatterns(UNKEYED_PATHS);
     }
 }
@@ -11,7 +11,8 @@ import java.time.Instant;
 public class LedgerEntryEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entries_id_seq")
+    @SequenceGenerator(name = "ledger_entries_id_seq", sequenceName = "ledger_entries_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = true, fetch = FetchType.LAZY)
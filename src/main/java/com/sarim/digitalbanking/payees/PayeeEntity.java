@@ -4,13 +4,15 @@ import com.sarim.digitalbanking.auth.UserEntity;
 import jakarta.persistence.*;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 
 @Entity
 @Table(name = "payees")
 public class PayeeEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payees_id_seq")
+    @SequenceGenerator(name = "payees_id_seq", sequenceName = "payees_id_seq", allocationSize = 50)
     private Long id;
 
     // payees.owner_user_id -> users.id
@@ -32,14 +34,21 @@ public class PayeeEntity {
     @Column(name = "status", nullable = false)
     private String status = "ACTIVE";
 
-    @Column(name = "created_at", nullable = false, updatable = false, insertable = false)
+    @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
-    @Column(name = "updated_at", nullable = false, insertable = false)
+    @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
 
     public PayeeEntity() {}
 
+    @PrePersist
+    void stampCreatedAt() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        if (createdAt == null) createdAt = now;
+        if (updatedAt == null) updatedAt = now;
+    }
+
     public Long getId() { return id; }
 
     public UserEntity getOwnerUser() { return ownerUser; }
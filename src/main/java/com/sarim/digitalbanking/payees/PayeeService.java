@@ -6,7 +6,7 @@ import com.sarim.digitalbanking.auth.UserEntity;
 import com.sarim.digitalbanking.auth.UserRepository;
 import com.sarim.digitalbanking.payees.api.CreatePayeeRequest;
 import com.sarim.digitalbanking.payees.api.PayeeResponse;
-import jakarta.persistence.EntityManager;
+import com.sarim.digitalbanking.risk.WatchlistScreening;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,18 +19,18 @@ public class PayeeService {
     private final PayeeRepository payeeRepository;
     private final UserRepository userRepository;
     private final AuditLogRepository auditLogRepository;
-    private final EntityManager entityManager;
+    private final WatchlistScreening watchlistScreening;
 
     public PayeeService(
             PayeeRepository payeeRepository,
             UserRepository userRepository,
             AuditLogRepository auditLogRepository,
-            EntityManager entityManager
+            WatchlistScreening watchlistScreening
     ) {
         this.payeeRepository = payeeRepository;
         this.userRepository = userRepository;
         this.auditLogRepository = auditLogRepository;
-        this.entityManager = entityManager;
+        this.watchlistScreening = watchlistScreening;
     }
 
     @Transactional
@@ -44,6 +44,9 @@ public class PayeeService {
             throw new IllegalArgumentException("cannot add yourself as payee");
         }
 
+        // no account yet; the transfer screens the destination account
+        watchlistScreening.requireClear(email, payeeUser.getId(), null);
+
         // If it already exists and is disabled -> re-enable it.
         var existing = payeeRepository.findByOwnerUserIdAndPayeeUserId(ownerUserId, payeeUser.getId());
         if (existing.isPresent()) {
@@ -73,7 +76,6 @@ public class PayeeService {
         p.setStatus("ACTIVE");
 
         PayeeEntity saved = payeeRepository.saveAndFlush(p);
-        entityManager.refresh(saved);
 
         audit(ownerUserId, payeeUser, "PAYEE_ADD", "payee", String.valueOf(saved.getId()),
                 "payee_email=" + saved.getPayeeEmail() + ", payee_user_id=" + payeeUser.getId());
@@ -0,0 +1,64 @@
+package com.sarim.digitalbanking.risk;
+
+/**
+ * Fixed-size Bloom filter over 64-bit key hashes, about 1% false positives at the sized
+ * capacity. Filled once, then only read, so it can be shared once published.
+ */
+final class BloomFilter {
+
+    private static final int BITS_PER_KEY = 10;
+    private static final int HASHES = 7;
+
+    private final long[] words;
+    private final long mask;
+
+    BloomFilter(long expectedKeys) {
+        long bits = Long.highestOneBit(Math.max(64L, expectedKeys * BITS_PER_KEY) - 1) << 1;
+        this.words = new long[(int) (bits >>> 6)];
+        this.mask = bits - 1;
+    }
+
+    void add(long hash) {
+        long h2 = (hash >>> 32) | 1L;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = (hash + i * h2) & mask;
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /** False means definitely absent; true means maybe present. */
+    boolean mightContain(long hash) {
+        long h2 = (hash >>> 32) | 1L;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = (hash + i * h2) & mask;
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** 64-bit hash of a number, salted so the same value under two kinds hashes apart. */
+    static long hash(long value, long salt) {
+        return mix(value * 0x9E3779B97F4A7C15L + salt);
+    }
+
+    /** 64-bit FNV-1a over the chars, finished with a mix. */
+    static long hash(String value, long salt) {
+        long h = 0xcbf29ce484222325L ^ salt;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
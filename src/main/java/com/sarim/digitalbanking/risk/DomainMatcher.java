@@ -0,0 +1,106 @@
+package com.sarim.digitalbanking.risk;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aho–Corasick automaton over email domain patterns: one pass over an address tells whether it
+ * ends in {@code @domain} or {@code .domain} for any listed domain, however many there are.
+ *
+ * Transitions are stored flat (per state a sorted run of chars and targets) so a list of
+ * millions of domains costs a few arrays rather than an object per trie node. Immutable once
+ * built.
+ */
+final class DomainMatcher {
+
+    static final DomainMatcher EMPTY = new DomainMatcher(List.of());
+
+    private final int[] firstEdge;      // edges of state s are [firstEdge[s], firstEdge[s + 1])
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] fail;
+    private final boolean[] matchAtEnd; // a pattern is a suffix of the text that led here
+
+    DomainMatcher(Collection<String> domains) {
+        // trie edges keyed by (state << 16 | char) while building
+        Map<Long, Integer> edges = new HashMap<>();
+        int states = 1;
+        boolean[] terminal = new boolean[16];
+
+        for (String domain : domains) {
+            for (String pattern : new String[] {"@" + domain, "." + domain}) {
+                int s = 0;
+                for (int i = 0; i < pattern.length(); i++) {
+                    long key = ((long) s << 16) | pattern.charAt(i);
+                    Integer next = edges.get(key);
+                    if (next == null) {
+                        next = states++;
+                        edges.put(key, next);
+                    }
+                    s = next;
+                }
+                if (s >= terminal.length) {
+                    terminal = Arrays.copyOf(terminal, Math.max(s + 1, terminal.length * 2));
+                }
+                terminal[s] = true;
+            }
+        }
+
+        long[] keys = edges.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        firstEdge = new int[states + 1];
+        edgeChars = new char[keys.length];
+        edgeTargets = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            edgeChars[i] = (char) (keys[i] & 0xFFFF);
+            edgeTargets[i] = edges.get(keys[i]);
+            firstEdge[(int) (keys[i] >>> 16) + 1]++;
+        }
+        for (int s = 0; s < states; s++) {
+            firstEdge[s + 1] += firstEdge[s];
+        }
+
+        // failure links breadth-first, so a state's link is always done before its children
+        fail = new int[states];
+        matchAtEnd = new boolean[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (int e = firstEdge[u]; e < firstEdge[u + 1]; e++) {
+                char c = edgeChars[e];
+                int v = edgeTargets[e];
+                int f = fail[u];
+                while (f != 0 && child(f, c) < 0) {
+                    f = fail[f];
+                }
+                int g = child(f, c);
+                fail[v] = g >= 0 && g != v ? g : 0;
+                matchAtEnd[v] = (v < terminal.length && terminal[v]) || matchAtEnd[fail[v]];
+                queue.add(v);
+            }
+        }
+    }
+
+    /** Whether {@code email} (lower case) is at one of the domains or below it. */
+    boolean matches(String email) {
+        int s = 0;
+        for (int i = 0; i < email.length(); i++) {
+            char c = email.charAt(i);
+            int next;
+            while ((next = child(s, c)) < 0 && s != 0) {
+                s = fail[s];
+            }
+            s = Math.max(next, 0);
+        }
+        return matchAtEnd[s];
+    }
+
+    private int child(int state, char c) {
+        int i = Arrays.binarySearch(edgeChars, firstEdge[state], firstEdge[state + 1], c);
+        return i >= 0 ? edgeTargets[i] : -1;
+    }
+}
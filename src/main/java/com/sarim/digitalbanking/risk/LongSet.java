@@ -0,0 +1,84 @@
+package com.sarim.digitalbanking.risk;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Open-addressing set of positive longs (ids), so graph searches do not box every visited node.
+ * Not thread-safe while it is being filled; safe to read from any thread once published.
+ */
+final class LongSet {
+
+    private long[] slots;
+    private int size;
+
+    LongSet(int expected) {
+        slots = new long[Integer.highestOneBit(Math.max(8, expected * 2) - 1) << 1];
+    }
+
+    /** Adds {@code id} (> 0); false when it was already there. */
+    boolean add(long id) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("ids must be positive");
+        }
+        if ((size + 1) * 2 > slots.length) {
+            grow();
+        }
+        if (!insert(slots, id)) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    boolean contains(long id) {
+        int mask = slots.length - 1;
+        for (int i = mix(id) & mask; ; i = (i + 1) & mask) {
+            if (slots[i] == id) {
+                return true;
+            }
+            if (slots[i] == 0L) {
+                return false;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(LongConsumer action) {
+        for (long id : slots) {
+            if (id != 0L) {
+                action.accept(id);
+            }
+        }
+    }
+
+    private void grow() {
+        long[] bigger = new long[slots.length * 2];
+        for (long id : slots) {
+            if (id != 0L) {
+                insert(bigger, id);
+            }
+        }
+        slots = bigger;
+    }
+
+    private static boolean insert(long[] table, long id) {
+        int mask = table.length - 1;
+        for (int i = mix(id) & mask; ; i = (i + 1) & mask) {
+            if (table[i] == id) {
+                return false;
+            }
+            if (table[i] == 0L) {
+                table[i] = id;
+                return true;
+            }
+        }
+    }
+
+    private static int mix(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,32 @@
+package com.sarim.digitalbanking.risk;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Inputs the risk model can weight, by their name in the model file. Each has a fixed slot in the
+ * per-thread feature vector, so a model only needs to know which slots it reads.
+ */
+enum ModelFeature {
+
+    AMOUNT("amount"),                   // dollars
+    AMOUNT_LOG("amount_log"),           // ln(1 + dollars)
+    WINDOW_TOTAL("window_total"),       // dollars already in the sender's velocity window
+    WINDOW_TOTAL_LOG("window_total_log"),
+    PAYEE_AGE_DAYS("payee_age_days"),   // since the payee was added
+    HOUR_SIN("hour_sin"),               // time of day (UTC) on the unit circle, so 23:59 is next to 00:00
+    HOUR_COS("hour_cos"),
+    FAN_IN("fan_in");                   // distinct senders into the recipient account over the last day
+
+    static final int COUNT = values().length;
+
+    private final String fileName;
+
+    ModelFeature(String fileName) {
+        this.fileName = fileName;
+    }
+
+    static Optional<ModelFeature> byFileName(String name) {
+        return Arrays.stream(values()).filter(f -> f.fileName.equals(name)).findFirst();
+    }
+}
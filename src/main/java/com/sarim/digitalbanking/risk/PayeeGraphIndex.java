@@ -0,0 +1,518 @@
+package com.sarim.digitalbanking.risk;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory money-flow graph between users: an edge per completed transfer (sender to recipient,
+ * at the time it completed) and per payee link (owner to payee), kept as primitive {@code long[]}
+ * adjacency per user. Only money that actually moved counts: a transfer becomes an edge when it
+ * reaches COMPLETED, so a held one shows up once it is approved and a rejected or blocked one
+ * never does. Transfers into or out of a treasury account are left out.
+ *
+ * The graph is loaded once for the last {@code retention-days} (streamed through a cursor, in
+ * the background) and then follows the {@code transfers} and {@code payees} tables every
+ * {@code refresh-interval-ms}, transfers by {@code updated_at} and payees by {@code created_at},
+ * re-reading a short overlap so rows committed slightly out of order are not missed; every
+ * instance sees every instance's transfers this way. Users with a FROZEN account are the
+ * known-bad set, refreshed every {@code known-bad-refresh-ms}.
+ *
+ * One thread writes (the refresh), any number read: an adjacency list is published as an
+ * immutable snapshot over arrays that are only ever appended past the published size. Queries
+ * are bounded by {@code max-depth} and {@code max-visits}, so they stay well under a millisecond
+ * on any graph; a search that runs out of budget reports no path. Until the first load finished
+ * every query answers as for an unknown user.
+ */
+@Service
+public class PayeeGraphIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PayeeGraphIndex.class);
+
+    // rows may commit later than their timestamp; the tail re-reads this much and skips known ids
+    private static final Duration OVERLAP = Duration.ofMinutes(2);
+
+    // deposits and rebalancing move money out of the treasury shards, which would otherwise link everyone;
+    // a transfer's updated_at is when it last changed status, i.e. when it completed
+    private static final String TRANSFERS_SQL = """
+            select t.id, fa.user_id, ta.user_id, t.from_account_id, t.to_account_id, t.updated_at
+              from transfers t
+              join accounts fa on fa.id = t.from_account_id
+              join accounts ta on ta.id = t.to_account_id
+             where t.updated_at >= ?
+               and t.status = 'COMPLETED'
+               and fa.user_id <> ta.user_id
+               and not exists (select 1 from treasury_accounts tr
+                                where tr.account_id in (t.from_account_id, t.to_account_id))
+             order by t.updated_at, t.id
+            """;
+
+    private static final String PAYEES_SQL = """
+            select id, owner_user_id, payee_user_id, created_at
+              from payees
+             where created_at >= ?
+             order by created_at, id
+            """;
+
+    private static final String KNOWN_BAD_SQL = "select distinct user_id from accounts where status = 'FROZEN'";
+
+    public record Features(long recipientFanIn, long senderFanOut, long badDistance, boolean cycle) {
+
+        static final Features NONE = new Features(0L, 0L, RiskFeatures.NO_PATH, false);
+    }
+
+    public record Stats(boolean ready, int users, long edges, int knownBad) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final Duration retention;
+    private final Duration fanWindow;
+    private final int maxDepth;
+    private final int maxVisits;
+    private final int fetchSize;
+
+    private final Timer loadTimer;
+    private final Timer queryTimer;
+
+    private final ConcurrentHashMap<Long, Node> nodes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> accountOwners = new ConcurrentHashMap<>();
+    private volatile LongSet knownBad = new LongSet(8);
+    private volatile boolean ready;
+
+    // writer state, guarded by this
+    private Instant transferWatermark;
+    private Instant payeeWatermark;
+    private final Map<Long, Instant> recentTransferIds = new HashMap<>();
+    private final Map<Long, Instant> recentPayeeIds = new HashMap<>();
+    private volatile long edgeCount;
+
+    public PayeeGraphIndex(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.risk.graph.enabled:true}") boolean enabled,
+            @Value("${app.risk.graph.retention-days:7}") int retentionDays,
+            @Value("${app.risk.graph.fan-window-minutes:1440}") int fanWindowMinutes,
+            @Value("${app.risk.graph.max-depth:4}") int maxDepth,
+            @Value("${app.risk.graph.max-visits:5000}") int maxVisits,
+            @Value("${app.risk.graph.fetch-size:10000}") int fetchSize
+    ) {
+        if (retentionDays < 1 || fanWindowMinutes < 1 || maxDepth < 1 || maxVisits < 1) {
+            throw new IllegalArgumentException("app.risk.graph retention-days, fan-window-minutes, max-depth and max-visits must be >= 1");
+        }
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.retention = Duration.ofDays(retentionDays);
+        this.fanWindow = Duration.ofMinutes(fanWindowMinutes);
+        this.maxDepth = maxDepth;
+        this.maxVisits = maxVisits;
+        this.fetchSize = Math.max(1, fetchSize);
+
+        this.loadTimer = Timer.builder("risk.graph.load").register(meterRegistry);
+        this.queryTimer = Timer.builder("risk.graph.query").register(meterRegistry);
+        meterRegistry.gauge("risk.graph.users", nodes, Map::size);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(this::loadQuietly, "payee-graph-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    public boolean ready() {
+        return ready;
+    }
+
+    public Stats stats() {
+        return new Stats(ready, nodes.size(), edgeCount, knownBad.size());
+    }
+
+    /** Loads the retention window from scratch; the scheduled refresh takes over from there. */
+    public synchronized void load() {
+        long startedAt = System.nanoTime();
+        Instant now = Instant.now();
+
+        nodes.clear();
+        accountOwners.clear();
+        recentTransferIds.clear();
+        recentPayeeIds.clear();
+        edgeCount = 0;
+        transferWatermark = now.minus(retention);
+        payeeWatermark = Instant.EPOCH;      // payee links do not age out
+
+        refreshKnownBad();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            tailTransfers();
+            tailPayees();
+        });
+        ready = true;
+
+        long elapsed = System.nanoTime() - startedAt;
+        loadTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("payee graph loaded: {} users, {} edges in {} ms",
+                nodes.size(), edgeCount, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    @Scheduled(fixedDelayString = "${app.risk.graph.refresh-interval-ms:1000}")
+    public void refresh() {
+        if (!ready) {
+            return;     // checked outside the lock, the initial load may hold it for a while
+        }
+        synchronized (this) {
+            try {
+                tailTransfers();
+                tailPayees();
+            } catch (RuntimeException e) {
+                log.warn("payee graph refresh failed, retrying on the next tick: {}", e.toString());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.risk.graph.known-bad-refresh-ms:10000}")
+    public void refreshKnownBad() {
+        if (!enabled) {
+            return;
+        }
+        List<Long> ids = jdbcTemplate.queryForList(KNOWN_BAD_SQL, Long.class);
+        LongSet bad = new LongSet(ids.size());
+        ids.forEach(bad::add);
+        knownBad = bad;
+    }
+
+    /** Drops transfer edges that left the retention window. */
+    @Scheduled(fixedDelayString = "${app.risk.graph.compact-interval-ms:3600000}")
+    public void compact() {
+        if (!ready) {
+            return;
+        }
+        synchronized (this) {
+            compactEdges();
+        }
+    }
+
+    private void compactEdges() {
+        long cutoff = Instant.now().minus(retention).toEpochMilli();
+        long removed = 0;
+        for (Iterator<Node> it = nodes.values().iterator(); it.hasNext(); ) {
+            Node node = it.next();
+            Edges out = node.out.since(cutoff);
+            removed += node.out.size - out.size;
+            node.out = out;
+            node.in = node.in.since(cutoff);
+            if (node.out.size == 0 && node.in.size == 0 && node.payees.size == 0) {
+                it.remove();
+            }
+        }
+        edgeCount -= removed;
+    }
+
+    /**
+     * The graph features for a transfer from {@code senderUserId} to {@code recipientAccountId},
+     * computing only those {@code rules} read.
+     */
+    public Features features(RiskRuleSet rules, Long senderUserId, Long recipientAccountId, Instant now) {
+        boolean fanIn = rules.requires(RiskFeature.RECIPIENT_FAN_IN);
+        boolean fanOut = rules.requires(RiskFeature.SENDER_FAN_OUT);
+        boolean bad = rules.requires(RiskFeature.BAD_DISTANCE);
+        boolean cycle = rules.requires(RiskFeature.CYCLE);
+        if (!ready || !(fanIn || fanOut || bad || cycle)) {
+            return Features.NONE;
+        }
+
+        long startedAt = System.nanoTime();
+        Long recipient = recipientAccountId == null ? null : accountOwners.get(recipientAccountId);
+        long since = now.minus(fanWindow).toEpochMilli();
+
+        Features features = new Features(
+                fanIn && recipient != null ? fanIn(recipient, since) : 0L,
+                fanOut && senderUserId != null ? fanOut(senderUserId, since) : 0L,
+                bad && recipient != null ? badDistance(recipient) : RiskFeatures.NO_PATH,
+                cycle && recipient != null && senderUserId != null && closesCycle(senderUserId, recipient)
+        );
+        queryTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        return features;
+    }
+
+    public long fanIn(long userId, long sinceMillis) {
+        Node node = nodes.get(userId);
+        return node == null ? 0L : distinctPeers(node.in, sinceMillis);
+    }
+
+    public long fanOut(long userId, long sinceMillis) {
+        Node node = nodes.get(userId);
+        return node == null ? 0L : distinctPeers(node.out, sinceMillis);
+    }
+
+    public long badDistance(long userId) {
+        long[] path = pathToKnownBad(userId);
+        return path == null ? RiskFeatures.NO_PATH : path.length - 1;
+    }
+
+    /** Users from {@code userId} to the nearest known-bad user, both included; null when none is close. */
+    public long[] pathToKnownBad(long userId) {
+        LongSet bad = knownBad;
+        if (bad.contains(userId)) {
+            return new long[] {userId};
+        }
+        return path(userId, bad::contains, true);
+    }
+
+    private boolean closesCycle(long sender, long recipient) {
+        return path(recipient, peer -> peer == sender, false) != null;
+    }
+
+    /** A money cycle through {@code userId}, starting and ending with it; null when none is close. */
+    public long[] cycleThrough(long userId) {
+        return path(userId, peer -> peer == userId, false);
+    }
+
+    public Duration fanWindow() {
+        return fanWindow;
+    }
+
+    // ---- search -------------------------------------------------------------------------------
+
+    private static long distinctPeers(Edges edges, long sinceMillis) {
+        long lateCutoff = sinceMillis - OVERLAP.toMillis();
+        LongSet peers = new LongSet(16);
+        // appended in completion order give or take the overlap, so older edges can be skipped wholesale
+        for (int i = edges.size - 1; i >= 0 && edges.times[i] >= lateCutoff; i--) {
+            if (edges.times[i] >= sinceMillis) {
+                peers.add(edges.peers[i]);
+            }
+        }
+        return peers.size();
+    }
+
+    /**
+     * Breadth-first from {@code start} over transfer edges (and payee links when asked) up to
+     * {@code max-depth} hops; returns the path to the first user matching {@code target}.
+     */
+    private long[] path(long start, LongPredicate target, boolean withPayees) {
+        long[] queue = new long[64];
+        int[] parent = new int[64];
+        int[] depth = new int[64];
+        LongSet visited = new LongSet(64);
+
+        queue[0] = start;
+        parent[0] = -1;
+        visited.add(start);
+        int head = 0;
+        int tail = 1;
+
+        while (head < tail) {
+            int at = head++;
+            if (depth[at] == maxDepth) {
+                continue;
+            }
+            Node node = nodes.get(queue[at]);
+            if (node == null) {
+                continue;
+            }
+
+            Edges out = node.out;
+            Edges payees = withPayees ? node.payees : Edges.EMPTY;
+            int total = out.size + payees.size;
+            for (int i = 0; i < total; i++) {
+                long peer = i < out.size ? out.peers[i] : payees.peers[i - out.size];
+                if (target.test(peer)) {
+                    return trace(queue, parent, at, peer);
+                }
+                if (!visited.add(peer)) {
+                    continue;
+                }
+                if (tail == maxVisits) {
+                    return null;
+                }
+                if (tail == queue.length) {
+                    queue = Arrays.copyOf(queue, tail * 2);
+                    parent = Arrays.copyOf(parent, tail * 2);
+                    depth = Arrays.copyOf(depth, tail * 2);
+                }
+                queue[tail] = peer;
+                parent[tail] = at;
+                depth[tail] = depth[at] + 1;
+                tail++;
+            }
+        }
+        return null;
+    }
+
+    private static long[] trace(long[] queue, int[] parent, int at, long last) {
+        int length = 2;
+        for (int i = at; parent[i] >= 0; i = parent[i]) {
+            length++;
+        }
+        long[] path = new long[length];
+        path[length - 1] = last;
+        for (int i = at, p = length - 2; i >= 0; i = parent[i], p--) {
+            path[p] = queue[i];
+        }
+        return path;
+    }
+
+    // ---- writer -------------------------------------------------------------------------------
+
+    private void loadQuietly() {
+        try {
+            load();
+        } catch (RuntimeException e) {
+            log.error("payee graph load failed, graph features stay empty: {}", e.toString());
+        }
+    }
+
+    private void tailTransfers() {
+        Instant from = transferWatermark.minus(OVERLAP);
+        stream(TRANSFERS_SQL, from, rs -> {
+            long id = rs.getLong(1);
+            Instant completedAt = rs.getTimestamp(6).toInstant();
+            if (recentTransferIds.putIfAbsent(id, completedAt) != null) {
+                return;
+            }
+            long sender = rs.getLong(2);
+            long recipient = rs.getLong(3);
+            accountOwners.put(rs.getLong(4), sender);
+            accountOwners.put(rs.getLong(5), recipient);
+
+            long at = completedAt.toEpochMilli();
+            Node source = node(sender);
+            source.out = source.out.append(recipient, at);
+            Node target = node(recipient);
+            target.in = target.in.append(sender, at);
+            edgeCount++;
+
+            if (completedAt.isAfter(transferWatermark)) {
+                transferWatermark = completedAt;
+            }
+        });
+        Instant keepFrom = transferWatermark.minus(OVERLAP);
+        recentTransferIds.values().removeIf(completedAt -> completedAt.isBefore(keepFrom));
+    }
+
+    private void tailPayees() {
+        Instant from = payeeWatermark.minus(OVERLAP);
+        stream(PAYEES_SQL, from, rs -> {
+            long id = rs.getLong(1);
+            Instant createdAt = rs.getTimestamp(4).toInstant();
+            if (recentPayeeIds.putIfAbsent(id, createdAt) != null) {
+                return;
+            }
+            Node owner = node(rs.getLong(2));
+            owner.payees = owner.payees.append(rs.getLong(3), createdAt.toEpochMilli());
+            node(rs.getLong(3));
+
+            if (createdAt.isAfter(payeeWatermark)) {
+                payeeWatermark = createdAt;
+            }
+        });
+        Instant keepFrom = payeeWatermark.minus(OVERLAP);
+        recentPayeeIds.values().removeIf(createdAt -> createdAt.isBefore(keepFrom));
+    }
+
+    private void stream(String sql, Instant from, RowHandler handler) {
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(sql);
+                    ps.setFetchSize(fetchSize);
+                    ps.setTimestamp(1, Timestamp.from(from));
+                    return ps;
+                },
+                (RowCallbackHandler) handler::row
+        );
+    }
+
+    private Node node(long userId) {
+        return nodes.computeIfAbsent(userId, id -> new Node());
+    }
+
+    private interface RowHandler {
+        void row(ResultSet rs) throws SQLException;
+    }
+
+    private static final class Node {
+        volatile Edges out = Edges.EMPTY;
+        volatile Edges in = Edges.EMPTY;
+        volatile Edges payees = Edges.EMPTY;
+    }
+
+    /** Immutable view of {@code size} entries; {@link #append} writes past it and publishes a new view. */
+    private static final class Edges {
+
+        static final Edges EMPTY = new Edges(new long[0], new long[0], 0);
+
+        final long[] peers;
+        final long[] times;
+        final int size;
+
+        Edges(long[] peers, long[] times, int size) {
+            this.peers = peers;
+            this.times = times;
+            this.size = size;
+        }
+
+        Edges append(long peer, long atMillis) {
+            long[] p = peers;
+            long[] t = times;
+            if (size == p.length) {
+                int capacity = Math.max(4, size * 2);
+                p = Arrays.copyOf(p, capacity);
+                t = Arrays.copyOf(t, capacity);
+            }
+            p[size] = peer;
+            t[size] = atMillis;
+            return new Edges(p, t, size + 1);
+        }
+
+        Edges since(long cutoffMillis) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (times[i] >= cutoffMillis) {
+                    kept++;
+                }
+            }
+            if (kept == size) {
+                return this;
+            }
+            long[] p = new long[kept];
+            long[] t = new long[kept];
+            for (int i = 0, j = 0; i < size; i++) {
+                if (times[i] >= cutoffMillis) {
+                    p[j] = peers[i];
+                    t[j++] = times[i];
+                }
+            }
+            return kept == 0 ? EMPTY : new Edges(p, t, kept);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.sarim.digitalbanking.risk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Compiles a rule expression into a {@link Predicate} over {@link RiskFeatures}, once, when the
+ * rule set is loaded; evaluating a transfer is then plain lambda calls with no parsing or lookups.
+ *
+ * Grammar (whitespace is ignored, numbers may use {@code _} as a separator):
+ * <pre>
+ * expr    := and ('or' and)*
+ * and     := unary ('and' unary)*
+ * unary   := 'not' unary | compare
+ * compare := sum (('&gt;=' | '&gt;' | '&lt;=' | '&lt;' | '==' | '!=') sum)?
+ * sum     := primary (('+' | '-') primary)*
+ * primary := number | 'true' | 'false' | feature | '(' expr ')'
+ * </pre>
+ * Features are numbers or booleans (see {@link RiskFeature}); mixing the two, or an expression
+ * that is not a boolean overall, is rejected. {@code and}/{@code or} short-circuit.
+ */
+final class RiskExpressionCompiler {
+
+    record Compiled(Predicate<RiskFeatures> predicate, Set<RiskFeature> features) {}
+
+    private final List<String> tokens;
+    private final EnumSet<RiskFeature> features = EnumSet.noneOf(RiskFeature.class);
+    private int pos;
+
+    private RiskExpressionCompiler(List<String> tokens) {
+        this.tokens = tokens;
+    }
+
+    static Compiled compile(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("rule expression is empty");
+        }
+        RiskExpressionCompiler compiler = new RiskExpressionCompiler(tokenize(expression));
+        Operand root = compiler.or();
+        if (compiler.pos < compiler.tokens.size()) {
+            throw compiler.error("unexpected '" + compiler.tokens.get(compiler.pos) + "'");
+        }
+        return new Compiled(compiler.bool(root, "the expression"), Collections.unmodifiableSet(compiler.features));
+    }
+
+    // exactly one of the two is set
+    private record Operand(Predicate<RiskFeatures> bool, ToLongFunction<RiskFeatures> number) {}
+
+    private Operand or() {
+        Operand left = and();
+        while (accept("or")) {
+            Predicate<RiskFeatures> l = bool(left, "'or'");
+            Predicate<RiskFeatures> r = bool(and(), "'or'");
+            left = new Operand(f -> l.test(f) || r.test(f), null);
+        }
+        return left;
+    }
+
+    private Operand and() {
+        Operand left = unary();
+        while (accept("and")) {
+            Predicate<RiskFeatures> l = bool(left, "'and'");
+            Predicate<RiskFeatures> r = bool(unary(), "'and'");
+            left = new Operand(f -> l.test(f) && r.test(f), null);
+        }
+        return left;
+    }
+
+    private Operand unary() {
+        if (accept("not")) {
+            Predicate<RiskFeatures> operand = bool(unary(), "'not'");
+            return new Operand(operand.negate(), null);
+        }
+        return compare();
+    }
+
+    private Operand compare() {
+        Operand left = sum();
+        if (pos >= tokens.size()) {
+            return left;
+        }
+        String op = tokens.get(pos);
+        if (!List.of(">=", ">", "<=", "<", "==", "!=").contains(op)) {
+            return left;
+        }
+        pos++;
+        Operand right = sum();
+
+        if (left.bool() != null || right.bool() != null) {
+            Predicate<RiskFeatures> l = bool(left, "'" + op + "'");
+            Predicate<RiskFeatures> r = bool(right, "'" + op + "'");
+            return switch (op) {
+                case "==" -> new Operand(f -> l.test(f) == r.test(f), null);
+                case "!=" -> new Operand(f -> l.test(f) != r.test(f), null);
+                default -> throw error("'" + op + "' needs numbers");
+            };
+        }
+
+        ToLongFunction<RiskFeatures> l = left.number();
+        ToLongFunction<RiskFeatures> r = right.number();
+        Predicate<RiskFeatures> result = switch (op) {
+            case ">=" -> f -> l.applyAsLong(f) >= r.applyAsLong(f);
+            case ">" -> f -> l.applyAsLong(f) > r.applyAsLong(f);
+            case "<=" -> f -> l.applyAsLong(f) <= r.applyAsLong(f);
+            case "<" -> f -> l.applyAsLong(f) < r.applyAsLong(f);
+            case "==" -> f -> l.applyAsLong(f) == r.applyAsLong(f);
+            default -> f -> l.applyAsLong(f) != r.applyAsLong(f);
+        };
+        return new Operand(result, null);
+    }
+
+    private Operand sum() {
+        Operand left = primary();
+        while (pos < tokens.size() && (tokens.get(pos).equals("+") || tokens.get(pos).equals("-"))) {
+            String op = tokens.get(pos++);
+            ToLongFunction<RiskFeatures> l = number(left, "'" + op + "'");
+            ToLongFunction<RiskFeatures> r = number(primary(), "'" + op + "'");
+            left = new Operand(null, op.equals("+")
+                    ? f -> l.applyAsLong(f) + r.applyAsLong(f)
+                    : f -> l.applyAsLong(f) - r.applyAsLong(f));
+        }
+        return left;
+    }
+
+    private Operand primary() {
+        if (pos >= tokens.size()) {
+            throw error("unexpected end of expression");
+        }
+        String token = tokens.get(pos++);
+
+        if (token.equals("(")) {
+            Operand inner = or();
+            if (!accept(")")) {
+                throw error("missing ')'");
+            }
+            return inner;
+        }
+        if (token.equals("true") || token.equals("false")) {
+            boolean value = Boolean.parseBoolean(token);
+            return new Operand(f -> value, null);
+        }
+        if (Character.isDigit(token.charAt(0))) {
+            long value;
+            try {
+                value = Long.parseLong(token.replace("_", ""));
+            } catch (NumberFormatException e) {
+                throw error("bad number '" + token + "'");
+            }
+            return new Operand(null, f -> value);
+        }
+
+        RiskFeature feature = RiskFeature.byDslName(token)
+                .orElseThrow(() -> error("unknown feature or token '" + token + "'"));
+        features.add(feature);
+        return switch (feature) {
+            case AMOUNT -> new Operand(null, RiskFeatures::amountCents);
+            case WINDOW_TOTAL -> new Operand(null, RiskFeatures::windowTotalCents);
+            case PENDING_HOLD -> new Operand(RiskFeatures::pendingHold, null);
+            case RECIPIENT_FAN_IN -> new Operand(null, RiskFeatures::recipientFanIn);
+            case SENDER_FAN_OUT -> new Operand(null, RiskFeatures::senderFanOut);
+            case BAD_DISTANCE -> new Operand(null, RiskFeatures::badDistance);
+            case CYCLE -> new Operand(RiskFeatures::cycle, null);
+        };
+    }
+
+    private Predicate<RiskFeatures> bool(Operand operand, String where) {
+        if (operand.bool() == null) {
+            throw error(where + " needs a boolean, got a number");
+        }
+        return operand.bool();
+    }
+
+    private ToLongFunction<RiskFeatures> number(Operand operand, String where) {
+        if (operand.number() == null) {
+            throw error(where + " needs a number, got a boolean");
+        }
+        return operand.number();
+    }
+
+    private boolean accept(String token) {
+        if (pos < tokens.size() && tokens.get(pos).equals(token)) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("rule expression: " + message + " (token " + pos + ")");
+    }
+
+    private static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < expression.length()) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isLetterOrDigit(c) || c == '_') {
+                int start = i;
+                while (i < expression.length()
+                        && (Character.isLetterOrDigit(expression.charAt(i)) || expression.charAt(i) == '_')) {
+                    i++;
+                }
+                tokens.add(expression.substring(start, i));
+            } else if ((c == '>' || c == '<' || c == '=' || c == '!')
+                    && i + 1 < expression.length() && expression.charAt(i + 1) == '=') {
+                tokens.add(expression.substring(i, i + 2));
+                i += 2;
+            } else if ("()+-<>".indexOf(c) >= 0) {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else {
+                throw new IllegalArgumentException("rule expression: unexpected character '" + c + "' at " + i);
+            }
+        }
+        return tokens;
+    }
+}
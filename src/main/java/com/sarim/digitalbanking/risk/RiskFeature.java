@@ -0,0 +1,52 @@
+package com.sarim.digitalbanking.risk;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/** Inputs a risk rule expression can refer to, by their name in the rule DSL. */
+public enum RiskFeature {
+
+    /** Amount of the transfer being decided, in cents. */
+    AMOUNT("amount", false),
+
+    /** What the sender's rolling velocity window held before this transfer, in cents. */
+    WINDOW_TOTAL("window_total", false),
+
+    /** Whether the sender already has an outgoing transfer in PENDING_REVIEW. */
+    PENDING_HOLD("pending_hold", true),
+
+    /** Distinct users who sent money to the recipient within the graph's fan window. */
+    RECIPIENT_FAN_IN("recipient_fan_in", false),
+
+    /** Distinct users the sender sent money to within the graph's fan window. */
+    SENDER_FAN_OUT("sender_fan_out", false),
+
+    /**
+     * Hops from the recipient to the nearest user with a frozen account, following transfers and
+     * payee links; 0 when the recipient is frozen, {@link RiskFeatures#NO_PATH} when none is close.
+     */
+    BAD_DISTANCE("bad_distance", false),
+
+    /** Whether money already flows from the recipient back to the sender, i.e. this transfer closes a cycle. */
+    CYCLE("cycle", true);
+
+    private final String dslName;
+    private final boolean bool;
+
+    RiskFeature(String dslName, boolean bool) {
+        this.dslName = dslName;
+        this.bool = bool;
+    }
+
+    public String dslName() {
+        return dslName;
+    }
+
+    boolean isBoolean() {
+        return bool;
+    }
+
+    static Optional<RiskFeature> byDslName(String name) {
+        return Arrays.stream(values()).filter(f -> f.dslName.equals(name)).findFirst();
+    }
+}
@@ -0,0 +1,24 @@
+package com.sarim.digitalbanking.risk;
+
+/**
+ * Feature values for one transfer. Features no rule in the current set needs may be left at
+ * their defaults (see {@link RiskRuleSet#requires}); the graph features default to "nothing
+ * known" (no fan-in or fan-out, no path to a bad account, no cycle).
+ */
+public record RiskFeatures(
+        long amountCents,
+        long windowTotalCents,
+        boolean pendingHold,
+        long recipientFanIn,
+        long senderFanOut,
+        long badDistance,
+        boolean cycle
+) {
+
+    /** {@link #badDistance} when no frozen account is within the graph's search depth. */
+    public static final long NO_PATH = 99;
+
+    public RiskFeatures(long amountCents, long windowTotalCents, boolean pendingHold) {
+        this(amountCents, windowTotalCents, pendingHold, 0L, 0L, NO_PATH, false);
+    }
+}
@@ -0,0 +1,96 @@
+package com.sarim.digitalbanking.risk;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A loaded logistic regression model: {@code score = round(100 * sigmoid(bias + sum(w * (x - mean) / scale)))}.
+ *
+ * Standardisation is folded into the weights and the bias at load time, so scoring is one
+ * multiply-add per term. Feature values are written into a reusable {@code double[]} per thread
+ * and nothing is allocated per call.
+ */
+final class RiskModel {
+
+    private static final double SECONDS_PER_DAY = 86_400d;
+
+    private static final ThreadLocal<double[]> VECTOR = ThreadLocal.withInitial(() -> new double[ModelFeature.COUNT]);
+
+    private final String version;
+    private final double bias;
+    private final int[] slots;
+    private final double[] weights;
+    private final Set<ModelFeature> features;
+
+    private RiskModel(String version, double bias, int[] slots, double[] weights, Set<ModelFeature> features) {
+        this.version = version;
+        this.bias = bias;
+        this.slots = slots;
+        this.weights = weights;
+        this.features = features;
+    }
+
+    record Term(String name, double weight, double mean, double scale) {}
+
+    static RiskModel of(String version, double bias, List<Term> terms) {
+        if (terms == null || terms.isEmpty()) {
+            throw new IllegalArgumentException("risk model has no features");
+        }
+        int[] slots = new int[terms.size()];
+        double[] weights = new double[terms.size()];
+        EnumSet<ModelFeature> features = EnumSet.noneOf(ModelFeature.class);
+        double folded = bias;
+
+        for (int i = 0; i < terms.size(); i++) {
+            Term term = terms.get(i);
+            ModelFeature feature = ModelFeature.byFileName(term.name())
+                    .orElseThrow(() -> new IllegalArgumentException("risk model: unknown feature '" + term.name() + "'"));
+            if (!features.add(feature)) {
+                throw new IllegalArgumentException("risk model: feature '" + term.name() + "' appears twice");
+            }
+            if (!(term.scale() > 0) || !Double.isFinite(term.weight()) || !Double.isFinite(term.mean())) {
+                throw new IllegalArgumentException("risk model: feature '" + term.name() + "' needs a finite weight/mean and scale > 0");
+            }
+            slots[i] = feature.ordinal();
+            weights[i] = term.weight() / term.scale();
+            folded -= weights[i] * term.mean();
+        }
+        if (!Double.isFinite(folded)) {
+            throw new IllegalArgumentException("risk model: bias is not finite");
+        }
+        return new RiskModel(version == null ? "unversioned" : version, folded, slots, weights, features);
+    }
+
+    String version() {
+        return version;
+    }
+
+    boolean uses(ModelFeature feature) {
+        return features.contains(feature);
+    }
+
+    /** Score 0..100; {@code payeeAgeSeconds} and {@code fanIn} may be -1 when not loaded. */
+    int score(long amountCents, long windowTotalCents, long payeeAgeSeconds, int secondOfDay, int fanIn) {
+        double[] x = VECTOR.get();
+
+        double amount = amountCents / 100d;
+        double windowTotal = windowTotalCents / 100d;
+        double angle = 2 * Math.PI * secondOfDay / SECONDS_PER_DAY;
+
+        x[ModelFeature.AMOUNT.ordinal()] = amount;
+        x[ModelFeature.AMOUNT_LOG.ordinal()] = Math.log1p(Math.max(0d, amount));
+        x[ModelFeature.WINDOW_TOTAL.ordinal()] = windowTotal;
+        x[ModelFeature.WINDOW_TOTAL_LOG.ordinal()] = Math.log1p(Math.max(0d, windowTotal));
+        x[ModelFeature.PAYEE_AGE_DAYS.ordinal()] = Math.max(0L, payeeAgeSeconds) / SECONDS_PER_DAY;
+        x[ModelFeature.HOUR_SIN.ordinal()] = Math.sin(angle);
+        x[ModelFeature.HOUR_COS.ordinal()] = Math.cos(angle);
+        x[ModelFeature.FAN_IN.ordinal()] = Math.max(0, fanIn);
+
+        double z = bias;
+        for (int i = 0; i < slots.length; i++) {
+            z += weights[i] * x[slots[i]];
+        }
+        return (int) Math.round(100d / (1d + Math.exp(-z)));
+    }
+}
@@ -0,0 +1,218 @@
+package com.sarim.digitalbanking.risk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores transfers with the logistic regression model at {@code app.risk.model.location}.
+ *
+ * {@code app.risk.model.mode}: {@code off} never loads or scores; {@code shadow} scores every
+ * transfer and only records how the model compares with the rules ({@code risk.model.shadow},
+ * tagged with both decisions at {@code hold-score}); {@code active} does the same and also puts the
+ * model's score on held transfers in place of the rule score. Holding stays with the rules.
+ *
+ * The file is checked every {@code reload-interval-ms} and swapped in when it changed; a file
+ * that does not parse keeps the previous model. Payee age and fan-in cost one query per transfer
+ * and are only loaded when the model has a weight for them.
+ */
+@Service
+public class RiskModelService {
+
+    private static final Logger log = LoggerFactory.getLogger(RiskModelService.class);
+
+    private static final Duration FAN_IN_WINDOW = Duration.ofDays(1);
+    private static final int FAN_IN_SCAN_LIMIT = 1000;
+
+    private static final String COUNTERPARTY_SQL = """
+            select (select p.created_at from payees p where p.id = ?) as payee_created_at,
+                   (select count(distinct x.user_id)
+                      from (select fa.user_id
+                              from transfers t
+                              join accounts fa on fa.id = t.from_account_id
+                             where t.to_account_id = ?
+                               and t.created_at >= ?
+                             limit ?) x) as fan_in
+            """;
+
+    enum Mode { OFF, SHADOW, ACTIVE }
+
+    private record ModelFile(String version, Double bias, List<RiskModel.Term> features) {}
+
+    private record Counterparty(Timestamp payeeCreatedAt, int fanIn) {}
+
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final Mode mode;
+    private final String location;
+    private final int holdScore;
+
+    private final Timer scoreTimer;
+    private final DistributionSummary scores;
+    private final Counter reloadOk;
+    private final Counter reloadRejected;
+    private final Counter[][] shadow = new Counter[2][2];     // [rules hold][model hold]
+
+    private volatile RiskModel model;
+    private volatile long loadedLastModified;
+
+    public RiskModelService(
+            ResourceLoader resourceLoader,
+            ObjectMapper objectMapper,
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.risk.model.mode:off}") String mode,
+            @Value("${app.risk.model.location:classpath:risk/transfer-model.json}") String location,
+            @Value("${app.risk.model.hold-score:80}") int holdScore
+    ) {
+        try {
+            this.mode = Mode.valueOf(mode.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("app.risk.model.mode must be off, shadow or active");
+        }
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.location = location;
+        this.holdScore = holdScore;
+
+        this.scoreTimer = Timer.builder("risk.model.latency").register(meterRegistry);
+        this.scores = DistributionSummary.builder("risk.model.scores").register(meterRegistry);
+        this.reloadOk = Counter.builder("risk.model.reload").tag("result", "ok").register(meterRegistry);
+        this.reloadRejected = Counter.builder("risk.model.reload").tag("result", "rejected").register(meterRegistry);
+        for (int rules = 0; rules < 2; rules++) {
+            for (int modelHold = 0; modelHold < 2; modelHold++) {
+                shadow[rules][modelHold] = Counter.builder("risk.model.shadow")
+                        .tag("rules", rules == 1 ? "hold" : "pass")
+                        .tag("model", modelHold == 1 ? "hold" : "pass")
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    @PostConstruct
+    void load() {
+        if (mode != Mode.OFF) {
+            reload();
+        }
+    }
+
+    public boolean enabled() {
+        return mode != Mode.OFF && model != null;
+    }
+
+    public String modelVersion() {
+        RiskModel current = model;
+        return current == null ? null : current.version();
+    }
+
+    /** Reads and swaps in the model file; throws {@link IllegalArgumentException} when it does not parse. */
+    public synchronized void reload() {
+        Resource resource = resourceLoader.getResource(location);
+        try (InputStream in = resource.getInputStream()) {
+            long lastModified = lastModified(resource);
+            ModelFile file = objectMapper.readValue(in, ModelFile.class);
+            RiskModel loaded = RiskModel.of(file.version(), file.bias() == null ? 0d : file.bias(), file.features());
+            model = loaded;
+            loadedLastModified = lastModified;
+            reloadOk.increment();
+            log.info("risk model {} loaded from {} ({} mode)", loaded.version(), location, mode.name().toLowerCase());
+        } catch (IOException | IllegalArgumentException e) {
+            reloadRejected.increment();
+            throw new IllegalArgumentException("risk model " + location + " not loaded: " + e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.risk.model.reload-interval-ms:10000}")
+    public void reloadIfChanged() {
+        if (mode == Mode.OFF) {
+            return;
+        }
+        long lastModified = lastModified(resourceLoader.getResource(location));
+        if (lastModified <= 0 || lastModified == loadedLastModified) {
+            return;
+        }
+        try {
+            reload();
+        } catch (IllegalArgumentException e) {
+            loadedLastModified = lastModified;     // do not retry the same broken file every tick
+            log.error("{}; keeping model {}", e.getMessage(), modelVersion());
+        }
+    }
+
+    /**
+     * The score to record for a transfer the rules decided as {@code verdict}: the model's score
+     * for a held transfer in active mode, the rule score otherwise.
+     */
+    public Integer score(RiskVerdict verdict, long amountCents, long windowTotalCents, Long payeeId, Long toAccountId, Instant now) {
+        return score(verdict, amountCents, windowTotalCents, payeeId, toAccountId, now, true);
+    }
+
+    /**
+     * {@link #score} for a transfer that was already scored when it was created, e.g. a hold
+     * looked at again by auto-review: same result, but kept out of {@code risk.model.scores} and
+     * {@code risk.model.shadow} so those still count each transfer once.
+     */
+    public Integer rescore(RiskVerdict verdict, long amountCents, long windowTotalCents, Long payeeId, Long toAccountId, Instant asOf) {
+        return score(verdict, amountCents, windowTotalCents, payeeId, toAccountId, asOf, false);
+    }
+
+    private Integer score(RiskVerdict verdict, long amountCents, long windowTotalCents, Long payeeId, Long toAccountId,
+                          Instant now, boolean firstScore) {
+        RiskModel current = model;
+        if (mode == Mode.OFF || current == null) {
+            return verdict.score();
+        }
+
+        long payeeAgeSeconds = -1;
+        int fanIn = -1;
+        if (current.uses(ModelFeature.PAYEE_AGE_DAYS) || current.uses(ModelFeature.FAN_IN)) {
+            Counterparty counterparty = jdbcTemplate.queryForObject(COUNTERPARTY_SQL,
+                    (rs, n) -> new Counterparty(rs.getTimestamp(1), rs.getInt(2)),
+                    payeeId, toAccountId, Timestamp.from(now.minus(FAN_IN_WINDOW)), FAN_IN_SCAN_LIMIT);
+            if (counterparty.payeeCreatedAt() != null) {
+                payeeAgeSeconds = Duration.between(counterparty.payeeCreatedAt().toInstant(), now).toSeconds();
+            }
+            fanIn = counterparty.fanIn();
+        }
+
+        long startedAt = System.nanoTime();
+        int modelScore = current.score(amountCents, windowTotalCents, payeeAgeSeconds,
+                (int) Math.floorMod(now.getEpochSecond(), 86_400L), fanIn);
+        scoreTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        if (firstScore) {
+            scores.record(modelScore);
+            shadow[verdict.hold() ? 1 : 0][modelScore >= holdScore ? 1 : 0].increment();
+        }
+
+        return mode == Mode.ACTIVE && verdict.hold() ? Integer.valueOf(modelScore) : verdict.score();
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return 0L;      // e.g. inside the jar: loaded once, never swapped
+        }
+    }
+}
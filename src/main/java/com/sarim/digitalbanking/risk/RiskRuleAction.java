@@ -0,0 +1,11 @@
+package com.sarim.digitalbanking.risk;
+
+public enum RiskRuleAction {
+    /** Holds the transfer for review with the rule's score and reason. */
+    HOLD,
+    /**
+     * Ends the evaluation: rules after it are not checked. Holds from higher-priority rules that
+     * already matched still apply, so the transfer only passes when none did.
+     */
+    ALLOW
+}
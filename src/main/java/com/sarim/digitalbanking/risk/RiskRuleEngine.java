@@ -0,0 +1,173 @@
+package com.sarim.digitalbanking.risk;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Holds the compiled transfer risk rules from the {@code risk_rules} table (V11).
+ *
+ * The table is polled every {@code app.risk.rules.reload-interval-ms}; when its fingerprint
+ * (row count, highest id, sum of revisions) changed, the whole set is compiled again and swapped
+ * in atomically. A set that does not compile is rejected as a whole and the previous one stays
+ * active, so a bad edit cannot leave the app with half a policy. At startup there is no previous
+ * set, so a broken one fails the boot instead.
+ *
+ * Metrics: {@code risk.rules.latency} and {@code risk.rules.hits} per rule (hit rate is hits over
+ * the timer's count), {@code risk.rules.reload} per result and the {@code risk.rules.active} gauge.
+ */
+@Service
+public class RiskRuleEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(RiskRuleEngine.class);
+
+    private static final String FINGERPRINT_SQL =
+            "select count(*) || ':' || coalesce(max(id), 0) || ':' || coalesce(sum(revision), 0) from risk_rules";
+
+    private final RiskRuleRepository riskRuleRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final Counter reloadOk;
+    private final Counter reloadRejected;
+
+    private volatile RiskRuleSet current;
+    private volatile String rejectedFingerprint;
+
+    public RiskRuleEngine(
+            RiskRuleRepository riskRuleRepository,
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry
+    ) {
+        this.riskRuleRepository = riskRuleRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+
+        this.reloadOk = Counter.builder("risk.rules.reload").tag("result", "ok").register(meterRegistry);
+        this.reloadRejected = Counter.builder("risk.rules.reload").tag("result", "rejected").register(meterRegistry);
+        meterRegistry.gauge("risk.rules.active", this, engine -> engine.current == null ? 0 : engine.current.size());
+    }
+
+    @PostConstruct
+    void load() {
+        reload();
+    }
+
+    public RiskRuleSet current() {
+        return current;
+    }
+
+    /** Compiles the table's current content and makes it the active rule set. */
+    public synchronized RiskRuleSet reload() {
+        String fingerprint = jdbcTemplate.queryForObject(FINGERPRINT_SQL, String.class);
+        RiskRuleSet compiled;
+        try {
+            compiled = compile(riskRuleRepository.findAllByOrderByPriorityAscIdAsc(), fingerprint, meterRegistry);
+        } catch (IllegalArgumentException e) {
+            reloadRejected.increment();
+            throw e;
+        }
+        current = compiled;
+        reloadOk.increment();
+        log.info("risk rules loaded: {} active", compiled.size());
+        return compiled;
+    }
+
+    @Scheduled(fixedDelayString = "${app.risk.rules.reload-interval-ms:5000}")
+    public void reloadIfChanged() {
+        try {
+            String fingerprint = jdbcTemplate.queryForObject(FINGERPRINT_SQL, String.class);
+            if (Objects.equals(fingerprint, current.fingerprint()) || Objects.equals(fingerprint, rejectedFingerprint)) {
+                return;
+            }
+            try {
+                reload();
+            } catch (IllegalArgumentException e) {
+                rejectedFingerprint = fingerprint;
+                throw e;
+            }
+        } catch (RuntimeException e) {
+            log.error("risk rules not reloaded, keeping the previous set: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Compiles rules that are not (yet) in the table, e.g. a backtest candidate, in priority
+     * order and then list order. Its meters go to a private registry, not the application's.
+     */
+    public static RiskRuleSet compileCandidate(List<RiskRuleEntity> rules) {
+        Set<String> names = new HashSet<>();
+        for (RiskRuleEntity rule : rules) {
+            if (rule.getName() != null && !names.add(rule.getName())) {
+                throw new IllegalArgumentException("risk rule " + rule.getName() + " appears twice");
+            }
+        }
+        List<RiskRuleEntity> ordered = rules.stream()
+                .sorted(Comparator.comparingInt(RiskRuleEntity::getPriority))
+                .toList();
+        return compile(ordered, "candidate", new SimpleMeterRegistry());
+    }
+
+    /** Checks a single rule the way {@link #reload} would; throws {@link IllegalArgumentException}. */
+    public static void validate(RiskRuleEntity rule) {
+        compileRule(rule);
+    }
+
+    private static RiskRuleSet compile(List<RiskRuleEntity> entities, String fingerprint, MeterRegistry meterRegistry) {
+        List<RiskRuleSet.Rule> rules = new ArrayList<>();
+        for (RiskRuleEntity entity : entities) {
+            if (!entity.isEnabled()) {
+                continue;
+            }
+            RiskExpressionCompiler.Compiled compiled = compileRule(entity);
+            rules.add(new RiskRuleSet.Rule(
+                    entity.getName(),
+                    compiled.predicate(),
+                    compiled.features(),
+                    entity.getAction(),
+                    entity.isStopOnMatch(),
+                    entity.getScore() == null ? 0 : entity.getScore(),
+                    entity.getReason(),
+                    Timer.builder("risk.rules.latency").tag("rule", entity.getName()).register(meterRegistry),
+                    Counter.builder("risk.rules.hits").tag("rule", entity.getName()).register(meterRegistry)
+            ));
+        }
+        return new RiskRuleSet(rules, fingerprint);
+    }
+
+    private static RiskExpressionCompiler.Compiled compileRule(RiskRuleEntity rule) {
+        if (rule.getName() == null || rule.getName().isBlank()) {
+            throw new IllegalArgumentException("risk rule name is required");
+        }
+        if (rule.getAction() == null) {
+            throw new IllegalArgumentException("risk rule " + rule.getName() + ": action is required");
+        }
+        if (rule.getAction() == RiskRuleAction.HOLD) {
+            if (rule.getScore() == null || rule.getScore() < 0 || rule.getScore() > 100) {
+                throw new IllegalArgumentException("risk rule " + rule.getName() + ": HOLD needs a score between 0 and 100");
+            }
+            if (rule.getReason() == null || rule.getReason().isBlank()) {
+                throw new IllegalArgumentException("risk rule " + rule.getName() + ": HOLD needs a reason");
+            }
+        }
+        try {
+            return RiskExpressionCompiler.compile(rule.getExpression());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("risk rule " + rule.getName() + ": " + e.getMessage(), e);
+        }
+    }
+}
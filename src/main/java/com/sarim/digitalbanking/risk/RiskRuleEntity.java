@@ -0,0 +1,81 @@
+package com.sarim.digitalbanking.risk;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "risk_rules")
+public class RiskRuleEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "name", nullable = false, unique = true)
+    private String name;
+
+    @Column(name = "priority", nullable = false)
+    private int priority;
+
+    @Column(name = "enabled", nullable = false)
+    private boolean enabled = true;
+
+    @Column(name = "expression", nullable = false)
+    private String expression;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "action", nullable = false)
+    private RiskRuleAction action;
+
+    @Column(name = "stop_on_match", nullable = false)
+    private boolean stopOnMatch;
+
+    @Column(name = "score")
+    private Integer score;
+
+    @Column(name = "reason")
+    private String reason;
+
+    // bumped by trigger on every update, re-read after each write
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "revision", nullable = false, insertable = false, updatable = false)
+    private long revision;
+
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "updated_at", nullable = false, insertable = false, updatable = false)
+    private Instant updatedAt;
+
+    public RiskRuleEntity() {}
+
+    public Long getId() { return id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public int getPriority() { return priority; }
+    public void setPriority(int priority) { this.priority = priority; }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getExpression() { return expression; }
+    public void setExpression(String expression) { this.expression = expression; }
+
+    public RiskRuleAction getAction() { return action; }
+    public void setAction(RiskRuleAction action) { this.action = action; }
+
+    public boolean isStopOnMatch() { return stopOnMatch; }
+    public void setStopOnMatch(boolean stopOnMatch) { this.stopOnMatch = stopOnMatch; }
+
+    public Integer getScore() { return score; }
+    public void setScore(Integer score) { this.score = score; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public long getRevision() { return revision; }
+    public Instant getUpdatedAt() { return updatedAt; }
+}
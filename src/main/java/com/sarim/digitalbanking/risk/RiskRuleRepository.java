@@ -0,0 +1,13 @@
+package com.sarim.digitalbanking.risk;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface RiskRuleRepository extends JpaRepository<RiskRuleEntity, Long> {
+
+    List<RiskRuleEntity> findAllByOrderByPriorityAscIdAsc();
+
+    Optional<RiskRuleEntity> findByName(String name);
+}
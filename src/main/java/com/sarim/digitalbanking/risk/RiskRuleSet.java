@@ -0,0 +1,134 @@
+package com.sarim.digitalbanking.risk;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * An immutable, compiled set of enabled rules in evaluation order. A transfer holds when at least
+ * one HOLD rule matches; the score is the highest matching score, plus 3 when two or more rules
+ * matched (capped at 99), and the reasons are joined in rule order.
+ */
+public final class RiskRuleSet {
+
+    private static final int MULTI_HIT_BONUS = 3;
+    private static final int MAX_SCORE = 99;
+
+    public static final int MAX_TRACED_RULES = Long.SIZE;
+
+    private final List<Rule> rules;
+    private final Set<RiskFeature> requiredFeatures;
+    private final String fingerprint;
+
+    RiskRuleSet(List<Rule> rules, String fingerprint) {
+        this.rules = List.copyOf(rules);
+        EnumSet<RiskFeature> required = EnumSet.noneOf(RiskFeature.class);
+        rules.forEach(rule -> required.addAll(rule.features()));
+        this.requiredFeatures = Collections.unmodifiableSet(required);
+        this.fingerprint = fingerprint;
+    }
+
+    /** Whether any rule reads {@code feature}; callers skip fetching features nothing reads. */
+    public boolean requires(RiskFeature feature) {
+        return requiredFeatures.contains(feature);
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    String fingerprint() {
+        return fingerprint;
+    }
+
+    public RiskVerdict evaluate(RiskFeatures features) {
+        StringBuilder reasons = null;
+        int score = 0;
+        int hits = 0;
+
+        for (Rule rule : rules) {
+            long startedAt = System.nanoTime();
+            boolean matched = rule.predicate().test(features);
+            rule.latency().record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            if (!matched) {
+                continue;
+            }
+            rule.hits().increment();
+
+            if (rule.action() == RiskRuleAction.ALLOW) {
+                break;
+            }
+            reasons = reasons == null ? new StringBuilder(rule.reason()) : reasons.append("; ").append(rule.reason());
+            score = Math.max(score, rule.score());
+            hits++;
+            if (rule.stopOnMatch()) {
+                break;
+            }
+        }
+
+        if (hits == 0) {
+            return RiskVerdict.PASS;
+        }
+        return new RiskVerdict(true, reasons.toString(), combinedScore(score, hits));
+    }
+
+    /**
+     * {@link #evaluate} for replays: no metrics and no reasons, just which rules counted. Bit
+     * {@code i} is set when the i-th rule in evaluation order matched before an ALLOW or a
+     * stop-on-match ended the evaluation. Only sets of up to {@value #MAX_TRACED_RULES} rules.
+     */
+    public long trace(RiskFeatures features) {
+        long matched = 0L;
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            if (!rule.predicate().test(features)) {
+                continue;
+            }
+            matched |= 1L << i;
+            if (rule.action() == RiskRuleAction.ALLOW || rule.stopOnMatch()) {
+                break;
+            }
+        }
+        return matched;
+    }
+
+    /** The score {@link #evaluate} would give for {@code trace}, or -1 when it does not hold. */
+    public int traceScore(long trace) {
+        int score = 0;
+        int hits = 0;
+        for (long bits = trace; bits != 0; bits &= bits - 1) {
+            Rule rule = rules.get(Long.numberOfTrailingZeros(bits));
+            if (rule.action() == RiskRuleAction.HOLD) {
+                score = Math.max(score, rule.score());
+                hits++;
+            }
+        }
+        return hits == 0 ? -1 : combinedScore(score, hits);
+    }
+
+    public String ruleName(int index) {
+        return rules.get(index).name();
+    }
+
+    private static int combinedScore(int maxScore, int hits) {
+        return hits >= 2 ? Math.min(MAX_SCORE, maxScore + MULTI_HIT_BONUS) : maxScore;
+    }
+
+    record Rule(
+            String name,
+            Predicate<RiskFeatures> predicate,
+            Set<RiskFeature> features,
+            RiskRuleAction action,
+            boolean stopOnMatch,
+            int score,
+            String reason,
+            Timer latency,
+            Counter hits
+    ) {}
+}
@@ -0,0 +1,6 @@
+package com.sarim.digitalbanking.risk;
+
+public record RiskVerdict(boolean hold, String reason, Integer score) {
+
+    static final RiskVerdict PASS = new RiskVerdict(false, null, null);
+}
@@ -0,0 +1,45 @@
+package com.sarim.digitalbanking.risk;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "watchlist_entries")
+public class WatchlistEntryEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false)
+    private WatchlistKind kind;
+
+    @Column(name = "value", nullable = false)
+    private String value;
+
+    @Column(name = "reason")
+    private String reason;
+
+    @Generated(event = EventType.INSERT)
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private Instant createdAt;
+
+    public WatchlistEntryEntity() {}
+
+    public Long getId() { return id; }
+
+    public WatchlistKind getKind() { return kind; }
+    public void setKind(WatchlistKind kind) { this.kind = kind; }
+
+    public String getValue() { return value; }
+    public void setValue(String value) { this.value = value; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public Instant getCreatedAt() { return createdAt; }
+}
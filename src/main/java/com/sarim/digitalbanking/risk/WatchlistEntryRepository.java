@@ -0,0 +1,10 @@
+package com.sarim.digitalbanking.risk;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface WatchlistEntryRepository extends JpaRepository<WatchlistEntryEntity, Long> {
+
+    Optional<WatchlistEntryEntity> findByKindAndValue(WatchlistKind kind, String value);
+}
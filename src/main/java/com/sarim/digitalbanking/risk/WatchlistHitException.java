@@ -0,0 +1,16 @@
+package com.sarim.digitalbanking.risk;
+
+/** A payee matched the screening watchlist; mapped to 403 without saying which entry. */
+public class WatchlistHitException extends RuntimeException {
+
+    private final WatchlistKind kind;
+
+    public WatchlistHitException(WatchlistKind kind) {
+        super("payee failed screening");
+        this.kind = kind;
+    }
+
+    public WatchlistKind getKind() {
+        return kind;
+    }
+}
@@ -0,0 +1,9 @@
+package com.sarim.digitalbanking.risk;
+
+/** What a watchlist entry is matched against; see V15. */
+public enum WatchlistKind {
+    EMAIL,
+    EMAIL_DOMAIN,
+    USER,
+    ACCOUNT
+}
@@ -0,0 +1,266 @@
+package com.sarim.digitalbanking.risk;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Screens payees (email, user id, destination account id) against the watchlist before a payee
+ * is added and before a transfer is settled.
+ *
+ * The list is the {@code watchlist_entries} table (V15), plus an optional file at
+ * {@code app.risk.watchlist.file} with one {@code KIND value} per line for bulk feeds. Both are
+ * read into a {@link WatchlistSnapshot} off to the side and swapped in with one volatile write, so
+ * screening never takes a lock and a reload never blocks it. The table's revision row and the
+ * file's modification time are polled every {@code reload-interval-ms}. A file that does not
+ * parse is rejected as a whole and the previous list stays; at startup that fails the boot.
+ *
+ * Metrics: {@code risk.watchlist.screen} (latency), {@code risk.watchlist.hits} per kind,
+ * {@code risk.watchlist.reload} per result and the {@code risk.watchlist.entries} gauge.
+ */
+@Service
+public class WatchlistScreening {
+
+    private static final Logger log = LoggerFactory.getLogger(WatchlistScreening.class);
+
+    private static final String REVISION_SQL = "select revision from watchlist_revision where id = 1";
+    private static final String ENTRIES_SQL = "select kind, value from watchlist_entries";
+
+    public record Stats(boolean enabled, long revision, Map<WatchlistKind, Integer> entries) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final ResourceLoader resourceLoader;
+    private final boolean enabled;
+    private final String file;
+    private final int fetchSize;
+
+    private final Timer screenTimer;
+    private final Map<WatchlistKind, Counter> hits = new EnumMap<>(WatchlistKind.class);
+    private final Counter reloadOk;
+    private final Counter reloadRejected;
+
+    private volatile WatchlistSnapshot snapshot = WatchlistSnapshot.EMPTY;
+    private volatile long loadedRevision = -1;
+    private volatile long loadedFileModified;
+
+    public WatchlistScreening(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ResourceLoader resourceLoader,
+            MeterRegistry meterRegistry,
+            @Value("${app.risk.watchlist.enabled:true}") boolean enabled,
+            @Value("${app.risk.watchlist.file:}") String file,
+            @Value("${app.risk.watchlist.fetch-size:10000}") int fetchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTx = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTx.setReadOnly(true);
+        this.resourceLoader = resourceLoader;
+        this.enabled = enabled;
+        this.file = file == null ? "" : file.trim();
+        this.fetchSize = Math.max(1, fetchSize);
+
+        this.screenTimer = Timer.builder("risk.watchlist.screen").register(meterRegistry);
+        for (WatchlistKind kind : WatchlistKind.values()) {
+            hits.put(kind, Counter.builder("risk.watchlist.hits").tag("kind", kind.name()).register(meterRegistry));
+        }
+        this.reloadOk = Counter.builder("risk.watchlist.reload").tag("result", "ok").register(meterRegistry);
+        this.reloadRejected = Counter.builder("risk.watchlist.reload").tag("result", "rejected").register(meterRegistry);
+        meterRegistry.gauge("risk.watchlist.entries", this, screening -> {
+            WatchlistSnapshot s = screening.snapshot;
+            double total = 0;
+            for (WatchlistKind kind : WatchlistKind.values()) {
+                total += s.size(kind);
+            }
+            return total;
+        });
+    }
+
+    @PostConstruct
+    void load() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    /**
+     * The kind of entry the payee matched, or null when it is clear (or screening is off).
+     * {@code email} is expected in lower case, as payees store it.
+     */
+    public WatchlistKind screen(String email, Long payeeUserId, Long toAccountId) {
+        if (!enabled) {
+            return null;
+        }
+        long startedAt = System.nanoTime();
+        WatchlistKind hit = snapshot.screen(email, payeeUserId, toAccountId);
+        screenTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        if (hit != null) {
+            hits.get(hit).increment();
+        }
+        return hit;
+    }
+
+    /** {@link #screen}, throwing {@link WatchlistHitException} on a match. */
+    public void requireClear(String email, Long payeeUserId, Long toAccountId) {
+        WatchlistKind hit = screen(email, payeeUserId, toAccountId);
+        if (hit != null) {
+            log.warn("watchlist hit ({}): payee_user_id={}, to_account_id={}", hit, payeeUserId, toAccountId);
+            throw new WatchlistHitException(hit);
+        }
+    }
+
+    public Stats stats() {
+        WatchlistSnapshot s = snapshot;
+        Map<WatchlistKind, Integer> entries = new EnumMap<>(WatchlistKind.class);
+        for (WatchlistKind kind : WatchlistKind.values()) {
+            entries.put(kind, s.size(kind));
+        }
+        return new Stats(enabled, loadedRevision, entries);
+    }
+
+    /** Reads the table and the file and swaps the result in; throws {@link IllegalArgumentException} on a bad file. */
+    public synchronized void reload() {
+        long startedAt = System.nanoTime();
+        Long revision = jdbcTemplate.queryForObject(REVISION_SQL, Long.class);
+        long fileModified = fileLastModified();
+
+        WatchlistSnapshot.Builder builder = new WatchlistSnapshot.Builder();
+        readOnlyTx.executeWithoutResult(status -> jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(ENTRIES_SQL);
+                    ps.setFetchSize(fetchSize);
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> builder.add(WatchlistKind.valueOf(rs.getString(1)), rs.getString(2))
+        ));
+        try {
+            readFile(builder);
+        } catch (IllegalArgumentException e) {
+            loadedFileModified = fileModified;      // do not retry the same broken file every tick
+            reloadRejected.increment();
+            throw e;
+        }
+
+        WatchlistSnapshot loaded = builder.build();
+        snapshot = loaded;
+        loadedRevision = revision == null ? 0 : revision;
+        loadedFileModified = fileModified;
+        reloadOk.increment();
+        log.info("watchlist loaded in {} ms: {} emails, {} domains, {} users, {} accounts",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt),
+                loaded.size(WatchlistKind.EMAIL), loaded.size(WatchlistKind.EMAIL_DOMAIN),
+                loaded.size(WatchlistKind.USER), loaded.size(WatchlistKind.ACCOUNT));
+    }
+
+    @Scheduled(fixedDelayString = "${app.risk.watchlist.reload-interval-ms:10000}")
+    public void reloadIfChanged() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Long revision = jdbcTemplate.queryForObject(REVISION_SQL, Long.class);
+            if (revision != null && revision == loadedRevision && fileLastModified() == loadedFileModified) {
+                return;
+            }
+            reload();
+        } catch (RuntimeException e) {
+            log.error("watchlist not reloaded, keeping the previous list: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Canonical form of an entry value: lower-case email, bare lower-case domain, or a positive
+     * id. Throws {@link IllegalArgumentException} when the value does not fit the kind.
+     */
+    public static String normalize(WatchlistKind kind, String value) {
+        String v = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+        switch (kind) {
+            case EMAIL -> {
+                if (v.indexOf('@') <= 0 || v.indexOf('@') == v.length() - 1) {
+                    throw new IllegalArgumentException("not an email: " + value);
+                }
+            }
+            case EMAIL_DOMAIN -> {
+                while (v.startsWith("@") || v.startsWith("*.") || v.startsWith(".")) {
+                    v = v.substring(v.startsWith("*.") ? 2 : 1);
+                }
+                if (v.isEmpty() || v.indexOf('@') >= 0) {
+                    throw new IllegalArgumentException("not a domain: " + value);
+                }
+            }
+            case USER, ACCOUNT -> {
+                long id;
+                try {
+                    id = Long.parseLong(v);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("not an id: " + value);
+                }
+                if (id <= 0) {
+                    throw new IllegalArgumentException("not an id: " + value);
+                }
+                v = Long.toString(id);
+            }
+        }
+        return v;
+    }
+
+    private void readFile(WatchlistSnapshot.Builder builder) {
+        if (file.isEmpty()) {
+            return;
+        }
+        Resource resource = resourceLoader.getResource(file);
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNo = 0;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+", 2);
+                try {
+                    WatchlistKind kind = WatchlistKind.valueOf(parts[0].toUpperCase(Locale.ROOT));
+                    builder.add(kind, normalize(kind, parts.length > 1 ? parts[1] : null));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("watchlist " + file + " line " + lineNo + ": " + e.getMessage(), e);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("watchlist " + file + " not readable: " + e.getMessage(), e);
+        }
+    }
+
+    private long fileLastModified() {
+        if (file.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return resourceLoader.getResource(file).lastModified();
+        } catch (IOException e) {
+            return 0L;      // e.g. inside the jar: loaded once, never swapped
+        }
+    }
+}
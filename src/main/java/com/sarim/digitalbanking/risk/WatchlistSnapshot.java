@@ -0,0 +1,91 @@
+package com.sarim.digitalbanking.risk;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * One loaded version of the watchlist. Exact entries sit behind a Bloom filter, so a clear payee
+ * (nearly every one) costs a few bit probes and never touches the sets; domains go through one
+ * Aho–Corasick pass over the email. Immutable once built.
+ */
+final class WatchlistSnapshot {
+
+    static final WatchlistSnapshot EMPTY = new Builder().build();
+
+    private static final long USER_SALT = 0x5553L;
+    private static final long ACCOUNT_SALT = 0x4143L;
+    private static final long EMAIL_SALT = 0x454DL;
+
+    private final BloomFilter bloom;
+    private final LongSet users;
+    private final LongSet accounts;
+    private final Set<String> emails;
+    private final DomainMatcher domains;
+    private final int domainCount;
+
+    private WatchlistSnapshot(Builder b) {
+        this.users = b.users;
+        this.accounts = b.accounts;
+        this.emails = b.emails;
+        this.domains = b.domains.isEmpty() ? DomainMatcher.EMPTY : new DomainMatcher(b.domains);
+        this.domainCount = b.domains.size();
+
+        this.bloom = new BloomFilter((long) users.size() + accounts.size() + emails.size());
+        users.forEach(id -> bloom.add(BloomFilter.hash(id, USER_SALT)));
+        accounts.forEach(id -> bloom.add(BloomFilter.hash(id, ACCOUNT_SALT)));
+        for (String email : emails) {
+            bloom.add(BloomFilter.hash(email, EMAIL_SALT));
+        }
+    }
+
+    /** The first kind of entry that matches, or null when the payee is clear. */
+    WatchlistKind screen(String email, Long userId, Long accountId) {
+        if (accountId != null && bloom.mightContain(BloomFilter.hash(accountId, ACCOUNT_SALT)) && accounts.contains(accountId)) {
+            return WatchlistKind.ACCOUNT;
+        }
+        if (userId != null && bloom.mightContain(BloomFilter.hash(userId, USER_SALT)) && users.contains(userId)) {
+            return WatchlistKind.USER;
+        }
+        if (email != null) {
+            if (bloom.mightContain(BloomFilter.hash(email, EMAIL_SALT)) && emails.contains(email)) {
+                return WatchlistKind.EMAIL;
+            }
+            if (domainCount > 0 && domains.matches(email)) {
+                return WatchlistKind.EMAIL_DOMAIN;
+            }
+        }
+        return null;
+    }
+
+    int size(WatchlistKind kind) {
+        return switch (kind) {
+            case EMAIL -> emails.size();
+            case EMAIL_DOMAIN -> domainCount;
+            case USER -> users.size();
+            case ACCOUNT -> accounts.size();
+        };
+    }
+
+    static final class Builder {
+
+        private final LongSet users = new LongSet(1024);
+        private final LongSet accounts = new LongSet(1024);
+        private final Set<String> emails = new HashSet<>();
+        private final Set<String> domains = new HashSet<>();
+
+        /** Adds an entry already in {@link WatchlistScreening#normalize} form. */
+        Builder add(WatchlistKind kind, String value) {
+            switch (kind) {
+                case EMAIL -> emails.add(value);
+                case EMAIL_DOMAIN -> domains.add(value);
+                case USER -> users.add(Long.parseLong(value));
+                case ACCOUNT -> accounts.add(Long.parseLong(value));
+            }
+            return this;
+        }
+
+        WatchlistSnapshot build() {
+            return new WatchlistSnapshot(this);
+        }
+    }
+}
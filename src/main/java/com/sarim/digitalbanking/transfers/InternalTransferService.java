@@ -0,0 +1,133 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.sarim.digitalbanking.accounts.AccountEntity;
+import com.sarim.digitalbanking.accounts.AccountRepository;
+import com.sarim.digitalbanking.idempotency.IdempotencyReplayService;
+import com.sarim.digitalbanking.idempotency.IdempotencyRequestHasher;
+import com.sarim.digitalbanking.idempotency.RequestHash;
+import com.sarim.digitalbanking.transfers.api.CreateInternalTransferRequest;
+import com.sarim.digitalbanking.transfers.api.TransferResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Moves between a user's own accounts (e.g. CHEQUING to SAVINGS). No payee, and none of the
+ * outgoing-risk checks: money never leaves the user, so it is not counted in the velocity window
+ * and never held for review. Ownership and both row locks come from one statement.
+ */
+@Service
+public class InternalTransferService {
+
+    private static final String CAD = "CAD";
+
+    private final AccountRepository accountRepository;
+    private final TransferRepository transferRepository;
+    private final TransferFactory transferFactory;
+    private final TransferPersistenceService transferPersistenceService;
+    private final TransferSettlementService transferSettlementService;
+    private final TransferAuditService transferAuditService;
+    private final TransferResponseMapper transferResponseMapper;
+    private final IdempotencyReplayService idempotencyReplayService;
+    private final IdempotencyRequestHasher idempotencyRequestHasher;
+    private final TransferStageMetrics transferStageMetrics;
+
+    public InternalTransferService(
+            AccountRepository accountRepository,
+            TransferRepository transferRepository,
+            TransferFactory transferFactory,
+            TransferPersistenceService transferPersistenceService,
+            TransferSettlementService transferSettlementService,
+            TransferAuditService transferAuditService,
+            TransferResponseMapper transferResponseMapper,
+            IdempotencyReplayService idempotencyReplayService,
+            IdempotencyRequestHasher idempotencyRequestHasher,
+            TransferStageMetrics transferStageMetrics
+    ) {
+        this.accountRepository = accountRepository;
+        this.transferRepository = transferRepository;
+        this.transferFactory = transferFactory;
+        this.transferPersistenceService = transferPersistenceService;
+        this.transferSettlementService = transferSettlementService;
+        this.transferAuditService = transferAuditService;
+        this.transferResponseMapper = transferResponseMapper;
+        this.idempotencyReplayService = idempotencyReplayService;
+        this.idempotencyRequestHasher = idempotencyRequestHasher;
+        this.transferStageMetrics = transferStageMetrics;
+    }
+
+    @Transactional
+    public TransferResponse createInternalTransfer(
+            Long actorUserId,
+            String idempotencyKey,
+            CreateInternalTransferRequest req
+    ) {
+        TransferStageMetrics.StageTimer timer = transferStageMetrics.start("internal_transfer");
+
+        String currency = (req.currency() == null || req.currency().isBlank())
+                ? CAD
+                : req.currency().trim().toUpperCase();
+        long amount = req.amountCents();
+
+        if (req.fromAccountId().equals(req.toAccountId())) {
+            throw new IllegalArgumentException("fromAccountId and toAccountId must be different");
+        }
+
+        RequestHash requestHash = idempotencyRequestHasher.hashInternalTransfer(actorUserId, req);
+
+        var storedReplay = idempotencyReplayService.findStoredTransferReplay(idempotencyKey, requestHash);
+        if (storedReplay.isPresent()) {
+            return storedReplay.get();
+        }
+
+        List<AccountEntity> locked = accountRepository.findOwnedByIdInForUpdate(
+                List.of(req.fromAccountId(), req.toAccountId()), actorUserId);
+        timer.lockAcquired();
+
+        if (locked.size() != 2) {
+            throw new IllegalArgumentException("Account not found");
+        }
+
+        AccountEntity from = locked.get(0).getId().equals(req.fromAccountId()) ? locked.get(0) : locked.get(1);
+        AccountEntity to   = locked.get(0).getId().equals(req.toAccountId())   ? locked.get(0) : locked.get(1);
+
+        if (!"ACTIVE".equalsIgnoreCase(from.getStatus())) {
+            throw new IllegalArgumentException("From account is not active");
+        }
+        if (!"ACTIVE".equalsIgnoreCase(to.getStatus())) {
+            throw new IllegalArgumentException("To account is not active");
+        }
+        if (!currency.equalsIgnoreCase(from.getCurrency()) || !currency.equalsIgnoreCase(to.getCurrency())) {
+            throw new IllegalArgumentException("currency must match both accounts");
+        }
+        if (from.getBalanceCents() < amount) {
+            throw new IllegalArgumentException("insufficient funds");
+        }
+
+        TransferEntity t = transferFactory.newCompletedTransfer(from, to, amount, currency, idempotencyKey);
+
+        TransferPersistenceService.SaveTransferOutcome saveOutcome =
+                transferPersistenceService.saveTransferWithIdempotentReplay(
+                        t,
+                        idempotencyKey,
+                        () -> transferRepository.findByIdempotencyKeyAndFromAccount_User_Id(idempotencyKey, actorUserId),
+                        winner -> winner.getFromAccount().getId().equals(req.fromAccountId())
+                                && winner.getToAccount().getId().equals(req.toAccountId())
+                                && winner.getAmountCents() == amount
+                                && winner.getCurrency().equalsIgnoreCase(currency),
+                        true
+                );
+
+        t = saveOutcome.transfer();
+        if (!saveOutcome.replayed()) {
+            transferSettlementService.applyLedgerAndBalances(t, from, to, amount, currency);
+            transferAuditService.logTransferInternal(from.getUser(), t.getId(), from.getId(), to.getId(), amount, currency);
+        }
+
+        TransferResponse response = transferResponseMapper.toUserResponse(t, actorUserId);
+        idempotencyReplayService.storeTransferResponse(idempotencyKey, requestHash, 200, response);
+        timer.mark("write");
+        return response;
+    }
+}
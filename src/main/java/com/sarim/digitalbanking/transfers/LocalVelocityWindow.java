@@ -0,0 +1,126 @@
+package com.sarim.digitalbanking.transfers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-process tier of the velocity window: per user, a fixed-size ring of (epochMillis, amountCents)
+ * kept in two {@code long[]} arrays, plus the last total Redis reported for that user.
+ *
+ * Memory is bounded by {@code maxUsers * ringSize} entries; the least recently used user is
+ * dropped when a new one does not fit. When a ring is full its oldest positive entry is folded
+ * into the next one (keeping the later timestamp), so the sum can only over-count, never
+ * under-count. Releases that get folded away are simply dropped for the same reason.
+ *
+ * Only sees what went through this instance; {@link #estimate} adds the last shared total so the
+ * fallback stays on the conservative side.
+ */
+class LocalVelocityWindow {
+
+    private final long windowMillis;
+    private final int ringSize;
+    private final Map<Long, Ring> rings;
+
+    LocalVelocityWindow(long windowMillis, int maxUsers, int ringSize) {
+        if (maxUsers < 1 || ringSize < 2) {
+            throw new IllegalArgumentException("app.risk.velocity.local max-users must be >= 1 and ring-size >= 2");
+        }
+        this.windowMillis = windowMillis;
+        this.ringSize = ringSize;
+        this.rings = new LinkedHashMap<>(Math.min(maxUsers, 1 << 16), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Ring> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    synchronized void add(Long userId, long atMillis, long amountCents) {
+        rings.computeIfAbsent(userId, id -> new Ring(ringSize)).add(atMillis, amountCents);
+    }
+
+    /** Remembers the window total Redis reported after everything added locally so far. */
+    synchronized void recordShared(Long userId, long atMillis, long totalCents) {
+        Ring ring = rings.computeIfAbsent(userId, id -> new Ring(ringSize));
+        ring.sharedAtMillis = atMillis;
+        ring.sharedTotalCents = totalCents;
+        ring.sharedInserts = ring.inserts;
+    }
+
+    /**
+     * Best local guess of the user's window total at {@code nowMillis}: the larger of what this
+     * instance saw and the last shared total plus what this instance added since.
+     */
+    synchronized long estimate(Long userId, long nowMillis) {
+        Ring ring = rings.get(userId);
+        if (ring == null) {
+            return 0L;
+        }
+
+        long cutoff = nowMillis - windowMillis;
+        long local = ring.sumSince(cutoff);
+
+        if (ring.sharedAtMillis <= cutoff) {
+            return Math.max(0L, local);
+        }
+        return Math.max(Math.max(0L, local), ring.sharedTotalCents + ring.sumNewest(ring.inserts - ring.sharedInserts));
+    }
+
+    synchronized int size() {
+        return rings.size();
+    }
+
+    private static final class Ring {
+
+        final long[] at;
+        final long[] amount;
+        int head;   // next slot to write
+        int count;
+        long inserts;
+
+        long sharedAtMillis = Long.MIN_VALUE;
+        long sharedTotalCents;
+        long sharedInserts;
+
+        Ring(int size) {
+            at = new long[size];
+            amount = new long[size];
+        }
+
+        void add(long atMillis, long amountCents) {
+            if (count == at.length) {
+                int oldest = head;
+                int next = (oldest + 1) % at.length;
+                if (amount[oldest] > 0) {
+                    amount[next] += amount[oldest];
+                    at[next] = Math.max(at[next], at[oldest]);
+                }
+                count--;
+            }
+            at[head] = atMillis;
+            amount[head] = amountCents;
+            head = (head + 1) % at.length;
+            count++;
+            inserts++;
+        }
+
+        long sumSince(long cutoffMillis) {
+            long sum = 0L;
+            for (int i = 0, slot = head - count; i < count; i++, slot++) {
+                int s = Math.floorMod(slot, at.length);
+                if (at[s] > cutoffMillis) {
+                    sum += amount[s];
+                }
+            }
+            return sum;
+        }
+
+        long sumNewest(long n) {
+            long sum = 0L;
+            for (int i = 1; i <= Math.min(n, count); i++) {
+                sum += amount[Math.floorMod(head - i, at.length)];
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.sarim.digitalbanking.transfers.api.CreateTransferRequest;
+import com.sarim.digitalbanking.transfers.api.TransferResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Optimistic settlement ({@code app.transfers.settlement-strategy=optimistic}).
+ *
+ * Each attempt is its own transaction with no row locks; a version conflict at commit rolls it
+ * back and the next attempt starts after a full-jitter backoff. After {@code max-attempts}
+ * conflicts the transfer is settled with row locks, so a contended account costs at most a few
+ * wasted attempts.
+ *
+ * Metrics: {@code transfers.optimistic.attempts{result=committed|conflict}} (conflict rate) and
+ * {@code transfers.optimistic.fallbacks} (transfers that ended up pessimistic).
+ */
+@Component
+public class OptimisticSettlementExecutor {
+
+    private final TransferService transferService;
+    private final boolean enabled;
+    private final int maxAttempts;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+
+    private final Counter committed;
+    private final Counter conflicts;
+    private final Counter fallbacks;
+
+    public OptimisticSettlementExecutor(
+            TransferService transferService,
+            MeterRegistry meterRegistry,
+            @Value("${app.transfers.settlement-strategy:pessimistic}") String settlementStrategy,
+            @Value("${app.transfers.optimistic.max-attempts:3}") int maxAttempts,
+            @Value("${app.transfers.optimistic.backoff-base-ms:2}") long backoffBaseMs,
+            @Value("${app.transfers.optimistic.backoff-max-ms:50}") long backoffMaxMs
+    ) {
+        this.transferService = transferService;
+        this.enabled = "optimistic".equalsIgnoreCase(settlementStrategy.trim());
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffBaseMs = Math.max(1, backoffBaseMs);
+        this.backoffMaxMs = Math.max(this.backoffBaseMs, backoffMaxMs);
+
+        this.committed = Counter.builder("transfers.optimistic.attempts").tag("result", "committed").register(meterRegistry);
+        this.conflicts = Counter.builder("transfers.optimistic.attempts").tag("result", "conflict").register(meterRegistry);
+        this.fallbacks = Counter.builder("transfers.optimistic.fallbacks").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public TransferResponse createTransfer(Long actorUserId, String idempotencyKey, CreateTransferRequest req) {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                TransferResponse response =
+                        transferService.createTransfer(actorUserId, idempotencyKey, req, SettlementLocking.OPTIMISTIC);
+                committed.increment();
+                return response;
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.increment();
+                if (attempt < maxAttempts) {
+                    backoff(attempt);
+                }
+            }
+        }
+
+        fallbacks.increment();
+        return transferService.createTransfer(actorUserId, idempotencyKey, req, SettlementLocking.PESSIMISTIC);
+    }
+
+    // full jitter: uniform in [0, min(max, base * 2^(attempt-1))]
+    private void backoff(int attempt) {
+        long cap = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "interrupted");
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.sarim.digitalbanking.transfers;
+
+public enum SettlementLocking {
+    // SELECT ... FOR UPDATE on both accounts before writing
+    PESSIMISTIC,
+    // plain reads, @Version-checked updates, caller retries on conflict
+    OPTIMISTIC
+}
@@ -0,0 +1,39 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.sarim.digitalbanking.accounts.AccountSnapshot;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TransferAccountGuard {
+
+    public void requireTransferable(
+            AccountSnapshot from,
+            AccountSnapshot to,
+            Long actorUserId,
+            Long payeeUserId,
+            long amount,
+            String currency
+    ) {
+        if (!from.userId().equals(actorUserId)) {
+            throw new IllegalArgumentException("Account not found");
+        }
+        if (!to.userId().equals(payeeUserId)) {
+            throw new IllegalArgumentException("Account not found");
+        }
+
+        if (!"ACTIVE".equalsIgnoreCase(from.status())) {
+            throw new IllegalArgumentException("From account is not active");
+        }
+        if (!"ACTIVE".equalsIgnoreCase(to.status())) {
+            throw new IllegalArgumentException("To account is not active");
+        }
+
+        if (!currency.equalsIgnoreCase(from.currency()) || !currency.equalsIgnoreCase(to.currency())) {
+            throw new IllegalArgumentException("currency must match both accounts");
+        }
+
+        if (from.balanceCents() < amount) {
+            throw new IllegalArgumentException("insufficient funds");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.sarim.digitalbanking.accounts.AccountEntity;
+import com.sarim.digitalbanking.accounts.AccountRepository;
+import com.sarim.digitalbanking.accounts.AccountSnapshot;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Settles transfers accepted in async mode. Each call claims up to {@code limit} INITIATED rows
+ * with {@code FOR UPDATE SKIP LOCKED}, so concurrent workers (and app instances) take disjoint
+ * slices, then locks every account involved once, in id order, and settles the rows in
+ * acceptance order within one transaction.
+ *
+ * A transfer that no longer validates (funds spent meanwhile, account frozen) is marked REJECTED
+ * with a failure reason instead of failing the batch.
+ */
+@Service
+public class TransferAsyncSettlementService {
+
+    private final TransferRepository transferRepository;
+    private final AccountRepository accountRepository;
+    private final TransferAccountGuard transferAccountGuard;
+    private final TransferRiskDecisionService transferRiskDecisionService;
+    private final TransferSettlementService transferSettlementService;
+    private final TransferAuditService transferAuditService;
+    private final TransferVelocityRiskService transferVelocityRiskService;
+
+    public TransferAsyncSettlementService(
+            TransferRepository transferRepository,
+            AccountRepository accountRepository,
+            TransferAccountGuard transferAccountGuard,
+            TransferRiskDecisionService transferRiskDecisionService,
+            TransferSettlementService transferSettlementService,
+            TransferAuditService transferAuditService,
+            TransferVelocityRiskService transferVelocityRiskService
+    ) {
+        this.transferRepository = transferRepository;
+        this.accountRepository = accountRepository;
+        this.transferAccountGuard = transferAccountGuard;
+        this.transferRiskDecisionService = transferRiskDecisionService;
+        this.transferSettlementService = transferSettlementService;
+        this.transferAuditService = transferAuditService;
+        this.transferVelocityRiskService = transferVelocityRiskService;
+    }
+
+    /** Returns the settled transfers (empty when there was nothing to claim). */
+    @Transactional
+    public List<TransferEntity> settleNextBatch(int limit) {
+        List<TransferEntity> claimed = transferRepository.claimInitiatedForUpdate(limit);
+        if (claimed.isEmpty()) {
+            return claimed;
+        }
+
+        TreeSet<Long> accountIds = new TreeSet<>();
+        for (TransferEntity t : claimed) {
+            accountIds.add(t.getFromAccount().getId());
+            accountIds.add(t.getToAccount().getId());
+        }
+
+        Map<Long, AccountEntity> accounts = accountRepository.findByIdInForUpdate(List.copyOf(accountIds))
+                .stream()
+                .collect(Collectors.toMap(AccountEntity::getId, Function.identity()));
+
+        // each user's velocity reservation covers all of their claimed rows; rejected ones are given back below
+        Map<Long, Long> claimedCentsByUser = new HashMap<>();
+        for (TransferEntity t : claimed) {
+            claimedCentsByUser.merge(accounts.get(t.getFromAccount().getId()).getUser().getId(), t.getAmountCents(), Long::sum);
+        }
+
+        Instant now = Instant.now();
+        Map<Long, TransferRiskDecisionService.RiskContext> riskContexts = new HashMap<>();
+        Map<Long, Long> rejectedCentsByUser = new HashMap<>();
+
+        for (TransferEntity t : claimed) {
+            AccountEntity from = accounts.get(t.getFromAccount().getId());
+            AccountEntity to = accounts.get(t.getToAccount().getId());
+            Long actorUserId = from.getUser().getId();
+            long amount = t.getAmountCents();
+            String currency = t.getCurrency();
+
+            try {
+                transferAccountGuard.requireTransferable(
+                        AccountSnapshot.of(from), AccountSnapshot.of(to), actorUserId, to.getUser().getId(), amount, currency);
+            } catch (IllegalArgumentException e) {
+                t.setStatus(TransferStatus.REJECTED);
+                t.setFailureReason(e.getMessage());
+
+                transferAuditService.logTransferSettleFailed(
+                        from.getUser(), to.getUser(), t.getId(), from.getId(), t.getPayeeId(), to.getId(),
+                        amount, currency, e.getMessage());
+                rejectedCentsByUser.merge(actorUserId, amount, Long::sum);
+                continue;
+            }
+
+            TransferRiskDecisionService.RiskContext context = riskContexts.computeIfAbsent(
+                    actorUserId, uid -> transferRiskDecisionService.reserveRiskContext(uid, claimedCentsByUser.get(uid), now));
+            TransferRiskDecisionService.RiskHoldDecision decision =
+                    transferRiskDecisionService.decide(context, amount, t.getPayeeId(), to.getId());
+            riskContexts.put(actorUserId, context.accept(amount, decision.hold()));
+
+            if (decision.hold()) {
+                t.setStatus(TransferStatus.PENDING_REVIEW);
+                t.setRiskDecision("HOLD");
+                t.setRiskScore(decision.score());
+                t.setRiskReasons(decision.reason());
+
+                transferSettlementService.applyHeldTransferReserve(t, from, amount, currency);
+                transferAuditService.logTransferHeld(
+                        from.getUser(), to.getUser(), t.getId(), from.getId(), t.getPayeeId(), to.getId(),
+                        amount, currency, decision.reason());
+            } else {
+                t.setStatus(TransferStatus.COMPLETED);
+
+                transferSettlementService.applyLedgerAndBalances(t, from, to, amount, currency);
+                transferAuditService.logTransferCreate(
+                        from.getUser(), to.getUser(), t.getId(), from.getId(), t.getPayeeId(), to.getId(),
+                        amount, currency);
+            }
+        }
+
+        rejectedCentsByUser.forEach((userId, cents) -> {
+            TransferRiskDecisionService.RiskContext context = riskContexts.get(userId);
+            if (context != null) {
+                transferVelocityRiskService.release(context.reservation(), cents);
+            }
+        });
+
+        return claimed;
+    }
+}
@@ -5,6 +5,9 @@ import com.sarim.digitalbanking.audit.AuditLogRepository;
 import com.sarim.digitalbanking.auth.UserEntity;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 public class TransferAuditService {
 
@@ -31,13 +34,7 @@ public class TransferAuditService {
         log.setAction("TRANSFER_HELD");
         log.setEntityType("transfer");
         log.setEntityId(String.valueOf(transferId));
-        log.setDetails("from=" + fromAccountId
-                + ", payee_id=" + payeeId
-                + ", to=" + toAccountId
-                + ", amount_cents=" + amountCents
-                + ", currency=" + currency
-                + ", reason=" + reason
-                + ", funds_reserved=true");
+        log.setDetails(transferHeldDetails(fromAccountId, payeeId, toAccountId, amountCents, currency, reason));
         auditLogRepository.save(log);
     }
 
@@ -70,24 +67,63 @@ public class TransferAuditService {
         log.setAction("TRANSFER_CREATE");
         log.setEntityType("transfer");
         log.setEntityId(String.valueOf(transferId));
+        log.setDetails(transferCreateDetails(fromAccountId, payeeId, toAccountId, amountCents, currency));
+        auditLogRepository.save(log);
+    }
+
+    public void logTransferCreate(
+            UserEntity actor,
+            Long transferId,
+            Long fromAccountId,
+            Long payeeId,
+            Long toAccountId,
+            long amountCents,
+            String currency
+    ) {
+        logTransferCreate(actor, null, transferId, fromAccountId, payeeId, toAccountId, amountCents, currency);
+    }
+
+    public void logTransferInternal(
+            UserEntity actor,
+            Long transferId,
+            Long fromAccountId,
+            Long toAccountId,
+            long amountCents,
+            String currency
+    ) {
+        AuditLogEntity log = new AuditLogEntity();
+        log.setActorUser(actor);
+        log.setAffectedUser(actor);
+        log.setAction("TRANSFER_INTERNAL");
+        log.setEntityType("transfer");
+        log.setEntityId(String.valueOf(transferId));
         log.setDetails("from=" + fromAccountId
-                + ", payee_id=" + payeeId
                 + ", to=" + toAccountId
                 + ", amount_cents=" + amountCents
                 + ", currency=" + currency);
         auditLogRepository.save(log);
     }
 
-    public void logTransferCreate(
+    public void logTransferSettleFailed(
             UserEntity actor,
+            UserEntity affectedUser,
             Long transferId,
             Long fromAccountId,
             Long payeeId,
             Long toAccountId,
             long amountCents,
-            String currency
+            String currency,
+            String reason
     ) {
-        logTransferCreate(actor, null, transferId, fromAccountId, payeeId, toAccountId, amountCents, currency);
+        AuditLogEntity log = new AuditLogEntity();
+        log.setActorUser(actor);
+        log.setAffectedUser(affectedUser);
+        log.setAction("TRANSFER_SETTLE_FAILED");
+        log.setEntityType("transfer");
+        log.setEntityId(String.valueOf(transferId));
+        log.setDetails(transferCreateDetails(fromAccountId, payeeId, toAccountId, amountCents, currency)
+                + ", reason=" + reason);
+        auditLogRepository.save(log);
     }
 
     public void logAdminDeposit(
@@ -123,6 +159,26 @@ public class TransferAuditService {
         logAdminDeposit(adminActor, null, transferId, fromTreasuryAccountId, toAccountId, amountCents, currency);
     }
 
+    public void logTreasuryRebalance(
+            UserEntity systemActor,
+            Long transferId,
+            Long fromRootAccountId,
+            Long toShardAccountId,
+            long amountCents,
+            String currency
+    ) {
+        AuditLogEntity log = new AuditLogEntity();
+        log.setActorUser(systemActor);
+        log.setAction("TREASURY_REBALANCE");
+        log.setEntityType("transfer");
+        log.setEntityId(String.valueOf(transferId));
+        log.setDetails("from_root=" + fromRootAccountId
+                + ", to_shard=" + toShardAccountId
+                + ", amount_cents=" + amountCents
+                + ", currency=" + currency);
+        auditLogRepository.save(log);
+    }
+
     public void logTransferApprove(
             UserEntity adminActor,
             UserEntity affectedUser,
@@ -153,6 +209,33 @@ public class TransferAuditService {
         logTransferApprove(adminActor, null, transferId, toAccountId, amountCents, currency);
     }
 
+    /** One row per approval, written as a single batch; the actor is left empty (system). */
+    public void logTransferAutoApprovals(List<AutoApproval> approvals) {
+        List<AuditLogEntity> logs = new ArrayList<>(approvals.size());
+        for (AutoApproval approval : approvals) {
+            AuditLogEntity log = new AuditLogEntity();
+            log.setAffectedUser(approval.affectedUser());
+            log.setAction("TRANSFER_AUTO_APPROVE");
+            log.setEntityType("transfer");
+            log.setEntityId(String.valueOf(approval.transferId()));
+            log.setDetails("to=" + approval.toAccountId()
+                    + ", amount_cents=" + approval.amountCents()
+                    + ", currency=" + approval.currency()
+                    + ", score=" + (approval.score() == null ? "none" : approval.score()));
+            logs.add(log);
+        }
+        auditLogRepository.saveAll(logs);
+    }
+
+    public record AutoApproval(
+            UserEntity affectedUser,
+            Long transferId,
+            Long toAccountId,
+            long amountCents,
+            String currency,
+            Integer score
+    ) {}
+
     public void logTransferReject(
             UserEntity adminActor,
             UserEntity affectedUser,
@@ -185,4 +268,35 @@ public class TransferAuditService {
     ) {
         logTransferReject(adminActor, null, transferId, fromAccountId, amountCents, currency, reason);
     }
+
+    public String transferHeldDetails(
+            Long fromAccountId,
+            Long payeeId,
+            Long toAccountId,
+            long amountCents,
+            String currency,
+            String reason
+    ) {
+        return "from=" + fromAccountId
+                + ", payee_id=" + payeeId
+                + ", to=" + toAccountId
+                + ", amount_cents=" + amountCents
+                + ", currency=" + currency
+                + ", reason=" + reason
+                + ", funds_reserved=true";
+    }
+
+    public String transferCreateDetails(
+            Long fromAccountId,
+            Long payeeId,
+            Long toAccountId,
+            long amountCents,
+            String currency
+    ) {
+        return "from=" + fromAccountId
+                + ", payee_id=" + payeeId
+                + ", to=" + toAccountId
+                + ", amount_cents=" + amountCents
+                + ", currency=" + currency;
+    }
 }
\ No newline at end of file
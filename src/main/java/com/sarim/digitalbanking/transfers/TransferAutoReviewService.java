@@ -0,0 +1,283 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.sarim.digitalbanking.accounts.AccountEntity;
+import com.sarim.digitalbanking.accounts.AccountRepository;
+import com.sarim.digitalbanking.risk.PayeeGraphIndex;
+import com.sarim.digitalbanking.risk.RiskFeature;
+import com.sarim.digitalbanking.risk.RiskFeatures;
+import com.sarim.digitalbanking.risk.RiskModelService;
+import com.sarim.digitalbanking.risk.RiskRuleEngine;
+import com.sarim.digitalbanking.risk.RiskRuleSet;
+import com.sarim.digitalbanking.risk.RiskVerdict;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Clears held transfers that no longer look risky, so the admin queue only keeps the ones that
+ * need a person.
+ *
+ * Every {@code interval-ms} the job claims up to {@code batch-size} PENDING_REVIEW transfers held
+ * for at least {@code cooling-off-ms}, with {@code FOR UPDATE SKIP LOCKED}, so several nodes (and
+ * an admin approving by hand) never work on the same row. Each one is re-scored with the current
+ * rule set and model, on features rebuilt from Postgres as of its creation: the window total and
+ * the pending hold only count transfers that are still COMPLETED or PENDING_REVIEW, so a hold
+ * caused by a transfer that has since been rejected goes away. Graph features (fan-in, fan-out,
+ * distance to a frozen account, cycles) come from the {@link PayeeGraphIndex} as it is now; until
+ * the graph has loaded, a rule set that reads them clears nothing. A transfer the rules now pass,
+ * or scored below {@code max-score}, is approved exactly like an admin approval; the rest get the
+ * new score and are left alone for {@code recheck-ms}. Approvals are audited in one batch per claim.
+ *
+ * Disabled by default ({@code app.transfers.auto-review.enabled}).
+ */
+@Service
+public class TransferAutoReviewService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferAutoReviewService.class);
+
+    // features of each claimed transfer as of its creation, over what is still live now
+    private static final String FEATURES_SQL = """
+            select t.id,
+                   coalesce((select sum(p.amount_cents)
+                               from transfers p
+                               join accounts pa on pa.id = p.from_account_id
+                               join accounts pt on pt.id = p.to_account_id
+                              where pa.user_id = fa.user_id
+                                and pt.user_id <> fa.user_id
+                                and p.status in ('COMPLETED', 'PENDING_REVIEW')
+                                and p.created_at >= t.created_at - make_interval(secs => ?)
+                                and p.created_at <= t.created_at
+                                and p.id <> t.id), 0) as window_total,
+                   (select count(*)
+                      from transfers p
+                      join accounts pa on pa.id = p.from_account_id
+                     where pa.user_id = fa.user_id
+                       and p.status = 'PENDING_REVIEW'
+                       and p.id < t.id) as earlier_pending
+              from transfers t
+              join accounts fa on fa.id = t.from_account_id
+             where t.id = any(?)
+            """;
+
+    private static final String DEFER_SQL = "update transfers set auto_review_after = ? where id = any(?)";
+
+    private record Features(long windowTotalCents, long earlierPending) {}
+
+    private final TransferRepository transferRepository;
+    private final AccountRepository accountRepository;
+    private final TransferSettlementService transferSettlementService;
+    private final TransferAuditService transferAuditService;
+    private final RiskRuleEngine riskRuleEngine;
+    private final RiskModelService riskModelService;
+    private final PayeeGraphIndex payeeGraphIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final int maxScore;
+    private final Duration coolingOff;
+    private final Duration recheck;
+    private final int batchSize;
+
+    private final Timer batchTimer;
+    private final Counter approved;
+    private final Counter kept;
+    private final Counter failures;
+
+    public TransferAutoReviewService(
+            TransferRepository transferRepository,
+            AccountRepository accountRepository,
+            TransferSettlementService transferSettlementService,
+            TransferAuditService transferAuditService,
+            RiskRuleEngine riskRuleEngine,
+            RiskModelService riskModelService,
+            PayeeGraphIndex payeeGraphIndex,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.transfers.auto-review.enabled:false}") boolean enabled,
+            @Value("${app.transfers.auto-review.max-score:50}") int maxScore,
+            @Value("${app.transfers.auto-review.cooling-off-ms:900000}") long coolingOffMs,
+            @Value("${app.transfers.auto-review.recheck-ms:900000}") long recheckMs,
+            @Value("${app.transfers.auto-review.batch-size:100}") int batchSize
+    ) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("app.transfers.auto-review.batch-size must be >= 1");
+        }
+        if (maxScore < 0 || maxScore > 100) {
+            throw new IllegalArgumentException("app.transfers.auto-review.max-score must be between 0 and 100");
+        }
+
+        this.transferRepository = transferRepository;
+        this.accountRepository = accountRepository;
+        this.transferSettlementService = transferSettlementService;
+        this.transferAuditService = transferAuditService;
+        this.riskRuleEngine = riskRuleEngine;
+        this.riskModelService = riskModelService;
+        this.payeeGraphIndex = payeeGraphIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.maxScore = maxScore;
+        this.coolingOff = Duration.ofMillis(coolingOffMs);
+        this.recheck = Duration.ofMillis(recheckMs);
+        this.batchSize = batchSize;
+
+        this.batchTimer = Timer.builder("transfers.auto_review.batch").register(meterRegistry);
+        this.approved = Counter.builder("transfers.auto_review.decisions").tag("decision", "approve").register(meterRegistry);
+        this.kept = Counter.builder("transfers.auto_review.decisions").tag("decision", "keep").register(meterRegistry);
+        this.failures = Counter.builder("transfers.auto_review.batch_failures").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.transfers.auto-review.interval-ms:30000}")
+    public void reviewPending() {
+        try {
+            while (reviewNextBatch() == batchSize) {
+                // keep going while the queue has a full batch ready
+            }
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("auto-review batch failed, retrying on next run: {}", e.toString());
+        }
+    }
+
+    /**
+     * Claims and reviews one batch in its own transaction; returns how many transfers it claimed,
+     * always 0 when auto-review is disabled.
+     */
+    public int reviewNextBatch() {
+        if (!enabled) {
+            return 0;
+        }
+        long startedAt = System.nanoTime();
+        Integer claimed = transactionTemplate.execute(status -> reviewBatch(Instant.now()));
+        if (claimed != null && claimed > 0) {
+            batchTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+        return claimed == null ? 0 : claimed;
+    }
+
+    private int reviewBatch(Instant now) {
+        List<TransferEntity> claimed = transferRepository.claimPendingReviewForUpdate(now.minus(coolingOff), batchSize);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        // same lock order as async settlement and the admin paths: transfer rows, then accounts by id
+        TreeSet<Long> accountIds = new TreeSet<>();
+        for (TransferEntity t : claimed) {
+            accountIds.add(t.getFromAccount().getId());
+            accountIds.add(t.getToAccount().getId());
+        }
+        Map<Long, AccountEntity> accounts = accountRepository.findByIdInForUpdate(List.copyOf(accountIds))
+                .stream()
+                .collect(Collectors.toMap(AccountEntity::getId, Function.identity()));
+
+        Map<Long, Features> features = loadFeatures(claimed);
+        RiskRuleSet rules = riskRuleEngine.current();
+        boolean graphUnknown = readsGraph(rules) && !payeeGraphIndex.ready();
+
+        // claimed in id order, so a sender's earlier holds approved here are already counted
+        Map<Long, Integer> approvedBySender = new HashMap<>();
+        List<TransferAuditService.AutoApproval> approvals = new ArrayList<>();
+        List<Long> deferred = new ArrayList<>();
+
+        for (TransferEntity t : claimed) {
+            AccountEntity from = accounts.get(t.getFromAccount().getId());
+            AccountEntity to = accounts.get(t.getToAccount().getId());
+            Long senderId = from.getUser().getId();
+            Features f = features.get(t.getId());
+
+            boolean pendingHold = f.earlierPending() - approvedBySender.getOrDefault(senderId, 0) > 0;
+            PayeeGraphIndex.Features graph = payeeGraphIndex.features(rules, senderId, to.getId(), now);
+            RiskVerdict verdict = rules.evaluate(new RiskFeatures(
+                    t.getAmountCents(),
+                    f.windowTotalCents(),
+                    pendingHold,
+                    graph.recipientFanIn(),
+                    graph.senderFanOut(),
+                    graph.badDistance(),
+                    graph.cycle()
+            ));
+            Integer score = riskModelService.rescore(
+                    verdict, t.getAmountCents(), f.windowTotalCents(), t.getPayeeId(), to.getId(), t.getCreatedAt());
+
+            boolean clear = !graphUnknown && (!verdict.hold() || (score != null && score < maxScore));
+            if (!clear || !settleable(t, from, to)) {
+                if (verdict.hold()) {
+                    t.setRiskScore(score);
+                    t.setRiskReasons(verdict.reason());
+                }
+                deferred.add(t.getId());
+                kept.increment();
+                continue;
+            }
+
+            transferSettlementService.applyHeldTransferApprovalCredit(t, to, t.getAmountCents(), t.getCurrency());
+
+            t.setStatus(TransferStatus.COMPLETED);
+            t.setRiskDecision("APPROVE");
+            if (score != null) {
+                t.setRiskScore(score);
+            }
+
+            approvedBySender.merge(senderId, 1, Integer::sum);
+            approvals.add(new TransferAuditService.AutoApproval(
+                    to.getUser(), t.getId(), to.getId(), t.getAmountCents(), t.getCurrency(), score));
+            approved.increment();
+        }
+
+        transferRepository.saveAll(claimed);
+        if (!approvals.isEmpty()) {
+            transferAuditService.logTransferAutoApprovals(approvals);
+        }
+        if (!deferred.isEmpty()) {
+            jdbcTemplate.update(DEFER_SQL, Timestamp.from(now.plus(recheck)), deferred.toArray(Long[]::new));
+        }
+        return claimed.size();
+    }
+
+    private Map<Long, Features> loadFeatures(List<TransferEntity> claimed) {
+        Long[] ids = claimed.stream().map(TransferEntity::getId).toArray(Long[]::new);
+        Map<Long, Features> features = new HashMap<>();
+        jdbcTemplate.query(FEATURES_SQL,
+                rs -> {
+                    features.put(rs.getLong(1), new Features(rs.getLong(2), rs.getLong(3)));
+                },
+                (double) TransferVelocityRiskService.WINDOW.toSeconds(), ids);
+        return features;
+    }
+
+    private static boolean readsGraph(RiskRuleSet rules) {
+        return rules.requires(RiskFeature.RECIPIENT_FAN_IN)
+                || rules.requires(RiskFeature.SENDER_FAN_OUT)
+                || rules.requires(RiskFeature.BAD_DISTANCE)
+                || rules.requires(RiskFeature.CYCLE);
+    }
+
+    // the checks an admin approval would fail on; such transfers stay for a person to look at
+    private static boolean settleable(TransferEntity t, AccountEntity from, AccountEntity to) {
+        return t.getCurrency().equalsIgnoreCase(from.getCurrency())
+                && t.getCurrency().equalsIgnoreCase(to.getCurrency())
+                && "ACTIVE".equalsIgnoreCase(to.getStatus());
+    }
+}
@@ -0,0 +1,574 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.sarim.digitalbanking.accounts.AccountEntity;
+import com.sarim.digitalbanking.accounts.AccountRepository;
+import com.sarim.digitalbanking.accounts.AccountSnapshot;
+import com.sarim.digitalbanking.accounts.AccountType;
+import com.sarim.digitalbanking.auth.UserEntity;
+import com.sarim.digitalbanking.auth.UserRepository;
+import com.sarim.digitalbanking.idempotency.IdempotencyKeyUtil;
+import com.sarim.digitalbanking.idempotency.IdempotencyReplayService;
+import com.sarim.digitalbanking.idempotency.IdempotencyRequestHasher;
+import com.sarim.digitalbanking.idempotency.RequestHash;
+import com.sarim.digitalbanking.ledger.LedgerDirection;
+import com.sarim.digitalbanking.payees.PayeeEntity;
+import com.sarim.digitalbanking.payees.PayeeRepository;
+import com.sarim.digitalbanking.risk.WatchlistHitException;
+import com.sarim.digitalbanking.risk.WatchlistKind;
+import com.sarim.digitalbanking.risk.WatchlistScreening;
+import com.sarim.digitalbanking.transfers.api.CreateTransferRequest;
+import com.sarim.digitalbanking.transfers.api.TransferBatchItemRequest;
+import com.sarim.digitalbanking.transfers.api.TransferBatchItemResult;
+import com.sarim.digitalbanking.transfers.api.TransferBatchResponse;
+import com.sarim.digitalbanking.transfers.api.TransferResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Batch variant of {@link TransferService#createTransfer}: every lookup is one set-based query for
+ * the whole batch, the union of accounts is locked once in id order, and transfers, ledger rows,
+ * audit rows and balance moves go out as JDBC batches.
+ *
+ * Items succeed or fail on their own (outcome REJECTED with the same messages the single endpoint
+ * uses, including "payee failed screening" for a watchlisted payee). Items are applied in request
+ * order, so an earlier item can use up the balance a later one needed, and the velocity /
+ * pending-hold rules see earlier items from the same user.
+ *
+ * Used by the batch endpoint (one user, many items) and by {@link TransferGroupCommitPipeline}
+ * (single transfers from many users that share one commit).
+ */
+@Service
+public class TransferBatchService {
+
+    private static final String CAD = "CAD";
+
+    private final AccountRepository accountRepository;
+    private final TransferRepository transferRepository;
+    private final UserRepository userRepository;
+    private final PayeeRepository payeeRepository;
+    private final TransferAccountGuard transferAccountGuard;
+    private final TransferRiskDecisionService transferRiskDecisionService;
+    private final TransferVelocityRiskService transferVelocityRiskService;
+    private final TransferAuditService transferAuditService;
+    private final TransferResponseMapper transferResponseMapper;
+    private final TransferBatchWriter transferBatchWriter;
+    private final IdempotencyReplayService idempotencyReplayService;
+    private final IdempotencyRequestHasher idempotencyRequestHasher;
+    private final TransferStageMetrics transferStageMetrics;
+    private final WatchlistScreening watchlistScreening;
+    private final int maxItems;
+
+    public TransferBatchService(
+            AccountRepository accountRepository,
+            TransferRepository transferRepository,
+            UserRepository userRepository,
+            PayeeRepository payeeRepository,
+            TransferAccountGuard transferAccountGuard,
+            TransferRiskDecisionService transferRiskDecisionService,
+            TransferVelocityRiskService transferVelocityRiskService,
+            TransferAuditService transferAuditService,
+            TransferResponseMapper transferResponseMapper,
+            TransferBatchWriter transferBatchWriter,
+            IdempotencyReplayService idempotencyReplayService,
+            IdempotencyRequestHasher idempotencyRequestHasher,
+            TransferStageMetrics transferStageMetrics,
+            WatchlistScreening watchlistScreening,
+            @Value("${app.transfers.batch.max-items:100}") int maxItems
+    ) {
+        this.accountRepository = accountRepository;
+        this.transferRepository = transferRepository;
+        this.userRepository = userRepository;
+        this.payeeRepository = payeeRepository;
+        this.transferAccountGuard = transferAccountGuard;
+        this.transferRiskDecisionService = transferRiskDecisionService;
+        this.transferVelocityRiskService = transferVelocityRiskService;
+        this.transferAuditService = transferAuditService;
+        this.transferResponseMapper = transferResponseMapper;
+        this.transferBatchWriter = transferBatchWriter;
+        this.idempotencyReplayService = idempotencyReplayService;
+        this.idempotencyRequestHasher = idempotencyRequestHasher;
+        this.transferStageMetrics = transferStageMetrics;
+        this.watchlistScreening = watchlistScreening;
+        this.maxItems = maxItems;
+    }
+
+    @Transactional
+    public TransferBatchResponse submitBatch(Long actorUserId, List<TransferBatchItemRequest> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("items must not be empty");
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("a batch may contain at most " + maxItems + " transfers");
+        }
+
+        TransferStageMetrics.StageTimer timer = transferStageMetrics.start("create_transfer_batch");
+
+        List<Leg> legs = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            legs.add(new Leg(i, actorUserId, items.get(i)));
+        }
+
+        process(legs, timer);
+        return toResponse(legs);
+    }
+
+    /**
+     * Settles already-validated single transfers from (possibly) different users in the caller's
+     * transaction. Results are in input order; idempotency keys must be distinct.
+     */
+    @Transactional
+    public List<LegResult> settleGroup(List<GroupedTransfer> transfers) {
+        TransferStageMetrics.StageTimer timer = transferStageMetrics.start("group_commit");
+
+        List<Leg> legs = new ArrayList<>(transfers.size());
+        for (int i = 0; i < transfers.size(); i++) {
+            GroupedTransfer t = transfers.get(i);
+            legs.add(new Leg(i, t.actorUserId(), new TransferBatchItemRequest(
+                    t.idempotencyKey(),
+                    t.request().fromAccountId(),
+                    t.request().payeeId(),
+                    t.request().amountCents(),
+                    t.request().currency()
+            )));
+        }
+
+        process(legs, timer);
+        return legs.stream().map(leg -> new LegResult(leg.response, leg.error, leg.conflict, leg.screeningHit)).toList();
+    }
+
+    private void process(List<Leg> legs, TransferStageMetrics.StageTimer timer) {
+        Set<String> seenKeys = new HashSet<>();
+        for (Leg leg : legs) {
+            try {
+                leg.parse(idempotencyRequestHasher);
+                if (!seenKeys.add(leg.key)) {
+                    leg.reject("duplicate idempotencyKey in batch");
+                }
+            } catch (IllegalArgumentException e) {
+                leg.reject(e.getMessage());
+            }
+        }
+
+        // ----- phase 1: set-based reads, validation and risk scoring, no row locks held -----
+
+        Map<String, IdempotencyReplayService.StoredTransferReplay> storedReplays =
+                idempotencyReplayService.findStoredTransferReplays(open(legs).stream()
+                        .collect(Collectors.toMap(leg -> leg.key, leg -> leg.requestHash)));
+
+        for (Leg leg : open(legs)) {
+            var stored = storedReplays.get(leg.key);
+            if (stored == null) {
+                continue;
+            }
+            if (stored.conflict() != null) {
+                leg.conflict(stored.conflict());
+            } else {
+                leg.replay(stored.response(), false);
+            }
+        }
+
+        resolvePayeeAccounts(open(legs));
+        replayAlreadySavedTransfers(open(legs));
+        timer.mark("resolve");
+
+        Map<Long, AccountSnapshot> fromSnapshots = accountRepository
+                .findSnapshotsByIdIn(open(legs).stream().map(leg -> leg.item.fromAccountId()).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(AccountSnapshot::id, Function.identity()));
+
+        // one velocity reservation per user covering all of their open items; the part that does
+        // not settle is given back once the batch is written
+        Map<Long, Long> requestedCentsByUser = new HashMap<>();
+        for (Leg leg : open(legs)) {
+            requestedCentsByUser.merge(leg.actorUserId, leg.amount, Long::sum);
+        }
+
+        Instant riskEvaluatedAt = Instant.now();
+        Map<Long, TransferRiskDecisionService.RiskContext> riskContexts = new HashMap<>();
+
+        // balance changes from earlier items of this batch, applied on top of what was read
+        Map<Long, Long> projectedDeltas = new HashMap<>();
+        for (Leg leg : open(legs)) {
+            AccountSnapshot from = fromSnapshots.get(leg.item.fromAccountId());
+            if (from == null) {
+                leg.reject("Account not found");
+                continue;
+            }
+            from = from.withBalanceCents(from.balanceCents() + projectedDeltas.getOrDefault(from.id(), 0L));
+
+            try {
+                transferAccountGuard.requireTransferable(
+                        from, leg.toAccount, leg.actorUserId, leg.payeeUserId, leg.amount, leg.currency);
+            } catch (IllegalArgumentException e) {
+                leg.reject(e.getMessage());
+                continue;
+            }
+
+            TransferRiskDecisionService.RiskContext riskContext = riskContexts.computeIfAbsent(
+                    leg.actorUserId,
+                    uid -> transferRiskDecisionService.reserveRiskContext(uid, requestedCentsByUser.get(uid), riskEvaluatedAt));
+            leg.risk = transferRiskDecisionService.decide(
+                    riskContext, leg.amount, leg.item.payeeId(), leg.toAccount.id());
+            riskContexts.put(leg.actorUserId, riskContext.accept(leg.amount, leg.risk.hold()));
+
+            projectedDeltas.merge(from.id(), -leg.amount, Long::sum);
+            if (!leg.risk.hold()) {
+                projectedDeltas.merge(leg.toAccount.id(), leg.amount, Long::sum);
+            }
+        }
+        timer.mark("risk");
+
+        // ----- phase 2: lock the union of accounts once, re-check in order, write in batches -----
+
+        List<Leg> accepted = open(legs);
+        if (!accepted.isEmpty()) {
+            settle(accepted, timer);
+        }
+
+        Map<Long, Long> settledCentsByUser = new HashMap<>();
+        for (Leg leg : legs) {
+            if (leg.outcome == Outcome.COMPLETED || leg.outcome == Outcome.HELD) {
+                settledCentsByUser.merge(leg.actorUserId, leg.amount, Long::sum);
+            }
+        }
+        riskContexts.forEach((userId, context) -> transferVelocityRiskService.release(
+                context.reservation(),
+                context.reservation().heldCents() - settledCentsByUser.getOrDefault(userId, 0L)));
+
+        List<IdempotencyReplayService.NewTransferResponse> newResponses = legs.stream()
+                .filter(leg -> leg.response != null && leg.storeResponse)
+                .map(leg -> new IdempotencyReplayService.NewTransferResponse(leg.key, leg.requestHash, 200, leg.response))
+                .toList();
+        idempotencyReplayService.storeNewTransferResponses(newResponses);
+        timer.mark("write");
+    }
+
+    private void resolvePayeeAccounts(List<Leg> legs) {
+        if (legs.isEmpty()) {
+            return;
+        }
+
+        Map<Long, PayeeEntity> payees = payeeRepository
+                .findAllById(legs.stream().map(leg -> leg.item.payeeId()).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(PayeeEntity::getId, Function.identity()));
+
+        for (Leg leg : legs) {
+            PayeeEntity payee = payees.get(leg.item.payeeId());
+            if (payee == null || !payee.getOwnerUser().getId().equals(leg.actorUserId)) {
+                leg.reject("payee not found");
+            } else if (!"ACTIVE".equalsIgnoreCase(payee.getStatus())) {
+                leg.reject("payee is disabled");
+            } else {
+                leg.payeeUserId = payee.getPayeeUser().getId();
+                leg.payeeEmail = payee.getPayeeEmail();
+            }
+        }
+
+        Set<Long> payeeUserIds = open(legs).stream().map(leg -> leg.payeeUserId).collect(Collectors.toSet());
+        if (payeeUserIds.isEmpty()) {
+            return;
+        }
+
+        // at most one CHEQUING account per user (uq_accounts_user_id_account_type)
+        Map<Long, AccountSnapshot> chequingByUserId = accountRepository
+                .findActiveSnapshotsByUserIdIn(payeeUserIds, AccountType.CHEQUING)
+                .stream()
+                .collect(Collectors.toMap(AccountSnapshot::userId, Function.identity()));
+
+        for (Leg leg : open(legs)) {
+            AccountSnapshot to = chequingByUserId.get(leg.payeeUserId);
+            if (to == null || !leg.currency.equalsIgnoreCase(to.currency())) {
+                leg.reject("payee account not found");
+            } else if (leg.item.fromAccountId().equals(to.id())) {
+                leg.reject("fromAccountId and toAccountId must be different");
+            } else {
+                try {
+                    watchlistScreening.requireClear(leg.payeeEmail, leg.payeeUserId, to.id());
+                    leg.toAccount = to;
+                } catch (WatchlistHitException e) {
+                    leg.screened(e);
+                }
+            }
+        }
+    }
+
+    // Transfer rows whose idempotency record is missing (e.g. written by a request that died
+    // before storing its response): same rules as TransferPersistenceService's replay path.
+    private void replayAlreadySavedTransfers(List<Leg> legs) {
+        if (legs.isEmpty()) {
+            return;
+        }
+
+        Map<String, Leg> byKey = legs.stream().collect(Collectors.toMap(leg -> leg.key, Function.identity()));
+
+        for (TransferEntity existing : transferRepository.findByIdempotencyKeyIn(byKey.keySet())) {
+            Leg leg = byKey.get(existing.getIdempotencyKey());
+
+            if (!existing.getFromAccount().getUser().getId().equals(leg.actorUserId)) {
+                leg.conflict("Idempotency-Key was already used");
+                continue;
+            }
+
+            boolean sameRequest = existing.getFromAccount().getId().equals(leg.item.fromAccountId())
+                    && existing.getToAccount().getId().equals(leg.toAccount.id())
+                    && existing.getAmountCents() == leg.amount
+                    && existing.getCurrency().equalsIgnoreCase(leg.currency);
+
+            if (!sameRequest) {
+                leg.conflict("Idempotency-Key was already used with a different request");
+            } else {
+                leg.replay(transferResponseMapper.toUserResponse(existing, leg.actorUserId), true);
+            }
+        }
+    }
+
+    private void settle(List<Leg> accepted, TransferStageMetrics.StageTimer timer) {
+        Set<Long> accountIds = new TreeSet<>();
+        for (Leg leg : accepted) {
+            accountIds.add(leg.item.fromAccountId());
+            accountIds.add(leg.toAccount.id());
+        }
+
+        Map<Long, AccountEntity> locked = accountRepository.findByIdInForUpdate(List.copyOf(accountIds))
+                .stream()
+                .collect(Collectors.toMap(AccountEntity::getId, Function.identity()));
+        timer.lockAcquired();
+
+        Map<Long, Long> deltas = new HashMap<>();
+        List<Leg> settled = new ArrayList<>(accepted.size());
+
+        for (Leg leg : accepted) {
+            AccountEntity fromEntity = locked.get(leg.item.fromAccountId());
+            AccountEntity toEntity = locked.get(leg.toAccount.id());
+            if (fromEntity == null || toEntity == null) {
+                leg.reject("Account not found");
+                continue;
+            }
+
+            AccountSnapshot from = AccountSnapshot.of(fromEntity);
+            from = from.withBalanceCents(from.balanceCents() + deltas.getOrDefault(from.id(), 0L));
+
+            try {
+                transferAccountGuard.requireTransferable(
+                        from, AccountSnapshot.of(toEntity), leg.actorUserId, leg.payeeUserId, leg.amount, leg.currency);
+            } catch (IllegalArgumentException e) {
+                leg.reject(e.getMessage());
+                continue;
+            }
+
+            deltas.merge(from.id(), -leg.amount, Long::sum);
+            if (!leg.risk.hold()) {
+                deltas.merge(toEntity.getId(), leg.amount, Long::sum);
+            }
+            settled.add(leg);
+        }
+
+        if (settled.isEmpty()) {
+            return;
+        }
+
+        List<TransferBatchWriter.InsertedTransfer> inserted = transferBatchWriter.insertTransfers(settled.stream()
+                .map(leg -> new TransferBatchWriter.TransferRow(
+                        leg.item.fromAccountId(),
+                        leg.toAccount.id(),
+                        leg.amount,
+                        leg.currency,
+                        leg.risk.hold() ? TransferStatus.PENDING_REVIEW : TransferStatus.COMPLETED,
+                        leg.risk.hold() ? "HOLD" : null,
+                        leg.risk.hold() ? leg.risk.score() : null,
+                        leg.risk.hold() ? leg.risk.reason() : null,
+                        leg.key
+                ))
+                .toList());
+
+        List<TransferBatchWriter.LedgerRow> ledgerRows = new ArrayList<>(settled.size() * 2);
+        List<TransferBatchWriter.AuditRow> auditRows = new ArrayList<>(settled.size());
+
+        for (int i = 0; i < settled.size(); i++) {
+            Leg leg = settled.get(i);
+            Long transferId = inserted.get(i).id();
+            Long fromAccountId = leg.item.fromAccountId();
+            Long toAccountId = leg.toAccount.id();
+
+            ledgerRows.add(new TransferBatchWriter.LedgerRow(
+                    transferId, fromAccountId, LedgerDirection.DEBIT, leg.amount, leg.currency));
+
+            if (leg.risk.hold()) {
+                auditRows.add(new TransferBatchWriter.AuditRow(
+                        leg.actorUserId, leg.payeeUserId, "TRANSFER_HELD", transferId,
+                        transferAuditService.transferHeldDetails(
+                                fromAccountId, leg.item.payeeId(), toAccountId, leg.amount, leg.currency, leg.risk.reason())));
+            } else {
+                ledgerRows.add(new TransferBatchWriter.LedgerRow(
+                        transferId, toAccountId, LedgerDirection.CREDIT, leg.amount, leg.currency));
+                auditRows.add(new TransferBatchWriter.AuditRow(
+                        leg.actorUserId, leg.payeeUserId, "TRANSFER_CREATE", transferId,
+                        transferAuditService.transferCreateDetails(
+                                fromAccountId, leg.item.payeeId(), toAccountId, leg.amount, leg.currency)));
+            }
+        }
+
+        transferBatchWriter.applyBalanceDeltas(deltas);
+        transferBatchWriter.insertLedgerEntries(ledgerRows);
+        transferBatchWriter.insertAuditRows(auditRows);
+
+        Set<Long> userIds = new HashSet<>();
+        for (Leg leg : settled) {
+            userIds.add(leg.actorUserId);
+            userIds.add(leg.payeeUserId);
+        }
+        Map<Long, String> emailsByUserId = userRepository
+                .findAllById(userIds)
+                .stream()
+                .collect(Collectors.toMap(UserEntity::getId, UserEntity::getEmail));
+
+        for (int i = 0; i < settled.size(); i++) {
+            Leg leg = settled.get(i);
+            TransferBatchWriter.InsertedTransfer row = inserted.get(i);
+
+            leg.settle(transferResponseMapper.toUserResponse(new TransferSettlementService.PostedTransfer(
+                    row.id(),
+                    leg.item.fromAccountId(),
+                    leg.toAccount.id(),
+                    leg.actorUserId,
+                    leg.amount,
+                    leg.currency,
+                    (leg.risk.hold() ? TransferStatus.PENDING_REVIEW : TransferStatus.COMPLETED).name(),
+                    leg.risk.hold() ? "HOLD" : null,
+                    leg.risk.hold() ? leg.risk.score() : null,
+                    leg.risk.hold() ? leg.risk.reason() : null,
+                    row.createdAt(),
+                    false,
+                    emailsByUserId.get(leg.actorUserId),
+                    emailsByUserId.get(leg.payeeUserId)
+            ), leg.actorUserId));
+        }
+    }
+
+    private static List<Leg> open(List<Leg> legs) {
+        return legs.stream().filter(leg -> leg.outcome == null).toList();
+    }
+
+    private static TransferBatchResponse toResponse(List<Leg> legs) {
+        int completed = 0, held = 0, rejected = 0, replayed = 0;
+        List<TransferBatchItemResult> results = new ArrayList<>(legs.size());
+
+        for (Leg leg : legs) {
+            switch (leg.outcome) {
+                case COMPLETED -> completed++;
+                case HELD -> held++;
+                case REJECTED -> rejected++;
+                case REPLAYED -> replayed++;
+            }
+            results.add(new TransferBatchItemResult(leg.index, leg.key, leg.outcome.name(), leg.response, leg.error));
+        }
+
+        return new TransferBatchResponse(completed, held, rejected, replayed, results);
+    }
+
+    public record GroupedTransfer(Long actorUserId, String idempotencyKey, CreateTransferRequest request) {}
+
+    /**
+     * Either {@code response} (completed, held or replayed) or {@code error}; {@code conflict} means
+     * 409, a {@code screeningHit} 403.
+     */
+    public record LegResult(TransferResponse response, String error, boolean conflict, WatchlistKind screeningHit) {}
+
+    private enum Outcome { COMPLETED, HELD, REJECTED, REPLAYED }
+
+    private static final class Leg {
+        final int index;
+        final Long actorUserId;
+        final TransferBatchItemRequest item;
+
+        String key;
+        String currency;
+        long amount;
+        RequestHash requestHash;
+        Long payeeUserId;
+        String payeeEmail;
+        AccountSnapshot toAccount;
+        TransferRiskDecisionService.RiskHoldDecision risk;
+
+        Outcome outcome;
+        TransferResponse response;
+        boolean storeResponse;
+        String error;
+        boolean conflict;
+        WatchlistKind screeningHit;
+
+        Leg(int index, Long actorUserId, TransferBatchItemRequest item) {
+            this.index = index;
+            this.actorUserId = actorUserId;
+            this.item = item;
+            this.key = item == null ? null : item.idempotencyKey();
+        }
+
+        void parse(IdempotencyRequestHasher hasher) {
+            if (item == null) {
+                throw new IllegalArgumentException("item must not be null");
+            }
+            if (item.idempotencyKey() == null || item.idempotencyKey().isBlank()) {
+                throw new IllegalArgumentException("idempotencyKey is required");
+            }
+            key = IdempotencyKeyUtil.normalize(item.idempotencyKey());
+
+            if (item.fromAccountId() == null || item.payeeId() == null) {
+                throw new IllegalArgumentException("fromAccountId and payeeId are required");
+            }
+            if (item.amountCents() == null || item.amountCents() <= 0) {
+                throw new IllegalArgumentException("amountCents must be > 0");
+            }
+            amount = item.amountCents();
+
+            currency = (item.currency() == null || item.currency().isBlank())
+                    ? CAD
+                    : item.currency().trim().toUpperCase();
+            if (currency.length() != 3) {
+                throw new IllegalArgumentException("currency must be a 3-letter code");
+            }
+
+            requestHash = hasher.hashUserTransfer(actorUserId, item.toTransferRequest());
+        }
+
+        void reject(String message) {
+            outcome = Outcome.REJECTED;
+            error = message;
+        }
+
+        void conflict(String message) {
+            reject(message);
+            conflict = true;
+        }
+
+        void screened(WatchlistHitException hit) {
+            reject(hit.getMessage());
+            screeningHit = hit.getKind();
+        }
+
+        void replay(TransferResponse stored, boolean storeResponse) {
+            outcome = Outcome.REPLAYED;
+            response = stored;
+            this.storeResponse = storeResponse;
+        }
+
+        void settle(TransferResponse created) {
+            outcome = risk.hold() ? Outcome.HELD : Outcome.COMPLETED;
+            response = created;
+            storeResponse = true;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.sarim.digitalbanking.ledger.LedgerDirection;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC-batched inserts for the batch transfer path. Each method is one round trip no matter
+ * how many rows it writes. Callers must already hold the account row locks.
+ */
+@Component
+public class TransferBatchWriter {
+
+    private static final String INSERT_TRANSFER_SQL = """
+        insert into transfers (
+            from_account_id, to_account_id, amount_cents, currency,
+            status, risk_decision, risk_score, risk_reasons, idempotency_key
+        )
+        values (?, ?, ?, ?, ?, ?, ?, ?, ?)
+    """;
+
+    private static final String INSERT_LEDGER_SQL = """
+        insert into ledger_entries (transfer_id, account_id, direction, amount_cents, currency)
+        values (?, ?, ?, ?, ?)
+    """;
+
+    private static final String INSERT_AUDIT_SQL = """
+        insert into audit_log (actor_user_id, affected_user_id, action, entity_type, entity_id, details)
+        values (?, ?, ?, 'transfer', ?, ?)
+    """;
+
+    private static final String APPLY_BALANCE_DELTA_SQL = """
+        update accounts
+        set balance_cents = balance_cents + ?,
+            version = version + 1,
+            updated_at = now()
+        where id = ?
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransferBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Returns the generated id and created_at of each row, in input order. */
+    public List<InsertedTransfer> insertTransfers(List<TransferRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_TRANSFER_SQL, new String[] {"id", "created_at"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        TransferRow row = rows.get(i);
+                        ps.setLong(1, row.fromAccountId());
+                        ps.setLong(2, row.toAccountId());
+                        ps.setLong(3, row.amountCents());
+                        ps.setString(4, row.currency());
+                        ps.setString(5, row.status().name());
+                        ps.setString(6, row.riskDecision());
+                        ps.setObject(7, row.riskScore(), Types.INTEGER);
+                        ps.setString(8, row.riskReasons());
+                        ps.setString(9, row.idempotencyKey());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                },
+                keyHolder
+        );
+
+        List<InsertedTransfer> inserted = new ArrayList<>(rows.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            inserted.add(new InsertedTransfer(
+                    ((Number) keys.get("id")).longValue(),
+                    ((Timestamp) keys.get("created_at")).toInstant()
+            ));
+        }
+        return inserted;
+    }
+
+    public void insertLedgerEntries(List<LedgerRow> rows) {
+        jdbcTemplate.batchUpdate(INSERT_LEDGER_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.transferId());
+            ps.setLong(2, row.accountId());
+            ps.setString(3, row.direction().name());
+            ps.setLong(4, row.amountCents());
+            ps.setString(5, row.currency());
+        });
+    }
+
+    public void insertAuditRows(List<AuditRow> rows) {
+        jdbcTemplate.batchUpdate(INSERT_AUDIT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.actorUserId());
+            ps.setLong(2, row.affectedUserId());
+            ps.setString(3, row.action());
+            ps.setString(4, String.valueOf(row.transferId()));
+            ps.setString(5, row.details());
+        });
+    }
+
+    public void applyBalanceDeltas(Map<Long, Long> deltasByAccountId) {
+        List<Map.Entry<Long, Long>> deltas = deltasByAccountId.entrySet().stream()
+                .filter(e -> e.getValue() != 0L)
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+
+        jdbcTemplate.batchUpdate(APPLY_BALANCE_DELTA_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setLong(1, delta.getValue());
+            ps.setLong(2, delta.getKey());
+        });
+    }
+
+    public record TransferRow(
+            Long fromAccountId,
+            Long toAccountId,
+            long amountCents,
+            String currency,
+            TransferStatus status,
+            String riskDecision,
+            Integer riskScore,
+            String riskReasons,
+            String idempotencyKey
+    ) {}
+
+    public record InsertedTransfer(Long id, Instant createdAt) {}
+
+    public record LedgerRow(Long transferId, Long accountId, LedgerDirection direction, long amountCents, String currency) {}
+
+    public record AuditRow(Long actorUserId, Long affectedUserId, String action, Long transferId, String details) {}
+}
@@ -4,13 +4,16 @@ import com.sarim.digitalbanking.accounts.AccountEntity;
 import jakarta.persistence.*;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 
 @Entity
 @Table(name = "transfers")
 public class TransferEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled sequence (V9) rather than IDENTITY so inserts can be batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transfers_id_seq")
+    @SequenceGenerator(name = "transfers_id_seq", sequenceName = "transfers_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
@@ -43,14 +46,36 @@ public class TransferEntity {
     @Column(name = "idempotency_key", nullable = false, length = 128)
     private String idempotencyKey;
 
-    @Column(name = "created_at", nullable = false, updatable = false, insertable = false)
+    // set on async submissions only (V8)
+    @Column(name = "payee_id")
+    private Long payeeId;
+
+    @Column(name = "failure_reason")
+    private String failureReason;
+
+    // stamped here rather than by the column default, so the row needs no re-read after insert
+    @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
-    @Column(name = "updated_at", nullable = false, insertable = false)
+    @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
 
     public TransferEntity() {}
 
+    @PrePersist
+    void stampCreatedAt() {
+        // Postgres keeps microseconds; truncating keeps the in-memory value equal to the stored one
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        if (createdAt == null) createdAt = now;
+        if (updatedAt == null) updatedAt = now;
+    }
+
+    // status changes go through here; the payee graph and backtests read updated_at as the time of the last one
+    @PreUpdate
+    void stampUpdatedAt() {
+        updatedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
     public Long getId() { return id; }
 
     public AccountEntity getFromAccount() { return fromAccount; }
@@ -80,6 +105,12 @@ public class TransferEntity {
     public String getIdempotencyKey() { return idempotencyKey; }
     public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
 
+    public Long getPayeeId() { return payeeId; }
+    public void setPayeeId(Long payeeId) { this.payeeId = payeeId; }
+
+    public String getFailureReason() { return failureReason; }
+    public void setFailureReason(String failureReason) { this.failureReason = failureReason; }
+
     public Instant getCreatedAt() { return createdAt; }
     public Instant getUpdatedAt() { return updatedAt; }
 }
@@ -43,4 +43,24 @@ public class TransferFactory {
         t.setIdempotencyKey(idempotencyKey);
         return t;
     }
-}
\ No newline at end of file
+
+    /** Accepted but not yet settled: no risk decision, no ledger rows, balances untouched. */
+    public TransferEntity newInitiatedTransfer(
+            AccountEntity from,
+            AccountEntity to,
+            long amountCents,
+            String currency,
+            String idempotencyKey,
+            Long payeeId
+    ) {
+        TransferEntity t = new TransferEntity();
+        t.setFromAccount(from);
+        t.setToAccount(to);
+        t.setAmountCents(amountCents);
+        t.setCurrency(currency);
+        t.setStatus(TransferStatus.INITIATED);
+        t.setIdempotencyKey(idempotencyKey);
+        t.setPayeeId(payeeId);
+        return t;
+    }
+}
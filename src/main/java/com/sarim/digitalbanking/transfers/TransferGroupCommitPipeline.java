@@ -0,0 +1,252 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.sarim.digitalbanking.risk.WatchlistHitException;
+import com.sarim.digitalbanking.transfers.api.CreateTransferRequest;
+import com.sarim.digitalbanking.transfers.api.TransferResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Opt-in group commit for single transfers ({@code app.transfers.group-commit.enabled}).
+ *
+ * Requests are queued and drained by one writer thread. Whatever arrives within
+ * {@code window-ms} (or until {@code max-batch-size} is reached) is settled by
+ * {@link TransferBatchService#settleGroup} in one transaction, so the group shares one commit
+ * and one WAL flush instead of paying for one each. Every caller gets its own response or error.
+ *
+ * Validation failures only reject their own leg. If the group transaction itself fails (for
+ * example a concurrent request with the same idempotency key wins the insert), each request in
+ * the group is retried on its own through {@link TransferService#createTransfer}, so one bad leg
+ * never fails the others.
+ */
+@Component
+public class TransferGroupCommitPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferGroupCommitPipeline.class);
+
+    private final TransferBatchService transferBatchService;
+    private final TransferService transferService;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final long submitTimeoutMs;
+
+    private final BlockingQueue<Submission> queue;
+    // same-key retries that arrived in a group that already had the key; they go first next time
+    private final Deque<Submission> deferred = new ArrayDeque<>();
+
+    private final Timer batchTimer;
+    private final DistributionSummary batchSize;
+    private final Counter fallbacks;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public TransferGroupCommitPipeline(
+            TransferBatchService transferBatchService,
+            TransferService transferService,
+            MeterRegistry meterRegistry,
+            @Value("${app.transfers.group-commit.enabled:false}") boolean enabled,
+            @Value("${app.transfers.group-commit.window-ms:2}") long windowMs,
+            @Value("${app.transfers.group-commit.max-batch-size:64}") int maxBatchSize,
+            @Value("${app.transfers.group-commit.queue-capacity:4096}") int queueCapacity,
+            @Value("${app.transfers.group-commit.submit-timeout-ms:5000}") long submitTimeoutMs
+    ) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("app.transfers.group-commit.max-batch-size must be >= 1");
+        }
+
+        this.transferBatchService = transferBatchService;
+        this.transferService = transferService;
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxBatchSize = maxBatchSize;
+        this.submitTimeoutMs = submitTimeoutMs;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+
+        this.batchTimer = Timer.builder("transfers.group_commit.batch").register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("transfers.group_commit.batch_size").register(meterRegistry);
+        this.fallbacks = Counter.builder("transfers.group_commit.fallbacks").register(meterRegistry);
+        meterRegistry.gauge("transfers.group_commit.queue_depth", queue, BlockingQueue::size);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "transfer-group-commit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /** Blocks the calling request thread until its group has committed (or failed). */
+    public TransferResponse submit(Long actorUserId, String idempotencyKey, CreateTransferRequest req) {
+        Submission submission = new Submission(
+                new TransferBatchService.GroupedTransfer(actorUserId, idempotencyKey, req),
+                new CompletableFuture<>()
+        );
+
+        if (!queue.offer(submission)) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "transfer queue is full");
+        }
+
+        try {
+            return submission.result().get(submitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("group commit failed", e.getCause());
+        } catch (TimeoutException e) {
+            // the transfer may still commit; a retry with the same key will replay it
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "transfer is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "interrupted");
+        }
+    }
+
+    private void runWriter() {
+        while (running) {
+            try {
+                List<Submission> group = nextGroup();
+                if (!group.isEmpty()) {
+                    settle(group);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("group commit writer failed", e);
+            }
+        }
+
+        List<Submission> leftovers = new ArrayList<>(deferred);
+        queue.drainTo(leftovers);
+        leftovers.forEach(s -> s.result().completeExceptionally(
+                new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "shutting down")));
+    }
+
+    private List<Submission> nextGroup() throws InterruptedException {
+        List<Submission> group = new ArrayList<>(maxBatchSize);
+        Set<String> keys = new HashSet<>();
+
+        int carried = deferred.size();
+        for (int i = 0; i < carried && group.size() < maxBatchSize; i++) {
+            add(group, keys, deferred.poll());
+        }
+
+        if (group.isEmpty()) {
+            Submission first = queue.poll(100, TimeUnit.MILLISECONDS);
+            if (first == null) {
+                return group;
+            }
+            add(group, keys, first);
+        }
+
+        long deadline = System.nanoTime() + windowNanos;
+        while (group.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            Submission next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                break;
+            }
+            add(group, keys, next);
+        }
+
+        return group;
+    }
+
+    private void add(List<Submission> group, Set<String> keys, Submission submission) {
+        if (keys.add(submission.transfer().idempotencyKey())) {
+            group.add(submission);
+        } else {
+            deferred.add(submission);
+        }
+    }
+
+    private void settle(List<Submission> group) {
+        batchSize.record(group.size());
+        long startedAt = System.nanoTime();
+
+        List<TransferBatchService.LegResult> results;
+        try {
+            results = transferBatchService.settleGroup(group.stream().map(Submission::transfer).toList());
+        } catch (RuntimeException e) {
+            log.warn("group commit of {} transfers failed, settling them one by one: {}", group.size(), e.toString());
+            fallbacks.increment();
+            group.forEach(this::settleAlone);
+            return;
+        } finally {
+            batchTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+
+        for (int i = 0; i < group.size(); i++) {
+            TransferBatchService.LegResult result = results.get(i);
+            CompletableFuture<TransferResponse> future = group.get(i).result();
+
+            if (result.response() != null) {
+                future.complete(result.response());
+            } else if (result.conflict()) {
+                future.completeExceptionally(new ResponseStatusException(HttpStatus.CONFLICT, result.error()));
+            } else if (result.screeningHit() != null) {
+                future.completeExceptionally(new WatchlistHitException(result.screeningHit()));
+            } else {
+                future.completeExceptionally(new IllegalArgumentException(result.error()));
+            }
+        }
+    }
+
+    private void settleAlone(Submission submission) {
+        TransferBatchService.GroupedTransfer t = submission.transfer();
+        try {
+            submission.result().complete(
+                    transferService.createTransfer(t.actorUserId(), t.idempotencyKey(), t.request()));
+        } catch (RuntimeException e) {
+            submission.result().completeExceptionally(e);
+        }
+    }
+
+    private record Submission(
+            TransferBatchService.GroupedTransfer transfer,
+            CompletableFuture<TransferResponse> result
+    ) {}
+}
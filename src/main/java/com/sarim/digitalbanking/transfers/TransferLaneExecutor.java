@@ -0,0 +1,126 @@
+package com.sarim.digitalbanking.transfers;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Striped settlement lanes ({@code app.transfers.lanes.enabled}).
+ *
+ * Each transfer runs on the single-threaded lane picked by its lowest account id, so transfers
+ * touching the same account wait in an in-memory queue instead of each holding a pooled
+ * connection while blocked on the row lock. At most {@code lanes.count} transfers settle at
+ * once, which keeps a hot account from draining the connection pool for unrelated requests.
+ * The row locks are still taken; lanes only change where the waiting happens.
+ */
+@Component
+public class TransferLaneExecutor {
+
+    private final boolean enabled;
+    private final long submitTimeoutMs;
+    private final List<ThreadPoolExecutor> lanes;
+
+    private final Timer queueWait;
+    private final Counter rejected;
+
+    public TransferLaneExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${app.transfers.lanes.enabled:false}") boolean enabled,
+            @Value("${app.transfers.lanes.count:8}") int laneCount,
+            @Value("${app.transfers.lanes.queue-capacity:1024}") int queueCapacity,
+            @Value("${app.transfers.lanes.submit-timeout-ms:5000}") long submitTimeoutMs
+    ) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("app.transfers.lanes.count must be >= 1");
+        }
+
+        this.enabled = enabled;
+        this.submitTimeoutMs = submitTimeoutMs;
+        this.queueWait = Timer.builder("transfers.lanes.queue_wait").register(meterRegistry);
+        this.rejected = Counter.builder("transfers.lanes.rejected").register(meterRegistry);
+
+        List<ThreadPoolExecutor> created = new ArrayList<>();
+        if (enabled) {
+            for (int i = 0; i < laneCount; i++) {
+                String name = "transfer-lane-" + i;
+                ThreadPoolExecutor lane = new ThreadPoolExecutor(
+                        1, 1, 0L, TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(queueCapacity),
+                        r -> {
+                            Thread t = new Thread(r, name);
+                            t.setDaemon(true);
+                            return t;
+                        }
+                );
+                meterRegistry.gauge("transfers.lanes.queue_depth", Tags.of("lane", String.valueOf(i)),
+                        lane, l -> l.getQueue().size());
+                created.add(lane);
+            }
+        }
+        this.lanes = List.copyOf(created);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Runs {@code work} on the lane for {@code laneKey}, blocking the caller until it finishes. */
+    public <T> T execute(long laneKey, Supplier<T> work) {
+        ThreadPoolExecutor lane = lanes.get(Math.floorMod(laneKey, lanes.size()));
+        long queuedAt = System.nanoTime();
+
+        Future<T> future;
+        try {
+            future = lane.submit(() -> {
+                queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return work.get();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "transfer queue is full");
+        }
+
+        try {
+            return future.get(submitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("transfer lane failed", e.getCause());
+        } catch (TimeoutException e) {
+            // still queued: drop it; already running: it may commit and a retry will replay it
+            future.cancel(false);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "transfer is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "interrupted");
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
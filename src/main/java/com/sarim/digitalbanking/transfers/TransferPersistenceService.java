@@ -1,6 +1,5 @@
 package com.sarim.digitalbanking.transfers;
 
-import jakarta.persistence.EntityManager;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
@@ -14,14 +13,9 @@ import java.util.function.Supplier;
 public class TransferPersistenceService {
 
     private final TransferRepository transferRepository;
-    private final EntityManager entityManager;
 
-    public TransferPersistenceService(
-            TransferRepository transferRepository,
-            EntityManager entityManager
-    ) {
+    public TransferPersistenceService(TransferRepository transferRepository) {
         this.transferRepository = transferRepository;
-        this.entityManager = entityManager;
     }
 
     public SaveTransferOutcome saveTransferWithIdempotentReplay(
@@ -32,8 +26,8 @@ public class TransferPersistenceService {
             boolean rethrowUnknownDuplicate
     ) {
         try {
+            // flushed here so a duplicate key surfaces now, not at commit
             TransferEntity saved = transferRepository.saveAndFlush(candidate);
-            entityManager.refresh(saved);
             return new SaveTransferOutcome(saved, false);
         } catch (DataIntegrityViolationException dup) {
             Optional<TransferEntity> winnerOpt = replayLookup.get();
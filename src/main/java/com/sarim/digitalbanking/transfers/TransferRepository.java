@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,9 +18,15 @@ public interface TransferRepository extends JpaRepository<TransferEntity, Long>
 
     Optional<TransferEntity> findByIdempotencyKeyAndFromAccount_User_Id(String idempotencyKey, Long actorUserId);
 
+    List<TransferEntity> findByIdempotencyKeyIn(Collection<String> idempotencyKeys);
+
     boolean existsByIdempotencyKey(String idempotencyKey);
 
-    boolean existsByFromAccount_User_IdAndStatus(Long actorUserId, TransferStatus status);
+    // primary-key read of the per-user counter the V12 triggers keep, instead of probing transfers
+    @Query(value = """
+        select coalesce((select p.pending_count > 0 from user_pending_reviews p where p.user_id = :userId), false)
+    """, nativeQuery = true)
+    boolean hasPendingReview(@Param("userId") Long actorUserId);
 
     List<TransferEntity> findByStatusOrderByCreatedAtAsc(TransferStatus status);
 
@@ -31,6 +38,30 @@ public interface TransferRepository extends JpaRepository<TransferEntity, Long>
     """)
     Optional<TransferEntity> findByIdForUpdate(@Param("id") Long id);
 
+    // async settlement: each worker claims a different slice of the backlog
+    @Query(value = """
+        select *
+        from transfers
+        where status = 'INITIATED'
+        order by id
+        limit :limit
+        for update skip locked
+    """, nativeQuery = true)
+    List<TransferEntity> claimInitiatedForUpdate(@Param("limit") int limit);
+
+    // auto-review: held transfers past the cooling-off window, skipping rows another node holds
+    @Query(value = """
+        select *
+        from transfers
+        where status = 'PENDING_REVIEW'
+          and created_at <= :heldBefore
+          and (auto_review_after is null or auto_review_after <= now())
+        order by id
+        limit :limit
+        for update skip locked
+    """, nativeQuery = true)
+    List<TransferEntity> claimPendingReviewForUpdate(@Param("heldBefore") Instant heldBefore, @Param("limit") int limit);
+
     @Query("""
         select t
         from TransferEntity t
@@ -17,7 +17,10 @@ public class TransferResponseMapper {
         String direction = "UNKNOWN";
         String counterpartyEmail = null;
 
-        if (actorUserId != null && actorUserId.equals(fromUid)) {
+        if (actorUserId != null && actorUserId.equals(fromUid) && actorUserId.equals(toUid)) {
+            direction = "INTERNAL";
+            counterpartyEmail = toEmail;
+        } else if (actorUserId != null && actorUserId.equals(fromUid)) {
             direction = "SENT";
             counterpartyEmail = toEmail;
         } else if (actorUserId != null && actorUserId.equals(toUid)) {
@@ -39,7 +42,30 @@ public class TransferResponseMapper {
                 fromEmail,
                 toEmail,
                 direction,
-                counterpartyEmail
+                counterpartyEmail,
+                t.getFailureReason()
+        );
+    }
+
+    public TransferResponse toUserResponse(TransferSettlementService.PostedTransfer p, Long actorUserId) {
+        boolean sent = actorUserId != null && actorUserId.equals(p.fromUserId());
+
+        return new TransferResponse(
+                p.transferId(),
+                p.fromAccountId(),
+                p.toAccountId(),
+                p.amountCents(),
+                p.currency(),
+                p.status(),
+                p.riskDecision(),
+                p.riskScore(),
+                p.riskReasons(),
+                p.createdAt(),
+                p.fromEmail(),
+                p.toEmail(),
+                sent ? "SENT" : "UNKNOWN",
+                sent ? p.toEmail() : null,
+                null
         );
     }
 
@@ -0,0 +1,536 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.sarim.digitalbanking.risk.RiskFeatures;
+import com.sarim.digitalbanking.risk.RiskRuleEngine;
+import com.sarim.digitalbanking.risk.RiskRuleSet;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays historical transfers through a rule set (the active one or a candidate) to see what it
+ * would have held, before it ships.
+ *
+ * Transfers are streamed from Postgres in {@code created_at} order through a server-side cursor
+ * and cut into chunks. Each chunk is split by sender over {@code parallelism} partitions on a
+ * fork-join pool while the next chunk is read; a partition owns its users, so their velocity
+ * windows and pending holds live in plain maps with no locking, and chunks are applied in order.
+ * The window mirrors the Redis one (per-minute buckets, {@link TransferVelocityRiskService#WINDOW})
+ * and is warmed up with the window before {@code from}; users idle for longer than the window
+ * are dropped, so memory follows the number of active senders, not the table size.
+ *
+ * A transfer the candidate holds counts as pending until it was resolved in history, or for
+ * {@code assumedReview} when it was not held back then. The scoring model is not replayed: its
+ * counterparty features cost a query per transfer.
+ *
+ * A backtest holds a connection and a read-only transaction for as long as it runs, so only one
+ * runs at a time across all nodes (an advisory lock taken in that transaction) and it is given up
+ * after {@code timeout-ms}: the replay query runs under that {@code statement_timeout}, and the
+ * replay itself stops at the same deadline.
+ */
+@Service
+public class TransferRiskBacktestService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferRiskBacktestService.class);
+
+    // same population as the live velocity window: transfers that reserved it and were not given back
+    private static final String REPLAY_SQL = """
+            select fa.user_id,
+                   t.amount_cents,
+                   t.created_at,
+                   t.risk_score is not null as held,
+                   case when t.risk_score is not null and t.status <> 'PENDING_REVIEW' then t.updated_at end as resolved_at,
+                   t.status = 'REJECTED' and t.risk_decision = 'BLOCK' as rejected
+              from transfers t
+              join accounts fa on fa.id = t.from_account_id
+              join accounts ta on ta.id = t.to_account_id
+             where t.created_at >= ?
+               and t.created_at < ?
+               and t.status in ('COMPLETED', 'PENDING_REVIEW', 'REJECTED')
+               and t.failure_reason is null
+               and ta.user_id <> fa.user_id
+             order by t.created_at, t.id
+            """;
+
+    private static final String LOCK_SQL = "select pg_try_advisory_xact_lock(hashtext('risk backtest'))";
+
+    private static final String QUERY_CANCELED = "57014";
+
+    private static final int CHUNK_SIZE = 16_384;
+    private static final int SWEEP_EVERY_CHUNKS = 64;
+    private static final int SCORE_BUCKETS = 10;
+    private static final long WINDOW_MINUTES = TransferVelocityRiskService.WINDOW.toMinutes();
+
+    private static final byte HISTORICALLY_HELD = 1;
+    private static final byte HISTORICALLY_REJECTED = 2;
+    private static final byte WARMUP = 4;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final RiskRuleEngine riskRuleEngine;
+    private final int fetchSize;
+    private final int parallelism;
+    private final long timeoutMs;
+
+    private final Timer backtestTimer;
+    private final Semaphore running = new Semaphore(1);
+
+    public TransferRiskBacktestService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            RiskRuleEngine riskRuleEngine,
+            MeterRegistry meterRegistry,
+            @Value("${app.risk.backtest.fetch-size:10000}") int fetchSize,
+            @Value("${app.risk.backtest.parallelism:0}") int parallelism,
+            @Value("${app.risk.backtest.timeout-ms:120000}") long timeoutMs
+    ) {
+        if (timeoutMs < 1) {
+            throw new IllegalArgumentException("app.risk.backtest.timeout-ms must be >= 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.riskRuleEngine = riskRuleEngine;
+        this.fetchSize = Math.max(1, fetchSize);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.timeoutMs = timeoutMs;
+
+        this.backtestTimer = Timer.builder("risk.backtest").register(meterRegistry);
+    }
+
+    /**
+     * Replays transfers created in [{@code from}, {@code to}) through {@code candidate}, or the
+     * active rule set when it is null. One backtest runs at a time; a second one gets an
+     * {@link IllegalStateException}, and one that runs past {@code timeout-ms} a
+     * {@link QueryTimeoutException}.
+     */
+    public Report run(RiskRuleSet candidate, Instant from, Instant to, Duration assumedReview) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (assumedReview.isNegative()) {
+            throw new IllegalArgumentException("assumed review time must not be negative");
+        }
+        RiskRuleSet rules = candidate != null ? candidate : riskRuleEngine.current();
+        if (rules.size() > RiskRuleSet.MAX_TRACED_RULES) {
+            throw new IllegalArgumentException("a backtest supports up to " + RiskRuleSet.MAX_TRACED_RULES + " enabled rules");
+        }
+        if (!running.tryAcquire()) {
+            throw new IllegalStateException("a backtest is already running");
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long startedAt = System.nanoTime();
+            long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            Replay replay = new Replay(rules, from.toEpochMilli(), assumedReview.toMillis(), pool, deadline);
+            Instant warmupFrom = from.minus(TransferVelocityRiskService.WINDOW).minus(Duration.ofMinutes(1));
+
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(LOCK_SQL, Boolean.class))) {
+                        throw new IllegalStateException("a backtest is already running");
+                    }
+                    jdbcTemplate.execute("set local statement_timeout = " + timeoutMs);
+                    jdbcTemplate.query(
+                            con -> {
+                                PreparedStatement ps = con.prepareStatement(REPLAY_SQL);
+                                ps.setFetchSize(fetchSize);
+                                ps.setTimestamp(1, Timestamp.from(warmupFrom));
+                                ps.setTimestamp(2, Timestamp.from(to));
+                                return ps;
+                            },
+                            (RowCallbackHandler) replay::read
+                    );
+                });
+            } catch (DataAccessResourceFailureException e) {
+                // query_canceled: Spring files it with the other class 57 (operator intervention) states
+                if (e.getCause() instanceof SQLException sql && QUERY_CANCELED.equals(sql.getSQLState())) {
+                    throw new QueryTimeoutException("backtest ran longer than " + timeoutMs + " ms", e);
+                }
+                throw e;
+            }
+            replay.finish();
+
+            long elapsed = System.nanoTime() - startedAt;
+            backtestTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            Report report = replay.report(from, to, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            log.info("risk backtest over {} transfers: {} held ({} in history) in {} ms",
+                    report.transfers(), report.held(), report.historicallyHeld(), report.durationMs());
+            return report;
+        } finally {
+            pool.shutdownNow();
+            running.release();
+        }
+    }
+
+    public record Report(
+            Instant from,
+            Instant to,
+            long transfers,
+            long held,
+            double holdRate,
+            long historicallyHeld,
+            double historicalHoldRate,
+            long heldInBoth,
+            long heldOnlyByCandidate,
+            long heldOnlyInHistory,
+            long historicallyRejected,
+            long historicallyRejectedAndHeld,
+            long[] scoreHistogram,
+            List<RuleHits> rules,
+            List<RuleOverlap> overlaps,
+            long durationMs
+    ) {}
+
+    /** {@code alone}: held transfers on which this was the only rule that matched. */
+    public record RuleHits(String name, long hits, long alone) {}
+
+    public record RuleOverlap(String first, String second, long both) {}
+
+    /** Reader side: fills one chunk while the partitions work on the previous one. */
+    private final class Replay {
+
+        private final RiskRuleSet rules;
+        private final long fromMillis;
+        private final long assumedReviewMillis;
+        private final ForkJoinPool pool;
+        private final long deadline;
+        private final Partition[] partitions;
+
+        private Chunk filling = new Chunk();
+        private Chunk spare = new Chunk();
+        private ForkJoinTask<?> inFlight;
+        private long chunks;
+
+        Replay(RiskRuleSet rules, long fromMillis, long assumedReviewMillis, ForkJoinPool pool, long deadline) {
+            this.rules = rules;
+            this.fromMillis = fromMillis;
+            this.assumedReviewMillis = assumedReviewMillis;
+            this.pool = pool;
+            this.deadline = deadline;
+            this.partitions = new Partition[parallelism];
+            for (int i = 0; i < parallelism; i++) {
+                partitions[i] = new Partition(i, parallelism, rules);
+            }
+        }
+
+        void read(ResultSet rs) throws SQLException {
+            long createdAt = rs.getTimestamp(3).getTime();
+            Timestamp resolvedAt = rs.getTimestamp(5);
+
+            byte flags = 0;
+            if (rs.getBoolean(4)) {
+                flags |= HISTORICALLY_HELD;
+            }
+            if (rs.getBoolean(6)) {
+                flags |= HISTORICALLY_REJECTED;
+            }
+            if (createdAt < fromMillis) {
+                flags |= WARMUP;
+            }
+
+            filling.add(rs.getLong(1), rs.getLong(2), createdAt, resolvedAt == null ? -1L : resolvedAt.getTime(), flags);
+            if (filling.size == CHUNK_SIZE) {
+                dispatch();
+            }
+        }
+
+        void finish() {
+            if (filling.size > 0) {
+                dispatch();
+            }
+            if (inFlight != null) {
+                inFlight.join();
+            }
+        }
+
+        // the partitions of chunk n finish before those of chunk n + 1 start, so per-user order holds
+        private void dispatch() {
+            if (inFlight != null) {
+                inFlight.join();
+            }
+            if (System.nanoTime() - deadline > 0) {
+                throw new QueryTimeoutException("backtest ran longer than " + timeoutMs + " ms");
+            }
+            Chunk chunk = filling;
+            boolean sweep = ++chunks % SWEEP_EVERY_CHUNKS == 0;
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(partitions.length);
+            for (Partition partition : partitions) {
+                tasks.add(ForkJoinTask.adapt(() -> partition.apply(chunk, assumedReviewMillis, sweep)));
+            }
+            inFlight = pool.submit(() -> ForkJoinTask.invokeAll(tasks));
+
+            filling = spare;
+            filling.size = 0;
+            spare = chunk;
+        }
+
+        Report report(Instant from, Instant to, long durationMs) {
+            Tally total = new Tally(rules.size());
+            for (Partition partition : partitions) {
+                total.add(partition.tally);
+            }
+
+            List<RuleHits> ruleHits = new ArrayList<>(rules.size());
+            List<RuleOverlap> overlaps = new ArrayList<>();
+            for (int i = 0; i < rules.size(); i++) {
+                ruleHits.add(new RuleHits(rules.ruleName(i), total.ruleHits[i], total.ruleAlone[i]));
+                for (int j = i + 1; j < rules.size(); j++) {
+                    long both = total.pairs[i * rules.size() + j];
+                    if (both > 0) {
+                        overlaps.add(new RuleOverlap(rules.ruleName(i), rules.ruleName(j), both));
+                    }
+                }
+            }
+
+            return new Report(
+                    from,
+                    to,
+                    total.transfers,
+                    total.held,
+                    rate(total.held, total.transfers),
+                    total.historicallyHeld,
+                    rate(total.historicallyHeld, total.transfers),
+                    total.heldInBoth,
+                    total.held - total.heldInBoth,
+                    total.historicallyHeld - total.heldInBoth,
+                    total.historicallyRejected,
+                    total.historicallyRejectedAndHeld,
+                    total.scoreHistogram,
+                    ruleHits,
+                    overlaps,
+                    durationMs
+            );
+        }
+
+        private static double rate(long part, long whole) {
+            return whole == 0 ? 0d : (double) part / whole;
+        }
+    }
+
+    /** Column-wise rows, reused between chunks. */
+    private static final class Chunk {
+
+        final long[] userIds = new long[CHUNK_SIZE];
+        final long[] amounts = new long[CHUNK_SIZE];
+        final long[] createdAt = new long[CHUNK_SIZE];
+        final long[] resolvedAt = new long[CHUNK_SIZE];
+        final byte[] flags = new byte[CHUNK_SIZE];
+        int size;
+
+        void add(long userId, long amount, long created, long resolved, byte flag) {
+            userIds[size] = userId;
+            amounts[size] = amount;
+            createdAt[size] = created;
+            resolvedAt[size] = resolved;
+            flags[size] = flag;
+            size++;
+        }
+    }
+
+    /** The users whose id hashes to {@code index}, with their state and this partition's tally. */
+    private static final class Partition {
+
+        private final int index;
+        private final int count;
+        private final RiskRuleSet rules;
+        private final Map<Long, UserState> users = new HashMap<>();
+        private final Tally tally;
+
+        Partition(int index, int count, RiskRuleSet rules) {
+            this.index = index;
+            this.count = count;
+            this.rules = rules;
+            this.tally = new Tally(rules.size());
+        }
+
+        void apply(Chunk chunk, long assumedReviewMillis, boolean sweep) {
+            long lastMinute = 0L;
+            for (int i = 0; i < chunk.size; i++) {
+                long userId = chunk.userIds[i];
+                if (Math.floorMod(Long.hashCode(userId), count) != index) {
+                    continue;
+                }
+                long createdAt = chunk.createdAt[i];
+                long minute = Math.floorDiv(createdAt, 60_000L);
+                lastMinute = minute;
+
+                UserState user = users.computeIfAbsent(userId, id -> new UserState());
+                long windowTotal = user.windowTotal(minute);
+
+                if ((chunk.flags[i] & WARMUP) == 0) {
+                    long trace = rules.trace(new RiskFeatures(chunk.amounts[i], windowTotal, user.pendingAt(createdAt)));
+                    int score = rules.traceScore(trace);
+                    tally.record(trace, score, chunk.flags[i]);
+                    if (score >= 0) {
+                        user.hold(pendingUntil(chunk, i, assumedReviewMillis));
+                    }
+                }
+                user.add(minute, chunk.amounts[i]);
+            }
+
+            if (sweep) {
+                long idleBefore = lastMinute - WINDOW_MINUTES - 1;
+                long nowMillis = lastMinute * 60_000L;
+                users.values().removeIf(user -> user.lastMinute < idleBefore && !user.pendingAt(nowMillis));
+            }
+        }
+
+        private static long pendingUntil(Chunk chunk, int i, long assumedReviewMillis) {
+            if ((chunk.flags[i] & HISTORICALLY_HELD) != 0) {
+                return chunk.resolvedAt[i] < 0 ? Long.MAX_VALUE : chunk.resolvedAt[i];
+            }
+            return chunk.createdAt[i] + assumedReviewMillis;
+        }
+    }
+
+    /** One sender: per-minute window buckets, like the Redis hash, and the end times of their holds. */
+    private static final class UserState {
+
+        private final long[] bucketMinutes = new long[(int) WINDOW_MINUTES + 1];
+        private final long[] bucketCents = new long[(int) WINDOW_MINUTES + 1];
+        private long[] pendingUntil;
+        private int pendingCount;
+        long lastMinute = Long.MIN_VALUE;
+
+        long windowTotal(long minute) {
+            long oldest = minute - WINDOW_MINUTES;
+            long total = 0L;
+            for (int i = 0; i < bucketMinutes.length; i++) {
+                if (bucketMinutes[i] >= oldest && bucketMinutes[i] <= minute) {
+                    total += bucketCents[i];
+                }
+            }
+            return total;
+        }
+
+        void add(long minute, long cents) {
+            int slot = (int) Math.floorMod(minute, (long) bucketMinutes.length);
+            if (bucketMinutes[slot] != minute) {
+                bucketMinutes[slot] = minute;
+                bucketCents[slot] = 0L;
+            }
+            bucketCents[slot] += cents;
+            lastMinute = minute;
+        }
+
+        boolean pendingAt(long atMillis) {
+            int kept = 0;
+            for (int i = 0; i < pendingCount; i++) {
+                if (pendingUntil[i] > atMillis) {
+                    pendingUntil[kept++] = pendingUntil[i];
+                }
+            }
+            pendingCount = kept;
+            return kept > 0;
+        }
+
+        void hold(long until) {
+            if (pendingUntil == null) {
+                pendingUntil = new long[2];
+            } else if (pendingCount == pendingUntil.length) {
+                pendingUntil = Arrays.copyOf(pendingUntil, pendingCount * 2);
+            }
+            pendingUntil[pendingCount++] = until;
+        }
+    }
+
+    private static final class Tally {
+
+        private final int ruleCount;
+        long transfers;
+        long held;
+        long historicallyHeld;
+        long heldInBoth;
+        long historicallyRejected;
+        long historicallyRejectedAndHeld;
+        final long[] scoreHistogram = new long[SCORE_BUCKETS];
+        final long[] ruleHits;
+        final long[] ruleAlone;
+        final long[] pairs;
+
+        Tally(int ruleCount) {
+            this.ruleCount = ruleCount;
+            this.ruleHits = new long[ruleCount];
+            this.ruleAlone = new long[ruleCount];
+            this.pairs = new long[ruleCount * ruleCount];
+        }
+
+        void record(long trace, int score, byte flags) {
+            transfers++;
+            boolean historicHold = (flags & HISTORICALLY_HELD) != 0;
+            boolean rejected = (flags & HISTORICALLY_REJECTED) != 0;
+            if (historicHold) {
+                historicallyHeld++;
+            }
+            if (rejected) {
+                historicallyRejected++;
+            }
+            if (score >= 0) {
+                held++;
+                scoreHistogram[Math.min(score / 10, SCORE_BUCKETS - 1)]++;
+                if (historicHold) {
+                    heldInBoth++;
+                }
+                if (rejected) {
+                    historicallyRejectedAndHeld++;
+                }
+            }
+
+            for (long bits = trace; bits != 0; bits &= bits - 1) {
+                int i = Long.numberOfTrailingZeros(bits);
+                ruleHits[i]++;
+                for (long rest = bits & (bits - 1); rest != 0; rest &= rest - 1) {
+                    pairs[i * ruleCount + Long.numberOfTrailingZeros(rest)]++;
+                }
+            }
+            if (score >= 0 && Long.bitCount(trace) == 1) {
+                ruleAlone[Long.numberOfTrailingZeros(trace)]++;
+            }
+        }
+
+        void add(Tally other) {
+            transfers += other.transfers;
+            held += other.held;
+            historicallyHeld += other.historicallyHeld;
+            heldInBoth += other.heldInBoth;
+            historicallyRejected += other.historicallyRejected;
+            historicallyRejectedAndHeld += other.historicallyRejectedAndHeld;
+            for (int i = 0; i < SCORE_BUCKETS; i++) {
+                scoreHistogram[i] += other.scoreHistogram[i];
+            }
+            for (int i = 0; i < ruleHits.length; i++) {
+                ruleHits[i] += other.ruleHits[i];
+                ruleAlone[i] += other.ruleAlone[i];
+            }
+            for (int i = 0; i < pairs.length; i++) {
+                pairs[i] += other.pairs[i];
+            }
+        }
+    }
+}
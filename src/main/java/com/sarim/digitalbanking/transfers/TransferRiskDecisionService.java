@@ -1,88 +1,114 @@
 package com.sarim.digitalbanking.transfers;
 
+import com.sarim.digitalbanking.risk.PayeeGraphIndex;
+import com.sarim.digitalbanking.risk.RiskFeature;
+import com.sarim.digitalbanking.risk.RiskFeatures;
+import com.sarim.digitalbanking.risk.RiskModelService;
+import com.sarim.digitalbanking.risk.RiskRuleEngine;
+import com.sarim.digitalbanking.risk.RiskRuleSet;
+import com.sarim.digitalbanking.risk.RiskVerdict;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class TransferRiskDecisionService {
 
-    private static final long RISK_HOLD_THRESHOLD_CENTS = 500_000L; // $5000.00
-
     private final TransferVelocityRiskService transferVelocityRiskService;
     private final TransferRepository transferRepository;
+    private final RiskRuleEngine riskRuleEngine;
+    private final RiskModelService riskModelService;
+    private final PayeeGraphIndex payeeGraphIndex;
+    private final Timer featureTimer;
 
     public TransferRiskDecisionService(
             TransferVelocityRiskService transferVelocityRiskService,
-            TransferRepository transferRepository
+            TransferRepository transferRepository,
+            RiskRuleEngine riskRuleEngine,
+            RiskModelService riskModelService,
+            PayeeGraphIndex payeeGraphIndex,
+            MeterRegistry meterRegistry
     ) {
         this.transferVelocityRiskService = transferVelocityRiskService;
         this.transferRepository = transferRepository;
+        this.riskRuleEngine = riskRuleEngine;
+        this.riskModelService = riskModelService;
+        this.payeeGraphIndex = payeeGraphIndex;
+        this.featureTimer = Timer.builder("risk.features.fetch").register(meterRegistry);
     }
 
-    public RiskHoldDecision evaluateRiskHoldDecision(Long actorUserId, long amountCents, Instant now) {
-        boolean amountHold = amountCents >= RISK_HOLD_THRESHOLD_CENTS;
-
-        TransferVelocityRiskService.VelocitySnapshot velocitySnapshot =
-                transferVelocityRiskService.getSnapshot(actorUserId, amountCents, now);
-
-        boolean cumulativeHold = velocitySnapshot.hold();
-
-        boolean existingPendingHold =
-                transferRepository.existsByFromAccount_User_IdAndStatus(actorUserId, TransferStatus.PENDING_REVIEW);
-
-        if (!amountHold && !cumulativeHold && !existingPendingHold) {
-            return new RiskHoldDecision(false, null, null);
+    /**
+     * Reserves {@code reserveCents} in the user's velocity window and loads the other per-user
+     * features the active rule set reads, so one or more transfers from the same user can be
+     * decided with {@link #decide(RiskContext, long, Long, Long)}. The Redis reservation and
+     * the pending-hold query run side by side. Whatever part of the reservation does not end up
+     * settled has to be released through {@link TransferVelocityRiskService#release}; a rollback
+     * releases it automatically.
+     */
+    public RiskContext reserveRiskContext(Long actorUserId, long reserveCents, Instant now) {
+        long startedAt = System.nanoTime();
+        RiskRuleSet rules = riskRuleEngine.current();
+
+        // the window is reserved whatever the rules read, it has to count every transfer
+        TransferVelocityRiskService.PendingReservation pending =
+                transferVelocityRiskService.startReserve(actorUserId, reserveCents, now);
+
+        boolean existingPendingHold;
+        try {
+            existingPendingHold = rules.requires(RiskFeature.PENDING_HOLD)
+                    && transferRepository.hasPendingReview(actorUserId);
+        } catch (RuntimeException e) {
+            pending.join();     // registers the rollback hook that gives the amount back
+            throw e;
         }
 
-        StringBuilder reason = new StringBuilder();
-
-        if (amountHold) {
-            reason.append("single transfer amount meets or exceeds $5,000");
-        }
-
-        if (cumulativeHold) {
-            if (reason.length() > 0) {
-                reason.append("; ");
-            }
-            reason.append(velocitySnapshot.reason());
-        }
-
-        if (existingPendingHold) {
-            if (reason.length() > 0) {
-                reason.append("; ");
-            }
-            reason.append("existing outgoing transfer is still pending review");
-        }
+        TransferVelocityRiskService.Reservation reservation = pending.join();
+        featureTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
 
-        int score = 0;
-        int triggerCount = 0;
+        return new RiskContext(actorUserId, rules, reservation.priorWindowAmountCents(), existingPendingHold, reservation);
+    }
 
-        if (amountHold) {
-            score = Math.max(score, 90);
-            triggerCount++;
-        }
+    /**
+     * Holds or passes on the rules; the score is the model's for a held transfer when
+     * {@code app.risk.model.mode=active} (see {@link RiskModelService}). Low-scoring holds are
+     * cleared later by {@link TransferAutoReviewService}. Graph features come from the in-memory
+     * {@link PayeeGraphIndex} and are only computed when a rule reads them.
+     */
+    public RiskHoldDecision decide(RiskContext context, long amountCents, Long payeeId, Long toAccountId) {
+        PayeeGraphIndex.Features graph = payeeGraphIndex.features(context.rules(), context.actorUserId(), toAccountId, Instant.now());
+        RiskVerdict verdict = context.rules().evaluate(new RiskFeatures(
+                amountCents,
+                context.priorWindowAmountCents(),
+                context.existingPendingHold(),
+                graph.recipientFanIn(),
+                graph.senderFanOut(),
+                graph.badDistance(),
+                graph.cycle()
+        ));
+
+        Integer score = riskModelService.score(
+                verdict, amountCents, context.priorWindowAmountCents(), payeeId, toAccountId, Instant.now());
+
+        return new RiskHoldDecision(verdict.hold(), verdict.reason(), score);
+    }
 
-        if (cumulativeHold) {
-            score = Math.max(score, velocitySnapshot.score() == null ? 85 : velocitySnapshot.score());
-            triggerCount++;
-        }
+    public record RiskHoldDecision(boolean hold, String reason, Integer score) {}
 
-        if (existingPendingHold) {
-            score = Math.max(score, 95);
-            triggerCount++;
-        }
+    /** Per-user features plus the rule set they were loaded for, so a reload mid-batch cannot mix the two. */
+    public record RiskContext(
+            Long actorUserId,
+            RiskRuleSet rules,
+            long priorWindowAmountCents,
+            boolean existingPendingHold,
+            TransferVelocityRiskService.Reservation reservation
+    ) {
 
-        if (triggerCount >= 2) {
-            score = Math.min(99, score + 3);
+        /** Context as seen by the next transfer once this one has been accepted. */
+        public RiskContext accept(long amountCents, boolean held) {
+            return new RiskContext(actorUserId, rules, priorWindowAmountCents + amountCents, existingPendingHold || held, reservation);
         }
-
-        // TODO: Future implementation:
-        // add automated review / AI-assisted risk scoring so low-risk holds can be auto-cleared
-        // within a short review window instead of always requiring manual admin action.
-
-        return new RiskHoldDecision(true, reason.toString(), score);
     }
-
-    public record RiskHoldDecision(boolean hold, String reason, Integer score) {}
-}
\ No newline at end of file
+}
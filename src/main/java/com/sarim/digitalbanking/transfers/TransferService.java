@@ -2,6 +2,7 @@ package com.sarim.digitalbanking.transfers;
 
 import com.sarim.digitalbanking.accounts.AccountEntity;
 import com.sarim.digitalbanking.accounts.AccountRepository;
+import com.sarim.digitalbanking.accounts.AccountSnapshot;
 import com.sarim.digitalbanking.accounts.AccountType;
 import com.sarim.digitalbanking.admin.api.AdminHeldTransferResponse;
 import com.sarim.digitalbanking.admin.api.CreateAdminDepositRequest;
@@ -9,9 +10,12 @@ import com.sarim.digitalbanking.auth.UserEntity;
 import com.sarim.digitalbanking.auth.UserRepository;
 import com.sarim.digitalbanking.payees.PayeeEntity;
 import com.sarim.digitalbanking.payees.PayeeRepository;
+import com.sarim.digitalbanking.risk.WatchlistScreening;
 import com.sarim.digitalbanking.transfers.api.CreateTransferRequest;
 import com.sarim.digitalbanking.transfers.api.TransferPageResponse;
 import com.sarim.digitalbanking.transfers.api.TransferResponse;
+import com.sarim.digitalbanking.treasury.TreasuryDirectory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -19,6 +23,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import com.sarim.digitalbanking.idempotency.IdempotencyReplayService;
 import com.sarim.digitalbanking.idempotency.IdempotencyRequestHasher;
+import com.sarim.digitalbanking.idempotency.RequestHash;
 
 import java.time.Instant;
 import java.util.Comparator;
@@ -27,7 +32,6 @@ import java.util.List;
 @Service
 public class TransferService {
 
-    private static final String SYSTEM_USER_EMAIL = "system@bank.local";
     private static final String CAD = "CAD";
 
 
@@ -40,12 +44,17 @@ public class TransferService {
     private final TransferSettlementService transferSettlementService;
     private final TransferAuditService transferAuditService;
     private final TransferRiskDecisionService transferRiskDecisionService;
+    private final WatchlistScreening watchlistScreening;
     private final TransferPersistenceService transferPersistenceService;
     private final TransferFactory transferFactory;
     private final TransferCursorCodec transferCursorCodec;
     private final TransferAdminReviewGuard transferAdminReviewGuard;
+    private final TransferAccountGuard transferAccountGuard;
     private final IdempotencyReplayService idempotencyReplayService;
     private final IdempotencyRequestHasher idempotencyRequestHasher;
+    private final TransferStageMetrics transferStageMetrics;
+    private final TreasuryDirectory treasuryDirectory;
+    private final boolean singleCallPosting;
 
     public TransferService(
             AccountRepository accountRepository,
@@ -57,12 +66,17 @@ public class TransferService {
             TransferSettlementService transferSettlementService,
             TransferAuditService transferAuditService,
             TransferRiskDecisionService transferRiskDecisionService,
+            WatchlistScreening watchlistScreening,
             TransferPersistenceService transferPersistenceService,
             TransferFactory transferFactory,
             TransferCursorCodec transferCursorCodec,
             TransferAdminReviewGuard transferAdminReviewGuard,
+            TransferAccountGuard transferAccountGuard,
             IdempotencyReplayService idempotencyReplayService,
-            IdempotencyRequestHasher idempotencyRequestHasher
+            IdempotencyRequestHasher idempotencyRequestHasher,
+            TransferStageMetrics transferStageMetrics,
+            TreasuryDirectory treasuryDirectory,
+            @Value("${app.transfers.posting-engine:jpa}") String postingEngine
     ) {
         this.accountRepository = accountRepository;
         this.transferRepository = transferRepository;
@@ -73,93 +87,109 @@ public class TransferService {
         this.transferSettlementService = transferSettlementService;
         this.transferAuditService = transferAuditService;
         this.transferRiskDecisionService = transferRiskDecisionService;
+        this.watchlistScreening = watchlistScreening;
         this.transferPersistenceService = transferPersistenceService;
         this.transferFactory = transferFactory;
         this.transferCursorCodec = transferCursorCodec;
         this.transferAdminReviewGuard = transferAdminReviewGuard;
+        this.transferAccountGuard = transferAccountGuard;
         this.idempotencyReplayService = idempotencyReplayService;
         this.idempotencyRequestHasher = idempotencyRequestHasher;
+        this.transferStageMetrics = transferStageMetrics;
+        this.treasuryDirectory = treasuryDirectory;
+        this.singleCallPosting = "sql".equalsIgnoreCase(postingEngine.trim());
     }
 
     @Transactional
     public TransferResponse createTransfer(Long actorUserId, String idempotencyKey, CreateTransferRequest req) {
-        String currency = (req.currency() == null || req.currency().isBlank())
-                ? CAD
-                : req.currency().trim().toUpperCase();
+        return createTransfer(actorUserId, idempotencyKey, req, SettlementLocking.PESSIMISTIC);
+    }
 
-        if (currency.length() != 3) {
-            throw new IllegalArgumentException("currency must be a 3-letter code");
-        }
+    /**
+     * With {@link SettlementLocking#OPTIMISTIC} the accounts are read without row locks and the
+     * balance updates are version-checked at commit; a conflict surfaces as
+     * {@link org.springframework.dao.OptimisticLockingFailureException} and the caller retries.
+     * Hot accounts are always locked.
+     */
+    @Transactional
+    public TransferResponse createTransfer(
+            Long actorUserId,
+            String idempotencyKey,
+            CreateTransferRequest req,
+            SettlementLocking locking
+    ) {
+        TransferStageMetrics.StageTimer timer = transferStageMetrics.start("create_transfer");
 
+        String currency = normalizeCurrency(req.currency());
         long amount = req.amountCents();
 
-        PayeeEntity payee = payeeRepository.findByIdAndOwnerUser_Id(req.payeeId(), actorUserId)
-                .orElseThrow(() -> new IllegalArgumentException("payee not found"));
-
-        if (!"ACTIVE".equalsIgnoreCase(payee.getStatus())) {
-            throw new IllegalArgumentException("payee is disabled");
-        }
+        // ----- phase 1: reads, validation and risk scoring, no row locks held -----
 
+        PayeeEntity payee = requireActivePayee(actorUserId, req.payeeId());
         Long payeeUserId = payee.getPayeeUser().getId();
+        Long toAccountId = resolvePayeeAccountId(payeeUserId, req.fromAccountId(), currency);
 
-        Long toAccountId = accountRepository
-                .findByUserIdAndAccountTypeAndCurrencyIgnoreCaseAndStatusIgnoreCase(
-                        payeeUserId,
-                        AccountType.CHEQUING,
-                        currency,
-                        "ACTIVE"
-                )
-                .map(AccountEntity::getId)
-                .orElseThrow(() -> new IllegalArgumentException("payee account not found"));
-
-        if (req.fromAccountId().equals(toAccountId)) {
-            throw new IllegalArgumentException("fromAccountId and toAccountId must be different");
-        }
-
-        String requestHash = idempotencyRequestHasher.hashUserTransfer(actorUserId, req);
+        RequestHash requestHash = idempotencyRequestHasher.hashUserTransfer(actorUserId, req);
 
         var storedReplay = idempotencyReplayService.findStoredTransferReplay(idempotencyKey, requestHash);
         if (storedReplay.isPresent()) {
             return storedReplay.get();
         }
 
-        List<Long> ids = List.of(req.fromAccountId(), toAccountId).stream()
-                .sorted(Comparator.naturalOrder())
-                .toList();
-
-        List<AccountEntity> locked = accountRepository.findByIdInForUpdate(ids);
-        if (locked.size() != 2) {
-            throw new IllegalArgumentException("Account not found");
-        }
+        timer.mark("resolve");
 
-        AccountEntity from = locked.get(0).getId().equals(req.fromAccountId()) ? locked.get(0) : locked.get(1);
-        AccountEntity to   = locked.get(0).getId().equals(toAccountId)          ? locked.get(0) : locked.get(1);
+        watchlistScreening.requireClear(payee.getPayeeEmail(), payeeUserId, toAccountId);
+        timer.mark("screen");
 
-        if (!from.getUser().getId().equals(actorUserId)) {
-            throw new IllegalArgumentException("Account not found");
+        if (singleCallPosting) {
+            return createTransferInSingleCall(
+                    actorUserId, idempotencyKey, requestHash, payee, toAccountId, amount, currency, req, timer);
         }
-        if (!to.getUser().getId().equals(payeeUserId)) {
+
+        // Snapshots are unmanaged, so the locked read below sees current rows, not these.
+        List<AccountSnapshot> snapshots = accountRepository.findSnapshotsByIdIn(List.of(req.fromAccountId(), toAccountId));
+        if (snapshots.size() != 2) {
             throw new IllegalArgumentException("Account not found");
         }
 
-        if (!"ACTIVE".equalsIgnoreCase(from.getStatus())) {
-            throw new IllegalArgumentException("From account is not active");
-        }
-        if (!"ACTIVE".equalsIgnoreCase(to.getStatus())) {
-            throw new IllegalArgumentException("To account is not active");
-        }
+        AccountSnapshot fromSnapshot = snapshots.get(0).id().equals(req.fromAccountId()) ? snapshots.get(0) : snapshots.get(1);
+        AccountSnapshot toSnapshot   = snapshots.get(0).id().equals(toAccountId)          ? snapshots.get(0) : snapshots.get(1);
 
-        if (!currency.equalsIgnoreCase(from.getCurrency()) || !currency.equalsIgnoreCase(to.getCurrency())) {
-            throw new IllegalArgumentException("currency must match both accounts");
+        transferAccountGuard.requireTransferable(fromSnapshot, toSnapshot, actorUserId, payeeUserId, amount, currency);
+        timer.mark("validate");
+
+        // counts toward the velocity window from here on; a rollback gives it back
+        TransferRiskDecisionService.RiskContext riskContext =
+                transferRiskDecisionService.reserveRiskContext(actorUserId, amount, Instant.now());
+        TransferRiskDecisionService.RiskHoldDecision riskHoldDecision =
+                transferRiskDecisionService.decide(riskContext, amount, payee.getId(), toAccountId);
+        timer.mark("risk");
+
+        // ----- phase 2: lock (or version-check), re-check what can change under us, write -----
+
+        List<Long> ids = List.of(req.fromAccountId(), toAccountId).stream()
+                .sorted(Comparator.naturalOrder())
+                .toList();
+
+        boolean optimistic = locking == SettlementLocking.OPTIMISTIC && !fromSnapshot.hot() && !toSnapshot.hot();
+
+        List<AccountEntity> locked;
+        if (optimistic) {
+            locked = accountRepository.findAllById(ids);
+            timer.mark("read");
+        } else {
+            locked = accountRepository.findByIdInForUpdate(ids);
+            timer.lockAcquired();
         }
 
-        if (from.getBalanceCents() < amount) {
-            throw new IllegalArgumentException("insufficient funds");
+        if (locked.size() != 2) {
+            throw new IllegalArgumentException("Account not found");
         }
 
-        Instant riskEvaluatedAt = Instant.now();
-        TransferRiskDecisionService.RiskHoldDecision riskHoldDecision =
-                transferRiskDecisionService.evaluateRiskHoldDecision(actorUserId, amount, riskEvaluatedAt);
+        AccountEntity from = locked.get(0).getId().equals(req.fromAccountId()) ? locked.get(0) : locked.get(1);
+        AccountEntity to   = locked.get(0).getId().equals(toAccountId)          ? locked.get(0) : locked.get(1);
+
+        transferAccountGuard.requireTransferable(AccountSnapshot.of(from), AccountSnapshot.of(to), actorUserId, payeeUserId, amount, currency);
 
         boolean holdForReview = riskHoldDecision.hold();
 
@@ -178,13 +208,14 @@ public class TransferService {
 
         t = saveOutcome.transfer();
         if (saveOutcome.replayed()) {
+            transferVelocityRiskService.release(riskContext.reservation());
             TransferResponse response = transferResponseMapper.toUserResponse(t, actorUserId);
             idempotencyReplayService.storeTransferResponse(idempotencyKey, requestHash, 200, response);
             return response;
         }
 
-        UserEntity actor = userRepository.findById(actorUserId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        // from is owned by the actor (checked above); its user proxy is all the audit row needs
+        UserEntity actor = from.getUser();
 
         if (holdForReview) {
             transferSettlementService.applyHeldTransferReserve(t, from, amount, currency);
@@ -200,42 +231,223 @@ public class TransferService {
                     currency,
                     riskHoldDecision.reason()
             );
+        } else {
+            transferSettlementService.applyLedgerAndBalances(t, from, to, amount, currency);
 
-            transferVelocityRiskService.recordSuccessfulTransferAfterCommit(actorUserId, t.getId(), amount, riskEvaluatedAt);
+            transferAuditService.logTransferCreate(
+                    actor,
+                    to.getUser(),
+                    t.getId(),
+                    from.getId(),
+                    payee.getId(),
+                    to.getId(),
+                    amount,
+                    currency
+            );
+        }
 
-            TransferResponse response = transferResponseMapper.toUserResponse(t, actorUserId);
-            idempotencyReplayService.storeTransferResponse(idempotencyKey, requestHash, 200, response);
-            return response;
+        TransferResponse response = transferResponseMapper.toUserResponse(t, actorUserId);
+        idempotencyReplayService.storeTransferResponse(idempotencyKey, requestHash, 200, response);
+        timer.mark("write");
+        return response;
+    }
+
+    /**
+     * Async submission: runs the cheap checks, stores the transfer as INITIATED and returns it.
+     * Risk, locking and settlement happen later in {@link TransferAsyncSettlementService}.
+     * A retry with the same key returns the transfer's current state.
+     */
+    @Transactional
+    public TransferResponse acceptTransfer(Long actorUserId, String idempotencyKey, CreateTransferRequest req) {
+        TransferStageMetrics.StageTimer timer = transferStageMetrics.start("accept_transfer");
+
+        String currency = normalizeCurrency(req.currency());
+        long amount = req.amountCents();
+
+        RequestHash requestHash = idempotencyRequestHasher.hashUserTransfer(actorUserId, req);
+
+        var storedReplay = idempotencyReplayService.findStoredTransferReplay(idempotencyKey, requestHash);
+        if (storedReplay.isPresent()) {
+            return storedReplay.get();
         }
 
-        transferSettlementService.applyLedgerAndBalances(t, from, to, amount, currency);
+        PayeeEntity payee = requireActivePayee(actorUserId, req.payeeId());
+        Long payeeUserId = payee.getPayeeUser().getId();
+        Long toAccountId = resolvePayeeAccountId(payeeUserId, req.fromAccountId(), currency);
 
-        transferAuditService.logTransferCreate(
-                actor,
-                to.getUser(),
-                t.getId(),
-                from.getId(),
-                payee.getId(),
-                to.getId(),
+        // checked before the balance so a retry after settlement replays instead of failing on funds
+        var existing = transferRepository.findByIdempotencyKeyAndFromAccount_User_Id(idempotencyKey, actorUserId);
+        if (existing.isPresent()) {
+            return replayAccepted(existing.get(), actorUserId, req.fromAccountId(), toAccountId, amount, currency);
+        }
+
+        watchlistScreening.requireClear(payee.getPayeeEmail(), payeeUserId, toAccountId);
+
+        List<AccountSnapshot> snapshots = accountRepository.findSnapshotsByIdIn(List.of(req.fromAccountId(), toAccountId));
+        if (snapshots.size() != 2) {
+            throw new IllegalArgumentException("Account not found");
+        }
+
+        AccountSnapshot fromSnapshot = snapshots.get(0).id().equals(req.fromAccountId()) ? snapshots.get(0) : snapshots.get(1);
+        AccountSnapshot toSnapshot   = snapshots.get(0).id().equals(toAccountId)          ? snapshots.get(0) : snapshots.get(1);
+
+        // unlocked; the settlement worker re-checks everything under the row locks
+        transferAccountGuard.requireTransferable(fromSnapshot, toSnapshot, actorUserId, payeeUserId, amount, currency);
+        timer.mark("validate");
+
+        TransferEntity t = transferFactory.newInitiatedTransfer(
+                accountRepository.getReferenceById(req.fromAccountId()),
+                accountRepository.getReferenceById(toAccountId),
                 amount,
-                currency
+                currency,
+                idempotencyKey,
+                payee.getId()
         );
 
-        transferVelocityRiskService.recordSuccessfulTransferAfterCommit(actorUserId, t.getId(), amount, riskEvaluatedAt);
+        TransferPersistenceService.SaveTransferOutcome saveOutcome =
+                transferPersistenceService.saveTransferWithIdempotentReplay(
+                        t,
+                        idempotencyKey,
+                        () -> transferRepository.findByIdempotencyKeyAndFromAccount_User_Id(idempotencyKey, actorUserId),
+                        winner -> sameTransferRequest(winner, req.fromAccountId(), toAccountId, amount, currency),
+                        true
+                );
+        timer.mark("write");
 
-        TransferResponse response = transferResponseMapper.toUserResponse(t, actorUserId);
+        return transferResponseMapper.toUserResponse(saveOutcome.transfer(), actorUserId);
+    }
+
+    private TransferResponse replayAccepted(
+            TransferEntity existing,
+            Long actorUserId,
+            Long fromAccountId,
+            Long toAccountId,
+            long amount,
+            String currency
+    ) {
+        if (!sameTransferRequest(existing, fromAccountId, toAccountId, amount, currency)) {
+            throw new ResponseStatusException(
+                    HttpStatus.CONFLICT,
+                    "Idempotency-Key was already used with a different request"
+            );
+        }
+        return transferResponseMapper.toUserResponse(existing, actorUserId);
+    }
+
+    /** Status polling for either side of a transfer; anyone else gets a 404. */
+    @Transactional(readOnly = true)
+    public TransferResponse getTransfer(Long actorUserId, Long transferId) {
+        TransferEntity t = transferRepository.findById(transferId)
+                .filter(x -> actorUserId.equals(x.getFromAccount().getUser().getId())
+                        || actorUserId.equals(x.getToAccount().getUser().getId()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "transfer not found"));
+
+        return transferResponseMapper.toUserResponse(t, actorUserId);
+    }
+
+    private String normalizeCurrency(String raw) {
+        String currency = (raw == null || raw.isBlank()) ? CAD : raw.trim().toUpperCase();
+        if (currency.length() != 3) {
+            throw new IllegalArgumentException("currency must be a 3-letter code");
+        }
+        return currency;
+    }
+
+    private PayeeEntity requireActivePayee(Long actorUserId, Long payeeId) {
+        PayeeEntity payee = payeeRepository.findByIdAndOwnerUser_Id(payeeId, actorUserId)
+                .orElseThrow(() -> new IllegalArgumentException("payee not found"));
+
+        if (!"ACTIVE".equalsIgnoreCase(payee.getStatus())) {
+            throw new IllegalArgumentException("payee is disabled");
+        }
+        return payee;
+    }
+
+    private Long resolvePayeeAccountId(Long payeeUserId, Long fromAccountId, String currency) {
+        Long toAccountId = accountRepository
+                .findActiveAccountId(payeeUserId, AccountType.CHEQUING, currency)
+                .orElseThrow(() -> new IllegalArgumentException("payee account not found"));
+
+        if (fromAccountId.equals(toAccountId)) {
+            throw new IllegalArgumentException("fromAccountId and toAccountId must be different");
+        }
+        return toAccountId;
+    }
+
+    private TransferResponse createTransferInSingleCall(
+            Long actorUserId,
+            String idempotencyKey,
+            RequestHash requestHash,
+            PayeeEntity payee,
+            Long toAccountId,
+            long amount,
+            String currency,
+            CreateTransferRequest req,
+            TransferStageMetrics.StageTimer timer
+    ) {
+        Long payeeUserId = payee.getPayeeUser().getId();
+
+        // counts toward the velocity window from here on; a rollback gives it back
+        TransferRiskDecisionService.RiskContext riskContext =
+                transferRiskDecisionService.reserveRiskContext(actorUserId, amount, Instant.now());
+        TransferRiskDecisionService.RiskHoldDecision riskHoldDecision =
+                transferRiskDecisionService.decide(riskContext, amount, payee.getId(), toAccountId);
+        timer.mark("risk");
+
+        String auditDetails = riskHoldDecision.hold()
+                ? transferAuditService.transferHeldDetails(
+                        req.fromAccountId(), payee.getId(), toAccountId, amount, currency, riskHoldDecision.reason())
+                : transferAuditService.transferCreateDetails(
+                        req.fromAccountId(), payee.getId(), toAccountId, amount, currency);
+
+        TransferSettlementService.PostedTransfer posted = transferSettlementService.postTransferInSingleCall(
+                actorUserId,
+                req.fromAccountId(),
+                toAccountId,
+                payeeUserId,
+                amount,
+                currency,
+                idempotencyKey,
+                riskHoldDecision,
+                auditDetails
+        );
+        timer.mark("post_function");
+
+        if (posted.replayed()) {
+            transferVelocityRiskService.release(riskContext.reservation());
+
+            if (!posted.fromUserId().equals(actorUserId)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Idempotency-Key was already used");
+            }
+
+            boolean sameRequest = posted.fromAccountId().equals(req.fromAccountId())
+                    && posted.toAccountId().equals(toAccountId)
+                    && posted.amountCents() == amount
+                    && posted.currency().equalsIgnoreCase(currency);
+
+            if (!sameRequest) {
+                throw new ResponseStatusException(
+                        HttpStatus.CONFLICT,
+                        "Idempotency-Key was already used with a different request"
+                );
+            }
+        }
+
+        TransferResponse response = transferResponseMapper.toUserResponse(posted, actorUserId);
         idempotencyReplayService.storeTransferResponse(idempotencyKey, requestHash, 200, response);
         return response;
     }
 
     @Transactional
     public TransferResponse createAdminDeposit(Long adminUserId, String idempotencyKey, CreateAdminDepositRequest req) {
+        TransferStageMetrics.StageTimer timer = transferStageMetrics.start("admin_deposit");
+
         long amount = req.amountCents();
         if (amount <= 0) {
             throw new IllegalArgumentException("amountCents must be > 0");
         }
 
-        String requestHash = idempotencyRequestHasher.hashAdminDeposit(req);
+        RequestHash requestHash = idempotencyRequestHasher.hashAdminDeposit(req);
 
         var storedReplay = idempotencyReplayService.findStoredTransferReplay(idempotencyKey, requestHash);
         if (storedReplay.isPresent()) {
@@ -244,28 +456,20 @@ public class TransferService {
 
         UserEntity adminActor = transferAdminReviewGuard.requireAdminActor(adminUserId);
 
-        UserEntity systemUser = userRepository.findByEmailIgnoreCase(SYSTEM_USER_EMAIL)
-                .orElseThrow(() -> new IllegalArgumentException("system user not found"));
-
-        Long treasuryAccountId = accountRepository
-                .findByUserIdAndAccountTypeAndCurrencyIgnoreCaseAndStatusIgnoreCase(
-                        systemUser.getId(),
-                        AccountType.CHEQUING,
-                        CAD,
-                        "ACTIVE"
-                )
-                .map(AccountEntity::getId)
-                .orElseThrow(() -> new IllegalArgumentException("system treasury account not found"));
-
-        if (req.toAccountId().equals(treasuryAccountId)) {
+        if (treasuryDirectory.isTreasuryAccount(req.toAccountId())) {
             throw new IllegalArgumentException("toAccountId must be different from treasury account");
         }
 
+        // root treasury, or one of its shards when app.treasury.shards > 0
+        Long treasuryAccountId = treasuryDirectory.depositSourceFor(req.toAccountId(), amount);
+
         List<Long> ids = List.of(treasuryAccountId, req.toAccountId()).stream()
                 .sorted(Comparator.naturalOrder())
                 .toList();
 
+        timer.mark("resolve");
         List<AccountEntity> locked = accountRepository.findByIdInForUpdate(ids);
+        timer.lockAcquired();
         if (locked.size() != 2) {
             throw new IllegalArgumentException("Account not found");
         }
@@ -273,10 +477,6 @@ public class TransferService {
         AccountEntity from = locked.get(0).getId().equals(treasuryAccountId) ? locked.get(0) : locked.get(1);
         AccountEntity to   = locked.get(0).getId().equals(req.toAccountId())  ? locked.get(0) : locked.get(1);
 
-        if (!from.getUser().getId().equals(systemUser.getId())) {
-            throw new IllegalArgumentException("system treasury account not found");
-        }
-
         if (!"ACTIVE".equalsIgnoreCase(from.getStatus())) {
             throw new IllegalArgumentException("Treasury account is not active");
         }
@@ -306,13 +506,15 @@ public class TransferService {
                         t,
                         idempotencyKey,
                         () -> transferRepository.findByIdempotencyKey(idempotencyKey),
-                        winner -> sameTransferRequest(winner, treasuryAccountId, req.toAccountId(), amount, CAD),
+                        // the winner may have drawn from a different shard
+                        winner -> sameTransferRequest(winner, winner.getFromAccount().getId(), req.toAccountId(), amount, CAD)
+                                && treasuryDirectory.isTreasuryAccount(winner.getFromAccount().getId()),
                         false
                 );
 
         t = saveOutcome.transfer();
         if (saveOutcome.replayed()) {
-            TransferResponse response = transferResponseMapper.toUserResponse(t, systemUser.getId());
+            TransferResponse response = transferResponseMapper.toUserResponse(t, t.getFromAccount().getUser().getId());
             idempotencyReplayService.storeTransferResponse(idempotencyKey, requestHash, 200, response);
             return response;
         }
@@ -329,8 +531,9 @@ public class TransferService {
                 CAD
         );
 
-        TransferResponse response = transferResponseMapper.toUserResponse(t, systemUser.getId());
+        TransferResponse response = transferResponseMapper.toUserResponse(t, from.getUser().getId());
         idempotencyReplayService.storeTransferResponse(idempotencyKey, requestHash, 200, response);
+        timer.mark("write");
         return response;
     }
 
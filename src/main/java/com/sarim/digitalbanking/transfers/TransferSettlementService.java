@@ -5,22 +5,45 @@ import com.sarim.digitalbanking.accounts.AccountRepository;
 import com.sarim.digitalbanking.ledger.LedgerDirection;
 import com.sarim.digitalbanking.ledger.LedgerEntryEntity;
 import com.sarim.digitalbanking.ledger.LedgerEntryRepository;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.sql.SQLException;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 @Component
 public class TransferSettlementService {
 
+    // SQLSTATEs raised by post_transfer() (V5) -> same messages the JPA path throws
+    private static final Map<String, String> POSTING_ERRORS = Map.of(
+            "TX001", "Account not found",
+            "TX002", "From account is not active",
+            "TX003", "To account is not active",
+            "TX004", "currency must match both accounts",
+            "TX005", "insufficient funds"
+    );
+
+    private static final String POST_TRANSFER_SQL = """
+        select *
+        from post_transfer(?::bigint, ?::bigint, ?::bigint, ?::bigint, ?::bigint, ?::varchar, ?::text,
+                           ?::boolean, ?::int, ?::text, ?::text)
+    """;
+
     private final AccountRepository accountRepository;
     private final LedgerEntryRepository ledgerEntryRepository;
+    private final JdbcTemplate jdbcTemplate;
 
     public TransferSettlementService(
             AccountRepository accountRepository,
-            LedgerEntryRepository ledgerEntryRepository
+            LedgerEntryRepository ledgerEntryRepository,
+            JdbcTemplate jdbcTemplate
     ) {
         this.accountRepository = accountRepository;
         this.ledgerEntryRepository = ledgerEntryRepository;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     public void applyHeldTransferReserve(
@@ -107,4 +130,80 @@ public class TransferSettlementService {
         to.setBalanceCents(to.getBalanceCents() + amountCents);
         accountRepository.saveAll(List.of(from, to));
     }
+
+    /**
+     * Posts a user transfer through the post_transfer() database function: account locks,
+     * re-validation, transfer insert, balance moves, ledger rows and the audit row all happen
+     * in a single round trip. A duplicate idempotency key comes back as the winner's row with
+     * {@code replayed = true} and nothing written.
+     */
+    public PostedTransfer postTransferInSingleCall(
+            Long actorUserId,
+            Long fromAccountId,
+            Long toAccountId,
+            Long toUserId,
+            long amountCents,
+            String currency,
+            String idempotencyKey,
+            TransferRiskDecisionService.RiskHoldDecision riskHoldDecision,
+            String auditDetails
+    ) {
+        try {
+            return jdbcTemplate.queryForObject(
+                    POST_TRANSFER_SQL,
+                    (rs, rowNum) -> new PostedTransfer(
+                            rs.getLong("transfer_id"),
+                            rs.getLong("from_account_id"),
+                            rs.getLong("to_account_id"),
+                            rs.getLong("from_user_id"),
+                            rs.getLong("amount_cents"),
+                            rs.getString("currency"),
+                            rs.getString("status"),
+                            rs.getString("risk_decision"),
+                            (Integer) rs.getObject("risk_score"),
+                            rs.getString("risk_reasons"),
+                            rs.getTimestamp("created_at").toInstant(),
+                            rs.getBoolean("replayed"),
+                            rs.getString("from_email"),
+                            rs.getString("to_email")
+                    ),
+                    actorUserId,
+                    fromAccountId,
+                    toAccountId,
+                    toUserId,
+                    amountCents,
+                    currency,
+                    idempotencyKey,
+                    riskHoldDecision.hold(),
+                    riskHoldDecision.score(),
+                    riskHoldDecision.reason(),
+                    auditDetails
+            );
+        } catch (DataAccessException e) {
+            if (e.getMostSpecificCause() instanceof SQLException sqlException) {
+                String message = POSTING_ERRORS.get(sqlException.getSQLState());
+                if (message != null) {
+                    throw new IllegalArgumentException(message);
+                }
+            }
+            throw e;
+        }
+    }
+
+    public record PostedTransfer(
+            Long transferId,
+            Long fromAccountId,
+            Long toAccountId,
+            Long fromUserId,
+            long amountCents,
+            String currency,
+            String status,
+            String riskDecision,
+            Integer riskScore,
+            String riskReasons,
+            Instant createdAt,
+            boolean replayed,
+            String fromEmail,
+            String toEmail
+    ) {}
 }
\ No newline at end of file
@@ -0,0 +1,129 @@
+package com.sarim.digitalbanking.transfers;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background workers for async submission ({@code app.transfers.submission-mode=async}).
+ *
+ * Each worker keeps calling {@link TransferAsyncSettlementService#settleNextBatch} while there is
+ * a backlog and sleeps {@code poll-interval-ms} once it is empty. A failed batch (e.g. an
+ * optimistic-lock conflict with an admin account update) is rolled back whole and its rows are
+ * picked up again on the next poll.
+ */
+@Component
+public class TransferSettlementWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferSettlementWorker.class);
+
+    private final TransferAsyncSettlementService transferAsyncSettlementService;
+    private final boolean enabled;
+    private final int workerCount;
+    private final int batchSize;
+    private final long pollIntervalMs;
+
+    private final Timer batchTimer;
+    private final DistributionSummary batchSizes;
+    private final Timer settleLag;
+    private final Counter failures;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public TransferSettlementWorker(
+            TransferAsyncSettlementService transferAsyncSettlementService,
+            MeterRegistry meterRegistry,
+            @Value("${app.transfers.submission-mode:sync}") String submissionMode,
+            @Value("${app.transfers.async.workers:2}") int workerCount,
+            @Value("${app.transfers.async.batch-size:50}") int batchSize,
+            @Value("${app.transfers.async.poll-interval-ms:200}") long pollIntervalMs
+    ) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("app.transfers.async.batch-size must be >= 1");
+        }
+
+        this.transferAsyncSettlementService = transferAsyncSettlementService;
+        this.enabled = "async".equalsIgnoreCase(submissionMode.trim());
+        this.workerCount = Math.max(1, workerCount);
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+
+        this.batchTimer = Timer.builder("transfers.async.batch").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("transfers.async.batch_size").register(meterRegistry);
+        this.settleLag = Timer.builder("transfers.async.settle_lag").register(meterRegistry);
+        this.failures = Counter.builder("transfers.async.batch_failures").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, "transfer-settlement-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private void runWorker() {
+        while (running) {
+            try {
+                if (settleBatch() < batchSize) {
+                    Thread.sleep(pollIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private int settleBatch() {
+        long startedAt = System.nanoTime();
+        try {
+            List<TransferEntity> settled = transferAsyncSettlementService.settleNextBatch(batchSize);
+            if (!settled.isEmpty()) {
+                batchTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                batchSizes.record(settled.size());
+
+                Instant now = Instant.now();
+                for (TransferEntity t : settled) {
+                    settleLag.record(Duration.between(t.getCreatedAt(), now));
+                }
+            }
+            return settled.size();
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("async settlement batch failed, retrying on next poll: {}", e.toString());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.sarim.digitalbanking.accounts.AccountRepository;
+import com.sarim.digitalbanking.accounts.AccountType;
+import com.sarim.digitalbanking.idempotency.IdempotencyClaimService;
+import com.sarim.digitalbanking.idempotency.IdempotencyRequestHasher;
+import com.sarim.digitalbanking.idempotency.RequestHash;
+import com.sarim.digitalbanking.transfers.api.CreateTransferRequest;
+import com.sarim.digitalbanking.transfers.api.TransferResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Entry point for POST /api/transfers: picks how a single transfer gets settled.
+ * Deliberately not transactional, so a request waiting on a shared commit holds no connection,
+ * and a retry answered by the Redis idempotency claim never takes one at all.
+ */
+@Service
+public class TransferSubmissionService {
+
+    private final TransferService transferService;
+    private final TransferGroupCommitPipeline transferGroupCommitPipeline;
+    private final OptimisticSettlementExecutor optimisticSettlementExecutor;
+    private final TransferLaneExecutor transferLaneExecutor;
+    private final AccountRepository accountRepository;
+    private final IdempotencyClaimService idempotencyClaimService;
+    private final IdempotencyRequestHasher idempotencyRequestHasher;
+    private final boolean asyncSubmission;
+
+    public TransferSubmissionService(
+            TransferService transferService,
+            TransferGroupCommitPipeline transferGroupCommitPipeline,
+            OptimisticSettlementExecutor optimisticSettlementExecutor,
+            TransferLaneExecutor transferLaneExecutor,
+            AccountRepository accountRepository,
+            IdempotencyClaimService idempotencyClaimService,
+            IdempotencyRequestHasher idempotencyRequestHasher,
+            @Value("${app.transfers.submission-mode:sync}") String submissionMode
+    ) {
+        this.transferService = transferService;
+        this.transferGroupCommitPipeline = transferGroupCommitPipeline;
+        this.optimisticSettlementExecutor = optimisticSettlementExecutor;
+        this.transferLaneExecutor = transferLaneExecutor;
+        this.accountRepository = accountRepository;
+        this.idempotencyClaimService = idempotencyClaimService;
+        this.idempotencyRequestHasher = idempotencyRequestHasher;
+        this.asyncSubmission = "async".equalsIgnoreCase(submissionMode.trim());
+    }
+
+    /** In async mode the returned transfer is INITIATED and {@link TransferSettlementWorker} settles it. */
+    public TransferResponse submit(Long actorUserId, String idempotencyKey, CreateTransferRequest req) {
+        RequestHash requestHash = idempotencyRequestHasher.hashUserTransfer(actorUserId, req);
+        return idempotencyClaimService.execute(idempotencyKey, requestHash, () -> route(actorUserId, idempotencyKey, req));
+    }
+
+    private TransferResponse route(Long actorUserId, String idempotencyKey, CreateTransferRequest req) {
+        if (asyncSubmission) {
+            return transferService.acceptTransfer(actorUserId, idempotencyKey, req);
+        }
+        if (transferGroupCommitPipeline.isEnabled()) {
+            return transferGroupCommitPipeline.submit(actorUserId, idempotencyKey, req);
+        }
+        if (transferLaneExecutor.isEnabled()) {
+            return transferLaneExecutor.execute(
+                    laneKey(actorUserId, req),
+                    () -> settle(actorUserId, idempotencyKey, req)
+            );
+        }
+        return settle(actorUserId, idempotencyKey, req);
+    }
+
+    private TransferResponse settle(Long actorUserId, String idempotencyKey, CreateTransferRequest req) {
+        if (optimisticSettlementExecutor.isEnabled()) {
+            return optimisticSettlementExecutor.createTransfer(actorUserId, idempotencyKey, req);
+        }
+        return transferService.createTransfer(actorUserId, idempotencyKey, req);
+    }
+
+    // lowest account id of the transfer; an unresolvable payee fails validation on the lane anyway
+    private long laneKey(Long actorUserId, CreateTransferRequest req) {
+        String currency = (req.currency() == null || req.currency().isBlank()) ? "CAD" : req.currency().trim();
+        long fromAccountId = req.fromAccountId();
+
+        return accountRepository
+                .findPayeeAccountId(req.payeeId(), actorUserId, AccountType.CHEQUING, currency)
+                .map(toAccountId -> Math.min(fromAccountId, toAccountId))
+                .orElse(fromAccountId);
+    }
+}
@@ -0,0 +1,306 @@
+package com.sarim.digitalbanking.transfers;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rebuilds the Redis velocity window from Postgres, for a cold start or after Redis lost its data
+ * (flush, restart without persistence, failover to an empty replica).
+ *
+ * The last window of COMPLETED and PENDING_REVIEW transfers is summed per user and minute in SQL
+ * and streamed through a server-side cursor, so memory stays flat however many transfers there
+ * are. Users are written through {@code redis/velocity-rehydrate.lua}, many users per script
+ * call and many calls per pipelined round trip; the script keeps the larger of the live and the
+ * rebuilt value per bucket, so it can run next to live traffic. Packing several keys into one
+ * call assumes a single Redis node (not Redis Cluster). Transfers between a user's own accounts
+ * are skipped, as they never enter the window.
+ *
+ * {@code app.risk.velocity.rehydrate.on-startup}: {@code gate} rebuilds before the app starts
+ * serving and fails startup when the rebuild fails, {@code background} serves right away with a
+ * possibly short window until the rebuild finishes, {@code off} disables it. A marker key is
+ * written after each successful rebuild; when it goes missing the periodic check rebuilds again.
+ * The marker is renamed into place from a key set when the rebuild started, so a flush during
+ * the rebuild leaves no marker behind.
+ */
+@Service
+public class TransferVelocityRehydrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferVelocityRehydrationService.class);
+
+    static final String MARKER_KEY = "risk:velocity:rehydrated";
+    private static final String PENDING_KEY = "risk:velocity:rehydrating";
+
+    private static final String WINDOW_SQL = """
+            select fa.user_id,
+                   extract(epoch from date_trunc('minute', t.created_at))::bigint / 60 as minute,
+                   sum(t.amount_cents) as cents
+              from transfers t
+              join accounts fa on fa.id = t.from_account_id
+              join accounts ta on ta.id = t.to_account_id
+             where t.created_at >= ?
+               and t.status in ('COMPLETED', 'PENDING_REVIEW')
+               and ta.user_id <> fa.user_id
+             group by fa.user_id, date_trunc('minute', t.created_at)
+             order by fa.user_id, minute
+            """;
+
+    private static final RedisScript<Long> REHYDRATE_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/velocity-rehydrate.lua"), Long.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final StringRedisTemplate redisTemplate;
+    private final String startupMode;
+    private final int usersPerCall;
+    private final int callsPerPipeline;
+    private final int fetchSize;
+
+    private final Timer rehydrateTimer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicBoolean rehydrated = new AtomicBoolean();
+
+    public TransferVelocityRehydrationService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.risk.velocity.rehydrate.on-startup:gate}") String startupMode,
+            @Value("${app.risk.velocity.rehydrate.users-per-call:100}") int usersPerCall,
+            @Value("${app.risk.velocity.rehydrate.calls-per-pipeline:50}") int callsPerPipeline,
+            @Value("${app.risk.velocity.rehydrate.fetch-size:5000}") int fetchSize
+    ) {
+        String mode = startupMode.trim().toLowerCase();
+        if (!List.of("gate", "background", "off").contains(mode)) {
+            throw new IllegalArgumentException("app.risk.velocity.rehydrate.on-startup must be gate, background or off");
+        }
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.redisTemplate = redisTemplate;
+        this.startupMode = mode;
+        this.usersPerCall = Math.max(1, usersPerCall);
+        this.callsPerPipeline = Math.max(1, callsPerPipeline);
+        this.fetchSize = Math.max(1, fetchSize);
+
+        this.rehydrateTimer = Timer.builder("risk.velocity.rehydrate").register(meterRegistry);
+        meterRegistry.gauge("risk.velocity.rehydrated", rehydrated, r -> r.get() ? 1 : 0);
+    }
+
+    @PostConstruct
+    void onStartup() {
+        switch (startupMode) {
+            case "gate" -> rehydrate();
+            case "background" -> {
+                log.warn("velocity window is rebuilt in the background; velocity checks may under-count until it finishes");
+                Thread t = new Thread(this::rehydrateQuietly, "velocity-rehydrate");
+                t.setDaemon(true);
+                t.start();
+            }
+            default -> { }
+        }
+    }
+
+    /** Rebuilds when the marker is gone, i.e. Redis lost its data since the last rebuild. */
+    @Scheduled(fixedDelayString = "${app.risk.velocity.rehydrate.check-interval-ms:5000}")
+    public void rehydrateIfLost() {
+        if ("off".equals(startupMode) || lock.isLocked()) {
+            return;
+        }
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(MARKER_KEY))) {
+                return;
+            }
+        } catch (RuntimeException e) {
+            return;     // Redis is down; the next check retries
+        }
+
+        log.warn("velocity window marker missing in Redis, rebuilding from Postgres");
+        rehydrateQuietly();
+    }
+
+    public Result rehydrate() {
+        lock.lock();
+        try {
+            long startedAt = System.nanoTime();
+            Instant now = Instant.now();
+            long currentMinute = TransferVelocityRiskService.epochMinute(now);
+            long windowMinutes = TransferVelocityRiskService.WINDOW.toMinutes();
+            Instant from = Instant.ofEpochSecond((currentMinute - windowMinutes) * 60);
+
+            // becomes the marker only if it survives the rebuild: a flush meanwhile removes it
+            redisTemplate.opsForValue().set(PENDING_KEY, now.toString());
+
+            String sha = loadScript();
+            Writer writer = new Writer(sha, currentMinute, windowMinutes);
+
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(
+                        con -> {
+                            PreparedStatement ps = con.prepareStatement(WINDOW_SQL);
+                            ps.setFetchSize(fetchSize);
+                            ps.setTimestamp(1, Timestamp.from(from));
+                            return ps;
+                        },
+                        (RowCallbackHandler) rs -> writer.add(rs.getLong(1), rs.getLong(2), rs.getLong(3))
+                ));
+                writer.finish();
+            } catch (RuntimeException e) {
+                redisTemplate.delete(PENDING_KEY);
+                throw e;
+            }
+
+            try {
+                redisTemplate.rename(PENDING_KEY, MARKER_KEY);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Redis lost its data while the velocity window was rebuilt", e);
+            }
+            rehydrated.set(true);
+
+            long elapsed = System.nanoTime() - startedAt;
+            rehydrateTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            Result result = new Result(writer.users, writer.buckets, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            log.info("velocity window rebuilt: {} users, {} buckets in {} ms",
+                    result.users(), result.buckets(), result.durationMs());
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rehydrateQuietly() {
+        try {
+            rehydrate();
+        } catch (RuntimeException e) {
+            log.error("velocity window rebuild failed, retrying on the next check: {}", e.toString());
+        }
+    }
+
+    private String loadScript() {
+        return redisTemplate.execute((RedisCallback<String>) connection -> connection.scriptingCommands()
+                .scriptLoad(REHYDRATE_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static byte[] bytes(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public record Result(int users, long buckets, long durationMs) {}
+
+    /**
+     * Collects one user's buckets at a time (rows arrive ordered by user), packs
+     * {@code usersPerCall} users into one script call and sends {@code callsPerPipeline} calls
+     * per pipelined round trip.
+     */
+    private final class Writer {
+
+        private final String sha;
+        private final byte[][] header;
+        private final List<Call> pipeline = new ArrayList<>();
+
+        private final List<byte[]> callKeys = new ArrayList<>();
+        private final List<byte[]> callArgs = new ArrayList<>();
+
+        private long userId = -1;
+        private final List<byte[]> userArgs = new ArrayList<>();
+
+        int users;
+        long buckets;
+
+        Writer(String sha, long currentMinute, long windowMinutes) {
+            this.sha = sha;
+            this.header = new byte[][] {
+                    bytes(currentMinute),
+                    bytes(windowMinutes),
+                    bytes(TransferVelocityRiskService.KEY_TTL.toSeconds())
+            };
+        }
+
+        void add(long rowUserId, long minute, long cents) {
+            if (rowUserId != userId) {
+                closeUser();
+                userId = rowUserId;
+            }
+            userArgs.add(bytes(minute));
+            userArgs.add(bytes(cents));
+            buckets++;
+        }
+
+        void finish() {
+            closeUser();
+            closeCall();
+            flush();
+        }
+
+        private void closeUser() {
+            if (userArgs.isEmpty()) {
+                return;
+            }
+            callKeys.add(TransferVelocityRiskService.key(userId).getBytes(StandardCharsets.UTF_8));
+            callArgs.add(bytes(userArgs.size() / 2));
+            callArgs.addAll(userArgs);
+            userArgs.clear();
+            users++;
+
+            if (callKeys.size() >= usersPerCall) {
+                closeCall();
+            }
+        }
+
+        private void closeCall() {
+            if (callKeys.isEmpty()) {
+                return;
+            }
+            List<byte[]> keysAndArgs = new ArrayList<>(callKeys.size() + header.length + callArgs.size());
+            keysAndArgs.addAll(callKeys);
+            keysAndArgs.addAll(List.of(header));
+            keysAndArgs.addAll(callArgs);
+            pipeline.add(new Call(callKeys.size(), keysAndArgs.toArray(new byte[0][])));
+            callKeys.clear();
+            callArgs.clear();
+
+            if (pipeline.size() >= callsPerPipeline) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (pipeline.isEmpty()) {
+                return;
+            }
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Call call : pipeline) {
+                    connection.scriptingCommands().evalSha(sha, ReturnType.INTEGER, call.numKeys(), call.keysAndArgs());
+                }
+                return null;
+            });
+            pipeline.clear();
+        }
+    }
+
+    private record Call(int numKeys, byte[][] keysAndArgs) {}
+}
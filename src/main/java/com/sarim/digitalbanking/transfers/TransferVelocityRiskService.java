@@ -1,105 +1,395 @@
 package com.sarim.digitalbanking.transfers;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Set;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Rolling 10-minute outgoing total per user, kept in Redis as per-minute buckets plus a running
+ * sum (see {@code redis/velocity-reserve.lua}).
+ *
+ * {@link #reserve} trims the window, reads the total and adds the new amount in one script call,
+ * so concurrent transfers from the same user each see the others' amounts and a burst cannot
+ * slip under the cap. The reservation is released again if the surrounding transaction rolls
+ * back, or explicitly with {@link #release} when the amount turns out not to be needed.
+ *
+ * Buckets are whole minutes, so the window covers the last 10 full minutes plus the current one.
+ *
+ * Every amount is also kept in a {@link LocalVelocityWindow}. A Redis call gets
+ * {@code app.risk.velocity.redis-budget-ms} to answer; when it is slower, fails, or Redis was
+ * marked down within the last {@code redis-retry-ms}, the transfer is decided on the local
+ * estimate instead and the amount is queued for a background thread to write to Redis once it
+ * is reachable again.
+ */
 @Service
 public class TransferVelocityRiskService {
 
-    private static final Duration WINDOW = Duration.ofMinutes(10);
-    private static final long CUMULATIVE_HOLD_THRESHOLD_CENTS = 500_000L; // $5000.00
-    private static final Duration KEY_TTL = WINDOW.plusMinutes(5);
+    private static final Logger log = LoggerFactory.getLogger(TransferVelocityRiskService.class);
+
+    static final Duration WINDOW = Duration.ofMinutes(10);
+    static final Duration KEY_TTL = WINDOW.plusMinutes(5);
+
+    private static final RedisScript<Long> RESERVE_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/velocity-reserve.lua"), Long.class);
 
     private final StringRedisTemplate redisTemplate;
+    private final LocalVelocityWindow localWindow;
+    private final long redisBudgetMs;
+    private final long redisRetryNanos;
+    private final ThreadPoolExecutor redisExecutor;
+    private final BlockingQueue<PendingWrite> pendingWrites;
+
+    private final Timer redisTimer;
+    private final Counter redisOk;
+    private final Counter redisTimeouts;
+    private final Counter redisErrors;
+    private final Counter redisSkipped;
+    private final Counter droppedWrites;
 
-    public TransferVelocityRiskService(StringRedisTemplate redisTemplate) {
+    private volatile long redisDownUntilNanos;
+    private volatile boolean running;
+    private Thread syncThread;
+
+    public TransferVelocityRiskService(
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.risk.velocity.redis-budget-ms:50}") long redisBudgetMs,
+            @Value("${app.risk.velocity.redis-retry-ms:1000}") long redisRetryMs,
+            @Value("${app.risk.velocity.redis-threads:16}") int redisThreads,
+            @Value("${app.risk.velocity.local.max-users:50000}") int localMaxUsers,
+            @Value("${app.risk.velocity.local.ring-size:32}") int localRingSize,
+            @Value("${app.risk.velocity.sync-queue-capacity:100000}") int syncQueueCapacity
+    ) {
         this.redisTemplate = redisTemplate;
+        this.localWindow = new LocalVelocityWindow(WINDOW.toMillis(), localMaxUsers, localRingSize);
+        this.redisBudgetMs = redisBudgetMs;
+        this.redisRetryNanos = TimeUnit.MILLISECONDS.toNanos(redisRetryMs);
+        this.pendingWrites = new LinkedBlockingQueue<>(syncQueueCapacity);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.redisExecutor = new ThreadPoolExecutor(
+                redisThreads, redisThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(redisThreads * 4),
+                r -> {
+                    Thread t = new Thread(r, "velocity-redis-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        this.redisTimer = Timer.builder("risk.velocity.redis.latency").register(meterRegistry);
+        this.redisOk = redisCounter(meterRegistry, "ok");
+        this.redisTimeouts = redisCounter(meterRegistry, "timeout");
+        this.redisErrors = redisCounter(meterRegistry, "error");
+        this.redisSkipped = redisCounter(meterRegistry, "skipped");
+        this.droppedWrites = Counter.builder("risk.velocity.sync.dropped").register(meterRegistry);
+        meterRegistry.gauge("risk.velocity.sync.pending", pendingWrites, BlockingQueue::size);
+        meterRegistry.gauge("risk.velocity.local.users", localWindow, LocalVelocityWindow::size);
     }
 
-    public VelocitySnapshot getSnapshot(Long userId, long currentAmountCents, Instant now) {
-        String key = key(userId);
-        long cutoffMs = now.minus(WINDOW).toEpochMilli();
+    @PostConstruct
+    void start() {
+        running = true;
+        syncThread = new Thread(this::runSync, "velocity-redis-sync");
+        syncThread.setDaemon(true);
+        syncThread.start();
+    }
 
-        redisTemplate.opsForZSet().removeRangeByScore(key, 0, cutoffMs - 1);
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        syncThread.interrupt();
+        syncThread.join(TimeUnit.SECONDS.toMillis(5));
+        redisExecutor.shutdownNow();
+    }
 
-        Set<String> members = redisTemplate.opsForZSet().rangeByScore(key, cutoffMs, now.toEpochMilli());
+    /**
+     * Adds {@code amountCents} to the user's window and returns the total it held before.
+     * Registers a rollback hook when called inside a transaction.
+     */
+    public Reservation reserve(Long userId, long amountCents, Instant now) {
+        return startReserve(userId, amountCents, now).join();
+    }
 
-        long priorWindowAmountCents = 0L;
-        if (members != null) {
-            for (String member : members) {
-                priorWindowAmountCents += parseAmountCents(member);
-            }
-        }
+    /**
+     * Like {@link #reserve}, but returns as soon as the Redis call is submitted, so the caller can
+     * load other inputs meanwhile. {@link PendingReservation#join} has to run on the thread that
+     * owns the transaction, as it registers the rollback hook.
+     */
+    public PendingReservation startReserve(Long userId, long amountCents, Instant now) {
+        long nowMillis = now.toEpochMilli();
+        long minute = epochMinute(now);
 
-        long projectedWindowAmountCents = priorWindowAmountCents + currentAmountCents;
-        boolean hold = projectedWindowAmountCents > CUMULATIVE_HOLD_THRESHOLD_CENTS;
+        localWindow.add(userId, nowMillis, amountCents);
 
-        return new VelocitySnapshot(
-                hold,
-                priorWindowAmountCents,
-                projectedWindowAmountCents,
-                hold ? "rolling 10-minute outgoing total exceeds $5,000" : null,
-                hold ? 85 : null
-        );
+        PendingWrite write = new PendingWrite(userId, minute, amountCents);
+        return new PendingReservation(write, nowMillis, submit(write), System.nanoTime());
     }
 
-    public void recordSuccessfulTransferAfterCommit(Long userId, Long transferId, long amountCents, Instant now) {
-        Runnable action = () -> recordSuccessfulTransfer(userId, transferId, amountCents, now);
+    private Reservation complete(PendingReservation pending) {
+        PendingWrite write = pending.write;
+        Long shared = await(write, pending.future, pending.submittedAtNanos);
+        long prior;
+        if (shared != null) {
+            prior = shared;
+            localWindow.recordShared(write.userId(), pending.atMillis, shared + write.amountCents());
+        } else {
+            prior = Math.max(0L, localWindow.estimate(write.userId(), pending.atMillis) - write.amountCents());
+        }
 
-        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+        Reservation reservation = new Reservation(write.userId(), pending.atMillis, write.minute(), write.amountCents(), prior);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
             TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
                 @Override
-                public void afterCommit() {
-                    action.run();
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        releaseQuietly(reservation);
+                    }
                 }
             });
-        } else {
-            action.run();
         }
+
+        return reservation;
     }
 
-    private void recordSuccessfulTransfer(Long userId, Long transferId, long amountCents, Instant now) {
-        String key = key(userId);
-        long nowMs = now.toEpochMilli();
-        long cutoffMs = now.minus(WINDOW).toEpochMilli();
+    /** Gives back whatever is left of the reservation. */
+    public void release(Reservation reservation) {
+        release(reservation, Long.MAX_VALUE);
+    }
 
-        redisTemplate.opsForZSet().add(key, member(transferId, amountCents), nowMs);
-        redisTemplate.opsForZSet().removeRangeByScore(key, 0, cutoffMs - 1);
-        redisTemplate.expire(key, KEY_TTL);
+    /** Gives back up to {@code amountCents} of the reservation. */
+    public void release(Reservation reservation, long amountCents) {
+        long released = reservation.take(amountCents);
+        if (released > 0) {
+            localWindow.add(reservation.userId(), reservation.atMillis, -released);
+            executeWithinBudget(new PendingWrite(reservation.userId(), reservation.minute, -released));
+        }
     }
 
-    private String key(Long userId) {
-        return "risk:velocity:user:" + userId;
+    private void releaseQuietly(Reservation reservation) {
+        try {
+            release(reservation);
+        } catch (RuntimeException e) {
+            // the amount stays counted until its bucket leaves the window
+            log.warn("could not release velocity reservation for user {}: {}", reservation.userId(), e.toString());
+        }
     }
 
-    private String member(Long transferId, long amountCents) {
-        return transferId + ":" + amountCents;
+    /**
+     * Applies the write to Redis and returns the window total before it, or {@code null} when
+     * Redis did not answer within the budget; the write is then left to the sync thread.
+     */
+    private Long executeWithinBudget(PendingWrite write) {
+        return await(write, submit(write), System.nanoTime());
     }
 
-    private long parseAmountCents(String member) {
-        int sep = member.indexOf(':');
-        if (sep < 0 || sep == member.length() - 1) {
-            return 0L;
+    /** Hands the write to the Redis pool, or returns {@code null} (write queued) when Redis is skipped. */
+    private CompletableFuture<Long> submit(PendingWrite write) {
+        if (System.nanoTime() < redisDownUntilNanos) {
+            redisSkipped.increment();
+            enqueue(write);
+            return null;
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> execute(write), redisExecutor);
+        } catch (RejectedExecutionException e) {
+            redisSkipped.increment();
+            enqueue(write);
+            return null;
+        }
+    }
+
+    private Long await(PendingWrite write, CompletableFuture<Long> future, long submittedAtNanos) {
+        if (future == null) {
+            return null;
+        }
+
+        try {
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(redisBudgetMs) - (System.nanoTime() - submittedAtNanos);
+            Long prior = future.get(Math.max(0L, remainingNanos), TimeUnit.NANOSECONDS);
+            redisOk.increment();
+            return prior;
+        } catch (TimeoutException e) {
+            redisTimeouts.increment();
+            markDown();
+            // still running; only re-queue if it ends up failing
+            future.whenComplete((prior, error) -> {
+                if (error != null) {
+                    enqueue(write);
+                }
+            });
+            return null;
+        } catch (ExecutionException e) {
+            redisErrors.increment();
+            markDown();
+            log.warn("velocity window in Redis unavailable, using local estimate: {}", e.getCause().toString());
+            enqueue(write);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.whenComplete((prior, error) -> {
+                if (error != null) {
+                    enqueue(write);
+                }
+            });
+            return null;
         }
+    }
 
+    private long execute(PendingWrite write) {
+        long startedAt = System.nanoTime();
         try {
-            return Long.parseLong(member.substring(sep + 1));
-        } catch (NumberFormatException e) {
-            return 0L;
+            Long prior = redisTemplate.execute(
+                    RESERVE_SCRIPT,
+                    List.of(key(write.userId())),
+                    Long.toString(epochMinute(Instant.now())),
+                    Long.toString(WINDOW.toMinutes()),
+                    Long.toString(write.amountCents()),
+                    Long.toString(write.minute()),
+                    Long.toString(KEY_TTL.toSeconds())
+            );
+            return prior == null ? 0L : prior;
+        } finally {
+            redisTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void markDown() {
+        redisDownUntilNanos = System.nanoTime() + redisRetryNanos;
+    }
+
+    private void enqueue(PendingWrite write) {
+        if (!pendingWrites.offer(write)) {
+            droppedWrites.increment();
+        }
+    }
+
+    private void runSync() {
+        while (running) {
+            try {
+                PendingWrite write = pendingWrites.poll(1, TimeUnit.SECONDS);
+                if (write == null) {
+                    continue;
+                }
+                try {
+                    execute(write);
+                    redisDownUntilNanos = 0L;
+                } catch (RuntimeException e) {
+                    // keep the order roughly intact and wait before the next attempt
+                    enqueue(write);
+                    markDown();
+                    TimeUnit.NANOSECONDS.sleep(redisRetryNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
         }
     }
 
-    public record VelocitySnapshot(
-            boolean hold,
-            long priorWindowAmountCents,
-            long projectedWindowAmountCents,
-            String reason,
-            Integer score
-    ) {}
-}
\ No newline at end of file
+    private static Counter redisCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("risk.velocity.redis").tag("result", result).register(meterRegistry);
+    }
+
+    static long epochMinute(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), 60_000L);
+    }
+
+    static String key(Long userId) {
+        return "risk:velocity:buckets:user:" + userId;
+    }
+
+    private record PendingWrite(Long userId, long minute, long amountCents) {}
+
+    /** A {@link #startReserve} whose Redis call may still be in flight. */
+    public final class PendingReservation {
+
+        private final PendingWrite write;
+        private final long atMillis;
+        private final CompletableFuture<Long> future;
+        private final long submittedAtNanos;
+        private Reservation reservation;
+
+        private PendingReservation(PendingWrite write, long atMillis, CompletableFuture<Long> future, long submittedAtNanos) {
+            this.write = write;
+            this.atMillis = atMillis;
+            this.future = future;
+            this.submittedAtNanos = submittedAtNanos;
+        }
+
+        /** Waits for Redis (within the budget, counted from submission) and returns the reservation. */
+        public Reservation join() {
+            if (reservation == null) {
+                reservation = complete(this);
+            }
+            return reservation;
+        }
+    }
+
+    /** Amount added to one user's window by {@link #reserve}, and what the window held before it. */
+    public static final class Reservation {
+
+        private final Long userId;
+        private final long atMillis;
+        private final long minute;
+        private final long priorWindowAmountCents;
+        private final AtomicLong heldCents;
+
+        private Reservation(Long userId, long atMillis, long minute, long amountCents, long priorWindowAmountCents) {
+            this.userId = userId;
+            this.atMillis = atMillis;
+            this.minute = minute;
+            this.priorWindowAmountCents = priorWindowAmountCents;
+            this.heldCents = new AtomicLong(amountCents);
+        }
+
+        public Long userId() {
+            return userId;
+        }
+
+        public long priorWindowAmountCents() {
+            return priorWindowAmountCents;
+        }
+
+        public long heldCents() {
+            return heldCents.get();
+        }
+
+        private long take(long amountCents) {
+            while (true) {
+                long held = heldCents.get();
+                long taken = Math.min(held, Math.max(0L, amountCents));
+                if (heldCents.compareAndSet(held, held - taken)) {
+                    return taken;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.sarim.digitalbanking.transfers.api;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+// both accounts must belong to the caller
+public record CreateInternalTransferRequest(
+        @NotNull Long fromAccountId,
+        @NotNull Long toAccountId,
+        @NotNull @Positive Long amountCents,
+        @Size(min = 3, max = 3) String currency
+) {}
@@ -0,0 +1,10 @@
+package com.sarim.digitalbanking.transfers.api;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+// items are validated one by one in the service so a bad item is rejected on its own
+public record CreateTransferBatchRequest(
+        @NotEmpty List<TransferBatchItemRequest> items
+) {}
@@ -0,0 +1,13 @@
+package com.sarim.digitalbanking.transfers.api;
+
+public record TransferBatchItemRequest(
+        String idempotencyKey,
+        Long fromAccountId,
+        Long payeeId,
+        Long amountCents,
+        String currency
+) {
+    public CreateTransferRequest toTransferRequest() {
+        return new CreateTransferRequest(fromAccountId, payeeId, amountCents, currency);
+    }
+}
@@ -0,0 +1,9 @@
+package com.sarim.digitalbanking.transfers.api;
+
+public record TransferBatchItemResult(
+        int index,
+        String idempotencyKey,
+        String outcome,       // COMPLETED, HELD, REJECTED, REPLAYED
+        TransferResponse transfer,
+        String error
+) {}
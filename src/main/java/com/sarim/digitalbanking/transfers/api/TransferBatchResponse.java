@@ -0,0 +1,11 @@
+package com.sarim.digitalbanking.transfers.api;
+
+import java.util.List;
+
+public record TransferBatchResponse(
+        int completed,
+        int held,
+        int rejected,
+        int replayed,
+        List<TransferBatchItemResult> items
+) {}
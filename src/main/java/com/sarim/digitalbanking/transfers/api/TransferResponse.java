@@ -19,5 +19,8 @@ public record TransferResponse(
         String fromEmail,
         String toEmail,
         String direction,
-        String counterpartyEmail
+        String counterpartyEmail,
+
+        // why an async transfer was rejected at settlement; null otherwise
+        String failureReason
 ) {}
\ No newline at end of file
@@ -1,31 +1,73 @@
 package com.sarim.digitalbanking.transfers.api;
 
 import com.sarim.digitalbanking.idempotency.IdempotencyKeyUtil;
+import com.sarim.digitalbanking.transfers.InternalTransferService;
+import com.sarim.digitalbanking.transfers.TransferBatchService;
 import com.sarim.digitalbanking.transfers.TransferService;
+import com.sarim.digitalbanking.transfers.TransferStatus;
+import com.sarim.digitalbanking.transfers.TransferSubmissionService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import com.sarim.digitalbanking.transfers.api.TransferPageResponse;
 
+import java.net.URI;
+
 
 @RestController
 @RequestMapping("/api/transfers")
 public class TransfersController {
 
     private final TransferService transferService;
+    private final TransferSubmissionService transferSubmissionService;
+    private final TransferBatchService transferBatchService;
+    private final InternalTransferService internalTransferService;
 
-    public TransfersController(TransferService transferService) {
+    public TransfersController(
+            TransferService transferService,
+            TransferSubmissionService transferSubmissionService,
+            TransferBatchService transferBatchService,
+            InternalTransferService internalTransferService
+    ) {
         this.transferService = transferService;
+        this.transferSubmissionService = transferSubmissionService;
+        this.transferBatchService = transferBatchService;
+        this.internalTransferService = internalTransferService;
     }
 
     @PostMapping
-    public TransferResponse create(@Valid @RequestBody CreateTransferRequest body, HttpServletRequest request) {
+    public ResponseEntity<TransferResponse> create(@Valid @RequestBody CreateTransferRequest body, HttpServletRequest request) {
+        Long uid = requireUid(request);
+        String idem = requireIdempotencyKey(request);
+
+        TransferResponse response = transferSubmissionService.submit(uid, idem, body);
+
+        // async mode: accepted, not settled yet; poll the Location for the final status
+        if (TransferStatus.INITIATED.name().equals(response.status())) {
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/transfers/" + response.id()))
+                    .body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    // between the caller's own accounts; no payee needed
+    @PostMapping("/internal")
+    public TransferResponse createInternal(@Valid @RequestBody CreateInternalTransferRequest body, HttpServletRequest request) {
         Long uid = requireUid(request);
         String idem = requireIdempotencyKey(request);
 
-        return transferService.createTransfer(uid, idem, body);
+        return internalTransferService.createInternalTransfer(uid, idem, body);
+    }
+
+    // no Idempotency-Key header here: each item carries its own key
+    @PostMapping("/batch")
+    public TransferBatchResponse createBatch(@Valid @RequestBody CreateTransferBatchRequest body, HttpServletRequest request) {
+        Long uid = requireUid(request);
+        return transferBatchService.submitBatch(uid, body.items());
     }
 
     private Long requireUid(HttpServletRequest request) {
@@ -50,4 +92,10 @@ public class TransfersController {
         return transferService.listTransfers(uid, limit, cursor);
     }
 
+    @GetMapping("/{transferId}")
+    public TransferResponse get(@PathVariable Long transferId, HttpServletRequest request) {
+        Long uid = requireUid(request);
+        return transferService.getTransfer(uid, transferId);
+    }
+
 }
@@ -0,0 +1,39 @@
+package com.sarim.digitalbanking.treasury;
+
+import com.sarim.digitalbanking.accounts.AccountEntity;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "treasury_accounts")
+public class TreasuryAccountEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 0 = root treasury, 1..n = deposit shards
+    @Column(name = "shard_no", nullable = false)
+    private int shardNo;
+
+    // treasury_accounts.account_id -> accounts.id
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", nullable = false)
+    private AccountEntity account;
+
+    @Column(name = "created_at", nullable = false, updatable = false, insertable = false)
+    private Instant createdAt;
+
+    public TreasuryAccountEntity() {}
+
+    public Long getId() { return id; }
+
+    public int getShardNo() { return shardNo; }
+    public void setShardNo(int shardNo) { this.shardNo = shardNo; }
+
+    public AccountEntity getAccount() { return account; }
+    public void setAccount(AccountEntity account) { this.account = account; }
+
+    public Instant getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,23 @@
+package com.sarim.digitalbanking.treasury;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface TreasuryAccountRepository extends JpaRepository<TreasuryAccountEntity, Long> {
+
+    @Query("""
+        select t.account.id
+        from TreasuryAccountEntity t
+        where t.shardNo between 1 and :maxShardNo
+        order by t.shardNo
+    """)
+    List<Long> findShardAccountIds(@Param("maxShardNo") int maxShardNo);
+
+    @Query("select t.account.id from TreasuryAccountEntity t")
+    List<Long> findAllAccountIds();
+
+    List<TreasuryAccountEntity> findAllByOrderByShardNoAsc();
+}
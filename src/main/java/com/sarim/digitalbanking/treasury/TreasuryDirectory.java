@@ -0,0 +1,125 @@
+package com.sarim.digitalbanking.treasury;
+
+import com.sarim.digitalbanking.accounts.AccountRepository;
+import com.sarim.digitalbanking.accounts.AccountType;
+import com.sarim.digitalbanking.auth.UserEntity;
+import com.sarim.digitalbanking.auth.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Which accounts make up the treasury, and which one a deposit should draw from.
+ *
+ * The system user, root treasury account and shard account ids never change at runtime, so they
+ * are resolved once and cached instead of being looked up on every deposit. Account status and
+ * balance are still checked under the row lock by the caller.
+ */
+@Component
+public class TreasuryDirectory {
+
+    public static final String SYSTEM_USER_EMAIL = "system@bank.local";
+    private static final String CAD = "CAD";
+
+    private final UserRepository userRepository;
+    private final AccountRepository accountRepository;
+    private final TreasuryAccountRepository treasuryAccountRepository;
+    private final int shardCount;
+    private final boolean roundRobin;
+    private final AtomicLong nextShard = new AtomicLong();
+
+    private volatile Treasury cached;
+
+    public TreasuryDirectory(
+            UserRepository userRepository,
+            AccountRepository accountRepository,
+            TreasuryAccountRepository treasuryAccountRepository,
+            @Value("${app.treasury.shards:0}") int shardCount,
+            @Value("${app.treasury.shard-strategy:hash}") String shardStrategy
+    ) {
+        this.userRepository = userRepository;
+        this.accountRepository = accountRepository;
+        this.treasuryAccountRepository = treasuryAccountRepository;
+        this.shardCount = Math.max(0, shardCount);
+        this.roundRobin = "round-robin".equalsIgnoreCase(shardStrategy.trim());
+    }
+
+    public Long systemUserId() {
+        return treasury().systemUserId();
+    }
+
+    public Long rootAccountId() {
+        return treasury().rootAccountId();
+    }
+
+    /** Shard accounts deposits are spread over; empty when sharding is off. */
+    public List<Long> shardAccountIds() {
+        return treasury().shardAccountIds();
+    }
+
+    public boolean isTreasuryAccount(Long accountId) {
+        return treasury().allAccountIds().contains(accountId);
+    }
+
+    /**
+     * Picks the shard for a deposit (hash of the destination account, or round-robin), falling
+     * back to the root when sharding is off or the shard cannot cover the amount right now.
+     * The balance read is unlocked; the caller re-checks it under the lock.
+     */
+    public Long depositSourceFor(Long toAccountId, long amountCents) {
+        Treasury t = treasury();
+        List<Long> shards = t.shardAccountIds();
+        if (shards.isEmpty()) {
+            return t.rootAccountId();
+        }
+
+        long slot = roundRobin ? nextShard.getAndIncrement() : mix(toAccountId);
+        Long shardAccountId = shards.get((int) Math.floorMod(slot, (long) shards.size()));
+
+        long shardBalance = accountRepository.findBalanceCents(shardAccountId).orElse(0L);
+        return shardBalance >= amountCents ? shardAccountId : t.rootAccountId();
+    }
+
+    private Treasury treasury() {
+        Treasury t = cached;
+        if (t == null) {
+            t = load();
+            cached = t;
+        }
+        return t;
+    }
+
+    private Treasury load() {
+        Long systemUserId = userRepository.findByEmailIgnoreCase(SYSTEM_USER_EMAIL)
+                .map(UserEntity::getId)
+                .orElseThrow(() -> new IllegalArgumentException("system user not found"));
+
+        Long rootAccountId = accountRepository
+                .findActiveAccountId(systemUserId, AccountType.CHEQUING, CAD)
+                .orElseThrow(() -> new IllegalArgumentException("system treasury account not found"));
+
+        List<Long> shardAccountIds = shardCount == 0
+                ? List.of()
+                : List.copyOf(treasuryAccountRepository.findShardAccountIds(shardCount));
+
+        // every treasury account, including shards not in use with the current config
+        Set<Long> all = new HashSet<>(treasuryAccountRepository.findAllAccountIds());
+        all.add(rootAccountId);
+
+        return new Treasury(systemUserId, rootAccountId, shardAccountIds, Set.copyOf(all));
+    }
+
+    // spreads sequential account ids evenly over the shards
+    private static long mix(long value) {
+        value ^= (value >>> 33);
+        value *= 0xff51afd7ed558ccdL;
+        value ^= (value >>> 33);
+        return value;
+    }
+
+    private record Treasury(Long systemUserId, Long rootAccountId, List<Long> shardAccountIds, Set<Long> allAccountIds) {}
+}
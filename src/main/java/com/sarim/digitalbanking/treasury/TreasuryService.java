@@ -0,0 +1,172 @@
+package com.sarim.digitalbanking.treasury;
+
+import com.sarim.digitalbanking.accounts.AccountEntity;
+import com.sarim.digitalbanking.accounts.AccountRepository;
+import com.sarim.digitalbanking.admin.api.TreasuryBalanceResponse;
+import com.sarim.digitalbanking.transfers.TransferAuditService;
+import com.sarim.digitalbanking.transfers.TransferEntity;
+import com.sarim.digitalbanking.transfers.TransferFactory;
+import com.sarim.digitalbanking.transfers.TransferRepository;
+import com.sarim.digitalbanking.transfers.TransferSettlementService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+public class TreasuryService {
+
+    private static final Logger log = LoggerFactory.getLogger(TreasuryService.class);
+    private static final String CAD = "CAD";
+
+    // every instance runs the rebalancer; a top-up another instance is doing is skipped, not queued for
+    private static final String LOCK_SQL = "select pg_try_advisory_xact_lock(hashtext('treasury shard rebalance'))";
+
+    private final TreasuryDirectory treasuryDirectory;
+    private final AccountRepository accountRepository;
+    private final TransferRepository transferRepository;
+    private final TransferFactory transferFactory;
+    private final TransferSettlementService transferSettlementService;
+    private final TransferAuditService transferAuditService;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final long lowWaterCents;
+    private final long targetCents;
+
+    public TreasuryService(
+            TreasuryDirectory treasuryDirectory,
+            AccountRepository accountRepository,
+            TransferRepository transferRepository,
+            TransferFactory transferFactory,
+            TransferSettlementService transferSettlementService,
+            TransferAuditService transferAuditService,
+            TransactionTemplate transactionTemplate,
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.treasury.rebalance.low-water-cents:1000000}") long lowWaterCents,
+            @Value("${app.treasury.rebalance.target-cents:5000000}") long targetCents
+    ) {
+        this.treasuryDirectory = treasuryDirectory;
+        this.accountRepository = accountRepository;
+        this.transferRepository = transferRepository;
+        this.transferFactory = transferFactory;
+        this.transferSettlementService = transferSettlementService;
+        this.transferAuditService = transferAuditService;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.lowWaterCents = lowWaterCents;
+        this.targetCents = targetCents;
+    }
+
+    /**
+     * Tops up every shard that fell below the low-water mark back to the target, from the root
+     * treasury. One short transaction per shard, so deposits on the other shards keep flowing.
+     * Each top-up runs under a transaction-scoped advisory lock, so with several instances only one
+     * moves money at a time and the others skip that round instead of queueing on the root row.
+     */
+    @Scheduled(fixedDelayString = "${app.treasury.rebalance.interval-ms:10000}")
+    public void rebalanceShards() {
+        for (Long shardAccountId : treasuryDirectory.shardAccountIds()) {
+            // unlocked pre-check: most runs touch nothing and never lock the root
+            long balance = accountRepository.findBalanceCents(shardAccountId).orElse(Long.MAX_VALUE);
+            if (balance >= lowWaterCents) {
+                continue;
+            }
+
+            try {
+                Long moved = transactionTemplate.execute(status -> topUp(shardAccountId));
+                if (moved != null && moved > 0) {
+                    log.info("treasury shard account {} topped up by {} cents", shardAccountId, moved);
+                }
+            } catch (RuntimeException e) {
+                log.warn("treasury shard account {} top-up failed: {}", shardAccountId, e.toString());
+            }
+        }
+    }
+
+    private long topUp(Long shardAccountId) {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(LOCK_SQL, Boolean.class))) {
+            return 0L;
+        }
+
+        Long rootAccountId = treasuryDirectory.rootAccountId();
+
+        List<Long> ids = List.of(rootAccountId, shardAccountId).stream()
+                .sorted(Comparator.naturalOrder())
+                .toList();
+
+        List<AccountEntity> locked = accountRepository.findByIdInForUpdate(ids);
+        if (locked.size() != 2) {
+            return 0L;
+        }
+
+        AccountEntity root  = locked.get(0).getId().equals(rootAccountId)  ? locked.get(0) : locked.get(1);
+        AccountEntity shard = locked.get(0).getId().equals(shardAccountId) ? locked.get(0) : locked.get(1);
+
+        if (!"ACTIVE".equalsIgnoreCase(root.getStatus()) || !"ACTIVE".equalsIgnoreCase(shard.getStatus())) {
+            return 0L;
+        }
+        if (shard.getBalanceCents() >= lowWaterCents) {
+            return 0L;
+        }
+
+        long amount = Math.min(targetCents - shard.getBalanceCents(), root.getBalanceCents());
+        if (amount <= 0) {
+            return 0L;
+        }
+
+        TransferEntity t = transferFactory.newCompletedTransfer(
+                root, shard, amount, CAD, "treasury-rebalance-" + UUID.randomUUID());
+        t = transferRepository.save(t);
+
+        transferSettlementService.applyLedgerAndBalances(t, root, shard, amount, CAD);
+        transferAuditService.logTreasuryRebalance(root.getUser(), t.getId(), root.getId(), shard.getId(), amount, CAD);
+
+        return amount;
+    }
+
+    public TreasuryBalanceResponse consolidatedBalance() {
+        List<TreasuryBalanceResponse.TreasuryAccountItem> accounts = jdbcTemplate.query("""
+                select t.shard_no, a.id, a.balance_cents, a.status
+                from treasury_accounts t
+                join accounts a on a.id = t.account_id
+                where a.currency = ?
+                order by t.shard_no
+                """,
+                (rs, rowNum) -> new TreasuryBalanceResponse.TreasuryAccountItem(
+                        rs.getInt("shard_no"),
+                        rs.getLong("id"),
+                        rs.getLong("balance_cents"),
+                        rs.getString("status"),
+                        rs.getInt("shard_no") == 0 || treasuryDirectory.shardAccountIds().contains(rs.getLong("id"))
+                ),
+                CAD
+        );
+
+        return jdbcTemplate.query("""
+                select root_balance_cents, shard_balance_cents, total_balance_cents
+                from treasury_balance
+                where currency = ?
+                """,
+                rs -> {
+                    if (!rs.next()) {
+                        return new TreasuryBalanceResponse(CAD, 0L, 0L, 0L, accounts);
+                    }
+                    return new TreasuryBalanceResponse(
+                            CAD,
+                            rs.getLong("root_balance_cents"),
+                            rs.getLong("shard_balance_cents"),
+                            rs.getLong("total_balance_cents"),
+                            accounts
+                    );
+                },
+                CAD
+        );
+    }
+}
@@ -0,0 +1,2 @@
+-- Velocity rehydration scans the last few minutes of transfers by creation time.
+create index if not exists idx_transfers_created_at on transfers(created_at);
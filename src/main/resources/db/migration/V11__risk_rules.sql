@@ -0,0 +1,47 @@
+-- V11: transfer risk rules, evaluated by RiskRuleEngine and reloaded without a restart.
+--
+-- expression: rule DSL over the transfer's features (amount, window_total, pending_hold), e.g.
+--             "window_total + amount > 500_000"; compiled when the rule set is (re)loaded
+-- priority:   rules run in ascending priority; the first matching ALLOW rule ends evaluation,
+--             a matching HOLD rule with stop_on_match ends it after adding its reason
+-- revision:   bumped on every change (also by manual SQL), polled to detect a new rule set
+
+create table if not exists risk_rules (
+    id            bigserial primary key,
+    name          text not null unique,
+    priority      int not null,
+    enabled       boolean not null default true,
+    expression    text not null,
+    action        text not null check (action in ('HOLD', 'ALLOW')),
+    stop_on_match boolean not null default false,
+    score         int check (score between 0 and 100),
+    reason        text,
+    revision      bigint not null default 1,
+    created_at    timestamptz not null default now(),
+    updated_at    timestamptz not null default now(),
+    check (action = 'ALLOW' or (score is not null and reason is not null))
+);
+
+create or replace function risk_rules_bump_revision()
+returns trigger
+language plpgsql
+as $$
+begin
+    new.revision := old.revision + 1;
+    new.updated_at := now();
+    return new;
+end;
+$$;
+
+drop trigger if exists trg_risk_rules_bump_revision on risk_rules;
+create trigger trg_risk_rules_bump_revision
+    before update on risk_rules
+    for each row
+    execute function risk_rules_bump_revision();
+
+-- the checks that used to be hard-coded in TransferRiskDecisionService
+insert into risk_rules (name, priority, expression, action, score, reason) values
+    ('single_amount',  10, 'amount >= 500_000',                'HOLD', 90, 'single transfer amount meets or exceeds $5,000'),
+    ('rolling_window', 20, 'window_total + amount > 500_000',  'HOLD', 85, 'rolling 10-minute outgoing total exceeds $5,000'),
+    ('pending_review', 30, 'pending_hold',                     'HOLD', 95, 'existing outgoing transfer is still pending review')
+on conflict (name) do nothing;
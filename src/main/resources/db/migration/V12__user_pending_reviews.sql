@@ -0,0 +1,68 @@
+-- V12: per-user count of outgoing transfers in PENDING_REVIEW.
+--
+-- The risk check "does this sender already have a held transfer" used to probe transfers joined
+-- to accounts, with only the low-selectivity status index to help. It now reads one row by
+-- primary key. The count is kept by triggers on transfers, so it moves in the same transaction
+-- as the hold, approve and reject, whichever path (JPA, post_transfer(), batch inserts) wrote it.
+
+create table if not exists user_pending_reviews (
+    user_id       bigint primary key references users(id),
+    pending_count int not null default 0
+);
+
+insert into user_pending_reviews (user_id, pending_count)
+select a.user_id, count(*)
+from transfers t
+join accounts a on a.id = t.from_account_id
+where t.status = 'PENDING_REVIEW'
+group by a.user_id
+on conflict (user_id) do update set pending_count = excluded.pending_count;
+
+create or replace function transfers_track_pending_review()
+returns trigger
+language plpgsql
+as $$
+declare
+    v_delta int;
+    v_account_id bigint;
+    v_owner_id bigint;
+begin
+    if tg_op = 'DELETE' or (tg_op = 'UPDATE' and old.status = 'PENDING_REVIEW') then
+        v_delta := -1;
+        v_account_id := old.from_account_id;
+    else
+        v_delta := 1;
+        v_account_id := new.from_account_id;
+    end if;
+
+    select a.user_id into v_owner_id from accounts a where a.id = v_account_id;
+
+    insert into user_pending_reviews as p (user_id, pending_count)
+    values (v_owner_id, greatest(v_delta, 0))
+    on conflict (user_id) do update set pending_count = greatest(p.pending_count + v_delta, 0);
+
+    return null;
+end;
+$$;
+
+-- the when clauses keep the function out of every write that does not enter or leave PENDING_REVIEW
+drop trigger if exists trg_transfers_pending_review_insert on transfers;
+create trigger trg_transfers_pending_review_insert
+    after insert on transfers
+    for each row
+    when (new.status = 'PENDING_REVIEW')
+    execute function transfers_track_pending_review();
+
+drop trigger if exists trg_transfers_pending_review_update on transfers;
+create trigger trg_transfers_pending_review_update
+    after update of status on transfers
+    for each row
+    when ((old.status = 'PENDING_REVIEW') <> (new.status = 'PENDING_REVIEW'))
+    execute function transfers_track_pending_review();
+
+drop trigger if exists trg_transfers_pending_review_delete on transfers;
+create trigger trg_transfers_pending_review_delete
+    after delete on transfers
+    for each row
+    when (old.status = 'PENDING_REVIEW')
+    execute function transfers_track_pending_review();
@@ -0,0 +1,11 @@
+-- V13: background auto-review of held transfers.
+--
+-- auto_review_after is only written by the auto-review job: a held transfer it re-scored and
+-- kept is not claimed again before that time, so a batch of still-risky rows cannot starve the
+-- ones behind it. The partial index keeps the claim scan to the review queue itself.
+
+alter table transfers add column if not exists auto_review_after timestamptz null;
+
+create index if not exists idx_transfers_pending_review
+    on transfers(id)
+    where status = 'PENDING_REVIEW';
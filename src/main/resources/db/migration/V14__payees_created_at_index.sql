@@ -0,0 +1,2 @@
+-- The payee graph index follows new payee links by creation time.
+create index if not exists idx_payees_created_at on payees(created_at);
@@ -0,0 +1,42 @@
+-- V15: screening watchlist, loaded into memory by WatchlistScreening.
+--
+-- kind:  EMAIL        exact payee email (lower case)
+--        EMAIL_DOMAIN a domain; matches it and every subdomain (lower case, no leading @)
+--        USER         a payee user id
+--        ACCOUNT      a destination account id
+--
+-- The list can hold millions of rows, so instead of scanning it to see whether it changed, every
+-- statement that writes it bumps the single revision row below, and that is what gets polled.
+
+create table if not exists watchlist_entries (
+    id         bigserial primary key,
+    kind       text not null check (kind in ('EMAIL', 'EMAIL_DOMAIN', 'USER', 'ACCOUNT')),
+    value      text not null,
+    reason     text,
+    created_at timestamptz not null default now(),
+    unique (kind, value)
+);
+
+create table if not exists watchlist_revision (
+    id       int primary key check (id = 1),
+    revision bigint not null
+);
+
+insert into watchlist_revision (id, revision) values (1, 1)
+on conflict (id) do nothing;
+
+create or replace function watchlist_bump_revision()
+returns trigger
+language plpgsql
+as $$
+begin
+    update watchlist_revision set revision = revision + 1 where id = 1;
+    return null;
+end;
+$$;
+
+drop trigger if exists trg_watchlist_bump_revision on watchlist_entries;
+create trigger trg_watchlist_bump_revision
+    after insert or update or delete or truncate on watchlist_entries
+    for each statement
+    execute function watchlist_bump_revision();
@@ -0,0 +1,51 @@
+-- V16: idempotency_keys becomes a table partitioned by day, so expired keys go away by dropping a
+-- whole partition (IdempotencyPartitionMaintenance) instead of growing the table and its key
+-- index forever.
+--
+-- created_day is the UTC date of created_at and the partition key. A unique constraint on a
+-- partitioned table has to include the partition key, so keys are unique per day; lookups only
+-- probe the days a live key can be in (see IdempotencyKeyRepository), and transfers keep their
+-- own unique idempotency_key for the money movement itself.
+--
+-- Only rows that can still be replayed are carried over; the rest had already expired.
+
+alter table idempotency_keys rename to idempotency_keys_unpartitioned;
+alter table idempotency_keys_unpartitioned rename constraint idempotency_keys_pkey to idempotency_keys_unpartitioned_pkey;
+alter table idempotency_keys_unpartitioned rename constraint idempotency_keys_key_key to idempotency_keys_unpartitioned_key_key;
+alter sequence idempotency_keys_id_seq owned by none;
+
+create table idempotency_keys (
+    id            bigint not null default nextval('idempotency_keys_id_seq'),
+    key           text not null,
+    request_hash  text not null,
+    response_code int null,
+    response_body text null,
+    created_at    timestamptz not null default now(),
+    expires_at    timestamptz not null,
+    created_day   date not null default (now() at time zone 'UTC')::date,
+    primary key (id, created_day),
+    unique (key, created_day)
+) partition by range (created_day);
+
+alter sequence idempotency_keys_id_seq owned by idempotency_keys.id;
+
+-- yesterday through a week ahead; the maintenance job keeps extending this
+do $$
+declare
+    today date := (now() at time zone 'UTC')::date;
+    d date;
+begin
+    for d in select generate_series(today - 1, today + 7, interval '1 day')::date loop
+        execute format(
+            'create table if not exists %I partition of idempotency_keys for values from (%L) to (%L)',
+            'idempotency_keys_p' || to_char(d, 'YYYYMMDD'), d, d + 1
+        );
+    end loop;
+end $$;
+
+insert into idempotency_keys (id, key, request_hash, response_code, response_body, created_at, expires_at, created_day)
+select id, key, request_hash, response_code, response_body, created_at, expires_at, (created_at at time zone 'UTC')::date
+from idempotency_keys_unpartitioned
+where (created_at at time zone 'UTC')::date >= (now() at time zone 'UTC')::date - 1;
+
+drop table idempotency_keys_unpartitioned;
@@ -0,0 +1,10 @@
+-- V17: request fingerprints are stored as the 32 raw SHA-256 bytes instead of 64 hex characters
+-- (see RequestHash). The hashed input did not change, so existing rows keep matching their
+-- retries. On a partitioned table this rewrites every partition, which V16 keeps to a few days
+-- of keys.
+
+alter table idempotency_keys
+    alter column request_hash type bytea using decode(request_hash, 'hex');
+
+alter table idempotency_keys
+    add constraint idempotency_keys_request_hash_len check (octet_length(request_hash) = 32);
@@ -0,0 +1,15 @@
+-- V18: the V6 shard users are bookkeeping identities, not people. They were created as USER with
+-- the V2 password hash, so anyone with that password could log in as a shard and spend treasury
+-- money through /api/transfers. They get their own SYSTEM role, which AuthService never logs in,
+-- and a password hash that no password matches.
+
+alter table users drop constraint if exists users_role_check;
+alter table users add constraint users_role_check check (role in ('USER', 'ADMIN', 'SYSTEM'));
+
+update users u
+   set role = 'SYSTEM',
+       password_hash = '!'
+  from accounts a
+  join treasury_accounts t on t.account_id = a.id
+ where a.user_id = u.id
+   and t.shard_no > 0;
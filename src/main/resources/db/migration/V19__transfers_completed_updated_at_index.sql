@@ -0,0 +1,3 @@
+-- The payee graph index follows completed transfers by the time they completed (updated_at),
+-- so a held transfer joins the graph when it is approved.
+create index if not exists idx_transfers_completed_updated_at on transfers(updated_at) where status = 'COMPLETED';
@@ -0,0 +1,158 @@
+-- V5: single-round-trip posting engine for user transfers.
+--
+-- post_transfer() does in one database call what the JPA path does in a dozen round trips:
+-- lock both accounts (id order, same as findByIdInForUpdate), re-validate them, insert the
+-- transfer, move the balances, write the ledger rows and the audit row. The row locks are
+-- only held for the duration of this function instead of across the whole JPA flush sequence.
+--
+-- Validation failures are raised with custom SQLSTATEs (class 'TX') so the application can map
+-- them back to the same error messages the JPA path uses:
+--   TX001 Account not found
+--   TX002 From account is not active
+--   TX003 To account is not active
+--   TX004 currency must match both accounts
+--   TX005 insufficient funds
+--
+-- A duplicate idempotency key does not raise: the winner's row is returned with replayed = true
+-- and nothing else is written, so the caller can decide between replay and 409.
+
+create or replace function post_transfer(
+    p_actor_user_id   bigint,
+    p_from_account_id bigint,
+    p_to_account_id   bigint,
+    p_to_user_id      bigint,
+    p_amount_cents    bigint,
+    p_currency        varchar(3),
+    p_idempotency_key text,
+    p_hold            boolean,
+    p_risk_score      int,
+    p_risk_reasons    text,
+    p_audit_details   text
+)
+returns table (
+    transfer_id     bigint,
+    from_account_id bigint,
+    to_account_id   bigint,
+    from_user_id    bigint,
+    amount_cents    bigint,
+    currency        varchar(3),
+    status          text,
+    risk_decision   text,
+    risk_score      int,
+    risk_reasons    text,
+    created_at      timestamptz,
+    replayed        boolean,
+    from_email      text,
+    to_email        text
+)
+language plpgsql
+as $$
+#variable_conflict use_column
+declare
+    v_from        accounts%rowtype;
+    v_to          accounts%rowtype;
+    v_transfer_id bigint;
+    v_replayed    boolean := false;
+begin
+    perform 1
+    from accounts a
+    where a.id in (p_from_account_id, p_to_account_id)
+    order by a.id
+    for update;
+
+    select a.* into v_from from accounts a where a.id = p_from_account_id;
+    select a.* into v_to   from accounts a where a.id = p_to_account_id;
+
+    if v_from.id is null or v_to.id is null
+       or v_from.user_id <> p_actor_user_id
+       or v_to.user_id <> p_to_user_id then
+        raise exception 'Account not found' using errcode = 'TX001';
+    end if;
+
+    if upper(v_from.status) <> 'ACTIVE' then
+        raise exception 'From account is not active' using errcode = 'TX002';
+    end if;
+    if upper(v_to.status) <> 'ACTIVE' then
+        raise exception 'To account is not active' using errcode = 'TX003';
+    end if;
+
+    if upper(v_from.currency) <> upper(p_currency) or upper(v_to.currency) <> upper(p_currency) then
+        raise exception 'currency must match both accounts' using errcode = 'TX004';
+    end if;
+
+    if v_from.balance_cents < p_amount_cents then
+        raise exception 'insufficient funds' using errcode = 'TX005';
+    end if;
+
+    begin
+        insert into transfers (
+            from_account_id, to_account_id, amount_cents, currency,
+            status, risk_decision, risk_score, risk_reasons, idempotency_key
+        )
+        values (
+            p_from_account_id, p_to_account_id, p_amount_cents, p_currency,
+            case when p_hold then 'PENDING_REVIEW' else 'COMPLETED' end,
+            case when p_hold then 'HOLD' end,
+            case when p_hold then p_risk_score end,
+            case when p_hold then p_risk_reasons end,
+            p_idempotency_key
+        )
+        returning id into v_transfer_id;
+    exception when unique_violation then
+        select t.id into v_transfer_id from transfers t where t.idempotency_key = p_idempotency_key;
+        v_replayed := true;
+    end;
+
+    if not v_replayed then
+        update accounts
+        set balance_cents = balance_cents - p_amount_cents,
+            updated_at = now()
+        where id = p_from_account_id;
+
+        insert into ledger_entries (transfer_id, account_id, direction, amount_cents, currency)
+        values (v_transfer_id, p_from_account_id, 'DEBIT', p_amount_cents, p_currency);
+
+        if not p_hold then
+            update accounts
+            set balance_cents = balance_cents + p_amount_cents,
+                updated_at = now()
+            where id = p_to_account_id;
+
+            insert into ledger_entries (transfer_id, account_id, direction, amount_cents, currency)
+            values (v_transfer_id, p_to_account_id, 'CREDIT', p_amount_cents, p_currency);
+        end if;
+
+        insert into audit_log (actor_user_id, affected_user_id, action, entity_type, entity_id, details)
+        values (
+            p_actor_user_id,
+            p_to_user_id,
+            case when p_hold then 'TRANSFER_HELD' else 'TRANSFER_CREATE' end,
+            'transfer',
+            v_transfer_id::text,
+            p_audit_details
+        );
+    end if;
+
+    return query
+    select t.id,
+           t.from_account_id,
+           t.to_account_id,
+           fa.user_id,
+           t.amount_cents,
+           t.currency,
+           t.status,
+           t.risk_decision,
+           t.risk_score,
+           t.risk_reasons,
+           t.created_at,
+           v_replayed,
+           fu.email,
+           tu.email
+    from transfers t
+    join accounts fa on fa.id = t.from_account_id
+    join accounts ta on ta.id = t.to_account_id
+    join users fu on fu.id = fa.user_id
+    join users tu on tu.id = ta.user_id
+    where t.id = v_transfer_id;
+end;
+$$;
@@ -0,0 +1,57 @@
+-- V6: sharded treasury.
+--
+-- Every admin deposit used to lock the one V2 treasury account, so deposits across the whole
+-- system queued behind a single row. The treasury is now a set of accounts:
+--   shard 0      = the V2 root treasury (system@bank.local), source of all funds
+--   shards 1..8  = sub-accounts deposits are spread over, topped up from the root by the app
+-- Each shard has its own system user because accounts allow one CHEQUING account per user.
+-- Shards start empty; until they are funded deposits fall back to the root.
+
+create table if not exists treasury_accounts (
+  id bigserial primary key,
+  shard_no int not null unique check (shard_no >= 0),
+  account_id bigint not null unique references accounts(id) on delete restrict,
+  created_at timestamptz not null default now()
+);
+
+insert into treasury_accounts (shard_no, account_id)
+select 0, a.id
+from accounts a
+join users u on u.id = a.user_id
+where u.email = 'system@bank.local'
+  and a.account_type = 'CHEQUING'
+  and a.currency = 'CAD'
+on conflict (shard_no) do nothing;
+
+insert into users (email, password_hash, role)
+select 'system+treasury-' || n || '@bank.local',
+       '$2a$10$7Yj2Xy4Q0Gk8fH5h4J8p7O8v7v0Q8YwqXK8x3J1y1xQ0qk3p0rP9e',
+       'USER'
+from generate_series(1, 8) as n
+on conflict (email) do nothing;
+
+insert into accounts (user_id, currency, balance_cents, status)
+select u.id, 'CAD', 0, 'ACTIVE'
+from generate_series(1, 8) as n
+join users u on u.email = 'system+treasury-' || n || '@bank.local'
+where not exists (
+    select 1 from accounts a where a.user_id = u.id and a.account_type = 'CHEQUING'
+);
+
+insert into treasury_accounts (shard_no, account_id)
+select n, a.id
+from generate_series(1, 8) as n
+join users u on u.email = 'system+treasury-' || n || '@bank.local'
+join accounts a on a.user_id = u.id and a.account_type = 'CHEQUING'
+on conflict (shard_no) do nothing;
+
+-- consolidated treasury position (root + all shards)
+create or replace view treasury_balance as
+select a.currency,
+       coalesce(sum(a.balance_cents) filter (where t.shard_no = 0), 0) as root_balance_cents,
+       coalesce(sum(a.balance_cents) filter (where t.shard_no > 0), 0) as shard_balance_cents,
+       sum(a.balance_cents)                                           as total_balance_cents,
+       count(*) filter (where t.shard_no > 0)                         as shard_count
+from treasury_accounts t
+join accounts a on a.id = t.account_id
+group by a.currency;
@@ -0,0 +1,32 @@
+-- V7: optimistic concurrency for account balances.
+--
+-- version: checked by JPA (@Version) on every account update in optimistic settlement mode.
+-- hot:     accounts that see enough concurrent traffic that optimistic retries would thrash;
+--          they are always settled with row locks. The treasury accounts start out hot.
+
+alter table accounts add column if not exists version bigint not null default 0;
+alter table accounts add column if not exists hot boolean not null default false;
+
+update accounts
+set hot = true
+where id in (select account_id from treasury_accounts);
+
+-- Updates that do not set version themselves (post_transfer(), JDBC batch writers, manual SQL)
+-- still invalidate concurrent optimistic readers. JPA bumps version explicitly, so leave those alone.
+create or replace function accounts_bump_version()
+returns trigger
+language plpgsql
+as $$
+begin
+    if new.version = old.version then
+        new.version := old.version + 1;
+    end if;
+    return new;
+end;
+$$;
+
+drop trigger if exists trg_accounts_bump_version on accounts;
+create trigger trg_accounts_bump_version
+    before update on accounts
+    for each row
+    execute function accounts_bump_version();
@@ -0,0 +1,11 @@
+-- Async submission (app.transfers.submission-mode=async): POST /api/transfers stores the transfer as
+-- INITIATED and a background worker settles it later.
+
+-- kept for the audit row written at settlement time
+alter table transfers add column if not exists payee_id bigint null references payees(id);
+
+-- why the worker rejected a transfer (funds gone, account frozen, ...)
+alter table transfers add column if not exists failure_reason text null;
+
+-- the worker's claim query only ever scans the (small) INITIATED backlog
+create index if not exists idx_transfers_initiated on transfers(id) where status = 'INITIATED';
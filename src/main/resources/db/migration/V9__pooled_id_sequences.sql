@@ -0,0 +1,18 @@
+-- Hibernate takes ids for these tables from their existing bigserial sequences in blocks of 50
+-- (pooled optimizer) instead of IDENTITY, so inserts can be JDBC-batched. Existing ids are kept:
+-- each sequence is moved so its next block starts right after the current max id.
+--
+-- Plain-SQL inserts that rely on the column default (post_transfer(), TransferBatchWriter) still
+-- get unique ids: every nextval() is the top of its own block, which no other caller hands out.
+do $$
+declare
+  t text;
+begin
+  foreach t in array array['transfers', 'ledger_entries', 'audit_log', 'idempotency_keys', 'payees'] loop
+    execute format('alter sequence %I increment by 50', t || '_id_seq');
+    execute format(
+        'select setval(%L, (select coalesce(max(id), 0) from %I) + 50, false)',
+        t || '_id_seq', t
+    );
+  end loop;
+end $$;
@@ -0,0 +1,21 @@
+-- Ends an idempotency claim, but only if this request still holds it: a claim that expired and
+-- was taken over by a retry belongs to the retry now.
+--
+-- With ARGV[2] set, the claim becomes the completed record (kept ARGV[3] ms); with ARGV[2]
+-- empty, the claim is dropped so the next retry starts over. Either way ARGV[4] is notified,
+-- so duplicates waiting on other instances look again right away.
+--
+-- KEYS[1] = claim key
+-- ARGV    = in-progress value this request wrote, completed value or '', ttl ms, channel
+-- returns 1 when the claim was ours, 0 otherwise
+
+if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+    return 0
+end
+if ARGV[2] == '' then
+    redis.call('DEL', KEYS[1])
+else
+    redis.call('SET', KEYS[1], ARGV[2], 'PX', tonumber(ARGV[3]))
+end
+redis.call('PUBLISH', ARGV[4], ARGV[2] == '' and 'released' or 'completed')
+return 1
@@ -0,0 +1,65 @@
+-- Merges per-minute buckets rebuilt from Postgres into users' velocity hashes (layout as in
+-- velocity-reserve.lua). Each bucket becomes the larger of what Redis holds and the rebuilt
+-- value, so amounts reserved by live traffic while the rebuild ran are not lost. The running
+-- total is then recomputed from the buckets.
+--
+-- One call covers several users to keep the per-call overhead down.
+--
+-- KEYS    = one hash key per user
+-- ARGV    = current minute, window minutes, ttl seconds, then per key: n, followed by n
+--           (minute, cents) pairs
+
+local oldest = tonumber(ARGV[1]) - tonumber(ARGV[2])
+local ttl = tonumber(ARGV[3])
+local pos = 4
+
+local function merge(key, from, to)
+    -- usual case after a data loss: nothing to merge with, write the hash in one go
+    if redis.call('EXISTS', key) == 0 then
+        local fields = {}
+        local total = 0
+        for i = from, to, 2 do
+            if tonumber(ARGV[i]) >= oldest then
+                fields[#fields + 1] = ARGV[i]
+                fields[#fields + 1] = ARGV[i + 1]
+                total = total + tonumber(ARGV[i + 1])
+            end
+        end
+        redis.call('HSET', key, 'total', total, 'start', oldest, unpack(fields))
+        redis.call('EXPIRE', key, ttl)
+        return
+    end
+
+    for i = from, to, 2 do
+        if tonumber(ARGV[i]) >= oldest then
+            local held = tonumber(redis.call('HGET', key, ARGV[i]) or '0')
+            if tonumber(ARGV[i + 1]) > held then
+                redis.call('HSET', key, ARGV[i], ARGV[i + 1])
+            end
+        end
+    end
+
+    local total = 0
+    local fields = redis.call('HGETALL', key)
+    for i = 1, #fields, 2 do
+        local field = fields[i]
+        if field ~= 'total' and field ~= 'start' then
+            if tonumber(field) < oldest then
+                redis.call('HDEL', key, field)
+            else
+                total = total + tonumber(fields[i + 1])
+            end
+        end
+    end
+
+    redis.call('HSET', key, 'total', total, 'start', oldest)
+    redis.call('EXPIRE', key, ttl)
+end
+
+for k = 1, #KEYS do
+    local n = tonumber(ARGV[pos])
+    merge(KEYS[k], pos + 1, pos + 2 * n)
+    pos = pos + 1 + 2 * n
+end
+
+return #KEYS
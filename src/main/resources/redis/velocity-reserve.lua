@@ -0,0 +1,51 @@
+-- Rolling outgoing total per user, kept as one hash of per-minute buckets:
+--   field <epoch minute> = cents reserved in that minute
+--   field "total"        = running sum of the bucket fields
+--   field "start"        = oldest minute that may still have a bucket
+--
+-- Drops buckets that fell out of the window (subtracting them from the running total), returns
+-- the total as it was before this call, then adds ARGV[3] cents to bucket ARGV[4]. A negative
+-- amount releases a reservation; it is capped at what the bucket still holds and skipped once
+-- the bucket has left the window.
+--
+-- KEYS[1] = hash key
+-- ARGV    = current minute, window minutes, amount cents, bucket minute, ttl seconds
+
+local key = KEYS[1]
+local window = tonumber(ARGV[2])
+local oldest = tonumber(ARGV[1]) - window
+local amount = tonumber(ARGV[3])
+local bucket = ARGV[4]
+
+local total = tonumber(redis.call('HGET', key, 'total') or '0')
+local start = tonumber(redis.call('HGET', key, 'start') or oldest)
+
+if oldest - start > window then
+    redis.call('DEL', key)
+    total = 0
+else
+    for minute = start, oldest - 1 do
+        local expired = redis.call('HGET', key, tostring(minute))
+        if expired then
+            total = total - tonumber(expired)
+            redis.call('HDEL', key, tostring(minute))
+        end
+    end
+end
+if start < oldest then
+    start = oldest
+end
+
+local prior = total
+
+if amount ~= 0 and tonumber(bucket) >= oldest then
+    if amount < 0 then
+        amount = math.max(amount, -tonumber(redis.call('HGET', key, bucket) or '0'))
+    end
+    redis.call('HINCRBY', key, bucket, amount)
+    total = total + amount
+end
+
+redis.call('HSET', key, 'total', total, 'start', start)
+redis.call('EXPIRE', key, tonumber(ARGV[5]))
+return prior
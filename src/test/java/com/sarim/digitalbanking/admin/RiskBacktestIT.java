@@ -0,0 +1,143 @@
+package com.sarim.digitalbanking.admin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "app.risk.backtest.timeout-ms=2000")
+class RiskBacktestIT extends IntegrationTestSupport {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void replaysHistoryThroughTheActiveAndACandidateRuleSet() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("backtest-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("backtest-recipient"), "Password123!");
+
+        String senderBearer = login(sender.email(), sender.password());
+        AdminUser admin = createAdminAndLogin();
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 2_000_000L);
+        long payeeId = createPayee(senderBearer, recipient.email(), "backtest recipient");
+        String prefix = "backtest-" + UUID.randomUUID() + "-";
+
+        // ITs run one at a time, so these are the only transfers in [from, now)
+        Instant from = Instant.now();
+        assertThat(sendTransfer(senderBearer, sender.accountId(), payeeId, 400_000L, prefix + "1")
+                .get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(sendTransfer(senderBearer, sender.accountId(), payeeId, 200_000L, prefix + "2")
+                .get("status").asText()).isEqualTo("PENDING_REVIEW");
+        assertThat(sendTransfer(senderBearer, sender.accountId(), payeeId, 350_000L, prefix + "3")
+                .get("status").asText()).isEqualTo("PENDING_REVIEW");
+
+        JsonNode active = backtest(admin, Map.of("from", from.toString()));
+        assertThat(active.get("transfers").asLong()).isEqualTo(3);
+        assertThat(active.get("held").asLong()).isEqualTo(2);
+        assertThat(active.get("heldInBoth").asLong()).isEqualTo(2);
+        assertThat(active.get("scoreHistogram").get(8).asLong()).isEqualTo(1);     // 85: window
+        assertThat(active.get("scoreHistogram").get(9).asLong()).isEqualTo(1);     // 98: window + pending
+
+        // what a $3,000 single-amount threshold would have done, with the window rule kept
+        JsonNode candidate = backtest(admin, Map.of(
+                "from", from.toString(),
+                "rules", List.of(
+                        Map.of("name", "single_amount_3000", "priority", 10, "expression", "amount >= 300_000",
+                                "action", "HOLD", "score", 90, "reason", "single transfer of $3,000 or more"),
+                        Map.of("name", "rolling_window", "priority", 20, "expression", "window_total + amount > 500_000",
+                                "action", "HOLD", "score", 85, "reason", "rolling 10-minute outgoing total exceeds $5,000"))));
+
+        assertThat(candidate.get("transfers").asLong()).isEqualTo(3);
+        assertThat(candidate.get("held").asLong()).isEqualTo(3);
+        assertThat(candidate.get("heldOnlyByCandidate").asLong()).isEqualTo(1);
+        assertThat(candidate.get("heldOnlyInHistory").asLong()).isEqualTo(0);
+        assertThat(candidate.get("scoreHistogram").get(9).asLong()).isEqualTo(2);  // 90 and 93
+
+        JsonNode single = candidate.get("rules").get(0);
+        assertThat(single.get("name").asText()).isEqualTo("single_amount_3000");
+        assertThat(single.get("hits").asLong()).isEqualTo(2);
+        assertThat(single.get("alone").asLong()).isEqualTo(1);
+
+        assertThat(candidate.get("overlaps")).hasSize(1);
+        assertThat(candidate.get("overlaps").get(0).get("both").asLong()).isEqualTo(1);
+
+        mockMvc.perform(post("/api/admin/risk-backtests")
+                        .header("Authorization", admin.bearerToken())
+                        .contentType(APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "from", from.toString(),
+                                "rules", List.of(Map.of("name", "broken", "priority", 1, "expression", "amount >",
+                                        "action", "HOLD", "score", 50, "reason", "broken"))))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void runsOneAtATimeAcrossNodesAndGivesUpAtTheTimeout() throws Exception {
+        AdminUser admin = createAdminAndLogin();
+        String body = objectMapper.writeValueAsString(Map.of("from", Instant.now().minusSeconds(3600).toString()));
+
+        // another node running a backtest holds the advisory lock
+        try (Connection other = dataSource.getConnection()) {
+            other.setAutoCommit(false);
+            try (Statement st = other.createStatement()) {
+                st.execute("select pg_advisory_xact_lock(hashtext('risk backtest'))");
+            }
+
+            String error = mockMvc.perform(post("/api/admin/risk-backtests")
+                            .header("Authorization", admin.bearerToken())
+                            .contentType(APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isConflict())
+                    .andReturn().getResponse().getErrorMessage();
+            assertThat(error).isEqualTo("a backtest is already running");
+
+            other.rollback();
+        }
+
+        // a replay that cannot finish in time is cancelled instead of holding its connection
+        try (Connection other = dataSource.getConnection()) {
+            other.setAutoCommit(false);
+            try (Statement st = other.createStatement()) {
+                st.execute("lock table transfers in access exclusive mode");
+            }
+
+            long startedAt = System.nanoTime();
+            mockMvc.perform(post("/api/admin/risk-backtests")
+                            .header("Authorization", admin.bearerToken())
+                            .contentType(APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isServiceUnavailable());
+            assertThat(System.nanoTime() - startedAt).isLessThan(10_000_000_000L);
+
+            other.rollback();
+        }
+
+        // and the lock went with it
+        backtest(admin, Map.of("from", Instant.now().minusSeconds(60).toString()));
+    }
+
+    private JsonNode backtest(AdminUser admin, Map<String, Object> body) throws Exception {
+        String json = mockMvc.perform(post("/api/admin/risk-backtests")
+                        .header("Authorization", admin.bearerToken())
+                        .contentType(APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(json);
+    }
+}
@@ -0,0 +1,173 @@
+package com.sarim.digitalbanking.admin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import com.sarim.digitalbanking.risk.PayeeGraphIndex;
+import com.sarim.digitalbanking.risk.RiskRuleAction;
+import com.sarim.digitalbanking.risk.RiskRuleEngine;
+import com.sarim.digitalbanking.risk.RiskRuleEntity;
+import com.sarim.digitalbanking.risk.RiskRuleRepository;
+import com.sarim.digitalbanking.treasury.TreasuryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// deposits come from the treasury shards, which must not link the users they fund
+@TestPropertySource(properties = "app.treasury.shards=2")
+class RiskGraphIT extends IntegrationTestSupport {
+
+    private static final String TEST_RULE = "it_near_frozen_account";
+
+    @Autowired
+    private PayeeGraphIndex payeeGraphIndex;
+
+    @Autowired
+    private RiskRuleRepository riskRuleRepository;
+
+    @Autowired
+    private RiskRuleEngine riskRuleEngine;
+
+    @Autowired
+    private TreasuryService treasuryService;
+
+    private final Map<String, Long> payeeIds = new HashMap<>();
+
+    @AfterEach
+    void removeTestRule() {
+        riskRuleRepository.findByName(TEST_RULE).ifPresent(riskRuleRepository::delete);
+        riskRuleEngine.reloadIfChanged();
+    }
+
+    @Test
+    void graphAnswersFanInPathsAndCyclesAndFeedsTheRules() throws Exception {
+        AdminUser admin = createAdminAndLogin();
+        RegisteredUser a = registerUser(uniqueEmail("graph-a"), "Password123!");
+        RegisteredUser b = registerUser(uniqueEmail("graph-b"), "Password123!");
+        RegisteredUser c = registerUser(uniqueEmail("graph-c"), "Password123!");
+        RegisteredUser mule = registerUser(uniqueEmail("graph-mule"), "Password123!");
+        RegisteredUser bad = registerUser(uniqueEmail("graph-bad"), "Password123!");
+        String prefix = "graph-" + UUID.randomUUID() + "-";
+
+        treasuryService.rebalanceShards();
+        List<Long> shardUserIds = new ArrayList<>();
+        for (RegisteredUser user : List.of(a, b, c, mule)) {
+            JsonNode deposit = adminDeposit(admin.bearerToken(), user.accountId(), 100_000L);
+            assertThat(deposit.get("fromEmail").asText()).startsWith("system+treasury-");
+            shardUserIds.add(accountRepository.findById(deposit.get("fromAccountId").asLong()).orElseThrow()
+                    .getUser().getId());
+        }
+
+        // a -> b <- c, b -> mule -> bad, and b -> a closes a cycle
+        send(a, b, 1_000L, prefix + "a-b");
+        send(c, b, 1_000L, prefix + "c-b");
+        send(b, mule, 1_000L, prefix + "b-mule");
+        send(mule, bad, 1_000L, prefix + "mule-bad");
+        send(b, a, 1_000L, prefix + "b-a");
+
+        mockMvc.perform(post("/api/admin/accounts/{id}/freeze", bad.accountId())
+                        .header("Authorization", admin.bearerToken()))
+                .andExpect(status().isOk());
+
+        awaitGraph();
+
+        JsonNode graph = objectMapper.readTree(mockMvc.perform(get("/api/admin/risk-graph/users/{id}", b.userId())
+                        .header("Authorization", admin.bearerToken()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        assertThat(graph.get("fanIn").asLong()).isEqualTo(2);
+        assertThat(graph.get("fanOut").asLong()).isEqualTo(2);
+        assertThat(graph.get("badDistance").asLong()).isEqualTo(2);
+        assertThat(longs(graph.get("pathToBad"))).containsExactly(b.userId(), mule.userId(), bad.userId());
+        assertThat(longs(graph.get("cycle"))).containsExactly(b.userId(), a.userId(), b.userId());
+        for (long shardUserId : shardUserIds) {
+            assertThat(payeeGraphIndex.fanOut(shardUserId, 0L)).isZero();
+        }
+
+        // the same answers are rule features on the transfer path
+        RiskRuleEntity rule = new RiskRuleEntity();
+        rule.setName(TEST_RULE);
+        rule.setPriority(45);
+        rule.setExpression("bad_distance <= 2 and recipient_fan_in >= 2");
+        rule.setAction(RiskRuleAction.HOLD);
+        rule.setScore(75);
+        rule.setReason("recipient is close to a frozen account");
+        riskRuleRepository.saveAndFlush(rule);
+        riskRuleEngine.reloadIfChanged();
+
+        JsonNode held = send(c, b, 1_000L, prefix + "c-b-again");
+        assertThat(held.get("status").asText()).isEqualTo("PENDING_REVIEW");
+        assertThat(held.get("riskReasons").asText()).isEqualTo("recipient is close to a frozen account");
+
+        // a recipient with no path to a frozen account passes the same rule
+        assertThat(send(b, c, 1_000L, prefix + "b-c").get("status").asText()).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void heldTransfersBecomeEdgesOnlyOnceApproved() throws Exception {
+        AdminUser admin = createAdminAndLogin();
+        RegisteredUser sender = registerUser(uniqueEmail("graph-held-sender"), "Password123!");
+        RegisteredUser approved = registerUser(uniqueEmail("graph-held-approved"), "Password123!");
+        RegisteredUser rejected = registerUser(uniqueEmail("graph-held-rejected"), "Password123!");
+        String prefix = "graph-held-" + UUID.randomUUID() + "-";
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 2_000_000L);
+
+        JsonNode toApprove = send(sender, approved, 600_000L, prefix + "approved");
+        JsonNode toReject = send(sender, rejected, 600_000L, prefix + "rejected");
+        assertThat(toApprove.get("status").asText()).isEqualTo("PENDING_REVIEW");
+        assertThat(toReject.get("status").asText()).isEqualTo("PENDING_REVIEW");
+
+        awaitGraph();
+        assertThat(payeeGraphIndex.fanIn(approved.userId(), 0L)).isZero();
+        assertThat(payeeGraphIndex.fanIn(rejected.userId(), 0L)).isZero();
+
+        mockMvc.perform(post("/api/admin/transfers/{id}/approve", toApprove.get("id").asLong())
+                        .header("Authorization", admin.bearerToken()))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/admin/transfers/{id}/reject", toReject.get("id").asLong())
+                        .header("Authorization", admin.bearerToken()))
+                .andExpect(status().isOk());
+
+        payeeGraphIndex.refresh();
+        assertThat(payeeGraphIndex.fanIn(approved.userId(), 0L)).isEqualTo(1);
+        assertThat(payeeGraphIndex.fanIn(rejected.userId(), 0L)).isZero();
+        assertThat(payeeGraphIndex.fanOut(sender.userId(), 0L)).isEqualTo(1);
+    }
+
+    private JsonNode send(RegisteredUser from, RegisteredUser to, long amountCents, String idempotencyKey) throws Exception {
+        String bearer = login(from.email(), from.password());
+        Long payeeId = payeeIds.get(from.userId() + ">" + to.userId());
+        if (payeeId == null) {
+            payeeId = createPayee(bearer, to.email(), "graph payee");
+            payeeIds.put(from.userId() + ">" + to.userId(), payeeId);
+        }
+        return sendTransfer(bearer, from.accountId(), payeeId, amountCents, idempotencyKey);
+    }
+
+    private void awaitGraph() throws InterruptedException {
+        for (int i = 0; i < 100 && !payeeGraphIndex.ready(); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(payeeGraphIndex.ready()).isTrue();
+        payeeGraphIndex.refresh();
+        payeeGraphIndex.refreshKnownBad();
+    }
+
+    private static List<Long> longs(JsonNode array) {
+        return StreamSupport.stream(array.spliterator(), false).map(JsonNode::asLong).toList();
+    }
+}
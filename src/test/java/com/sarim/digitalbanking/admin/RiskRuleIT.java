@@ -0,0 +1,142 @@
+package com.sarim.digitalbanking.admin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import com.sarim.digitalbanking.risk.RiskRuleAction;
+import com.sarim.digitalbanking.risk.RiskRuleEngine;
+import com.sarim.digitalbanking.risk.RiskRuleEntity;
+import com.sarim.digitalbanking.risk.RiskRuleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RiskRuleIT extends IntegrationTestSupport {
+
+    private static final List<String> TEST_RULES = List.of("it_exact_amount_hold", "it_exact_amount_allow", "it_broken");
+
+    @Autowired
+    private RiskRuleRepository riskRuleRepository;
+
+    @Autowired
+    private RiskRuleEngine riskRuleEngine;
+
+    @AfterEach
+    void removeTestRules() {
+        TEST_RULES.forEach(name -> riskRuleRepository.findByName(name).ifPresent(riskRuleRepository::delete));
+        riskRuleEngine.reloadIfChanged();
+    }
+
+    @Test
+    void ruleChangesTakeEffectWithoutRestart() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("risk-rule-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("risk-rule-recipient"), "Password123!");
+
+        String senderBearer = login(sender.email(), sender.password());
+        AdminUser admin = createAdminAndLogin();
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 2_000_000L);
+
+        long payeeId = createPayee(senderBearer, recipient.email(), "risk rule recipient");
+        String prefix = "risk-rule-" + UUID.randomUUID() + "-";
+
+        assertThat(sendTransfer(senderBearer, sender.accountId(), payeeId, 12_345L, prefix + "before")
+                .get("status").asText()).isEqualTo("COMPLETED");
+
+        putRule(admin, "it_exact_amount_hold", Map.of(
+                "priority", 40,
+                "expression", "amount == 12_345 and not (window_total > 10_000_000)",
+                "action", "HOLD",
+                "score", 70,
+                "reason", "exact amount flagged by test rule"
+        ));
+        riskRuleEngine.reloadIfChanged();
+
+        JsonNode held = sendTransfer(senderBearer, sender.accountId(), payeeId, 12_345L, prefix + "after");
+        assertThat(held.get("status").asText()).isEqualTo("PENDING_REVIEW");
+        assertThat(held.get("riskScore").asInt()).isEqualTo(70);
+        assertThat(held.get("riskReasons").asText()).isEqualTo("exact amount flagged by test rule");
+
+        // an ALLOW rule ahead of the seeded ones short-circuits them, including pending_review
+        putRule(admin, "it_exact_amount_allow", Map.of(
+                "priority", 1,
+                "expression", "amount == 600_000",
+                "action", "ALLOW"
+        ));
+        riskRuleEngine.reloadIfChanged();
+
+        assertThat(sendTransfer(senderBearer, sender.accountId(), payeeId, 600_000L, prefix + "allowed")
+                .get("status").asText()).isEqualTo("COMPLETED");
+
+        // with the test rule disabled the seeded rules decide again: window and pending hold both fire
+        putRule(admin, "it_exact_amount_hold", Map.of(
+                "priority", 40,
+                "enabled", false,
+                "expression", "amount == 12_345",
+                "action", "HOLD",
+                "score", 70,
+                "reason", "exact amount flagged by test rule"
+        ));
+        riskRuleEngine.reloadIfChanged();
+
+        JsonNode next = sendTransfer(senderBearer, sender.accountId(), payeeId, 12_345L, prefix + "disabled");
+        assertThat(next.get("status").asText()).isEqualTo("PENDING_REVIEW");
+        assertThat(next.get("riskScore").asInt()).isEqualTo(98);
+        assertThat(next.get("riskReasons").asText()).isEqualTo(
+                "rolling 10-minute outgoing total exceeds $5,000; existing outgoing transfer is still pending review");
+    }
+
+    @Test
+    void invalidRuleIsRejectedAndActiveSetIsKept() throws Exception {
+        AdminUser admin = createAdminAndLogin();
+        int activeBefore = riskRuleEngine.current().size();
+
+        mockMvc.perform(put("/api/admin/risk-rules/{name}", "it_broken")
+                        .header("Authorization", admin.bearerToken())
+                        .contentType(APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "priority", 50,
+                                "expression", "amount + pending_hold > 5",
+                                "action", "HOLD",
+                                "score", 50,
+                                "reason", "broken"
+                        ))))
+                .andExpect(status().isBadRequest());
+
+        assertThat(riskRuleRepository.findByName("it_broken")).isEmpty();
+
+        // a broken rule written straight to the table is refused on reload as well
+        saveBrokenRule();
+        riskRuleEngine.reloadIfChanged();
+        assertThat(riskRuleEngine.current().size()).isEqualTo(activeBefore);
+    }
+
+    private void saveBrokenRule() {
+        RiskRuleEntity rule = new RiskRuleEntity();
+        rule.setName("it_broken");
+        rule.setPriority(50);
+        rule.setExpression("amount >>= 5");
+        rule.setAction(RiskRuleAction.HOLD);
+        rule.setScore(50);
+        rule.setReason("broken");
+        riskRuleRepository.saveAndFlush(rule);
+    }
+
+    private void putRule(AdminUser admin, String name, Map<String, Object> body) throws Exception {
+        mockMvc.perform(put("/api/admin/risk-rules/{name}", name)
+                        .header("Authorization", admin.bearerToken())
+                        .contentType(APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(name));
+    }
+}
@@ -0,0 +1,63 @@
+package com.sarim.digitalbanking.admin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import com.sarim.digitalbanking.auth.UserEntity;
+import com.sarim.digitalbanking.auth.UserRole;
+import com.sarim.digitalbanking.treasury.TreasuryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "app.treasury.shards=2")
+class TreasuryShardIT extends IntegrationTestSupport {
+
+    @Autowired
+    private TreasuryService treasuryService;
+
+    @Test
+    void depositsDrawFromShardsAndConsolidatedBalanceAccountsForEveryCent() throws Exception {
+        treasuryService.rebalanceShards();
+
+        RegisteredUser recipient = registerUser(uniqueEmail("shard-recipient"), "Password123!");
+        AdminUser admin = createAdminAndLogin();
+
+        long totalBefore = treasuryService.consolidatedBalance().totalBalanceCents();
+
+        JsonNode deposit = adminDeposit(admin.bearerToken(), recipient.accountId(), 12_345L);
+
+        assertThat(deposit.get("fromEmail").asText()).startsWith("system+treasury-");
+        assertThat(deposit.get("direction").asText()).isEqualTo("SENT");
+        assertThat(treasuryService.consolidatedBalance().totalBalanceCents()).isEqualTo(totalBefore - 12_345L);
+
+        long shardAccountId = deposit.get("fromAccountId").asLong();
+        JsonNode error = postJson(
+                "/api/admin/deposit",
+                admin.bearerToken(),
+                "shard-target-" + UUID.randomUUID(),
+                Map.of("toAccountId", shardAccountId, "amountCents", 1L),
+                status().isBadRequest()
+        );
+        assertThat(error.get("error").asText()).isEqualTo("toAccountId must be different from treasury account");
+
+        // shard users are SYSTEM identities: even with a password that matches, they cannot log in
+        UserEntity shardUser = userRepository.findById(
+                accountRepository.findById(shardAccountId).orElseThrow().getUser().getId()).orElseThrow();
+        assertThat(shardUser.getRole()).isEqualTo(UserRole.SYSTEM);
+        shardUser.setPasswordHash(passwordEncoder.encode("Password123!"));
+        userRepository.save(shardUser);
+        postJson(
+                "/api/auth/login",
+                null,
+                "login-" + UUID.randomUUID(),
+                Map.of("email", shardUser.getEmail(), "password", "Password123!"),
+                status().isUnauthorized()
+        );
+    }
+}
@@ -0,0 +1,98 @@
+package com.sarim.digitalbanking.admin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import com.sarim.digitalbanking.risk.WatchlistEntryRepository;
+import com.sarim.digitalbanking.risk.WatchlistScreening;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class WatchlistIT extends IntegrationTestSupport {
+
+    @Autowired
+    private WatchlistScreening watchlistScreening;
+
+    @Autowired
+    private WatchlistEntryRepository watchlistEntryRepository;
+
+    private final List<Long> entryIds = new ArrayList<>();
+
+    @AfterEach
+    void removeEntries() {
+        watchlistEntryRepository.deleteAllById(entryIds);
+        watchlistScreening.reloadIfChanged();
+    }
+
+    @Test
+    void listedPayeesAreRejectedOnAddAndOnTransfer() throws Exception {
+        AdminUser admin = createAdminAndLogin();
+        RegisteredUser sender = registerUser(uniqueEmail("screen-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("screen-recipient"), "Password123!");
+        String tag = "mule-" + UUID.randomUUID().toString().substring(0, 8);
+        RegisteredUser atDomain = registerUser("someone@mail." + tag + ".example", "Password123!");
+        RegisteredUser lookalike = registerUser("someone@x" + tag + ".example", "Password123!");
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 50_000L);
+        String senderBearer = login(sender.email(), sender.password());
+        long payeeId = createPayee(senderBearer, recipient.email(), "recipient");
+
+        // destination account listed after the payee was added: the transfer is stopped
+        long accountEntry = addEntry(admin, "ACCOUNT", String.valueOf(recipient.accountId()), status().isCreated())
+                .get("id").asLong();
+        watchlistScreening.reloadIfChanged();
+
+        JsonNode rejected = postJson("/api/transfers", senderBearer, "screen-" + UUID.randomUUID(),
+                Map.of("fromAccountId", sender.accountId(), "payeeId", payeeId, "amountCents", 1_000L, "currency", "CAD"),
+                status().isForbidden());
+        assertThat(rejected.get("error").asText()).isEqualTo("payee failed screening");
+        assertThat(accountRepository.findById(sender.accountId()).orElseThrow().getBalanceCents()).isEqualTo(50_000L);
+
+        // a listed domain covers its subdomains, but not a domain that merely ends in the same text
+        assertThat(addEntry(admin, "EMAIL_DOMAIN", "@" + tag + ".example", status().isCreated())
+                .get("value").asText()).isEqualTo(tag + ".example");
+        addEntry(admin, "EMAIL_DOMAIN", tag + ".example", status().isConflict());
+        addEntry(admin, "USER", "not-a-number", status().isBadRequest());
+        watchlistScreening.reloadIfChanged();
+
+        postJson("/api/payees", senderBearer, "payee-" + UUID.randomUUID(),
+                Map.of("email", atDomain.email(), "label", "listed domain"), status().isForbidden());
+        createPayee(senderBearer, lookalike.email(), "lookalike");
+
+        JsonNode stats = objectMapper.readTree(mockMvc.perform(get("/api/admin/watchlist")
+                        .header("Authorization", admin.bearerToken()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(stats.get("entries").get("ACCOUNT").asInt()).isGreaterThanOrEqualTo(1);
+        assertThat(stats.get("entries").get("EMAIL_DOMAIN").asInt()).isGreaterThanOrEqualTo(1);
+
+        // taken off the list, the same transfer goes through
+        mockMvc.perform(delete("/api/admin/watchlist/{id}", accountEntry)
+                        .header("Authorization", admin.bearerToken()))
+                .andExpect(status().isOk());
+        watchlistScreening.reloadIfChanged();
+
+        JsonNode sent = sendTransfer(senderBearer, sender.accountId(), payeeId, 1_000L, "screen-" + UUID.randomUUID());
+        assertThat(sent.get("status").asText()).isEqualTo("COMPLETED");
+    }
+
+    private JsonNode addEntry(AdminUser admin, String kind, String value, ResultMatcher expected) throws Exception {
+        JsonNode body = postJson("/api/admin/watchlist", admin.bearerToken(), "watchlist-" + UUID.randomUUID(),
+                Map.of("kind", kind, "value", value, "reason", "integration test"), expected);
+        if (body.hasNonNull("id")) {
+            entryIds.add(body.get("id").asLong());
+        }
+        return body;
+    }
+}
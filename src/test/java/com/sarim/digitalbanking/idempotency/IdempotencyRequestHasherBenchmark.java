@@ -0,0 +1,111 @@
+package com.sarim.digitalbanking.idempotency;
+
+import com.sarim.digitalbanking.transfers.api.CreateTransferRequest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fingerprint of a user transfer with {@link IdempotencyRequestHasher} against the previous
+ * {@code String.join} + {@code String.format} hex version (kept below), and the stored-hash check
+ * each replay does: hex {@code String.equals} before, constant-time {@link RequestHash#matches}
+ * on the raw bytes now. Setup fails if the two hashers ever disagree, since stored hashes must
+ * keep matching. Run {@link #main} from the IDE or with the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IdempotencyRequestHasherBenchmark {
+
+    private IdempotencyRequestHasher hasher;
+    private CreateTransferRequest[] requests;
+    private String storedHex;
+    private String candidateHex;
+    private byte[] storedBytes;
+    private RequestHash candidate;
+    private int i;
+
+    @Setup
+    public void setUp() {
+        hasher = new IdempotencyRequestHasher();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        requests = new CreateTransferRequest[1024];
+        for (int n = 0; n < requests.length; n++) {
+            requests[n] = new CreateTransferRequest(
+                    random.nextLong(1, 10_000_000), random.nextLong(1, 10_000_000),
+                    random.nextLong(1, 100_000_000), n % 3 == 0 ? null : n % 3 == 1 ? "CAD" : "usd");
+            String legacy = legacyHashUserTransfer(42L + n, requests[n]);
+            if (!legacy.equals(hasher.hashUserTransfer(42L + n, requests[n]).toHex())) {
+                throw new IllegalStateException("hashers disagree on " + requests[n]);
+            }
+        }
+
+        storedHex = legacyHashUserTransfer(42L, requests[0]);
+        candidateHex = new String(storedHex);
+        storedBytes = hasher.hashUserTransfer(42L, requests[0]).toBytes();
+        candidate = hasher.hashUserTransfer(42L, requests[0]);
+    }
+
+    @Benchmark
+    public String legacyHash() {
+        int n = i++ & 1023;
+        return legacyHashUserTransfer(42L + n, requests[n]);
+    }
+
+    @Benchmark
+    public RequestHash binaryHash() {
+        int n = i++ & 1023;
+        return hasher.hashUserTransfer(42L + n, requests[n]);
+    }
+
+    @Benchmark
+    public boolean legacyCompare() {
+        return storedHex.equals(candidateHex);
+    }
+
+    @Benchmark
+    public boolean binaryCompare() {
+        return candidate.matches(storedBytes);
+    }
+
+    // IdempotencyRequestHasher.hashUserTransfer as it was before binary fingerprints
+    private static String legacyHashUserTransfer(Long actorUserId, CreateTransferRequest req) {
+        String currency = req.currency() == null || req.currency().isBlank() ? "CAD" : req.currency().trim().toUpperCase();
+        String raw = String.join("|",
+                "user-transfer-v1",
+                String.valueOf(actorUserId),
+                String.valueOf(req.fromAccountId()),
+                String.valueOf(req.payeeId()),
+                String.valueOf(req.amountCents()),
+                currency
+        );
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(raw.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(IdempotencyRequestHasherBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,54 @@
+package com.sarim.digitalbanking.risk;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inference cost of {@link RiskModel#score}, with the baseline model's features.
+ * Run {@link #main} from the IDE or with the test classpath; the GC profiler reports
+ * {@code gc.alloc.rate.norm}, which should be ~0 B/op.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RiskModelBenchmark {
+
+    private RiskModel model;
+    private long[] amounts;
+    private int i;
+
+    @Setup
+    public void setUp() {
+        model = RiskModel.of("bench", -1.5, List.of(
+                new RiskModel.Term("amount_log", 1.2, 4.5, 1.5),
+                new RiskModel.Term("window_total_log", 0.8, 5.0, 2.0),
+                new RiskModel.Term("payee_age_days", -0.9, 30, 30),
+                new RiskModel.Term("hour_sin", -0.2, 0, 1),
+                new RiskModel.Term("hour_cos", 0.3, 0, 1),
+                new RiskModel.Term("fan_in", 0.4, 3, 5)
+        ));
+        amounts = ThreadLocalRandom.current().longs(1024, 100, 1_000_000).toArray();
+    }
+
+    @Benchmark
+    public int score() {
+        long amount = amounts[i++ & 1023];
+        return model.score(amount, amount * 3, 86_400L * 12, (int) (amount % 86_400), 4);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(RiskModelBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
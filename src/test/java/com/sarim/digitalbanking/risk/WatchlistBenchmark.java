@@ -0,0 +1,79 @@
+package com.sarim.digitalbanking.risk;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link WatchlistSnapshot#screen} for one transfer (email, user id and account id) on a
+ * list of several million entries, for a clear payee and for a listed one.
+ * Run {@link #main} from the IDE or with the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class WatchlistBenchmark {
+
+    private static final int LISTED = 2_000_000;
+    private static final int DOMAINS = 200_000;
+
+    private WatchlistSnapshot snapshot;
+    private String[] clearEmails;
+    private String[] listedEmails;
+    private long[] clearIds;
+
+    @Setup
+    public void setUp() {
+        WatchlistSnapshot.Builder builder = new WatchlistSnapshot.Builder();
+        for (int i = 1; i <= LISTED; i++) {
+            builder.add(WatchlistKind.USER, Long.toString(i * 2L));
+            builder.add(WatchlistKind.ACCOUNT, Long.toString(i * 2L));
+            builder.add(WatchlistKind.EMAIL, "listed" + i + "@mail.example");
+        }
+        for (int i = 0; i < DOMAINS; i++) {
+            builder.add(WatchlistKind.EMAIL_DOMAIN, "bad" + i + ".example");
+        }
+        snapshot = builder.build();
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        clearEmails = new String[1024];
+        listedEmails = new String[1024];
+        clearIds = new long[1024];
+        for (int i = 0; i < 1024; i++) {
+            clearEmails[i] = "customer" + random.nextInt(1_000_000) + "@mail.good" + i + ".example";
+            listedEmails[i] = "someone@mail.bad" + random.nextInt(DOMAINS) + ".example";
+            clearIds[i] = random.nextLong(1, LISTED) * 2 + 1;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int i;
+    }
+
+    @Benchmark
+    public WatchlistKind clearPayee(Cursor c) {
+        int i = c.i++ & 1023;
+        return snapshot.screen(clearEmails[i], clearIds[i], clearIds[i]);
+    }
+
+    @Benchmark
+    public WatchlistKind listedDomain(Cursor c) {
+        int i = c.i++ & 1023;
+        return snapshot.screen(listedEmails[i], clearIds[i], clearIds[i]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(WatchlistBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -59,6 +59,7 @@ class HeldTransferRejectIT extends IntegrationTestSupport {
                 .filter(entry -> Long.valueOf(transferId).equals(entry.getTransfer().getId()))
                 .count();
         assertThat(ledgerEntriesAfterHold).isEqualTo(1);
+        assertThat(transferRepository.hasPendingReview(sender.userId())).isTrue();
 
         // ----- act 2: admin rejects with a reason -----
         // NOTE: admin.bearerToken() already includes "Bearer " (see login() in IntegrationTestSupport)
@@ -83,6 +84,9 @@ class HeldTransferRejectIT extends IntegrationTestSupport {
         // riskReasons is REPLACED entirely with the (trimmed) supplied reason — not appended.
         assertThat(transfer.getRiskReasons()).isEqualTo(rejectionReason);
 
+        // the per-user pending-review counter dropped with the rejection
+        assertThat(transferRepository.hasPendingReview(sender.userId())).isFalse();
+
         // ledger now has both rows: original debit (from hold) + new credit (refund)
         long ledgerEntriesAfterReject = ledgerEntryRepository.findAll().stream()
                 .filter(entry -> entry.getTransfer() != null)
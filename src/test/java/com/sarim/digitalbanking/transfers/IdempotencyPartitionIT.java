@@ -0,0 +1,78 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import com.sarim.digitalbanking.idempotency.IdempotencyKeyEntity;
+import com.sarim.digitalbanking.idempotency.IdempotencyKeyRepository;
+import com.sarim.digitalbanking.idempotency.IdempotencyPartitionMaintenance;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyPartitionIT extends IntegrationTestSupport {
+
+    @Autowired
+    private IdempotencyPartitionMaintenance partitionMaintenance;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void expiredPartitionsAreDroppedAndUpcomingOnesCreated() throws Exception {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate expired = today.minusDays(5);
+        String expiredPartition = partition(expired);
+
+        jdbcTemplate.execute("create table if not exists " + expiredPartition
+                + " partition of idempotency_keys for values from ('" + expired + "') to ('" + expired.plusDays(1) + "')");
+        jdbcTemplate.update("""
+                insert into idempotency_keys (key, request_hash, expires_at, created_day)
+                values (?, decode(repeat('00', 32), 'hex'), now(), ?)
+                """, "stale-" + UUID.randomUUID(), expired);
+        jdbcTemplate.execute("drop table if exists " + partition(today.plusDays(3)));
+
+        IdempotencyPartitionMaintenance.Result result = partitionMaintenance.maintain(Instant.now());
+        assertThat(result).isNotNull();
+        assertThat(result.dropped()).isGreaterThanOrEqualTo(1);
+        assertThat(result.created()).isGreaterThanOrEqualTo(1);
+
+        assertThat(exists(expiredPartition)).isFalse();
+        for (int d = 0; d <= 7; d++) {
+            assertThat(exists(partition(today.plusDays(d)))).as("partition for today+%d", d).isTrue();
+        }
+        // nothing left to do on a second run
+        assertThat(partitionMaintenance.maintain(Instant.now())).isEqualTo(new IdempotencyPartitionMaintenance.Result(0, 0));
+
+        // transfers still record and find their keys in today's partition
+        RegisteredUser sender = registerUser(uniqueEmail("part-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("part-recipient"), "Password123!");
+        AdminUser admin = createAdminAndLogin();
+        adminDeposit(admin.bearerToken(), sender.accountId(), 10_000L);
+
+        String senderBearer = login(sender.email(), sender.password());
+        long payeeId = createPayee(senderBearer, recipient.email(), "recipient");
+        String key = "part-" + UUID.randomUUID();
+        sendTransfer(senderBearer, sender.accountId(), payeeId, 1_000L, key);
+
+        IdempotencyKeyEntity stored = idempotencyKeyRepository.findByKey(key).orElseThrow();
+        assertThat(stored.getCreatedDay()).isEqualTo(today);
+    }
+
+    private boolean exists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("select to_regclass(?) is not null", Boolean.class, table));
+    }
+
+    private static String partition(LocalDate day) {
+        return "idempotency_keys_p" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+}
@@ -0,0 +1,98 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import com.sarim.digitalbanking.idempotency.IdempotencyKeyRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// every stored response is deflated here, so replays go through the compressed path too
+@TestPropertySource(properties = "app.idempotency.response-cache.compress-min-bytes=1")
+class IdempotentResponseReplayIT extends IntegrationTestSupport {
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Test
+    void retriesAreAnsweredWithTheStoredBytesBeforeTheController() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("replay-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("replay-recipient"), "Password123!");
+        AdminUser admin = createAdminAndLogin();
+        adminDeposit(admin.bearerToken(), sender.accountId(), 20_000L);
+
+        String senderBearer = login(sender.email(), sender.password());
+        long payeeId = createPayee(senderBearer, recipient.email(), "recipient");
+        Map<String, Object> request = Map.of(
+                "fromAccountId", sender.accountId(),
+                "payeeId", payeeId,
+                "amountCents", 2_500L,
+                "currency", "CAD"
+        );
+
+        String key = "resp-" + UUID.randomUUID();
+        MockHttpServletResponse first = send("/api/transfers", senderBearer, key, request);
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getHeader("Idempotent-Replayed")).isNull();
+
+        byte[] record = redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get(("idem-resp:" + key).getBytes(StandardCharsets.UTF_8)));
+        assertThat(record).isNotNull();
+        assertThat(record[0]).isEqualTo((byte) 1);
+        assertThat(record[33] & 1).isEqualTo(1);
+
+        // other bytes under the same key go on to the service, which still rejects a different transfer
+        MockHttpServletResponse conflict = send("/api/transfers", senderBearer, key,
+                Map.of("fromAccountId", sender.accountId(), "payeeId", payeeId, "amountCents", 2_600L, "currency", "CAD"));
+        assertThat(conflict.getStatus()).isEqualTo(409);
+        assertThat(conflict.getHeader("Idempotent-Replayed")).isNull();
+
+        // with the service-level records gone, only the filter can still answer
+        redisTemplate.delete("idem:" + key);
+        idempotencyKeyRepository.delete(idempotencyKeyRepository.findByKey(key).orElseThrow());
+
+        MockHttpServletResponse retry = send("/api/transfers", senderBearer, key, request);
+        assertThat(retry.getStatus()).isEqualTo(200);
+        assertThat(retry.getHeader("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(retry.getContentType()).startsWith(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(retry.getContentAsByteArray()).isEqualTo(first.getContentAsByteArray());
+        assertThat(accountRepository.findById(sender.accountId()).orElseThrow().getBalanceCents())
+                .isEqualTo(20_000L - 2_500L);
+
+        // payees take an optional key; with one, the add is replayed as well
+        RegisteredUser other = registerUser(uniqueEmail("replay-payee"), "Password123!");
+        Map<String, Object> payee = Map.of("email", other.email(), "label", "other");
+        String payeeKey = "payee-" + UUID.randomUUID();
+        MockHttpServletResponse added = send("/api/payees", senderBearer, payeeKey, payee);
+        MockHttpServletResponse again = send("/api/payees", senderBearer, payeeKey, payee);
+        assertThat(added.getStatus()).isEqualTo(200);
+        assertThat(again.getHeader("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(again.getContentAsString()).isEqualTo(added.getContentAsString());
+
+        RegisteredUser third = registerUser(uniqueEmail("replay-unkeyed"), "Password123!");
+        MockHttpServletResponse unkeyed = send("/api/payees", senderBearer, null, Map.of("email", third.email(), "label", "third"));
+        assertThat(unkeyed.getStatus()).isEqualTo(200);
+        assertThat(unkeyed.getHeader("Idempotent-Replayed")).isNull();
+    }
+
+    private MockHttpServletResponse send(String url, String bearer, String key, Object payload) throws Exception {
+        var request = post(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .content(objectMapper.writeValueAsString(payload));
+        if (key != null) {
+            request.header("Idempotency-Key", key);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,78 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class InternalTransferIT extends IntegrationTestSupport {
+
+    @Test
+    void movesBetweenOwnAccountsSkipRiskAndReplayByKey() throws Exception {
+        RegisteredUser user = registerUser(uniqueEmail("internal-user"), "Password123!");
+        RegisteredUser other = registerUser(uniqueEmail("internal-other"), "Password123!");
+
+        String bearer = login(user.email(), user.password());
+        AdminUser admin = createAdminAndLogin();
+
+        adminDeposit(admin.bearerToken(), user.accountId(), 800_000L);
+
+        String opened = mockMvc.perform(post("/api/accounts")
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountType\":\"SAVINGS\"}"))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        long savingsId = objectMapper.readTree(opened).get("id").asLong();
+
+        // above the $5,000 hold threshold for external transfers, but money stays with the user
+        String key = "internal-" + UUID.randomUUID();
+        JsonNode moved = internal(bearer, key, user.accountId(), savingsId, 600_000L, status().isOk());
+
+        assertThat(moved.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(moved.get("direction").asText()).isEqualTo("INTERNAL");
+
+        JsonNode replay = internal(bearer, key, user.accountId(), savingsId, 600_000L, status().isOk());
+        assertThat(replay.get("id").asLong()).isEqualTo(moved.get("id").asLong());
+
+        assertThat(accountRepository.findById(user.accountId()).orElseThrow().getBalanceCents()).isEqualTo(200_000L);
+        assertThat(accountRepository.findById(savingsId).orElseThrow().getBalanceCents()).isEqualTo(600_000L);
+
+        JsonNode notOwned = internal(bearer, "internal-" + UUID.randomUUID(),
+                user.accountId(), other.accountId(), 1_000L, status().isBadRequest());
+        assertThat(notOwned.get("error").asText()).isEqualTo("Account not found");
+        assertThat(accountRepository.findById(other.accountId()).orElseThrow().getBalanceCents()).isZero();
+    }
+
+    private JsonNode internal(
+            String bearer,
+            String key,
+            Long fromAccountId,
+            Long toAccountId,
+            long amountCents,
+            ResultMatcher expected
+    ) throws Exception {
+        return postJson(
+                "/api/transfers/internal",
+                bearer,
+                key,
+                Map.of(
+                        "fromAccountId", fromAccountId,
+                        "toAccountId", toAccountId,
+                        "amountCents", amountCents,
+                        "currency", "CAD"
+                ),
+                expected
+        );
+    }
+}
@@ -0,0 +1,190 @@
+package com.sarim.digitalbanking.transfers;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The "sender already has a held transfer" lookup before and after V12: the probe of transfers
+ * joined to accounts against the read of {@code user_pending_reviews}.
+ * <p>
+ * Needs a PostgreSQL database of its own ({@code -Dbench.jdbc.url}, default
+ * {@code banking_bench} on localhost; {@code bench.jdbc.user} and {@code bench.jdbc.password}
+ * default to the app's). Setup migrates the schema and, on the first run only, loads
+ * {@code bench.transfers} rows (default 10M) with {@code bench/pending-review-data.sql};
+ * expect several minutes for that.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PendingReviewLookupBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(PendingReviewLookupBenchmark.class);
+
+    private static final String OLD_PROBE_SQL = """
+            select t.id
+            from transfers t
+            join accounts a on a.id = t.from_account_id
+            where a.user_id = ? and t.status = 'PENDING_REVIEW'
+            fetch first 1 rows only
+            """;
+
+    private static final String COUNTER_SQL =
+            "select coalesce((select p.pending_count > 0 from user_pending_reviews p where p.user_id = ?), false)";
+
+    private static final String BENCH_USERS_SQL =
+            "select u.id from users u where u.email like 'bench-pending-%@bench.local' order by u.id";
+
+    private static final String RECOUNT_SQL = """
+            select (select count(*) from transfers t join accounts a on a.id = t.from_account_id
+                     where a.user_id = ? and t.status = 'PENDING_REVIEW'),
+                   coalesce((select p.pending_count from user_pending_reviews p where p.user_id = ?), 0)
+            """;
+
+    private static final int USERS = 100_000;
+    private static final long CHUNK = 1_000_000;
+
+    private Connection connection;
+    private PreparedStatement oldProbe;
+    private PreparedStatement counter;
+    private long[] userIds;
+
+    @Setup
+    public void setUp() throws Exception {
+        String url = System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/banking_bench");
+        String user = System.getProperty("bench.jdbc.user", "banking");
+        String password = System.getProperty("bench.jdbc.password", "banking");
+        long transfers = Long.getLong("bench.transfers", 10_000_000L);
+
+        Flyway.configure().dataSource(url, user, password).load().migrate();
+        connection = DriverManager.getConnection(url, user, password);
+        generate(transfers);
+
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(BENCH_USERS_SQL)) {
+            userIds = new long[USERS];
+            int n = 0;
+            while (rs.next() && n < USERS) {
+                userIds[n++] = rs.getLong(1);
+            }
+            if (n < USERS) {
+                throw new IllegalStateException("expected " + USERS + " bench users, found " + n);
+            }
+        }
+        verifyCounter();
+
+        oldProbe = connection.prepareStatement(OLD_PROBE_SQL);
+        counter = connection.prepareStatement(COUNTER_SQL);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public boolean oldJoinProbe() throws SQLException {
+        oldProbe.setLong(1, nextUser());
+        try (ResultSet rs = oldProbe.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    @Benchmark
+    public boolean counterLookup() throws SQLException {
+        counter.setLong(1, nextUser());
+        try (ResultSet rs = counter.executeQuery()) {
+            rs.next();
+            return rs.getBoolean(1);
+        }
+    }
+
+    private long nextUser() {
+        return userIds[ThreadLocalRandom.current().nextInt(userIds.length)];
+    }
+
+    // the last key in the set only exists once a previous run finished loading
+    private void generate(long transfers) throws SQLException, IOException {
+        try (PreparedStatement done = connection.prepareStatement(
+                "select 1 from transfers where idempotency_key = ?")) {
+            done.setString(1, "bench-pending-" + transfers);
+            try (ResultSet rs = done.executeQuery()) {
+                if (rs.next()) {
+                    return;
+                }
+            }
+        }
+
+        String[] script = loadScript().split("-- chunk\n", 2);
+        try (Statement st = connection.createStatement()) {
+            st.execute(script[0].replace("${users}", Integer.toString(USERS)));
+            for (long from = 1; from <= transfers; from += CHUNK) {
+                long to = Math.min(from + CHUNK - 1, transfers);
+                st.executeUpdate(script[1]
+                        .replace("${from}", Long.toString(from))
+                        .replace("${to}", Long.toString(to)));
+                log.info("loaded transfers {}-{}", from, to);
+            }
+            st.execute("analyze users");
+            st.execute("analyze accounts");
+            st.execute("analyze transfers");
+            st.execute("analyze user_pending_reviews");
+        }
+    }
+
+    // both queries must answer the same question, or the comparison means nothing
+    private void verifyCounter() throws SQLException {
+        try (PreparedStatement recount = connection.prepareStatement(RECOUNT_SQL)) {
+            for (int k = 0; k < 200; k++) {
+                long userId = userIds[k * (USERS / 200)];
+                recount.setLong(1, userId);
+                recount.setLong(2, userId);
+                try (ResultSet rs = recount.executeQuery()) {
+                    rs.next();
+                    if (rs.getLong(1) != rs.getLong(2)) {
+                        throw new IllegalStateException("pending count drifted for user " + userId
+                                + ": transfers say " + rs.getLong(1) + ", counter says " + rs.getLong(2));
+                    }
+                }
+            }
+        }
+    }
+
+    private static String loadScript() throws IOException {
+        try (InputStream in = PendingReviewLookupBenchmark.class.getResourceAsStream("/bench/pending-review-data.sql")) {
+            if (in == null) {
+                throw new IllegalStateException("bench/pending-review-data.sql is not on the classpath");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(PendingReviewLookupBenchmark.class.getSimpleName())
+                .jvmArgsAppend(
+                        "-Dbench.jdbc.url=" + System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/banking_bench"),
+                        "-Dbench.jdbc.user=" + System.getProperty("bench.jdbc.user", "banking"),
+                        "-Dbench.jdbc.password=" + System.getProperty("bench.jdbc.password", "banking"),
+                        "-Dbench.transfers=" + Long.getLong("bench.transfers", 10_000_000L))
+                .build()).run();
+    }
+}
@@ -0,0 +1,115 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+        "app.transfers.submission-mode=async",
+        "app.transfers.async.poll-interval-ms=20"
+})
+class TransferAsyncSubmissionIT extends IntegrationTestSupport {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void acceptedTransfersSettleInTheBackgroundAndOverdraftsAreRejected() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("async-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("async-recipient"), "Password123!");
+
+        String senderBearer = login(sender.email(), sender.password());
+        String recipientBearer = login(recipient.email(), recipient.password());
+        AdminUser admin = createAdminAndLogin();
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 5_000L);
+
+        long payeeId = createPayee(senderBearer, recipient.email(), "async recipient");
+
+        String prefix = "async-" + UUID.randomUUID() + "-";
+        JsonNode first;
+        JsonNode second;
+
+        // hold the worker off the sender account until both are accepted, else it may settle the
+        // first one before the second is checked (inserts only need a key-share lock, so they pass)
+        try (Connection lock = dataSource.getConnection()) {
+            lock.setAutoCommit(false);
+            try (PreparedStatement ps = lock.prepareStatement("select 1 from accounts where id = ? for no key update")) {
+                ps.setLong(1, sender.accountId());
+                ps.executeQuery();
+            }
+
+            first = accept(senderBearer, sender.accountId(), payeeId, 3_000L, prefix + "1");
+            second = accept(senderBearer, sender.accountId(), payeeId, 3_000L, prefix + "2");
+
+            lock.rollback();
+        }
+
+        assertThat(first.get("status").asText()).isEqualTo("INITIATED");
+        assertThat(second.get("status").asText()).isEqualTo("INITIATED");
+
+        // both passed the unlocked balance check; only one can settle
+        JsonNode firstSettled = awaitSettled(senderBearer, first.get("id").asLong());
+        JsonNode secondSettled = awaitSettled(senderBearer, second.get("id").asLong());
+
+        assertThat(firstSettled.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(secondSettled.get("status").asText()).isEqualTo("REJECTED");
+        assertThat(secondSettled.get("failureReason").asText()).isEqualTo("insufficient funds");
+
+        assertThat(accountRepository.findById(sender.accountId()).orElseThrow().getBalanceCents())
+                .isEqualTo(2_000L);
+        assertThat(accountRepository.findById(recipient.accountId()).orElseThrow().getBalanceCents())
+                .isEqualTo(3_000L);
+
+        // the recipient can see it too; a retry replays the settled state with 200
+        assertThat(awaitSettled(recipientBearer, first.get("id").asLong()).get("direction").asText())
+                .isEqualTo("RECEIVED");
+        JsonNode replay = sendTransfer(senderBearer, sender.accountId(), payeeId, 3_000L, prefix + "1");
+        assertThat(replay.get("id").asLong()).isEqualTo(first.get("id").asLong());
+        assertThat(replay.get("status").asText()).isEqualTo("COMPLETED");
+    }
+
+    private JsonNode accept(String bearer, Long fromAccountId, long payeeId, long amountCents, String key) throws Exception {
+        return postJson(
+                "/api/transfers",
+                bearer,
+                key,
+                Map.of(
+                        "fromAccountId", fromAccountId,
+                        "payeeId", payeeId,
+                        "amountCents", amountCents,
+                        "currency", "CAD"
+                ),
+                status().isAccepted()
+        );
+    }
+
+    private JsonNode awaitSettled(String bearer, long transferId) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            String content = mockMvc.perform(get("/api/transfers/{id}", transferId).header("Authorization", bearer))
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+
+            JsonNode body = objectMapper.readTree(content);
+            if (!"INITIATED".equals(body.get("status").asText())) {
+                return body;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("transfer " + transferId + " was not settled");
+    }
+}
@@ -0,0 +1,199 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import com.sarim.digitalbanking.risk.PayeeGraphIndex;
+import com.sarim.digitalbanking.risk.RiskModelService;
+import com.sarim.digitalbanking.risk.RiskRuleAction;
+import com.sarim.digitalbanking.risk.RiskRuleEngine;
+import com.sarim.digitalbanking.risk.RiskRuleEntity;
+import com.sarim.digitalbanking.risk.RiskRuleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "app.transfers.auto-review.enabled=true")
+class TransferAutoReviewIT extends IntegrationTestSupport {
+
+    private static final String GRAPH_RULE = "it_auto_review_fan_in";
+
+    @Autowired
+    private TransferAutoReviewService transferAutoReviewService;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransferSettlementService transferSettlementService;
+
+    @Autowired
+    private TransferAuditService transferAuditService;
+
+    @Autowired
+    private RiskRuleEngine riskRuleEngine;
+
+    @Autowired
+    private RiskModelService riskModelService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PayeeGraphIndex payeeGraphIndex;
+
+    @Autowired
+    private RiskRuleRepository riskRuleRepository;
+
+    @AfterEach
+    void removeGraphRule() {
+        riskRuleRepository.findByName(GRAPH_RULE).ifPresent(riskRuleRepository::delete);
+        riskRuleEngine.reloadIfChanged();
+    }
+
+    @Test
+    void holdsThatNoLongerScoreHighAreApprovedAfterTheCoolingOffWindow() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("auto-review-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("auto-review-recipient"), "Password123!");
+
+        String senderBearer = login(sender.email(), sender.password());
+        AdminUser admin = createAdminAndLogin();
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 2_000_000L);
+
+        long payeeId = createPayee(senderBearer, recipient.email(), "auto review recipient");
+        String prefix = "auto-review-" + UUID.randomUUID() + "-";
+
+        long large = heldTransferId(sendTransfer(senderBearer, sender.accountId(), payeeId, 600_000L, prefix + "large"));
+        // held only because of the large one: window total and pending hold
+        long small = heldTransferId(sendTransfer(senderBearer, sender.accountId(), payeeId, 10_000L, prefix + "small"));
+
+        mockMvc.perform(post("/api/admin/transfers/{id}/reject", large)
+                        .header("Authorization", admin.bearerToken()))
+                .andExpect(status().isOk());
+
+        long another = heldTransferId(sendTransfer(senderBearer, sender.accountId(), payeeId, 700_000L, prefix + "another"));
+
+        // still inside the cooling-off window: nothing of ours is touched
+        reviewAll();
+        assertThat(transferRepository.findById(small).orElseThrow().getStatus()).isEqualTo(TransferStatus.PENDING_REVIEW);
+
+        jdbcTemplate.update("update transfers set created_at = created_at - interval '1 hour' where id in (?, ?, ?)",
+                large, small, another);
+        reviewAll();
+
+        TransferEntity approved = transferRepository.findById(small).orElseThrow();
+        assertThat(approved.getStatus()).isEqualTo(TransferStatus.COMPLETED);
+        assertThat(approved.getRiskDecision()).isEqualTo("APPROVE");
+        assertThat(accountRepository.findById(recipient.accountId()).orElseThrow().getBalanceCents()).isEqualTo(10_000L);
+        assertThat(jdbcTemplate.queryForObject("""
+                select count(*) from audit_log
+                where action = 'TRANSFER_AUTO_APPROVE' and entity_id = ? and actor_user_id is null
+                """, Long.class, String.valueOf(small))).isEqualTo(1L);
+        assertThat(transferRepository.hasPendingReview(sender.userId())).isTrue();
+
+        // re-scored on what is live now: amount and window still fire, the approved hold no longer counts
+        TransferEntity kept = transferRepository.findById(another).orElseThrow();
+        assertThat(kept.getStatus()).isEqualTo(TransferStatus.PENDING_REVIEW);
+        assertThat(kept.getRiskScore()).isEqualTo(93);
+        assertThat(kept.getRiskReasons()).doesNotContain("pending review");
+
+        // and is not claimed again before the recheck delay
+        assertThat(jdbcTemplate.queryForObject(
+                "select auto_review_after > now() from transfers where id = ?", Boolean.class, another)).isTrue();
+    }
+
+    @Test
+    void aDisabledServiceClaimsNothingEvenWhenCalledDirectly() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("auto-review-off-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("auto-review-off-recipient"), "Password123!");
+
+        String senderBearer = login(sender.email(), sender.password());
+        AdminUser admin = createAdminAndLogin();
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 2_000_000L);
+
+        long payeeId = createPayee(senderBearer, recipient.email(), "auto review off recipient");
+        long held = heldTransferId(sendTransfer(senderBearer, sender.accountId(), payeeId, 600_000L,
+                "auto-review-off-" + UUID.randomUUID()));
+
+        // no cooling-off and a score limit everything passes: only the flag keeps it held
+        TransferAutoReviewService disabled = new TransferAutoReviewService(
+                transferRepository, accountRepository, transferSettlementService, transferAuditService,
+                riskRuleEngine, riskModelService, payeeGraphIndex, jdbcTemplate, transactionTemplate,
+                new SimpleMeterRegistry(),
+                false, 100, 0, 0, 100);
+
+        assertThat(disabled.reviewNextBatch()).isZero();
+        assertThat(transferRepository.findById(held).orElseThrow().getStatus()).isEqualTo(TransferStatus.PENDING_REVIEW);
+    }
+
+    @Test
+    void holdsFromAGraphRuleStayHeldWhileTheGraphStillMatches() throws Exception {
+        AdminUser admin = createAdminAndLogin();
+        RegisteredUser sender = registerUser(uniqueEmail("auto-review-graph-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("auto-review-graph-recipient"), "Password123!");
+        String prefix = "auto-review-graph-" + UUID.randomUUID() + "-";
+
+        // two other users already pay the recipient
+        for (int i = 0; i < 2; i++) {
+            RegisteredUser feeder = registerUser(uniqueEmail("auto-review-graph-feeder"), "Password123!");
+            adminDeposit(admin.bearerToken(), feeder.accountId(), 10_000L);
+            String feederBearer = login(feeder.email(), feeder.password());
+            long feederPayee = createPayee(feederBearer, recipient.email(), "graph recipient");
+            assertThat(sendTransfer(feederBearer, feeder.accountId(), feederPayee, 1_000L, prefix + "feeder-" + i)
+                    .get("status").asText()).isEqualTo("COMPLETED");
+        }
+        for (int i = 0; i < 100 && !payeeGraphIndex.ready(); i++) {
+            Thread.sleep(100);
+        }
+        payeeGraphIndex.refresh();
+
+        RiskRuleEntity rule = new RiskRuleEntity();
+        rule.setName(GRAPH_RULE);
+        rule.setPriority(45);
+        rule.setExpression("recipient_fan_in >= 2");
+        rule.setAction(RiskRuleAction.HOLD);
+        rule.setScore(90);
+        rule.setReason("recipient is paid by many users");
+        riskRuleRepository.saveAndFlush(rule);
+        riskRuleEngine.reloadIfChanged();
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 10_000L);
+        String senderBearer = login(sender.email(), sender.password());
+        long payeeId = createPayee(senderBearer, recipient.email(), "graph recipient");
+        long held = heldTransferId(sendTransfer(senderBearer, sender.accountId(), payeeId, 1_000L, prefix + "held"));
+
+        // only the graph rule matches: re-scored without the graph it would pass and be approved
+        jdbcTemplate.update("update transfers set created_at = created_at - interval '1 hour' where id = ?", held);
+        reviewAll();
+
+        TransferEntity kept = transferRepository.findById(held).orElseThrow();
+        assertThat(kept.getStatus()).isEqualTo(TransferStatus.PENDING_REVIEW);
+        assertThat(kept.getRiskReasons()).isEqualTo("recipient is paid by many users");
+        assertThat(accountRepository.findById(recipient.accountId()).orElseThrow().getBalanceCents()).isEqualTo(2_000L);
+    }
+
+    private void reviewAll() {
+        while (transferAutoReviewService.reviewNextBatch() > 0) {
+            // deferred rows drop out of the claim, so this ends once the queue is worked through
+        }
+    }
+
+    private static long heldTransferId(JsonNode transfer) {
+        assertThat(transfer.get("status").asText()).isEqualTo("PENDING_REVIEW");
+        return transfer.get("id").asLong();
+    }
+}
@@ -0,0 +1,79 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TransferBatchIT extends IntegrationTestSupport {
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Test
+    void batchReportsPerItemOutcomesAndReplaysOnResubmit() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("batch-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("batch-recipient"), "Password123!");
+
+        String senderBearer = login(sender.email(), sender.password());
+        AdminUser admin = createAdminAndLogin();
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 700_000L);
+
+        long payeeId = createPayee(senderBearer, recipient.email(), "batch recipient");
+
+        String prefix = "batch-" + UUID.randomUUID() + "-";
+        Map<String, Object> body = Map.of("items", List.of(
+                item(prefix + "1", sender.accountId(), payeeId, 1_000L),
+                item(prefix + "2", sender.accountId(), payeeId, 200_000L),
+                item(prefix + "3", sender.accountId(), payeeId, 300_000L),   // pushes the 10-minute window over $5,000
+                item(prefix + "3", sender.accountId(), payeeId, 5L),
+                item(prefix + "4", sender.accountId(), payeeId, 600_000L)    // earlier items used up the balance
+        ));
+
+        JsonNode first = postJson("/api/transfers/batch", senderBearer, prefix, body, status().isOk());
+
+        assertThat(first.get("completed").asInt()).isEqualTo(2);
+        assertThat(first.get("held").asInt()).isEqualTo(1);
+        assertThat(first.get("rejected").asInt()).isEqualTo(2);
+
+        JsonNode items = first.get("items");
+        assertThat(items.get(0).get("outcome").asText()).isEqualTo("COMPLETED");
+        assertThat(items.get(1).get("outcome").asText()).isEqualTo("COMPLETED");
+        assertThat(items.get(2).get("outcome").asText()).isEqualTo("HELD");
+        assertThat(items.get(2).get("transfer").get("status").asText()).isEqualTo("PENDING_REVIEW");
+        assertThat(items.get(3).get("error").asText()).isEqualTo("duplicate idempotencyKey in batch");
+        assertThat(items.get(4).get("error").asText()).isEqualTo("insufficient funds");
+
+        assertThat(accountRepository.findById(sender.accountId()).orElseThrow().getBalanceCents())
+                .isEqualTo(199_000L);
+        assertThat(accountRepository.findById(recipient.accountId()).orElseThrow().getBalanceCents())
+                .isEqualTo(201_000L);
+
+        JsonNode second = postJson("/api/transfers/batch", senderBearer, prefix, body, status().isOk());
+
+        assertThat(second.get("replayed").asInt()).isEqualTo(3);
+        assertThat(second.get("items").get(0).get("transfer")).isEqualTo(items.get(0).get("transfer"));
+        assertThat(transferRepository.findByIdempotencyKey(prefix + "4")).isEmpty();
+
+        assertThat(accountRepository.findById(sender.accountId()).orElseThrow().getBalanceCents())
+                .isEqualTo(199_000L);
+    }
+
+    private Map<String, Object> item(String key, Long fromAccountId, long payeeId, long amountCents) {
+        return Map.of(
+                "idempotencyKey", key,
+                "fromAccountId", fromAccountId,
+                "payeeId", payeeId,
+                "amountCents", amountCents,
+                "currency", "CAD"
+        );
+    }
+}
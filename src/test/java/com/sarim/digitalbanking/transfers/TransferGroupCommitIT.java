@@ -0,0 +1,86 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+        "app.transfers.group-commit.enabled=true",
+        "app.transfers.group-commit.window-ms=20"
+})
+class TransferGroupCommitIT extends IntegrationTestSupport {
+
+    @Test
+    void concurrentTransfersShareCommitsAndFailuresStayWithTheirOwnCaller() throws Exception {
+        RegisteredUser richSender = registerUser(uniqueEmail("gc-rich"), "Password123!");
+        RegisteredUser poorSender = registerUser(uniqueEmail("gc-poor"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("gc-recipient"), "Password123!");
+
+        String richBearer = login(richSender.email(), richSender.password());
+        String poorBearer = login(poorSender.email(), poorSender.password());
+        AdminUser admin = createAdminAndLogin();
+
+        adminDeposit(admin.bearerToken(), richSender.accountId(), 100_000L);
+
+        long richPayeeId = createPayee(richBearer, recipient.email(), "gc recipient");
+        long poorPayeeId = createPayee(poorBearer, recipient.email(), "gc recipient");
+
+        String prefix = "gc-" + UUID.randomUUID() + "-";
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<JsonNode>> ok = new ArrayList<>();
+            List<Future<JsonNode>> rejected = new ArrayList<>();
+
+            for (int i = 0; i < 8; i++) {
+                String key = prefix + "rich-" + i;
+                ok.add(pool.submit(() -> sendTransfer(richBearer, richSender.accountId(), richPayeeId, 1_000L, key)));
+            }
+            for (int i = 0; i < 2; i++) {
+                String key = prefix + "poor-" + i;
+                rejected.add(pool.submit(() -> postJson(
+                        "/api/transfers",
+                        poorBearer,
+                        key,
+                        Map.of(
+                                "fromAccountId", poorSender.accountId(),
+                                "payeeId", poorPayeeId,
+                                "amountCents", 1_000L,
+                                "currency", "CAD"
+                        ),
+                        status().isBadRequest()
+                )));
+            }
+
+            for (Future<JsonNode> f : ok) {
+                assertThat(f.get().get("status").asText()).isEqualTo("COMPLETED");
+            }
+            for (Future<JsonNode> f : rejected) {
+                assertThat(f.get().get("error").asText()).isEqualTo("insufficient funds");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(accountRepository.findById(richSender.accountId()).orElseThrow().getBalanceCents())
+                .isEqualTo(92_000L);
+        assertThat(accountRepository.findById(recipient.accountId()).orElseThrow().getBalanceCents())
+                .isEqualTo(8_000L);
+
+        JsonNode replay = sendTransfer(richBearer, richSender.accountId(), richPayeeId, 1_000L, prefix + "rich-0");
+        assertThat(replay.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(accountRepository.findById(richSender.accountId()).orElseThrow().getBalanceCents())
+                .isEqualTo(92_000L);
+    }
+}
@@ -0,0 +1,160 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import com.sarim.digitalbanking.idempotency.IdempotencyKeyRepository;
+import com.sarim.digitalbanking.idempotency.IdempotencyRequestHasher;
+import com.sarim.digitalbanking.transfers.api.CreateTransferRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TransferIdempotencyClaimIT extends IntegrationTestSupport {
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private IdempotencyRequestHasher idempotencyRequestHasher;
+
+    @Test
+    void retriesAreAnsweredFromTheRedisClaimAndCrashedClaimsAreTakenOver() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("claim-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("claim-recipient"), "Password123!");
+        AdminUser admin = createAdminAndLogin();
+        adminDeposit(admin.bearerToken(), sender.accountId(), 50_000L);
+
+        String senderBearer = login(sender.email(), sender.password());
+        long payeeId = createPayee(senderBearer, recipient.email(), "recipient");
+        Map<String, Object> request = Map.of(
+                "fromAccountId", sender.accountId(),
+                "payeeId", payeeId,
+                "amountCents", 1_500L,
+                "currency", "CAD"
+        );
+
+        // completed: the claim holds the response
+        String key = "claim-" + UUID.randomUUID();
+        JsonNode first = postJson("/api/transfers", senderBearer, key, request, status().isOk());
+        assertThat(redisTemplate.opsForValue().get("idem:" + key)).startsWith("C:");
+
+        // with the Postgres record gone, the replay can only have come from Redis
+        idempotencyKeyRepository.delete(idempotencyKeyRepository.findByKey(key).orElseThrow());
+        assertThat(postJson("/api/transfers", senderBearer, key, request, status().isOk())).isEqualTo(first);
+
+        assertThat(conflict(senderBearer, key,
+                Map.of("fromAccountId", sender.accountId(), "payeeId", payeeId, "amountCents", 1_600L, "currency", "CAD")))
+                .contains("different request");
+
+        // claimed by an instance that died: the retry waits for the claim to expire and takes over
+        String crashedKey = "claim-" + UUID.randomUUID();
+        redisTemplate.opsForValue().set("idem:" + crashedKey, "P:" + hash(sender, payeeId, 1_500L), Duration.ofMillis(500));
+
+        JsonNode recovered = postJson("/api/transfers", senderBearer, crashedKey, request, status().isOk());
+        assertThat(recovered.get("status").asText()).isEqualTo("COMPLETED");
+
+        // a failed request gives its key back
+        String failedKey = "claim-" + UUID.randomUUID();
+        postJson("/api/transfers", senderBearer, failedKey,
+                Map.of("fromAccountId", sender.accountId(), "payeeId", payeeId, "amountCents", 10_000_000L, "currency", "CAD"),
+                status().isBadRequest());
+        assertThat(redisTemplate.hasKey("idem:" + failedKey)).isFalse();
+
+        assertThat(accountRepository.findById(sender.accountId()).orElseThrow().getBalanceCents())
+                .isEqualTo(50_000L - 1_500L - 1_500L);
+    }
+
+    @Test
+    void concurrentDuplicatesShareOneRunLocallyAndAcrossInstances() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("coalesce-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("coalesce-recipient"), "Password123!");
+        AdminUser admin = createAdminAndLogin();
+        adminDeposit(admin.bearerToken(), sender.accountId(), 50_000L);
+
+        String senderBearer = login(sender.email(), sender.password());
+        long payeeId = createPayee(senderBearer, recipient.email(), "recipient");
+        Map<String, Object> request = Map.of(
+                "fromAccountId", sender.accountId(),
+                "payeeId", payeeId,
+                "amountCents", 2_000L,
+                "currency", "CAD"
+        );
+
+        // a retry storm on one instance: every duplicate gets the one response, none a 409
+        String key = "coalesce-" + UUID.randomUUID();
+        int duplicates = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(duplicates);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<JsonNode>> responses = new ArrayList<>();
+            for (int i = 0; i < duplicates; i++) {
+                responses.add(pool.submit(() -> {
+                    start.await();
+                    return postJson("/api/transfers", senderBearer, key, request, status().isOk());
+                }));
+            }
+            start.countDown();
+
+            JsonNode first = responses.get(0).get(30, TimeUnit.SECONDS);
+            for (Future<JsonNode> response : responses) {
+                assertThat(response.get(30, TimeUnit.SECONDS)).isEqualTo(first);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(accountRepository.findById(sender.accountId()).orElseThrow().getBalanceCents()).isEqualTo(48_000L);
+
+        // in flight on another instance: the duplicate waits for its completion message and
+        // answers with that instance's response without running the transfer itself
+        String remoteKey = "coalesce-" + UUID.randomUUID();
+        String hash = hash(sender, payeeId, 2_000L);
+        redisTemplate.opsForValue().set("idem:" + remoteKey, "P:" + hash, Duration.ofSeconds(30));
+        String remoteResponse = "{\"id\":424242,\"status\":\"COMPLETED\",\"amountCents\":2000,\"currency\":\"CAD\"}";
+
+        CompletableFuture.runAsync(() -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            redisTemplate.opsForValue().set("idem:" + remoteKey, "C:" + hash + ":" + remoteResponse, Duration.ofMinutes(1));
+            redisTemplate.convertAndSend("idem:done:" + remoteKey, "completed");
+        });
+
+        JsonNode joined = postJson("/api/transfers", senderBearer, remoteKey, request, status().isOk());
+        assertThat(joined.get("id").asLong()).isEqualTo(424242L);
+        assertThat(accountRepository.findById(sender.accountId()).orElseThrow().getBalanceCents()).isEqualTo(48_000L);
+    }
+
+    private String hash(RegisteredUser sender, long payeeId, long amountCents) {
+        return idempotencyRequestHasher.hashUserTransfer(sender.userId(),
+                new CreateTransferRequest(sender.accountId(), payeeId, amountCents, "CAD")).toHex();
+    }
+
+    private String conflict(String bearer, String key, Map<String, Object> request) throws Exception {
+        return mockMvc.perform(post("/api/transfers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Idempotency-Key", key)
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andReturn().getResponse().getErrorMessage();
+    }
+}
@@ -0,0 +1,81 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+        "app.transfers.lanes.enabled=true",
+        "app.transfers.lanes.count=2"
+})
+class TransferLaneIT extends IntegrationTestSupport {
+
+    @Test
+    void transfersIntoOneHotAccountAllSettleThroughTheLanes() throws Exception {
+        RegisteredUser merchant = registerUser(uniqueEmail("lane-merchant"), "Password123!");
+        AdminUser admin = createAdminAndLogin();
+
+        List<String> bearers = new ArrayList<>();
+        List<Long> accountIds = new ArrayList<>();
+        List<Long> payeeIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            RegisteredUser sender = registerUser(uniqueEmail("lane-sender"), "Password123!");
+            String bearer = login(sender.email(), sender.password());
+            adminDeposit(admin.bearerToken(), sender.accountId(), 10_000L);
+
+            bearers.add(bearer);
+            accountIds.add(sender.accountId());
+            payeeIds.add(createPayee(bearer, merchant.email(), "lane merchant"));
+        }
+
+        String prefix = "lane-" + UUID.randomUUID() + "-";
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<JsonNode>> results = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                int sender = i % 4;
+                String key = prefix + i;
+                results.add(pool.submit(() -> sendTransfer(
+                        bearers.get(sender), accountIds.get(sender), payeeIds.get(sender), 500L, key)));
+            }
+            for (Future<JsonNode> f : results) {
+                assertThat(f.get().get("status").asText()).isEqualTo("COMPLETED");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(accountRepository.findById(merchant.accountId()).orElseThrow().getBalanceCents())
+                .isEqualTo(6_000L);
+        for (Long accountId : accountIds) {
+            assertThat(accountRepository.findById(accountId).orElseThrow().getBalanceCents()).isEqualTo(8_500L);
+        }
+
+        // validation errors raised on the lane thread still reach the caller
+        JsonNode error = postJson(
+                "/api/transfers",
+                bearers.get(0),
+                prefix + "unknown-payee",
+                Map.of(
+                        "fromAccountId", accountIds.get(0),
+                        "payeeId", Long.MAX_VALUE,
+                        "amountCents", 500L,
+                        "currency", "CAD"
+                ),
+                status().isBadRequest()
+        );
+        assertThat(error.get("error").asText()).isEqualTo("payee not found");
+    }
+}
@@ -0,0 +1,83 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the Redis budget is raised so the slow call below is waited for instead of falling back
+@TestPropertySource(properties = {
+        "app.risk.velocity.redis-budget-ms=5000",
+        "app.risk.velocity.rehydrate.on-startup=off"
+})
+class TransferLockHoldIT extends IntegrationTestSupport {
+
+    private static final long REDIS_DELAY_MS = 300;
+
+    @SpyBean
+    private StringRedisTemplate spiedRedisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void restoreRedis() {
+        Mockito.reset(spiedRedisTemplate);
+    }
+
+    @Test
+    void slowRiskScoringIsPaidBeforeTheAccountLocksAreTaken() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("lockhold-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("lockhold-recipient"), "Password123!");
+        AdminUser admin = createAdminAndLogin();
+        adminDeposit(admin.bearerToken(), sender.accountId(), 10_000L);
+
+        String senderBearer = login(sender.email(), sender.password());
+        long payeeId = createPayee(senderBearer, recipient.email(), "recipient");
+
+        doAnswer(invocation -> {
+            Thread.sleep(REDIS_DELAY_MS);
+            return invocation.callRealMethod();
+        }).when(spiedRedisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(), anyList(), any(Object[].class));
+
+        assertThat(sendTransfer(senderBearer, sender.accountId(), payeeId, 1_000L, "lockhold-" + UUID.randomUUID())
+                .get("status").asText()).isEqualTo("COMPLETED");
+
+        // before the prepare/write split the velocity round trip ran under the row locks, so
+        // lock_held was at least the Redis delay; now it is only the locked re-check and writes
+        assertThat(stageMaxMs("risk")).isGreaterThanOrEqualTo(REDIS_DELAY_MS);
+        assertThat(stageMaxMs("lock_held")).isLessThan(REDIS_DELAY_MS);
+
+        mockMvc.perform(get("/actuator/metrics/transfers.stage").header(HttpHeaders.AUTHORIZATION, senderBearer))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics/transfers.stage").header(HttpHeaders.AUTHORIZATION, admin.bearerToken()))
+                .andExpect(status().isOk());
+    }
+
+    private double stageMaxMs(String stage) {
+        Timer timer = meterRegistry.find("transfers.stage")
+                .tags("operation", "create_transfer", "stage", stage)
+                .timer();
+        assertThat(timer).as("transfers.stage %s", stage).isNotNull();
+        return timer.max(TimeUnit.MILLISECONDS);
+    }
+}
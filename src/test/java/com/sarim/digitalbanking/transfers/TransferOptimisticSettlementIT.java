@@ -0,0 +1,84 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import com.sarim.digitalbanking.accounts.AccountEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+        "app.transfers.settlement-strategy=optimistic",
+        "app.transfers.optimistic.max-attempts=2"
+})
+class TransferOptimisticSettlementIT extends IntegrationTestSupport {
+
+    @Test
+    void concurrentTransfersFromOneAccountAllSettleExactlyOnce() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("occ-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("occ-recipient"), "Password123!");
+
+        String senderBearer = login(sender.email(), sender.password());
+        AdminUser admin = createAdminAndLogin();
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 100_000L);
+
+        long payeeId = createPayee(senderBearer, recipient.email(), "occ recipient");
+        long versionBefore = accountRepository.findById(sender.accountId()).orElseThrow().getVersion();
+
+        String prefix = "occ-" + UUID.randomUUID() + "-";
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<JsonNode>> results = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                String key = prefix + i;
+                results.add(pool.submit(() -> sendTransfer(senderBearer, sender.accountId(), payeeId, 1_000L, key)));
+            }
+            for (Future<JsonNode> f : results) {
+                assertThat(f.get().get("status").asText()).isEqualTo("COMPLETED");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        AccountEntity from = accountRepository.findById(sender.accountId()).orElseThrow();
+        assertThat(from.getBalanceCents()).isEqualTo(88_000L);
+        assertThat(from.getVersion()).isEqualTo(versionBefore + 12);
+        assertThat(accountRepository.findById(recipient.accountId()).orElseThrow().getBalanceCents())
+                .isEqualTo(12_000L);
+    }
+
+    @Test
+    void hotAccountsAreSettledWithRowLocks() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("occ-hot-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("occ-hot-recipient"), "Password123!");
+
+        String senderBearer = login(sender.email(), sender.password());
+        AdminUser admin = createAdminAndLogin();
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 10_000L);
+
+        mockMvc.perform(post("/api/admin/accounts/{id}/hot", sender.accountId())
+                        .param("hot", "true")
+                        .header("Authorization", admin.bearerToken()))
+                .andExpect(status().isOk());
+        assertThat(accountRepository.findById(sender.accountId()).orElseThrow().isHot()).isTrue();
+
+        long payeeId = createPayee(senderBearer, recipient.email(), "occ hot recipient");
+        JsonNode transfer = sendTransfer(senderBearer, sender.accountId(), payeeId, 2_500L, "occ-hot-" + UUID.randomUUID());
+
+        assertThat(transfer.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(accountRepository.findById(sender.accountId()).orElseThrow().getBalanceCents())
+                .isEqualTo(7_500L);
+    }
+}
@@ -0,0 +1,123 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import com.sarim.digitalbanking.audit.AuditLogRepository;
+import com.sarim.digitalbanking.ledger.LedgerEntryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "app.transfers.posting-engine=sql")
+class TransferPostingFunctionIT extends IntegrationTestSupport {
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Test
+    void singleCallPostingMovesMoneyWritesLedgerAndAuditAndReplaysOnSameKey() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("fn-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("fn-recipient"), "Password123!");
+
+        String senderBearer = login(sender.email(), sender.password());
+        AdminUser admin = createAdminAndLogin();
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 50_000L);
+
+        long payeeId = createPayee(senderBearer, recipient.email(), "fn recipient");
+
+        String transferKey = "fn-transfer-" + UUID.randomUUID();
+        JsonNode firstResponse = sendTransfer(senderBearer, sender.accountId(), payeeId, 2_500L, transferKey);
+        JsonNode secondResponse = sendTransfer(senderBearer, sender.accountId(), payeeId, 2_500L, transferKey);
+
+        assertThat(secondResponse).isEqualTo(firstResponse);
+        assertThat(firstResponse.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(firstResponse.get("fromEmail").asText()).isEqualTo(sender.email());
+        assertThat(firstResponse.get("toEmail").asText()).isEqualTo(recipient.email());
+        assertThat(firstResponse.get("direction").asText()).isEqualTo("SENT");
+
+        long transferId = firstResponse.get("id").asLong();
+
+        long ledgerEntries = ledgerEntryRepository.findAll().stream()
+                .filter(entry -> entry.getTransfer() != null)
+                .filter(entry -> Long.valueOf(transferId).equals(entry.getTransfer().getId()))
+                .count();
+        assertThat(ledgerEntries).isEqualTo(2);
+
+        long auditRows = auditLogRepository.findAll().stream()
+                .filter(log -> "TRANSFER_CREATE".equals(log.getAction()))
+                .filter(log -> String.valueOf(transferId).equals(log.getEntityId()))
+                .count();
+        assertThat(auditRows).isEqualTo(1);
+
+        assertThat(accountRepository.findById(sender.accountId()).orElseThrow().getBalanceCents())
+                .isEqualTo(47_500L);
+        assertThat(accountRepository.findById(recipient.accountId()).orElseThrow().getBalanceCents())
+                .isEqualTo(2_500L);
+    }
+
+    @Test
+    void singleCallPostingReservesFundsForHeldTransfer() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("fn-held-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("fn-held-recipient"), "Password123!");
+
+        String senderBearer = login(sender.email(), sender.password());
+        AdminUser admin = createAdminAndLogin();
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 700_000L);
+
+        long payeeId = createPayee(senderBearer, recipient.email(), "fn held recipient");
+
+        JsonNode response = sendTransfer(
+                senderBearer, sender.accountId(), payeeId, 600_000L, "fn-held-" + UUID.randomUUID());
+
+        assertThat(response.get("status").asText()).isEqualTo("PENDING_REVIEW");
+        assertThat(response.get("riskDecision").asText()).isEqualTo("HOLD");
+
+        TransferEntity stored = transferRepository.findById(response.get("id").asLong()).orElseThrow();
+        assertThat(stored.getStatus()).isEqualTo(TransferStatus.PENDING_REVIEW);
+
+        assertThat(accountRepository.findById(sender.accountId()).orElseThrow().getBalanceCents())
+                .isEqualTo(100_000L);
+        assertThat(accountRepository.findById(recipient.accountId()).orElseThrow().getBalanceCents())
+                .isEqualTo(0L);
+    }
+
+    @Test
+    void singleCallPostingRejectsInsufficientFundsWithoutWritingAnything() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("fn-poor-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("fn-poor-recipient"), "Password123!");
+
+        String senderBearer = login(sender.email(), sender.password());
+        long payeeId = createPayee(senderBearer, recipient.email(), "fn poor recipient");
+
+        String transferKey = "fn-poor-" + UUID.randomUUID();
+        JsonNode error = postJson(
+                "/api/transfers",
+                senderBearer,
+                transferKey,
+                Map.of(
+                        "fromAccountId", sender.accountId(),
+                        "payeeId", payeeId,
+                        "amountCents", 1_000L,
+                        "currency", "CAD"
+                ),
+                status().isBadRequest()
+        );
+
+        assertThat(error.get("error").asText()).isEqualTo("insufficient funds");
+        assertThat(transferRepository.findByIdempotencyKey(transferKey)).isEmpty();
+    }
+}
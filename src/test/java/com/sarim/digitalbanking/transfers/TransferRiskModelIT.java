@@ -0,0 +1,103 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import com.sarim.digitalbanking.risk.RiskModelService;
+import com.sarim.digitalbanking.risk.RiskVerdict;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransferRiskModelIT extends IntegrationTestSupport {
+
+    private static final Path MODEL_FILE;
+
+    static {
+        try {
+            MODEL_FILE = Files.createTempFile("transfer-model", ".json");
+            writeModel("it-high", 2.0, Instant.now().minusSeconds(60));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void modelProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.risk.model.mode", () -> "active");
+        registry.add("app.risk.model.location", () -> MODEL_FILE.toUri().toString());
+    }
+
+    @Autowired
+    private RiskModelService riskModelService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void heldTransfersCarryTheModelScoreAndTheModelIsSwappedWithoutRestart() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("risk-model-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("risk-model-recipient"), "Password123!");
+
+        String senderBearer = login(sender.email(), sender.password());
+        AdminUser admin = createAdminAndLogin();
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 2_000_000L);
+
+        long payeeId = createPayee(senderBearer, recipient.email(), "risk model recipient");
+        String prefix = "risk-model-" + UUID.randomUUID() + "-";
+
+        // sigmoid(2.0) = 0.88; the rules alone would have scored it 90
+        var held = sendTransfer(senderBearer, sender.accountId(), payeeId, 600_000L, prefix + "1");
+        assertThat(held.get("status").asText()).isEqualTo("PENDING_REVIEW");
+        assertThat(held.get("riskScore").asInt()).isEqualTo(88);
+        assertThat(riskModelService.modelVersion()).isEqualTo("it-high");
+
+        writeModel("it-low", -2.0, Instant.now().plusSeconds(60));
+        riskModelService.reloadIfChanged();
+        assertThat(riskModelService.modelVersion()).isEqualTo("it-low");
+
+        var next = sendTransfer(senderBearer, sender.accountId(), payeeId, 10_000L, prefix + "2");
+        assertThat(next.get("status").asText()).isEqualTo("PENDING_REVIEW");
+        assertThat(next.get("riskScore").asInt()).isEqualTo(12);
+
+        // a broken file keeps the model that is already loaded
+        Files.writeString(MODEL_FILE, "{ \"features\": [ { \"name\": \"no_such_feature\", \"weight\": 1, \"scale\": 1 } ] }");
+        Files.setLastModifiedTime(MODEL_FILE, FileTime.from(Instant.now().plusSeconds(120)));
+        riskModelService.reloadIfChanged();
+        assertThat(riskModelService.modelVersion()).isEqualTo("it-low");
+
+        // looking at a hold again scores it the same way without counting it a second time
+        double shadowBefore = shadowTotal();
+        long scoresBefore = meterRegistry.get("risk.model.scores").summary().count();
+        assertThat(riskModelService.rescore(new RiskVerdict(true, "amount", 90),
+                10_000L, 0L, payeeId, recipient.accountId(), Instant.now())).isEqualTo(12);
+        assertThat(shadowTotal()).isEqualTo(shadowBefore);
+        assertThat(meterRegistry.get("risk.model.scores").summary().count()).isEqualTo(scoresBefore);
+    }
+
+    private double shadowTotal() {
+        return meterRegistry.find("risk.model.shadow").counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private static void writeModel(String version, double bias, Instant modifiedAt) throws IOException {
+        Files.writeString(MODEL_FILE, """
+                { "version": "%s", "bias": %s,
+                  "features": [ { "name": "amount",         "weight": 0, "mean": 0, "scale": 1 },
+                                { "name": "payee_age_days", "weight": 0, "mean": 0, "scale": 1 },
+                                { "name": "fan_in",         "weight": 0, "mean": 0, "scale": 1 } ] }
+                """.formatted(version, bias));
+        Files.setLastModifiedTime(MODEL_FILE, FileTime.from(modifiedAt));
+    }
+}
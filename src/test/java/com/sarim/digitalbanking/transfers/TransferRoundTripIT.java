@@ -0,0 +1,112 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Round-trip benchmark for one POST /api/transfers: every statement execution, JDBC batch and
+ * commit issued on the request thread counts as one trip to Postgres.
+ *
+ * Measured on the JPA path: 18 before pooled sequences and batching (IDENTITY forced one INSERT
+ * per ledger row plus a refresh SELECT after the transfer insert, and the two balance UPDATEs went
+ * out separately), 15 after.
+ */
+@Import(TransferRoundTripIT.RoundTripCounting.class)
+class TransferRoundTripIT extends IntegrationTestSupport {
+
+    private static final int ROUND_TRIP_BUDGET = 15;
+
+    @Test
+    void singleTransferStaysWithinItsRoundTripBudget() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("rt-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("rt-recipient"), "Password123!");
+
+        String senderBearer = login(sender.email(), sender.password());
+        AdminUser admin = createAdminAndLogin();
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 10_000L);
+        long payeeId = createPayee(senderBearer, recipient.email(), "rt recipient");
+
+        // warm-up: first use of each query, sequence block allocation
+        sendTransfer(senderBearer, sender.accountId(), payeeId, 100L, "rt-" + UUID.randomUUID());
+
+        RoundTripCounting.start();
+        sendTransfer(senderBearer, sender.accountId(), payeeId, 100L, "rt-" + UUID.randomUUID());
+        int roundTrips = RoundTripCounting.stop();
+
+        assertThat(roundTrips)
+                .as("JDBC round trips for one transfer")
+                .isLessThanOrEqualTo(ROUND_TRIP_BUDGET);
+    }
+
+    @TestConfiguration
+    static class RoundTripCounting {
+
+        private static final Set<String> ROUND_TRIPS = Set.of(
+                "execute", "executeQuery", "executeUpdate", "executeLargeUpdate",
+                "executeBatch", "executeLargeBatch", "commit", "rollback"
+        );
+
+        private static final ThreadLocal<int[]> COUNTER = new ThreadLocal<>();
+
+        static void start() {
+            COUNTER.set(new int[1]);
+        }
+
+        static int stop() {
+            int count = COUNTER.get()[0];
+            COUNTER.remove();
+            return count;
+        }
+
+        @Bean
+        static BeanPostProcessor roundTripCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ds ? wrap(ds, DataSource.class) : bean;
+                }
+            };
+        }
+
+        // wraps DataSource -> Connection -> Statement, counting the calls that go to the server
+        @SuppressWarnings("unchecked")
+        private static <T> T wrap(T target, Class<T> type) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                int[] counter = COUNTER.get();
+                if (counter != null && ROUND_TRIPS.contains(method.getName())) {
+                    counter[0]++;
+                }
+
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+
+                if (result instanceof Connection c && method.getReturnType() == Connection.class) {
+                    return wrap(c, Connection.class);
+                }
+                if (result instanceof Statement s && Statement.class.isAssignableFrom(method.getReturnType())) {
+                    return wrap(s, (Class<Statement>) method.getReturnType());
+                }
+                return result;
+            });
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+
+@TestPropertySource(properties = {
+        "app.risk.velocity.redis-retry-ms=100",
+        "app.risk.velocity.rehydrate.on-startup=off"
+})
+class TransferVelocityFallbackIT extends IntegrationTestSupport {
+
+    @SpyBean
+    private StringRedisTemplate spiedRedisTemplate;
+
+    @AfterEach
+    void restoreRedis() {
+        Mockito.reset(spiedRedisTemplate);
+    }
+
+    @Test
+    void windowIsEnforcedLocallyWhileRedisIsDownAndCatchesUpAfterwards() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("velocity-fallback-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("velocity-fallback-recipient"), "Password123!");
+
+        String senderBearer = login(sender.email(), sender.password());
+        AdminUser admin = createAdminAndLogin();
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 1_000_000L);
+
+        long payeeId = createPayee(senderBearer, recipient.email(), "velocity fallback recipient");
+
+        doThrow(new RedisConnectionFailureException("simulated outage"))
+                .when(spiedRedisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(), anyList(), any(Object[].class));
+
+        String prefix = "velocity-fallback-" + UUID.randomUUID() + "-";
+        for (int i = 0; i < 11; i++) {
+            assertThat(sendTransfer(senderBearer, sender.accountId(), payeeId, 45_000L, prefix + i)
+                    .get("status").asText()).isEqualTo("COMPLETED");
+        }
+        assertThat(sendTransfer(senderBearer, sender.accountId(), payeeId, 45_000L, prefix + "over")
+                .get("status").asText()).isEqualTo("PENDING_REVIEW");
+
+        Mockito.reset(spiedRedisTemplate);
+
+        String key = "risk:velocity:buckets:user:" + sender.userId();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!"540000".equals(redisTemplate.opsForHash().get(key, "total")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(redisTemplate.opsForHash().get(key, "total")).isEqualTo("540000");
+    }
+}
@@ -0,0 +1,76 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+
+class TransferVelocityRehydrationIT extends IntegrationTestSupport {
+
+    @Autowired
+    private TransferVelocityRehydrationService rehydrationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void windowIsRebuiltFromPostgresAfterRedisLosesIt() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("rehydrate-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("rehydrate-recipient"), "Password123!");
+
+        String senderBearer = login(sender.email(), sender.password());
+        AdminUser admin = createAdminAndLogin();
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 1_000_000L);
+
+        long payeeId = createPayee(senderBearer, recipient.email(), "rehydrate recipient");
+
+        String prefix = "rehydrate-" + UUID.randomUUID() + "-";
+        sendTransfer(senderBearer, sender.accountId(), payeeId, 200_000L, prefix + "1");
+        sendTransfer(senderBearer, sender.accountId(), payeeId, 200_000L, prefix + "2");
+
+        try (var connection = Objects.requireNonNull(redisTemplate.getConnectionFactory()).getConnection()) {
+            connection.serverCommands().flushAll();
+        }
+
+        TransferVelocityRehydrationService.Result result = rehydrationService.rehydrate();
+        assertThat(result.users()).isGreaterThanOrEqualTo(1);
+
+        String key = "risk:velocity:buckets:user:" + sender.userId();
+        assertThat(redisTemplate.opsForHash().get(key, "total")).isEqualTo("400000");
+        assertThat(redisTemplate.hasKey(TransferVelocityRehydrationService.MARKER_KEY)).isTrue();
+
+        // running again next to what is already there does not double count
+        rehydrationService.rehydrate();
+        assertThat(redisTemplate.opsForHash().get(key, "total")).isEqualTo("400000");
+
+        assertThat(sendTransfer(senderBearer, sender.accountId(), payeeId, 150_000L, prefix + "3")
+                .get("status").asText()).isEqualTo("PENDING_REVIEW");
+    }
+
+    @Test
+    void gateModeFailsStartupWhenTheRebuildFails() {
+        JdbcTemplate failing = Mockito.mock(JdbcTemplate.class);
+        Mockito.doThrow(new DataAccessResourceFailureException("simulated outage"))
+                .when(failing).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        TransferVelocityRehydrationService gate = new TransferVelocityRehydrationService(
+                failing, transactionTemplate, redisTemplate, new SimpleMeterRegistry(), "gate", 100, 50, 5000);
+
+        // serving with an empty window is what gate mode exists to prevent
+        assertThatThrownBy(gate::onStartup).isInstanceOf(DataAccessResourceFailureException.class);
+    }
+}
@@ -0,0 +1,103 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TransferVelocityReservationIT extends IntegrationTestSupport {
+
+    @Test
+    void concurrentBurstCannotSettleMoreThanTheWindowCap() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("velocity-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("velocity-recipient"), "Password123!");
+
+        String senderBearer = login(sender.email(), sender.password());
+        AdminUser admin = createAdminAndLogin();
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 1_000_000L);
+
+        long payeeId = createPayee(senderBearer, recipient.email(), "velocity recipient");
+
+        // 12 x $450: only 11 fit under the $5,000 window
+        String prefix = "velocity-" + UUID.randomUUID() + "-";
+        ExecutorService pool = Executors.newFixedThreadPool(12);
+        List<JsonNode> transfers = new ArrayList<>();
+        try {
+            List<Future<JsonNode>> results = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                String key = prefix + i;
+                results.add(pool.submit(() -> sendTransfer(senderBearer, sender.accountId(), payeeId, 45_000L, key)));
+            }
+            for (Future<JsonNode> f : results) {
+                transfers.add(f.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long completedCents = transfers.stream()
+                .filter(t -> t.get("status").asText().equals("COMPLETED"))
+                .mapToLong(t -> t.get("amountCents").asLong())
+                .sum();
+        long held = transfers.stream().filter(t -> t.get("status").asText().equals("PENDING_REVIEW")).count();
+
+        assertThat(held).isGreaterThanOrEqualTo(1);
+        assertThat(completedCents).isLessThanOrEqualTo(500_000L);
+        assertThat(accountRepository.findById(recipient.accountId()).orElseThrow().getBalanceCents())
+                .isEqualTo(completedCents);
+        assertThat(windowTotal(sender.userId())).isEqualTo(540_000L);
+    }
+
+    @Test
+    void amountsThatDoNotSettleAreReleasedFromTheWindow() throws Exception {
+        RegisteredUser sender = registerUser(uniqueEmail("velocity-release-sender"), "Password123!");
+        RegisteredUser recipient = registerUser(uniqueEmail("velocity-release-recipient"), "Password123!");
+
+        String senderBearer = login(sender.email(), sender.password());
+        AdminUser admin = createAdminAndLogin();
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 350_000L);
+
+        long payeeId = createPayee(senderBearer, recipient.email(), "velocity release recipient");
+
+        String prefix = "velocity-release-" + UUID.randomUUID() + "-";
+        JsonNode batch = postJson("/api/transfers/batch", senderBearer, prefix, Map.of("items", List.of(
+                item(prefix + "1", sender.accountId(), payeeId, 300_000L),
+                item(prefix + "2", sender.accountId(), payeeId, 300_000L)     // insufficient funds
+        )), status().isOk());
+
+        assertThat(batch.get("completed").asInt()).isEqualTo(1);
+        assertThat(batch.get("rejected").asInt()).isEqualTo(1);
+        assertThat(windowTotal(sender.userId())).isEqualTo(300_000L);
+
+        JsonNode next = sendTransfer(senderBearer, sender.accountId(), payeeId, 50_000L, prefix + "3");
+        assertThat(next.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(windowTotal(sender.userId())).isEqualTo(350_000L);
+    }
+
+    private long windowTotal(Long userId) {
+        Object total = redisTemplate.opsForHash().get("risk:velocity:buckets:user:" + userId, "total");
+        return total == null ? 0L : Long.parseLong(total.toString());
+    }
+
+    private Map<String, Object> item(String key, Long fromAccountId, long payeeId, long amountCents) {
+        return Map.of(
+                "idempotencyKey", key,
+                "fromAccountId", fromAccountId,
+                "payeeId", payeeId,
+                "amountCents", amountCents,
+                "currency", "CAD"
+        );
+    }
+}
@@ -0,0 +1,89 @@
+package com.sarim.digitalbanking.transfers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sarim.digitalbanking.IntegrationTestSupport;
+import com.sarim.digitalbanking.risk.WatchlistEntryRepository;
+import com.sarim.digitalbanking.risk.WatchlistScreening;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// single transfers go through the group-commit pipeline here, which settles via TransferBatchService
+@TestPropertySource(properties = {
+        "app.transfers.group-commit.enabled=true",
+        "app.transfers.group-commit.window-ms=20"
+})
+class TransferWatchlistScreeningIT extends IntegrationTestSupport {
+
+    @Autowired
+    private WatchlistScreening watchlistScreening;
+
+    @Autowired
+    private WatchlistEntryRepository watchlistEntryRepository;
+
+    private Long entryId;
+
+    @AfterEach
+    void removeEntry() {
+        if (entryId != null) {
+            watchlistEntryRepository.deleteById(entryId);
+            watchlistScreening.reloadIfChanged();
+        }
+    }
+
+    @Test
+    void batchAndGroupCommitTransfersAreScreenedPerLeg() throws Exception {
+        AdminUser admin = createAdminAndLogin();
+        RegisteredUser sender = registerUser(uniqueEmail("screen-batch-sender"), "Password123!");
+        RegisteredUser clear = registerUser(uniqueEmail("screen-batch-clear"), "Password123!");
+        RegisteredUser listed = registerUser(uniqueEmail("screen-batch-listed"), "Password123!");
+
+        adminDeposit(admin.bearerToken(), sender.accountId(), 50_000L);
+        String senderBearer = login(sender.email(), sender.password());
+        long clearPayeeId = createPayee(senderBearer, clear.email(), "clear");
+        long listedPayeeId = createPayee(senderBearer, listed.email(), "listed");
+
+        // listed after the payee was added, so only the transfer-time screening can stop it
+        entryId = postJson("/api/admin/watchlist", admin.bearerToken(), "watchlist-" + UUID.randomUUID(),
+                Map.of("kind", "ACCOUNT", "value", String.valueOf(listed.accountId()), "reason", "integration test"),
+                status().isCreated()).get("id").asLong();
+        watchlistScreening.reloadIfChanged();
+
+        String prefix = "screen-batch-" + UUID.randomUUID() + "-";
+        JsonNode batch = postJson("/api/transfers/batch", senderBearer, prefix, Map.of("items", List.of(
+                item(prefix + "clear", sender.accountId(), clearPayeeId),
+                item(prefix + "listed", sender.accountId(), listedPayeeId)
+        )), status().isOk());
+
+        assertThat(batch.get("completed").asInt()).isEqualTo(1);
+        assertThat(batch.get("rejected").asInt()).isEqualTo(1);
+        assertThat(batch.get("items").get(1).get("outcome").asText()).isEqualTo("REJECTED");
+        assertThat(batch.get("items").get(1).get("error").asText()).isEqualTo("payee failed screening");
+
+        JsonNode single = postJson("/api/transfers", senderBearer, prefix + "single",
+                Map.of("fromAccountId", sender.accountId(), "payeeId", listedPayeeId, "amountCents", 1_000L, "currency", "CAD"),
+                status().isForbidden());
+        assertThat(single.get("error").asText()).isEqualTo("payee failed screening");
+
+        assertThat(accountRepository.findById(sender.accountId()).orElseThrow().getBalanceCents()).isEqualTo(49_000L);
+        assertThat(accountRepository.findById(listed.accountId()).orElseThrow().getBalanceCents()).isZero();
+    }
+
+    private Map<String, Object> item(String key, Long fromAccountId, long payeeId) {
+        return Map.of(
+                "idempotencyKey", key,
+                "fromAccountId", fromAccountId,
+                "payeeId", payeeId,
+                "amountCents", 1_000L,
+                "currency", "CAD"
+        );
+    }
+}
@@ -0,0 +1,33 @@
+-- Data for PendingReviewLookupBenchmark (user-015). Runs on a migrated schema; the benchmark
+-- substitutes ${users}, ${from} and ${to} and runs the transfers statement once per chunk of
+-- rows, so a 10M-row load commits in pieces. Safe to re-run: existing rows are kept.
+--
+-- ${users} bench users with one CAD account each (password hash '!': no login); transfers go
+-- between pseudo-random pairs of them, spread over ~115 days, and 1 in 2000 is PENDING_REVIEW,
+-- 1 in 97 REJECTED, the rest COMPLETED.
+
+insert into users (email, password_hash, role)
+select 'bench-pending-' || n || '@bench.local', '!', 'USER'
+from generate_series(1, ${users}) as n
+on conflict (email) do nothing;
+
+insert into accounts (user_id, currency, balance_cents, status)
+select u.id, 'CAD', 0, 'ACTIVE'
+from users u
+where u.email like 'bench-pending-%@bench.local'
+  and not exists (select 1 from accounts a where a.user_id = u.id);
+
+-- chunk
+insert into transfers (from_account_id, to_account_id, amount_cents, status, idempotency_key, created_at)
+select b.ids[1 + (g * 7919) % b.n],
+       b.ids[1 + (g * 104729 + 1) % b.n],
+       1000 + g % 50000,
+       case when g % 2000 = 0 then 'PENDING_REVIEW' when g % 97 = 0 then 'REJECTED' else 'COMPLETED' end,
+       'bench-pending-' || g,
+       now() - (g % 10000000) * interval '1 second'
+from (select array_agg(a.id order by a.id) as ids, count(*) as n
+        from accounts a
+        join users u on u.id = a.user_id
+       where u.email like 'bench-pending-%@bench.local') b,
+     generate_series(${from}::bigint, ${to}::bigint) as g
+on conflict (idempotency_key) do nothing;